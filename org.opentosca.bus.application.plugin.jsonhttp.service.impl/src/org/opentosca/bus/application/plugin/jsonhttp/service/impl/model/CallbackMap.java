@@ -0,0 +1,78 @@
+package org.opentosca.bus.application.plugin.jsonhttp.service.impl.model;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Map that manages the pending invocations of the JSON/HTTP-Plugin. The callback id is used as
+ * <tt>key</tt> of the map. The <tt>value</tt> is completed with the result the invoked application
+ * posts to the callback endpoint.
+ *
+ *
+ */
+public class CallbackMap {
+
+    private static final Map<String, CompletableFuture<String>> callbacks = new ConcurrentHashMap<>();
+
+
+    /**
+     * Registers an invocation which is about to be sent.
+     *
+     * @param id of the callback
+     */
+    public static void register(final String id) {
+        callbacks.put(id, new CompletableFuture<>());
+    }
+
+    /**
+     * Hands the result posted by the application over to the waiting invocation.
+     *
+     * @param id of the callback
+     * @param result the posted json result
+     * @return <tt>true</tt> if an invocation with the specified id is pending. Otherwise
+     *         <tt>false</tt>
+     */
+    public static boolean complete(final String id, final String result) {
+        final CompletableFuture<String> callback = callbacks.get(id);
+        return callback != null && callback.complete(result);
+    }
+
+    /**
+     * Waits until the application posted the result of the invocation.
+     *
+     * @param id of the callback
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return the posted result or <tt>null</tt> if none was posted in time
+     */
+    public static String await(final String id, final long timeoutMillis) {
+        final CompletableFuture<String> callback = callbacks.get(id);
+        if (callback == null) {
+            return null;
+        }
+        try {
+            return callback.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (final ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Removes the invocation once it has finished.
+     *
+     * @param id of the callback
+     */
+    public static void remove(final String id) {
+        if (id != null) {
+            callbacks.remove(id);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.model.CallbackMap;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.route.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CallbackProcessor of the Application Bus-JSON/HTTP-Plugin.<br>
+ * <br>
+ *
+ * This processor handles the results which invoked applications post to the callback endpoint and
+ * hands them over to the waiting invocation.
+ *
+ *
+ */
+public class CallbackProcessor implements Processor {
+
+    final private static Logger LOG = LoggerFactory.getLogger(CallbackProcessor.class);
+
+    @Override
+    public void process(final Exchange exchange) throws Exception {
+
+        final String id = exchange.getIn().getHeader(Route.CALLBACK_ID, String.class);
+        final String result = exchange.getIn().getBody(String.class);
+
+        CallbackProcessor.LOG.debug("Callback for invocation {} received: {}", id, result);
+
+        if (CallbackMap.complete(id, result)) {
+            exchange.getOut().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+        } else {
+            CallbackProcessor.LOG.debug("No pending invocation with callback id: {}", id);
+            exchange.getOut().setHeader(Exchange.HTTP_RESPONSE_CODE, 404);
+        }
+        exchange.getOut().setBody("");
+    }
+
+}
@@ -1,12 +1,15 @@
 package org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor;
 
 import java.util.LinkedHashMap;
+import java.util.UUID;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 import org.opentosca.bus.application.model.constants.ApplicationBusConstants;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.model.CallbackMap;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.route.Route;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,7 +17,8 @@ import org.slf4j.LoggerFactory;
  * RequestProcessor of the Application Bus-JSON/HTTP-Plugin.<br>
  * <br>
  *
- * This processor handles the incoming requests.
+ * This processor handles the incoming requests. Each request gets a callback URL the application
+ * can post the result of an asynchronous invocation to instead of waiting to be polled.
  *
  *
  *
@@ -37,10 +41,15 @@ public class RequestProcessor implements Processor {
 
         final LinkedHashMap<String, Object> params = exchange.getIn().getBody(LinkedHashMap.class);
 
+        final String callbackID = UUID.randomUUID().toString();
+        CallbackMap.register(callbackID);
+        exchange.getIn().setHeader(Route.CALLBACK_ID, callbackID);
+
         // JSON body creation
         final JSONObject infoJSON = new JSONObject();
         infoJSON.put("class", className);
         infoJSON.put("operation", operationName);
+        infoJSON.put("callback", Route.PUBLIC_CALLBACK_ENDPOINT.replace(Route.CALLBACK_ID_PLACEHOLDER, callbackID));
 
         final LinkedHashMap<String, Object> finalJSON = new LinkedHashMap<>();
         finalJSON.put("invocation-information", infoJSON);
@@ -0,0 +1,50 @@
+package org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.model.CallbackMap;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.route.Route;
+import org.opentosca.container.core.common.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WaitProcessor of the Application Bus-JSON/HTTP-Plugin.<br>
+ * <br>
+ *
+ * This processor waits for the result of a pending invocation before the application is polled
+ * again. If the application posts the result to the callback endpoint, the wait ends immediately
+ * and the result is used without polling. Otherwise the delay until the next poll doubles each time,
+ * starting at <tt>org.opentosca.bus.application.polling.min</tt> and up to
+ * <tt>org.opentosca.bus.application.polling.max</tt> milliseconds.
+ *
+ *
+ */
+public class WaitProcessor implements Processor {
+
+    final private static Logger LOG = LoggerFactory.getLogger(WaitProcessor.class);
+
+    private static final long MIN_DELAY = Long.parseLong(Settings.OPENTOSCA_BUS_APPLICATION_POLLING_MIN);
+    private static final long MAX_DELAY = Long.parseLong(Settings.OPENTOSCA_BUS_APPLICATION_POLLING_MAX);
+
+    @Override
+    public void process(final Exchange exchange) throws Exception {
+
+        final String id = exchange.getIn().getHeader(Route.CALLBACK_ID, String.class);
+        final Long lastDelay = exchange.getIn().getHeader(Route.POLLING_DELAY, Long.class);
+        final long delay = lastDelay == null ? MIN_DELAY : Math.min(lastDelay * 2, MAX_DELAY);
+
+        WaitProcessor.LOG.debug("Waiting up to {} ms for the result of invocation {}.", delay, id);
+
+        final String result = CallbackMap.await(id, delay);
+
+        if (result != null) {
+            WaitProcessor.LOG.debug("Result of invocation {} received by callback.", id);
+            exchange.getIn().setHeader(Route.CALLBACK_RECEIVED, true);
+            exchange.getIn().setBody(result);
+        } else {
+            exchange.getIn().setHeader(Route.POLLING_DELAY, delay);
+        }
+    }
+
+}
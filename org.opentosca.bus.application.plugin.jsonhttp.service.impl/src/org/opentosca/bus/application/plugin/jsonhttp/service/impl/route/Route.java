@@ -8,8 +8,12 @@ import org.apache.camel.builder.SimpleBuilder;
 import org.opentosca.bus.application.model.constants.ApplicationBusConstants;
 import org.opentosca.bus.application.model.exception.ApplicationBusExternalException;
 import org.opentosca.bus.application.plugin.jsonhttp.service.impl.ApplicationBusJsonHttpPluginServiceImpl;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.model.CallbackMap;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor.CallbackProcessor;
 import org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor.RequestProcessor;
 import org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor.ResponseProcessor;
+import org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor.WaitProcessor;
+import org.opentosca.container.core.common.Settings;
 
 /**
  * Route of the Application Bus-JSON/HTTP-Plugin.<br>
@@ -17,7 +21,11 @@ import org.opentosca.bus.application.plugin.jsonhttp.service.impl.processor.Resp
  *
  * The endpoint of the JSON/HTTP-Plugin is created here. The Application Bus uses this endpoint to
  * send the needed information to invoke an application. The request and response processing as well
- * as the invocation itself are also handled in this route.
+ * as the invocation itself are also handled in this route.<br>
+ * <br>
+ *
+ * Applications can post the result of an asynchronous invocation to the callback endpoint, which
+ * completes the invocation right away. Otherwise the application is polled with a growing delay.
  *
  *
  *
@@ -34,6 +42,17 @@ public class Route extends RouteBuilder {
     // dummy endpoint; will be overwritten by HTTP_URI header
     private static final String DUMMY_ENDPOINT = "http://dummyhost?throwExceptionOnFailure=false";
 
+    public static final String CALLBACK_ID = "callbackID";
+    public static final String CALLBACK_ID_PLACEHOLDER = "{" + CALLBACK_ID + "}";
+    private static final String CALLBACK_PATH = "/OTABPlugin/v1/jsonhttp/callbacks/" + CALLBACK_ID_PLACEHOLDER;
+    private static final String CALLBACK_ENDPOINT = "http://0.0.0.0:8089" + CALLBACK_PATH;
+    public static final String PUBLIC_CALLBACK_ENDPOINT =
+        "http://" + Settings.OPENTOSCA_CONTAINER_HOSTNAME + ":8089" + CALLBACK_PATH;
+
+    // headers used while waiting for the result of an invocation
+    public static final String CALLBACK_RECEIVED = "callbackReceived";
+    public static final String POLLING_DELAY = "pollingDelay";
+
     @Override
     public void configure() throws Exception {
 
@@ -47,8 +66,13 @@ public class Route extends RouteBuilder {
 
         final RequestProcessor requestProcessor = new RequestProcessor();
         final ResponseProcessor responseProcessor = new ResponseProcessor();
+        final WaitProcessor waitProcessor = new WaitProcessor();
+        final CallbackProcessor callbackProcessor = new CallbackProcessor();
 
-        from(ApplicationBusJsonHttpPluginServiceImpl.ENDPOINT).process(requestProcessor)
+        from(ApplicationBusJsonHttpPluginServiceImpl.ENDPOINT).onCompletion()
+                                                              .bean(CallbackMap.class,
+                                                                    "remove(${header." + CALLBACK_ID + "})")
+                                                              .end().process(requestProcessor)
                                                               .setHeader(Exchange.HTTP_METHOD, constant("POST"))
                                                               .setHeader(Exchange.CONTENT_TYPE,
                                                                          constant("application/json"))
@@ -56,14 +80,21 @@ public class Route extends RouteBuilder {
                                                               .to(DUMMY_ENDPOINT).choice()
                                                               .when(header(Exchange.HTTP_RESPONSE_CODE).isEqualTo(202))
                                                               .setHeader(Exchange.HTTP_URI, POLL_ENDPOINT)
-                                                              .to("direct:polling").endChoice().otherwise()
+                                                              .to("direct:waitForResult").endChoice().otherwise()
                                                               .to("direct:throwException");
 
+        // wait for the callback, poll if it did not arrive in time
+        from("direct:waitForResult").process(waitProcessor).choice().when(header(CALLBACK_RECEIVED).isEqualTo(true))
+                                    .process(responseProcessor).endChoice().otherwise().to("direct:polling");
+
         from("direct:polling").setHeader(Exchange.HTTP_METHOD, constant("GET")).to(DUMMY_ENDPOINT)
-                              .convertBodyTo(String.class).choice().when(PENDING).delay(5000).to("direct:polling")
+                              .convertBodyTo(String.class).choice().when(PENDING).to("direct:waitForResult")
                               .endChoice().when(RESULT_RECEIVED).process(responseProcessor).endChoice().otherwise()
                               .to("direct:throwException");
 
+        from("restlet:" + CALLBACK_ENDPOINT + "?restletMethods=post").process(callbackProcessor)
+                                                                     .removeHeaders("*");
+
         from("direct:throwException").process(exchange -> exchange.getIn().setBody(new ApplicationBusExternalException(
             exchange.getIn().getBody(String.class))));
 
@@ -0,0 +1,197 @@
+package org.opentosca.bus.application.service.impl.model;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
+
+/**
+ * Cache of the information needed to invoke an operation of an application.<br>
+ * <br>
+ *
+ * The information taken from the TOSCA definitions of a CSAR (relative endpoint, port, invocation
+ * type, implementing class and the NodeTemplate hosting the application) do not change and are
+ * kept until they are evicted. The resulting endpoints depend on the instance data, e.g., the IP
+ * of the hosting NodeTemplate instance, and are only used as long as no instance data of their
+ * ServiceInstance was written since they were resolved.
+ *
+ * Both maps hold at most <tt>org.opentosca.bus.application.endpoints.cache.max</tt> entries and
+ * drop the least recently used ones first.
+ *
+ */
+public class EndpointCache {
+
+    private static final int MAX_SIZE = Integer.parseInt(Settings.OPENTOSCA_BUS_APPLICATION_ENDPOINT_CACHE_SIZE);
+
+    private static final Map<List<Object>, ToscaInformation> toscaInformation = createMap();
+
+    private static final Map<List<Object>, Endpoint> endpoints = createMap();
+
+
+    /**
+     * @param csarID
+     * @param serviceTemplateID
+     * @param nodeType
+     * @param nodeTemplateID
+     * @param interfaceName
+     * @return the cached TOSCA information or <tt>null</tt> if there are none
+     */
+    public static ToscaInformation getToscaInformation(final CSARID csarID, final QName serviceTemplateID,
+                                                       final QName nodeType, final String nodeTemplateID,
+                                                       final String interfaceName) {
+        return toscaInformation.get(Arrays.asList(csarID, serviceTemplateID, nodeType, nodeTemplateID,
+                                                  interfaceName));
+    }
+
+    /**
+     * @param csarID
+     * @param serviceTemplateID
+     * @param nodeType
+     * @param nodeTemplateID
+     * @param interfaceName
+     * @param information the information to cache
+     */
+    public static void putToscaInformation(final CSARID csarID, final QName serviceTemplateID, final QName nodeType,
+                                           final String nodeTemplateID, final String interfaceName,
+                                           final ToscaInformation information) {
+        toscaInformation.put(Arrays.asList(csarID, serviceTemplateID, nodeType, nodeTemplateID, interfaceName),
+                             information);
+    }
+
+    /**
+     * @param serviceInstanceID
+     * @param nodeInstanceID
+     * @param nodeTemplateID
+     * @param interfaceName
+     * @return the cached endpoint or <tt>null</tt> if there is none or instance data of its
+     *         ServiceInstance changed since it was resolved
+     */
+    public static Endpoint getEndpoint(final Integer serviceInstanceID, final Integer nodeInstanceID,
+                                       final String nodeTemplateID, final String interfaceName) {
+        final List<Object> key = Arrays.asList(serviceInstanceID, nodeInstanceID, nodeTemplateID, interfaceName);
+        final Endpoint endpoint = endpoints.get(key);
+        if (endpoint != null && endpoint.instanceDataVersion != InstanceChangeListener
+            .getServiceTemplateInstanceVersion(endpoint.serviceTemplateInstanceID)) {
+            endpoints.remove(key);
+            return null;
+        }
+        return endpoint;
+    }
+
+    /**
+     * @param serviceInstanceID
+     * @param nodeInstanceID
+     * @param nodeTemplateID
+     * @param interfaceName
+     * @param endpoint the resolved endpoint to cache
+     */
+    public static void putEndpoint(final Integer serviceInstanceID, final Integer nodeInstanceID,
+                                   final String nodeTemplateID, final String interfaceName,
+                                   final Endpoint endpoint) {
+        endpoints.put(Arrays.asList(serviceInstanceID, nodeInstanceID, nodeTemplateID, interfaceName), endpoint);
+    }
+
+    private static <V> Map<List<Object>, V> createMap() {
+        return Collections.synchronizedMap(new LinkedHashMap<List<Object>, V>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<List<Object>, V> eldest) {
+                return size() > MAX_SIZE;
+            }
+        });
+    }
+
+    /**
+     * Information about an application interface taken from the TOSCA definitions.
+     */
+    public static class ToscaInformation {
+
+        private final String relativeEndpoint;
+        private final Integer port;
+        private final String invocationType;
+        private final String className;
+        private final String hostedOnNodeTemplateID;
+
+
+        public ToscaInformation(final String relativeEndpoint, final Integer port, final String invocationType,
+                                final String className, final String hostedOnNodeTemplateID) {
+            this.relativeEndpoint = relativeEndpoint;
+            this.port = port;
+            this.invocationType = invocationType;
+            this.className = className;
+            this.hostedOnNodeTemplateID = hostedOnNodeTemplateID;
+        }
+
+        public String getRelativeEndpoint() {
+            return this.relativeEndpoint;
+        }
+
+        public Integer getPort() {
+            return this.port;
+        }
+
+        public String getInvocationType() {
+            return this.invocationType;
+        }
+
+        public String getClassName() {
+            return this.className;
+        }
+
+        public String getHostedOnNodeTemplateID() {
+            return this.hostedOnNodeTemplateID;
+        }
+    }
+
+    /**
+     * A resolved endpoint together with the version of the instance data it was resolved from.
+     */
+    public static class Endpoint {
+
+        private final URL url;
+        private final String invocationType;
+        private final String className;
+        private final Long serviceTemplateInstanceID;
+        private final long instanceDataVersion;
+
+
+        /**
+         * @param url of the application
+         * @param invocationType
+         * @param className
+         * @param serviceTemplateInstanceID the ID of the ServiceInstance the endpoint was resolved from
+         * @param instanceDataVersion the {@link InstanceChangeListener#getServiceTemplateInstanceVersion(Long)}
+         *        of the ServiceInstance read before the endpoint was resolved
+         */
+        public Endpoint(final URL url, final String invocationType, final String className,
+                        final Long serviceTemplateInstanceID, final long instanceDataVersion) {
+            this.url = url;
+            this.invocationType = invocationType;
+            this.className = className;
+            this.serviceTemplateInstanceID = serviceTemplateInstanceID;
+            this.instanceDataVersion = instanceDataVersion;
+        }
+
+        public URL getUrl() {
+            return this.url;
+        }
+
+        public String getInvocationType() {
+            return this.invocationType;
+        }
+
+        public String getClassName() {
+            return this.className;
+        }
+    }
+}
@@ -1,19 +1,32 @@
 package org.opentosca.bus.application.service.impl.model;
 
-import java.util.concurrent.ConcurrentHashMap;
+import org.opentosca.container.core.common.ResultStore;
 
 /**
  *
  * Map that manages the invocation results. RequestID is used as <tt>key</tt> of the map. The
  * <tt>value</tt> of the map is the result of the invocation. Or <tt>null</tt> if the invocation
  * failed.
+ * <p>
+ * The results are held by a bounded {@link ResultStore} shared with the {@link QueueMap}, so
+ * results which are never fetched expire instead of being kept forever.
  *
  * @author Michael Zimmermann - zimmerml@studi.informatik.uni-stuttgart.de
  *
  */
 public class ResultMap {
 
-    private static ConcurrentHashMap<String, Object> invocations = new ConcurrentHashMap<>();
+    // results of other types, e.g. exceptions of failed invocations, are dropped instead of spilled
+    private static final ResultStore<Object> invocations =
+        ResultStore.fromSettings("application-bus", String.class, Boolean.class, Character.class, Byte.class,
+                                 Short.class, Integer.class, Long.class, Float.class, Double.class);
+
+    /**
+     * @return the store holding the state and the results of all requests
+     */
+    public static ResultStore<Object> getStore() {
+        return invocations;
+    }
 
     /**
      * @param id of the request
@@ -37,7 +50,7 @@ public class ResultMap {
      * @return <tt>true</tt> if the map contains the specified requestID. Otherwise <tt>false</tt>
      */
     public static boolean containsID(final String id) {
-        return invocations.containsKey(id);
+        return invocations.hasResult(id);
     }
 
     /**
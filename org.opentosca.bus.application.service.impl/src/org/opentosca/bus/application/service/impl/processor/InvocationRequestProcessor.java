@@ -11,11 +11,13 @@ import org.apache.camel.Processor;
 import org.opentosca.bus.application.model.constants.ApplicationBusConstants;
 import org.opentosca.bus.application.model.exception.ApplicationBusInternalException;
 import org.opentosca.bus.application.service.impl.ContainerProxy;
+import org.opentosca.bus.application.service.impl.model.EndpointCache;
 import org.opentosca.bus.application.service.impl.route.InvokeOperationRoute;
 import org.opentosca.bus.application.service.impl.servicehandler.ApplicationBusPluginServiceHandler;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.model.instance.NodeInstance;
 import org.opentosca.container.core.model.instance.ServiceInstance;
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Node;
@@ -63,73 +65,27 @@ public class InvocationRequestProcessor implements Processor {
         final String operationName = message.getHeader(ApplicationBusConstants.OPERATION_NAME.toString(), String.class);
         InvocationRequestProcessor.LOG.debug("operationName: {}", operationName);
 
-        String invocationType = null;
-        String className = null;
-        URL endpoint = null;
-
-        final NodeInstance nodeInstance =
-            ContainerProxy.getNodeInstance(serviceInstanceID, nodeInstanceID, nodeTemplateID);
-
-        if (nodeInstance != null) {
-
-            final QName nodeType = nodeInstance.getNodeType();
-            final ServiceInstance serviceInstance = nodeInstance.getServiceInstance();
-            final CSARID csarID = serviceInstance.getCSAR_ID();
-            final QName serviceTemplateID = serviceInstance.getServiceTemplateID();
+        EndpointCache.Endpoint resolved =
+            EndpointCache.getEndpoint(serviceInstanceID, nodeInstanceID, nodeTemplateID, interfaceName);
 
-            if (nodeTemplateID == null) {
-                nodeTemplateID = nodeInstance.getNodeTemplateID().getLocalPart();
+        if (resolved != null) {
+            InvocationRequestProcessor.LOG.debug("Using cached endpoint: {}", resolved.getUrl());
+        } else {
+            resolved = resolveEndpoint(serviceInstanceID, nodeInstanceID, nodeTemplateID, interfaceName);
+            if (resolved != null) {
+                EndpointCache.putEndpoint(serviceInstanceID, nodeInstanceID, nodeTemplateID, interfaceName,
+                                          resolved);
             }
+        }
 
-            InvocationRequestProcessor.LOG.debug("Matching NodeInstance found: ID: " + nodeInstance.getNodeInstanceID()
-                + " CSAR-ID: " + csarID + " ServiceTemplateID: " + serviceTemplateID + " NodeTemplateID: "
-                + nodeTemplateID + " of type: " + nodeType);
-
-            final Node properties = ContainerProxy.getPropertiesNode(csarID, nodeType, interfaceName);
-
-            if (properties != null) {
-
-                final String relativeHostEndpoint = ContainerProxy.getRelativeEndpoint(properties);
-                final Integer port = ContainerProxy.getPort(properties);
-                invocationType = ContainerProxy.getInvocationType(properties);
-                className = ContainerProxy.getClass(properties, interfaceName);
-
-                if (relativeHostEndpoint != null && port != null && invocationType != null && className != null) {
-
-                    final String hostedOnNodeTemplateID =
-                        ContainerProxy.getHostedOnNodeTemplateWithSpecifiedIPProperty(csarID, serviceTemplateID,
-                                                                                      nodeTemplateID);
-
-                    if (hostedOnNodeTemplateID != null) {
-
-                        // get the Namespace from the
-                        // serviceTemplate
-                        final QName hostedOnNodeTemplateQName =
-                            new QName(serviceTemplateID.getNamespaceURI(), hostedOnNodeTemplateID);
-
-                        final URL hostedOnNodeURL =
-                            ContainerProxy.getIpFromInstanceDataProperties(serviceInstance.getServiceInstanceID(),
-                                                                           hostedOnNodeTemplateQName);
-
-                        if (hostedOnNodeURL != null) {
-
-                            InvocationRequestProcessor.LOG.debug("Generating endpoint for Node: {}", nodeTemplateID);
-
-                            try {
-                                endpoint = new URL(hostedOnNodeURL.getProtocol(), hostedOnNodeURL.getAuthority(), port,
-                                    relativeHostEndpoint);
-                                InvocationRequestProcessor.LOG.debug("Generated endpoint: " + endpoint);
+        URL endpoint = null;
+        String invocationType = null;
+        String className = null;
 
-                            }
-                            catch (final MalformedURLException e) {
-                                InvocationRequestProcessor.LOG.error("Generating endpoint for Node: {} failed!",
-                                                                     nodeTemplateID);
-                                e.printStackTrace();
-                            }
-                        }
-                    }
-                }
-            }
+        if (resolved != null) {
+            endpoint = resolved.getUrl();
+            invocationType = resolved.getInvocationType();
+            className = resolved.getClassName();
         }
 
         if (endpoint != null) {
@@ -161,4 +117,102 @@ public class InvocationRequestProcessor implements Processor {
 
     }
 
+    /**
+     * Determines the endpoint of the NodeTemplate of which the specified method should be invoked.
+     * The information taken from the TOSCA definitions are cached across invocations.
+     *
+     * @return the resolved endpoint or <tt>null</tt> if not all needed information could be found
+     */
+    private EndpointCache.Endpoint resolveEndpoint(final Integer serviceInstanceID, final Integer nodeInstanceID,
+                                                   String nodeTemplateID, final String interfaceName) {
+
+        final NodeInstance nodeInstance =
+            ContainerProxy.getNodeInstance(serviceInstanceID, nodeInstanceID, nodeTemplateID);
+
+        if (nodeInstance == null) {
+            return null;
+        }
+
+        final QName nodeType = nodeInstance.getNodeType();
+        final ServiceInstance serviceInstance = nodeInstance.getServiceInstance();
+        final CSARID csarID = serviceInstance.getCSAR_ID();
+        final QName serviceTemplateID = serviceInstance.getServiceTemplateID();
+
+        // the instance data version of the service instance has to be read before its instance data,
+        // so changes made in between invalidate the cached endpoint
+        final Long serviceTemplateInstanceID = (long) serviceInstance.getDBId();
+        final long instanceDataVersion =
+            InstanceChangeListener.getServiceTemplateInstanceVersion(serviceTemplateInstanceID);
+
+        if (nodeTemplateID == null) {
+            nodeTemplateID = nodeInstance.getNodeTemplateID().getLocalPart();
+        }
+
+        InvocationRequestProcessor.LOG.debug("Matching NodeInstance found: ID: " + nodeInstance.getNodeInstanceID()
+            + " CSAR-ID: " + csarID + " ServiceTemplateID: " + serviceTemplateID + " NodeTemplateID: "
+            + nodeTemplateID + " of type: " + nodeType);
+
+        EndpointCache.ToscaInformation information =
+            EndpointCache.getToscaInformation(csarID, serviceTemplateID, nodeType, nodeTemplateID, interfaceName);
+
+        if (information == null) {
+
+            final Node properties = ContainerProxy.getPropertiesNode(csarID, nodeType, interfaceName);
+
+            if (properties == null) {
+                return null;
+            }
+
+            final String relativeHostEndpoint = ContainerProxy.getRelativeEndpoint(properties);
+            final Integer port = ContainerProxy.getPort(properties);
+            final String invocationType = ContainerProxy.getInvocationType(properties);
+            final String className = ContainerProxy.getClass(properties, interfaceName);
+
+            if (relativeHostEndpoint == null || port == null || invocationType == null || className == null) {
+                return null;
+            }
+
+            final String hostedOnNodeTemplateID =
+                ContainerProxy.getHostedOnNodeTemplateWithSpecifiedIPProperty(csarID, serviceTemplateID,
+                                                                              nodeTemplateID);
+
+            if (hostedOnNodeTemplateID == null) {
+                return null;
+            }
+
+            information = new EndpointCache.ToscaInformation(relativeHostEndpoint, port, invocationType, className,
+                hostedOnNodeTemplateID);
+            EndpointCache.putToscaInformation(csarID, serviceTemplateID, nodeType, nodeTemplateID, interfaceName,
+                                              information);
+        }
+
+        // get the Namespace from the
+        // serviceTemplate
+        final QName hostedOnNodeTemplateQName =
+            new QName(serviceTemplateID.getNamespaceURI(), information.getHostedOnNodeTemplateID());
+
+        final URL hostedOnNodeURL =
+            ContainerProxy.getIpFromInstanceDataProperties(serviceInstance.getServiceInstanceID(),
+                                                           hostedOnNodeTemplateQName);
+
+        if (hostedOnNodeURL == null) {
+            return null;
+        }
+
+        InvocationRequestProcessor.LOG.debug("Generating endpoint for Node: {}", nodeTemplateID);
+
+        try {
+            final URL endpoint = new URL(hostedOnNodeURL.getProtocol(), hostedOnNodeURL.getAuthority(),
+                information.getPort(), information.getRelativeEndpoint());
+            InvocationRequestProcessor.LOG.debug("Generated endpoint: " + endpoint);
+            return new EndpointCache.Endpoint(endpoint, information.getInvocationType(), information.getClassName(),
+                serviceTemplateInstanceID, instanceDataVersion);
+        }
+        catch (final MalformedURLException e) {
+            InvocationRequestProcessor.LOG.error("Generating endpoint for Node: {} failed!", nodeTemplateID);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
 }
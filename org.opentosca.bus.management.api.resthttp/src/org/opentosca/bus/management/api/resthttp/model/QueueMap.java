@@ -1,14 +1,13 @@
 package org.opentosca.bus.management.api.resthttp.model;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  *
  * Map that manages the status of the requests. RequestID is used as <tt>key</tt> of the map. The
- * <tt>value</tt> of the map indicates if the invocation has finished or not.
+ * <tt>value</tt> of the map indicates if the invocation has finished or not. The state is kept in
+ * the store of the {@link ResultMap}.
  *
  * @author Michael Zimmermann - zimmerml@iaas.uni-stuttgart.de
  *
@@ -17,8 +16,6 @@ public class QueueMap {
 
     final private static Logger LOG = LoggerFactory.getLogger(QueueMap.class);
 
-    private static ConcurrentHashMap<String, Boolean> queue = new ConcurrentHashMap<>();
-
     /**
      * Inserts an entry into the queue (if not already existing) and set it to finished.
      *
@@ -28,7 +25,7 @@ public class QueueMap {
 
         QueueMap.LOG.debug("Request with ID: {} has finished.", id);
 
-        queue.put(id, true);
+        ResultMap.getStore().finished(id);
     }
 
     /**
@@ -40,7 +37,7 @@ public class QueueMap {
 
         QueueMap.LOG.debug("Request with ID: {} hasn't finished yet.", id);
 
-        queue.putIfAbsent(id, false);
+        ResultMap.getStore().notFinished(id);
     }
 
     /**
@@ -53,7 +50,11 @@ public class QueueMap {
 
         QueueMap.LOG.debug("RequestID: {}, isFinished: {}", id, isFinished);
 
-        queue.put(id, isFinished);
+        if (isFinished) {
+            ResultMap.getStore().finished(id);
+        } else {
+            ResultMap.getStore().notFinished(id);
+        }
     }
 
     /**
@@ -62,7 +63,7 @@ public class QueueMap {
      */
     public static boolean hasFinished(final String id) {
 
-        return queue.get(id);
+        return ResultMap.getStore().hasFinished(id);
     }
 
     /**
@@ -70,7 +71,7 @@ public class QueueMap {
      * @return <tt>true</tt> if the queue contains the specified requestID. Otherwise <tt>false</tt>
      */
     public static boolean containsID(final String id) {
-        return queue.containsKey(id);
+        return ResultMap.getStore().containsID(id);
     }
 
     /**
@@ -79,7 +80,7 @@ public class QueueMap {
      * @param id of the request
      */
     public static void remove(final String id) {
-        queue.remove(id);
+        ResultMap.getStore().remove(id);
     }
 
 }
@@ -1,24 +1,44 @@
 package org.opentosca.bus.management.api.resthttp.model;
 
 import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.opentosca.container.core.common.ResultStore;
+import org.opentosca.container.core.common.Settings;
 
 /**
  *
  * Map that manages the invocation results. RequestID is used as <tt>key</tt> of the map. The
  * <tt>value</tt> of the map is the result of the invocation. Or <tt>null</tt> if the invocation
  * failed.
+ * <p>
+ * The results are held by a bounded {@link ResultStore} shared with the {@link QueueMap}, so
+ * results which are never fetched expire instead of being kept forever.
+ * <p>
+ * Requests waiting for a result hold a worker thread of the restlet server, so only
+ * <tt>org.opentosca.bus.results.waiters.max</tt> of them wait at the same time.
  *
  * @author Michael Zimmermann - zimmerml@iaas.uni-stuttgart.de
  *
  */
 public class ResultMap {
 
-    private static ConcurrentHashMap<String, HashMap<String, String>> invocations = new ConcurrentHashMap<>();
+    private static final ResultStore<HashMap<String, String>> invocations =
+        ResultStore.fromSettings("management-bus-rest", HashMap.class, String.class);
+
+    private static final Semaphore waiters =
+        new Semaphore(Integer.parseInt(Settings.OPENTOSCA_BUS_RESULTS_MAX_WAITERS));
+
+    /**
+     * @return the store holding the state and the results of all requests
+     */
+    public static ResultStore<HashMap<String, String>> getStore() {
+        return invocations;
+    }
 
     /**
      * @param id of the request
-     * @param result of the invocation.
+     * @param result result of the invocation.
      */
     public static void put(final String id, final HashMap<String, String> result) {
         invocations.put(id, result);
@@ -38,7 +58,33 @@ public class ResultMap {
      * @return <tt>true</tt> if the map contains the specified requestID. Otherwise <tt>false</tt>
      */
     public static boolean containsID(final String id) {
-        return invocations.containsKey(id);
+        return invocations.hasResult(id);
+    }
+
+    /**
+     * Waits until the invocation of the specified request has finished. The waiting time is capped by
+     * the <tt>org.opentosca.bus.results.wait.max</tt> setting. If the maximum number of requests are
+     * waiting already, the current state is returned at once.
+     *
+     * @param id of the request
+     * @param waitSeconds the time in seconds the caller is willing to wait
+     * @return <tt>true</tt> if the invocation has finished. Otherwise <tt>false</tt>
+     */
+    public static boolean awaitFinished(final String id, final long waitSeconds) {
+        if (!waiters.tryAcquire()) {
+            return invocations.hasFinished(id);
+        }
+        final long seconds = Math.min(waitSeconds, Long.parseLong(Settings.OPENTOSCA_BUS_RESULTS_MAX_WAIT));
+        try {
+            return invocations.awaitFinished(id, seconds * 1000);
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return invocations.hasFinished(id);
+        }
+        finally {
+            waiters.release();
+        }
     }
 
     /**
@@ -49,6 +49,9 @@ public class GetResultProcessor implements Processor {
         } else if (!QueueMap.containsID(requestID)) {
             GetResultProcessor.LOG.warn("Unknown RequestID: {}", requestID);
             exchange.getIn().setBody(new Exception("Unknown RequestID: " + requestID));
+        } else if (!QueueMap.hasFinished(requestID)) {
+            GetResultProcessor.LOG.debug("Invocation of request {} has not finished yet.", requestID);
+            exchange.getIn().setBody(new Exception("Invocation not finished yet. RequestID: " + requestID));
         } else {
             GetResultProcessor.LOG.warn("Error while invoking specified method.");
             exchange.getIn().setBody(new Exception("Error while invoking specified method."));
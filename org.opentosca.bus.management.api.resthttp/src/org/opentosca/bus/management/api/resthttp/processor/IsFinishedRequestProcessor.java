@@ -2,6 +2,7 @@ package org.opentosca.bus.management.api.resthttp.processor;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.opentosca.bus.management.api.resthttp.model.ResultMap;
 import org.opentosca.bus.management.api.resthttp.route.InvocationRoute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,13 @@ public class IsFinishedRequestProcessor implements Processor {
 
         IsFinishedRequestProcessor.LOG.debug("RequestID: {}", requestID);
 
+        // long-polling: hold the request until the invocation has finished or the wait time elapsed
+        final Long wait = exchange.getIn().getHeader(InvocationRoute.WAIT, Long.class);
+        if (requestID != null && wait != null && wait > 0) {
+            IsFinishedRequestProcessor.LOG.debug("Waiting up to {} seconds for request {} to finish.", wait, requestID);
+            ResultMap.awaitFinished(requestID.toString(), wait);
+        }
+
         exchange.getIn().setBody(requestID);
 
     }
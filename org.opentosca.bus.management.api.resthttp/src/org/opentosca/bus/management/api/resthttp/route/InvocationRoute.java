@@ -39,6 +39,9 @@ public class InvocationRoute extends RouteBuilder {
     public static final String POLL_ENDPOINT = INVOKE_ENDPOINT + "/activeRequests/" + ID_PLACEHODLER;
     public static final String GET_RESULT_ENDPOINT = POLL_ENDPOINT + "/response";
 
+    // optional query parameter of the poll endpoints: seconds to wait for the invocation to finish
+    public static final String WAIT = "wait";
+
     // Management Bus Endpoints
     private static final String MANAGEMENT_BUS_IA =
         "bean:org.opentosca.bus.management.service.IManagementBusService?method=invokeIA";
@@ -88,9 +91,9 @@ public class InvocationRoute extends RouteBuilder {
         this.from("direct:toManagementBus").choice().when(INVOKE_IA).to(MANAGEMENT_BUS_IA).when(INVOKE_PLAN)
             .to(MANAGEMENT_BUS_PLAN).end();
 
-        // invoke response route
+        // invoke response route, storing the result also marks the request as finished and wakes up
+        // long-polling requests
         this.from("direct-vm:" + Activator.apiID)
-            .bean(QueueMap.class, "finished(${header." + MANAGEMENT_BUS_REQUEST_ID_HEADER + "})")
             .bean(ResultMap.class, "put(${header." + MANAGEMENT_BUS_REQUEST_ID_HEADER + "}, ${body})").stop();
 
     }
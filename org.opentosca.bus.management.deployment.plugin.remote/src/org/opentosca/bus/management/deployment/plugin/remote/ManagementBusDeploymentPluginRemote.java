@@ -4,6 +4,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
@@ -46,7 +47,12 @@ public class ManagementBusDeploymentPluginRemote implements IManagementBusDeploy
 
         // perform remote deployment
         final Exchange response =
-            RequestSender.sendRequestToRemoteContainer(message, RemoteOperations.INVOKE_IA_DEPLOYMENT, requestBody, 0);
+            RequestSender.sendRequestToRemoteContainer(message, RemoteOperations.INVOKE_IA_DEPLOYMENT, requestBody);
+
+        if (Objects.isNull(response)) {
+            LOG.error("Received no response for the remote deployment request!");
+            return exchange;
+        }
 
         // extract the endpoint URI from the response
         final URI endpointURI = response.getIn().getHeader(MBHeader.ENDPOINT_URI.toString(), URI.class);
@@ -68,8 +74,13 @@ public class ManagementBusDeploymentPluginRemote implements IManagementBusDeploy
 
         // perform remote undeployment
         final Exchange response =
-            RequestSender.sendRequestToRemoteContainer(message, RemoteOperations.INVOKE_IA_UNDEPLOYMENT, requestBody,
-                                                       0);
+            RequestSender.sendRequestToRemoteContainer(message, RemoteOperations.INVOKE_IA_UNDEPLOYMENT, requestBody);
+
+        if (Objects.isNull(response)) {
+            LOG.error("Received no response for the remote undeployment request!");
+            message.setHeader(MBHeader.OPERATIONSTATE_BOOLEAN.toString(), false);
+            return exchange;
+        }
 
         // extract the undeployment state from the response
         final boolean state = response.getIn().getHeader(MBHeader.OPERATIONSTATE_BOOLEAN.toString(), boolean.class);
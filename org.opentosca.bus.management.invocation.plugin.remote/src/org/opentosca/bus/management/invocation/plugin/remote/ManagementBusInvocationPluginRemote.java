@@ -56,7 +56,12 @@ public class ManagementBusInvocationPluginRemote implements IManagementBusInvoca
 
         // perform remote IA operation
         final Exchange responseExchange =
-            RequestSender.sendRequestToRemoteContainer(message, RemoteOperations.INVOKE_IA_OPERATION, request, 0);
+            RequestSender.sendRequestToRemoteContainer(message, RemoteOperations.INVOKE_IA_OPERATION, request);
+
+        if (Objects.isNull(responseExchange)) {
+            LOG.error("Received no response for the invocation request!");
+            return exchange;
+        }
 
         LOG.debug("Received a response for the invocation request!");
 
@@ -1,12 +1,19 @@
 package org.opentosca.bus.management.invocation.plugin.script;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.xml.namespace.QName;
@@ -18,6 +25,7 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.opentosca.bus.management.header.MBHeader;
 import org.opentosca.bus.management.invocation.plugin.IManagementBusInvocationPluginService;
+import org.opentosca.bus.management.invocation.plugin.script.hashhandler.ArtifactHashHandler;
 import org.opentosca.bus.management.invocation.plugin.script.servicehandler.ServiceHandler;
 import org.opentosca.bus.management.invocation.plugin.script.typeshandler.ArtifactTypesHandler;
 import org.opentosca.bus.management.utils.MBUtils;
@@ -59,6 +67,13 @@ public class ManagementBusInvocationPluginScript implements IManagementBusInvoca
 
     final private static String RUN_SCRIPT_OUTPUT_PARAMETER_NAME = "ScriptResult";
 
+    // printed after each artifact if all artifacts of an operation run in one script invocation
+    final private static String ARTIFACT_OUTPUT_SEPARATOR = "OPENTOSCA_ARTIFACT_FINISHED";
+
+    // printed by the check of the artifact cache on the target machine
+    final private static String ARTIFACT_CACHE_MISSING = "OPENTOSCA_ARTIFACT_MISSING=";
+    final private static String ARTIFACT_CACHE_CHECKED = "OPENTOSCA_ARTIFACT_CACHE_CHECKED";
+
     final private static Logger LOG = LoggerFactory.getLogger(ManagementBusInvocationPluginScript.class);
 
 
@@ -199,84 +214,87 @@ public class ManagementBusInvocationPluginScript implements IManagementBusInvoca
 
                         final String targetBasePath = "~/" + csarID.getFileName();
 
-                        // upload and execute all contained artifacts
-                        for (final String artifactRef : artifactReferences) {
+                        // the command and the environment are the same for all artifacts, only the
+                        // file placeholders differ
+                        final String artifactTypeCommand =
+                            createArtifcatTypeSpecificCommandString(csarID, artifactType, artifactTemplateID, params);
+                        final String environment =
+                            createDANamePathMapEnvVar(csarID, serviceTemplateID, nodeTypeID, nodeTemplateID) + " CSAR='"
+                                + csarID + "' NodeInstanceID='" + nodeInstanceID + "' ServiceInstanceID='"
+                                + serviceInstanceID + "' ";
+                        final String paramsString = createParamsString(params);
+
+                        // content hashes of the artifacts if the artifact cache of the target machine
+                        // is used and the hashes of the artifacts which are available in it and
+                        // therefore must not be uploaded
+                        final Map<String, String> artifactHashes =
+                            Boolean.parseBoolean(Settings.OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE)
+                                ? getArtifactHashes(csarID, artifactReferences) : Collections.emptyMap();
+                        final Set<String> cachedHashes = getCachedArtifacts(artifactHashes.values(), headers);
 
-                            final String fileSource =
-                                Settings.CONTAINER_API + "/csars/" + csarID.getFileName() + "/content/" + artifactRef;
+                        if (Boolean.parseBoolean(Settings.OPENTOSCA_BUS_SCRIPT_BUNDLE_ARTIFACTS)
+                            && !artifactReferences.isEmpty()) {
 
-                            final String targetFilePath = targetBasePath + "/" + artifactRef;
+                            runArtifactsBundled(csarID, artifactTemplateID, artifactReferences, artifactHashes,
+                                                cachedHashes, targetBasePath, artifactTypeCommand, environment,
+                                                paramsString, headers, resultMap, outputParameters);
 
-                            final String targetFileFolderPath = FilenameUtils.getFullPathNoEndSeparator(targetFilePath);
+                        } else {
 
-                            final String createDirCommand = "sleep 1 && mkdir -p " + targetFileFolderPath;
+                            // upload and execute all contained artifacts
+                            for (final String artifactRef : artifactReferences) {
 
-                            ManagementBusInvocationPluginScript.LOG.debug("Uploading file: {}", fileSource);
+                                final String targetFilePath = targetBasePath + "/" + artifactRef;
 
-                            // create directory before uploading file
-                            runScript(createDirCommand, headers);
+                                final String hash = artifactHashes.get(artifactRef);
 
-                            // upload file
-                            transferFile(csarID, artifactTemplateID, fileSource, targetFilePath, headers);
+                                if (hash != null && cachedHashes.contains(hash)) {
+                                    ManagementBusInvocationPluginScript.LOG.debug("Using cached file: {}", hash);
+                                } else {
+                                    final String fileSource = Settings.CONTAINER_API + "/csars/"
+                                        + csarID.getFileName() + "/content/" + artifactRef;
 
-                            ManagementBusInvocationPluginScript.LOG.debug("File successfully uploaded.");
+                                    final String targetFileFolderPath =
+                                        FilenameUtils.getFullPathNoEndSeparator(targetFilePath);
 
-                            // run script
-                            ManagementBusInvocationPluginScript.LOG.debug("Running script...");
+                                    final String createDirCommand = "sleep 1 && mkdir -p " + targetFileFolderPath;
 
-                            final String fileNameWithE = FilenameUtils.getName(targetFilePath);
-                            final String fileNameWithoutE = FilenameUtils.getBaseName(targetFilePath);
+                                    ManagementBusInvocationPluginScript.LOG.debug("Uploading file: {}", fileSource);
 
-                            String artifactTypeSpecificCommand =
-                                createArtifcatTypeSpecificCommandString(csarID, artifactType, artifactTemplateID,
-                                                                        params);
+                                    // create directory before uploading file
+                                    runScript(createDirCommand, headers);
 
-                            ManagementBusInvocationPluginScript.LOG.debug("Replacing further generic placeholder...");
+                                    // upload file
+                                    transferFile(csarID, artifactTemplateID, fileSource, targetFilePath, headers);
 
-                            // replace placeholders
-                            artifactTypeSpecificCommand =
-                                artifactTypeSpecificCommand.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_PATH,
-                                                                    targetFilePath);
-                            artifactTypeSpecificCommand =
-                                artifactTypeSpecificCommand.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_FOLDER_PATH,
-                                                                    targetFileFolderPath);
-                            artifactTypeSpecificCommand =
-                                artifactTypeSpecificCommand.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_NAME_WITH_EXTENSION,
-                                                                    fileNameWithE);
-                            artifactTypeSpecificCommand =
-                                artifactTypeSpecificCommand.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_NAME_WITHOUT_EXTENSION,
-                                                                    fileNameWithoutE);
-                            artifactTypeSpecificCommand =
-                                artifactTypeSpecificCommand.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_DA_NAME_PATH_MAP,
-                                                                    createDANamePathMapEnvVar(csarID, serviceTemplateID,
-                                                                                              nodeTypeID, nodeTemplateID)
-                                                                        + " CSAR='" + csarID + "' NodeInstanceID='"
-                                                                        + nodeInstanceID + "' ServiceInstanceID='"
-                                                                        + serviceInstanceID + "' ");
-                            artifactTypeSpecificCommand =
-                                artifactTypeSpecificCommand.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_DA_INPUT_PARAMETER,
-                                                                    createParamsString(params));
+                                    ManagementBusInvocationPluginScript.LOG.debug("File successfully uploaded.");
+                                }
 
-                            // delete the uploaded file on the remote site to save resources
-                            final String deleteFileCommand = "; rm -f " + targetFilePath;
-                            artifactTypeSpecificCommand = artifactTypeSpecificCommand + deleteFileCommand;
+                                // run script
+                                ManagementBusInvocationPluginScript.LOG.debug("Running script...");
 
-                            ManagementBusInvocationPluginScript.LOG.debug("Final command for the script execution: {}",
-                                                                          artifactTypeSpecificCommand);
+                                final String artifactTypeSpecificCommand =
+                                    createArtifactCacheCommand(hash, cachedHashes, targetFilePath)
+                                        + createArtifactCommand(artifactTypeCommand, targetFilePath,
+                                                                environment, paramsString);
 
-                            final Object result = runScript(artifactTypeSpecificCommand, headers);
+                                ManagementBusInvocationPluginScript.LOG.debug("Final command for the script execution: {}",
+                                                                              artifactTypeSpecificCommand);
 
-                            ManagementBusInvocationPluginScript.LOG.debug("Script execution result: {}", result);
+                                final Object result = runScript(artifactTypeSpecificCommand, headers);
 
-                            // check for output parameters in the script result and add them to the
-                            // operation result
-                            addOutputParametersToResultMap(resultMap, result, outputParameters);
-                        }
+                                ManagementBusInvocationPluginScript.LOG.debug("Script execution result: {}", result);
 
-                        // remove the created directories
-                        ManagementBusInvocationPluginScript.LOG.debug("Deleting directories...");
-                        final String deleteDirsCommand = "find " + targetBasePath + " -empty -type d -delete";
-                        runScript(deleteDirsCommand, headers);
+                                // check for output parameters in the script result and add them to the
+                                // operation result
+                                addOutputParametersToResultMap(resultMap, result, outputParameters);
+                            }
+
+                            // remove the created directories
+                            ManagementBusInvocationPluginScript.LOG.debug("Deleting directories...");
+                            final String deleteDirsCommand = "find " + targetBasePath + " -empty -type d -delete";
+                            runScript(deleteDirsCommand, headers);
+                        }
 
                         ManagementBusInvocationPluginScript.LOG.debug("All artifacts are executed. Returning result to the Management Bus...");
 
@@ -302,6 +320,246 @@ public class ManagementBusInvocationPluginScript implements IManagementBusInvoca
         return exchange;
     }
 
+    /**
+     * Uploads all artifacts as one archive and runs them within a single script invocation, so the
+     * number of operating system IA invocations does not depend on the number of artifacts. The
+     * output of the artifacts is separated by a marker line and evaluated per artifact in the same
+     * order as in the one-by-one mode. Artifacts which are available in the artifact cache of the
+     * target machine are copied from there instead of being part of the archive.
+     */
+    private void runArtifactsBundled(final CSARID csarID, final QName artifactTemplateID,
+                                     final List<String> artifactReferences, final Map<String, String> artifactHashes,
+                                     final Set<String> cachedHashes, final String targetBasePath,
+                                     final String artifactTypeCommand, final String environment,
+                                     final String paramsString, final HashMap<String, Object> headers,
+                                     final Map<String, String> resultMap, final List<String> outputParameters) {
+
+        final List<String> uploadedArtifacts =
+            artifactReferences.stream().filter(ref -> !cachedHashes.contains(artifactHashes.get(ref)))
+                              .collect(Collectors.toList());
+
+        final StringBuilder script = new StringBuilder();
+
+        if (!uploadedArtifacts.isEmpty()) {
+            final String archiveSource = createArchiveSource(csarID, uploadedArtifacts);
+            final String archivePath = "~/" + csarID.getFileName() + "-" + UUID.randomUUID() + ".tar";
+
+            ManagementBusInvocationPluginScript.LOG.debug("Uploading {} artifacts as one archive: {}",
+                                                          uploadedArtifacts.size(), archiveSource);
+
+            transferFile(csarID, artifactTemplateID, archiveSource, archivePath, headers);
+
+            script.append("mkdir -p " + targetBasePath + " && tar -xf " + archivePath + " -C " + targetBasePath
+                + "; rm -f " + archivePath + "; ");
+        }
+
+        for (final String artifactRef : artifactReferences) {
+            final String targetFilePath = targetBasePath + "/" + artifactRef;
+            final String cacheCommand =
+                createArtifactCacheCommand(artifactHashes.get(artifactRef), cachedHashes, targetFilePath);
+            final String command =
+                createArtifactCommand(artifactTypeCommand, targetFilePath, environment, paramsString);
+            script.append("(" + cacheCommand + command + "); echo " + ARTIFACT_OUTPUT_SEPARATOR + "; ");
+        }
+        script.append("find " + targetBasePath + " -empty -type d -delete");
+
+        ManagementBusInvocationPluginScript.LOG.debug("Final command for the script execution: {}", script);
+
+        final Object result = runScript(script.toString(), headers);
+
+        ManagementBusInvocationPluginScript.LOG.debug("Script execution result: {}", result);
+
+        // evaluate the output of every artifact on its own, like in the one-by-one mode
+        final String scriptResult = getScriptResult(result);
+        if (scriptResult != null) {
+            for (final String artifactOutput : scriptResult.split(ARTIFACT_OUTPUT_SEPARATOR)) {
+                final HashMap<String, Object> artifactResult = new HashMap<>();
+                artifactResult.put(ManagementBusInvocationPluginScript.RUN_SCRIPT_OUTPUT_PARAMETER_NAME,
+                                   artifactOutput);
+                addOutputParametersToResultMap(resultMap, artifactResult, outputParameters);
+            }
+        } else {
+            addOutputParametersToResultMap(resultMap, result, outputParameters);
+        }
+    }
+
+    /**
+     * @return the content hashes of the artifacts by artifact reference. Artifacts whose hash could
+     *         not be computed are not contained and are not cached.
+     */
+    private Map<String, String> getArtifactHashes(final CSARID csarID, final List<String> artifactReferences) {
+        final Map<String, String> hashes = new HashMap<>();
+        for (final String artifactRef : artifactReferences) {
+            final String hash = ArtifactHashHandler.getHash(csarID, artifactRef);
+            if (hash != null) {
+                hashes.put(artifactRef, hash);
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Checks with a single script invocation which of the artifacts are available in the artifact
+     * cache of the target machine. The files in the cache are named by the content hash of the
+     * artifacts. Artifacts which are missing are uploaded as usual and stored in the cache by the
+     * command which runs them, see {@link #createArtifactCacheCommand(String, Set, String)}.
+     *
+     * @return the hashes of the cached artifacts, which is empty if the check did not succeed
+     */
+    private Set<String> getCachedArtifacts(final Collection<String> hashes, final HashMap<String, Object> headers) {
+        if (hashes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final Set<String> distinctHashes = new HashSet<>(hashes);
+
+        ManagementBusInvocationPluginScript.LOG.debug("Checking the artifact cache {} of the target machine...",
+                                                      Settings.OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE_DIR);
+
+        final Set<String> missing =
+            getMissingArtifacts(runScript(createCacheCheckCommand(Settings.OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE_DIR,
+                                                                  distinctHashes),
+                                          headers));
+        if (missing == null) {
+            ManagementBusInvocationPluginScript.LOG.warn("Could not check the artifact cache of the target machine. Uploading the artifacts.");
+            return Collections.emptySet();
+        }
+        distinctHashes.removeAll(missing);
+
+        ManagementBusInvocationPluginScript.LOG.debug("{} of {} artifacts are available in the artifact cache.",
+                                                      distinctHashes.size(), distinctHashes.size() + missing.size());
+        return distinctHashes;
+    }
+
+    /**
+     * @return a command printing the hashes of all artifacts missing in the cache followed by a
+     *         marker confirming the check. The cached artifacts are touched, so the least recently
+     *         used artifacts are deleted first if the cache is full.
+     */
+    private String createCacheCheckCommand(final String cacheDir, final Collection<String> hashes) {
+        return "for hash in " + String.join(" ", hashes) + "; do if [ -f " + cacheDir + "/$hash ]; then touch "
+            + cacheDir + "/$hash; else echo " + ARTIFACT_CACHE_MISSING + "$hash; fi; done; echo "
+            + ARTIFACT_CACHE_CHECKED;
+    }
+
+    /**
+     * @param result the result of the script created by
+     *        {@link #createCacheCheckCommand(String, Collection)}
+     * @return the hashes of the missing artifacts or <tt>null</tt> if the check did not succeed
+     */
+    private Set<String> getMissingArtifacts(final Object result) {
+        final String scriptResult = getScriptResult(result);
+        if (scriptResult == null || !scriptResult.contains(ARTIFACT_CACHE_CHECKED)) {
+            return null;
+        }
+        final Set<String> missing = new HashSet<>();
+        for (final String line : scriptResult.split("[\\r\\n]+")) {
+            if (line.trim().startsWith(ARTIFACT_CACHE_MISSING)) {
+                missing.add(line.trim().substring(ARTIFACT_CACHE_MISSING.length()));
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @param hash the content hash of the artifact or <tt>null</tt> if the artifact is not cached
+     * @param cachedHashes the hashes of the artifacts available in the cache of the target machine
+     * @param targetFilePath the path the artifact is executed from
+     * @return the command to copy a cached artifact to the path it is executed from, or to store an
+     *         uploaded artifact in the cache, to run before the artifact
+     */
+    private String createArtifactCacheCommand(final String hash, final Set<String> cachedHashes,
+                                              final String targetFilePath) {
+        if (hash == null) {
+            return "";
+        }
+        final String cacheDir = Settings.OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE_DIR;
+        if (cachedHashes.contains(hash)) {
+            return "mkdir -p " + FilenameUtils.getFullPathNoEndSeparator(targetFilePath) + " && cp -f " + cacheDir
+                + "/" + hash + " " + targetFilePath + "; ";
+        }
+        // store into a temporary file which is moved into the cache once it is complete, so concurrent
+        // invocations never use partially copied artifacts
+        return "mkdir -p " + cacheDir + " && cp -f " + targetFilePath + " " + cacheDir + "/" + hash + ".$$ && mv -f "
+            + cacheDir + "/" + hash + ".$$ " + cacheDir + "/" + hash + "; "
+            + createCacheCleanupCommand(cacheDir, Integer.parseInt(Settings.OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE_SIZE));
+    }
+
+    /**
+     * @return a command deleting the least recently used artifacts if the cache contains more than
+     *         the given number of artifacts, and temporary files left over by aborted invocations
+     */
+    private String createCacheCleanupCommand(final String cacheDir, final int maxSize) {
+        return "(cd " + cacheDir + " && ls -1t | grep -E '^[0-9a-f]{64}$' | tail -n +" + (maxSize + 1)
+            + " | xargs rm -f; find . -maxdepth 1 -type f -name '*.*' -mmin +60 -delete); ";
+    }
+
+    /**
+     * @return the URL of the container API to download the specified files of the CSAR as one archive
+     */
+    private String createArchiveSource(final CSARID csarID, final List<String> artifactReferences) {
+        final StringBuilder archiveSource =
+            new StringBuilder(Settings.CONTAINER_API + "/csars/" + csarID.getFileName() + "/archive");
+        char separator = '?';
+        for (final String artifactRef : artifactReferences) {
+            try {
+                archiveSource.append(separator).append("path=").append(URLEncoder.encode(artifactRef, "UTF-8"));
+            }
+            catch (final UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+            separator = '&';
+        }
+        return archiveSource.toString();
+    }
+
+    /**
+     * @return the output of a run script invocation or <tt>null</tt> if the result contains none
+     */
+    private String getScriptResult(final Object result) {
+        if (result instanceof HashMap<?, ?>) {
+            final Object scriptResult =
+                ((HashMap<?, ?>) result).get(ManagementBusInvocationPluginScript.RUN_SCRIPT_OUTPUT_PARAMETER_NAME);
+            if (scriptResult != null) {
+                return scriptResult.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the file placeholders of the ArtifactType specific command for one artifact and
+     * appends the removal of the uploaded file.
+     *
+     * @param artifactTypeCommand the command created by
+     *        {@link #createArtifcatTypeSpecificCommandString(CSARID, QName, QName, Object)}
+     * @param targetFilePath the path of the artifact on the target machine
+     * @param environment the environment variables to pass to the artifact
+     * @param paramsString the input parameters to pass to the artifact
+     *
+     * @return the command to run the artifact
+     */
+    private String createArtifactCommand(final String artifactTypeCommand, final String targetFilePath,
+                                         final String environment, final String paramsString) {
+
+        ManagementBusInvocationPluginScript.LOG.debug("Replacing further generic placeholder...");
+
+        // replace placeholders
+        String command =
+            artifactTypeCommand.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_PATH,
+                                        targetFilePath);
+        command = command.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_FOLDER_PATH,
+                                  FilenameUtils.getFullPathNoEndSeparator(targetFilePath));
+        command = command.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_NAME_WITH_EXTENSION,
+                                  FilenameUtils.getName(targetFilePath));
+        command = command.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_TARGET_FILE_NAME_WITHOUT_EXTENSION,
+                                  FilenameUtils.getBaseName(targetFilePath));
+        command = command.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_DA_NAME_PATH_MAP, environment);
+        command = command.replace(ManagementBusInvocationPluginScript.PLACEHOLDER_DA_INPUT_PARAMETER, paramsString);
+
+        // delete the uploaded file on the remote site to save resources
+        return command + "; rm -f " + targetFilePath;
+    }
+
     /**
      * Check if the output parameters for this script service operation are returned in the script
      * result and add them to the result map.
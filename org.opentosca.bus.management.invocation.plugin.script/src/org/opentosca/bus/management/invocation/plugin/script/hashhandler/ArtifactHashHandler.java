@@ -0,0 +1,126 @@
+package org.opentosca.bus.management.invocation.plugin.script.hashhandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.opentosca.bus.management.invocation.plugin.script.servicehandler.ServiceHandler;
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.container.core.common.SystemException;
+import org.opentosca.container.core.common.UserException;
+import org.opentosca.container.core.model.AbstractFile;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes the content hashes of the artifacts which are uploaded to target machines.<br>
+ * <br>
+ *
+ * The hashes are used as file names in the artifact cache on the target machines, so an artifact
+ * is only uploaded again if its content changed. A computed hash is kept together with the size and
+ * modification time of the file and is computed again if one of them changed, e.g., because a CSAR
+ * with the same name was uploaded again. Only the hashes of the most recently used artifacts are
+ * kept.
+ *
+ */
+public class ArtifactHashHandler {
+
+    final private static Logger LOG = LoggerFactory.getLogger(ArtifactHashHandler.class);
+
+    private static final int MAX_SIZE = Integer.parseInt(Settings.OPENTOSCA_BUS_SCRIPT_ARTIFACT_HASHES_SIZE);
+
+    private static final Map<List<Object>, FileHash> hashes =
+        Collections.synchronizedMap(new LinkedHashMap<List<Object>, FileHash>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<List<Object>, FileHash> eldest) {
+                return size() > MAX_SIZE;
+            }
+        });
+
+
+    /**
+     * @param csarID of the CSAR containing the artifact
+     * @param artifactRef the reference of the artifact within the CSAR
+     * @return the hex encoded SHA-256 hash of the artifact or <tt>null</tt> if it could not be
+     *         computed
+     */
+    public static String getHash(final CSARID csarID, final String artifactRef) {
+        try {
+            final AbstractFile file = ServiceHandler.coreFileService.getCSAR(csarID).getFile(artifactRef);
+            if (file == null) {
+                ArtifactHashHandler.LOG.warn("Artifact {} not found in CSAR {}.", artifactRef, csarID);
+                return null;
+            }
+            final Path path = file.getFile();
+            final long size = Files.size(path);
+            final long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+            final List<Object> key = Arrays.asList(csarID, artifactRef);
+            final FileHash cached = hashes.get(key);
+            if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+                return cached.hash;
+            }
+
+            final String hash = computeHash(path);
+            hashes.put(key, new FileHash(size, lastModified, hash));
+            ArtifactHashHandler.LOG.debug("Hash of artifact {} of CSAR {}: {}", artifactRef, csarID, hash);
+            return hash;
+        }
+        catch (UserException | SystemException | IOException e) {
+            ArtifactHashHandler.LOG.warn("Could not compute the hash of artifact {} of CSAR {}: {}", artifactRef,
+                                         csarID, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String computeHash(final Path path) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        try (InputStream in = Files.newInputStream(path)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static class FileHash {
+
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+
+        private FileHash(final long size, final long lastModified, final String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
@@ -13,6 +13,7 @@ import javax.xml.namespace.QName;
 import org.apache.camel.Exchange;
 import org.apache.camel.impl.DefaultMessage;
 import org.opentosca.bus.management.header.MBHeader;
+import org.opentosca.bus.management.service.impl.collaboration.InstanceDataMatchingCache.MatchingResult;
 import org.opentosca.bus.management.service.impl.collaboration.model.BodyType;
 import org.opentosca.bus.management.service.impl.collaboration.model.CollaborationMessage;
 import org.opentosca.bus.management.service.impl.collaboration.model.InstanceDataMatchingRequest;
@@ -26,8 +27,10 @@ import org.opentosca.container.core.next.model.PlanInstance;
 import org.opentosca.container.core.next.model.PlanInstanceState;
 import org.opentosca.container.core.next.model.PlanType;
 import org.opentosca.container.core.next.model.RelationshipTemplateInstance;
+import org.opentosca.container.core.next.model.ServiceTemplateInstance;
 import org.opentosca.container.core.next.model.ServiceTemplateInstanceState;
 import org.opentosca.container.core.next.repository.NodeTemplateInstanceRepository;
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
 import org.opentosca.container.core.tosca.convention.Types;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +50,11 @@ import org.slf4j.LoggerFactory;
  * also no match, the local Container is used as default deployment location.<br>
  * <br>
  *
+ * The results of the matching and the local instance data used for it are cached (see
+ * {@link InstanceDataMatchingCache}), so repeated deployments onto the same infrastructure are
+ * decided without a remote request.<br>
+ * <br>
+ *
  * {@link Settings#OPENTOSCA_COLLABORATION_MODE} and the respective config.ini entry can be used to
  * control the matching. If the property is <tt>true</tt>, matching is performed. If it is set to
  * <tt>false</tt>, all IA deployments will be performed locally. Therefore, the performance can be
@@ -99,7 +107,7 @@ public class DeploymentDistributionDecisionMaker {
 
         // get infrastructure NodeTemplate
         LOG.debug("Looking for infrastructure NodeTemplateInstance that corresponds to this NodeTemplateInstance...");
-        final NodeTemplateInstance infrastructureNodeTemplateInstance = searchInfrastructureNode(nodeTemplateInstance);
+        final NodeTemplateInstance infrastructureNodeTemplateInstance = getInfrastructureNode(nodeTemplateInstance);
 
         // check if "managingContainer" is already set for the infrastructure NodeTemplateInstance
         if (Objects.nonNull(infrastructureNodeTemplateInstance.getManagingContainer())) {
@@ -114,7 +122,7 @@ public class DeploymentDistributionDecisionMaker {
             // current NodeTemplateInstance is managed by the same Container as the
             // infrastructure instance
             nodeTemplateInstance.setManagingContainer(managingContainer);
-            nodeTemplateInstanceRepository.update(nodeTemplateInstance);
+            updateManagingContainers(nodeTemplateInstance);
             return managingContainer;
         }
 
@@ -124,25 +132,37 @@ public class DeploymentDistributionDecisionMaker {
         // retrieve type and properties for the matching
         final QName infrastructureNodeType = infrastructureNodeTemplateInstance.getTemplateType();
         final Map<String, String> infrastructureProperties = infrastructureNodeTemplateInstance.getPropertiesAsMap();
+        final Set<Entry<String, String>> matchingProperties =
+            InstanceDataMatchingCache.getMatchingProperties(infrastructureProperties);
 
         LOG.debug("Infrastructure NodeTemplateInstance has NodeType: {}", infrastructureNodeType);
         LOG.debug("Infrastructure NodeTemplateInstance has properties:");
         infrastructureProperties.entrySet().stream()
                                 .forEach(entry -> LOG.debug("Key: {}; Value: {}", entry.getKey(), entry.getValue()));
 
+        // reuse the result of a previous matching for the same infrastructure
+        final MatchingResult cachedResult =
+            InstanceDataMatchingCache.getResult(infrastructureNodeType, matchingProperties);
+        if (Objects.nonNull(cachedResult)) {
+            return useMatchingResult(nodeTemplateInstance, infrastructureNodeTemplateInstance,
+                                     cachedResult.getDeploymentLocation());
+        }
+        final long version = InstanceChangeListener.getVersion(infrastructureNodeType);
+
         // match NodeType and properties against local instance data
         LOG.debug("Performing local instance data matching...");
         String deploymentLocation = performInstanceDataMatching(infrastructureNodeType, infrastructureProperties);
         if (Objects.nonNull(deploymentLocation)) {
             LOG.debug("Found matching local instance data. Deployment will be done at: {}", deploymentLocation);
+            InstanceDataMatchingCache.putResult(infrastructureNodeType, matchingProperties, version,
+                                                deploymentLocation);
 
             // set property to speed up future matching
             infrastructureNodeTemplateInstance.setManagingContainer(deploymentLocation);
             nodeTemplateInstance.setManagingContainer(deploymentLocation);
 
             // update stored entities
-            nodeTemplateInstanceRepository.update(nodeTemplateInstance);
-            nodeTemplateInstanceRepository.update(infrastructureNodeTemplateInstance);
+            updateManagingContainers(nodeTemplateInstance, infrastructureNodeTemplateInstance);
 
             return deploymentLocation;
         }
@@ -153,25 +173,109 @@ public class DeploymentDistributionDecisionMaker {
         if (Objects.nonNull(deploymentLocation)) {
             LOG.debug("Found matching remote instance data. Deployment will be done on OpenTOSCA Container with host name: {}",
                       deploymentLocation);
+            InstanceDataMatchingCache.putRemoteResult(infrastructureNodeType, matchingProperties, deploymentLocation);
 
             // set property to speed up future matching
             infrastructureNodeTemplateInstance.setManagingContainer(deploymentLocation);
             nodeTemplateInstance.setManagingContainer(deploymentLocation);
 
             // update stored entities
-            nodeTemplateInstanceRepository.update(nodeTemplateInstance);
-            nodeTemplateInstanceRepository.update(infrastructureNodeTemplateInstance);
+            updateManagingContainers(nodeTemplateInstance, infrastructureNodeTemplateInstance);
 
             return deploymentLocation;
         }
 
         // default (no matching): return host name of local container
         LOG.debug("Remote instance data matching had no success. Returning local host name as default deployment location.");
+        InstanceDataMatchingCache.putResult(infrastructureNodeType, matchingProperties, version, null);
         nodeTemplateInstance.setManagingContainer(Settings.OPENTOSCA_CONTAINER_HOSTNAME);
-        nodeTemplateInstanceRepository.update(nodeTemplateInstance);
+        updateManagingContainers(nodeTemplateInstance);
         return Settings.OPENTOSCA_CONTAINER_HOSTNAME;
     }
 
+    /**
+     * Use the cached result of a previous instance data matching as deployment location.
+     *
+     * @param nodeTemplateInstance the NodeTemplateInstance for which the IAs have to be deployed
+     * @param infrastructureNodeTemplateInstance the corresponding infrastructure NodeTemplateInstance
+     * @param deploymentLocation the cached deployment location or <tt>null</tt> if the previous
+     *        matching had no success
+     * @return the location where the IAs should be deployed
+     */
+    private static String useMatchingResult(final NodeTemplateInstance nodeTemplateInstance,
+                                            final NodeTemplateInstance infrastructureNodeTemplateInstance,
+                                            final String deploymentLocation) {
+        if (Objects.isNull(deploymentLocation)) {
+            LOG.debug("Previous instance data matching had no success. Returning local host name as default deployment location.");
+            nodeTemplateInstance.setManagingContainer(Settings.OPENTOSCA_CONTAINER_HOSTNAME);
+            updateManagingContainers(nodeTemplateInstance);
+            return Settings.OPENTOSCA_CONTAINER_HOSTNAME;
+        }
+
+        LOG.debug("Found result of a previous instance data matching. Deployment will be done at: {}",
+                  deploymentLocation);
+
+        infrastructureNodeTemplateInstance.setManagingContainer(deploymentLocation);
+        nodeTemplateInstance.setManagingContainer(deploymentLocation);
+
+        updateManagingContainers(nodeTemplateInstance, infrastructureNodeTemplateInstance);
+
+        return deploymentLocation;
+    }
+
+    /**
+     * Store the managing Container set at the given NodeTemplateInstances. The managing Container is
+     * the result of the instance data matching, so storing it does not change the outcome of later
+     * matchings and must not drop the cached results (see
+     * {@link InstanceChangeListener#runWithoutNodeTypeVersionChange(Runnable)}).
+     *
+     * @param nodeTemplateInstances the NodeTemplateInstances to update
+     */
+    private static void updateManagingContainers(final NodeTemplateInstance... nodeTemplateInstances) {
+        InstanceChangeListener.runWithoutNodeTypeVersionChange(() -> {
+            for (final NodeTemplateInstance instance : nodeTemplateInstances) {
+                nodeTemplateInstanceRepository.update(instance);
+            }
+        });
+    }
+
+    /**
+     * Get the infrastructure NodeTemplateInstance of the given NodeTemplateInstance. If the
+     * infrastructure NodeTemplate of its NodeTemplate is already known, the instance of this
+     * NodeTemplate in the same ServiceTemplateInstance is used. Otherwise the topology is searched.
+     *
+     * @param nodeTemplateInstance the NodeTemplateInstance for which the infrastructure is searched
+     * @return the infrastructure NodeTemplateInstance
+     */
+    private static NodeTemplateInstance getInfrastructureNode(final NodeTemplateInstance nodeTemplateInstance) {
+        final ServiceTemplateInstance serviceTemplateInstance = nodeTemplateInstance.getServiceTemplateInstance();
+
+        final QName infrastructureNodeTemplateID =
+            InstanceDataMatchingCache.getInfrastructureNodeTemplate(serviceTemplateInstance.getCsarId(),
+                                                                    serviceTemplateInstance.getTemplateId(),
+                                                                    nodeTemplateInstance.getTemplateId());
+        if (Objects.nonNull(infrastructureNodeTemplateID)) {
+            final List<NodeTemplateInstance> infrastructureNodeTemplateInstances =
+                serviceTemplateInstance.getNodeTemplateInstances().stream()
+                                       .filter(instance -> instance.getTemplateId()
+                                                                   .equals(infrastructureNodeTemplateID))
+                                       .collect(Collectors.toList());
+
+            // the instance is only unambiguous if the NodeTemplate is instantiated once
+            if (infrastructureNodeTemplateInstances.size() == 1) {
+                LOG.debug("Infrastructure NodeTemplate {} is already known.", infrastructureNodeTemplateID);
+                return infrastructureNodeTemplateInstances.get(0);
+            }
+        }
+
+        final NodeTemplateInstance infrastructureNodeTemplateInstance = searchInfrastructureNode(nodeTemplateInstance);
+        InstanceDataMatchingCache.putInfrastructureNodeTemplate(serviceTemplateInstance.getCsarId(),
+                                                                serviceTemplateInstance.getTemplateId(),
+                                                                nodeTemplateInstance.getTemplateId(),
+                                                                infrastructureNodeTemplateInstance.getTemplateId());
+        return infrastructureNodeTemplateInstance;
+    }
+
     /**
      * Search for the infrastructure NodeTemplateInstance on which the given NodeTemplateInstance is
      * hosted/deployed/based. In the context of instance data matching the infrastructure Node
@@ -233,19 +337,26 @@ public class DeploymentDistributionDecisionMaker {
                                "QName for NodeType of infrastructure node must not be null for instance data matching");
 
         // get the infrastructure properties without 'state' property for comparison
-        final Set<Entry<String, String>> infrastructureEntrySet = getEntrySetWithoutState(infrastructureProperties);
+        final Set<Entry<String, String>> infrastructureEntrySet =
+            InstanceDataMatchingCache.getMatchingProperties(infrastructureProperties);
 
         // search NodeTemplateInstance with matching NodeType and Properties which is already
         // provisioned completely
         final NodeTemplateInstance matchingInstance =
-            nodeTemplateInstanceRepository.findByTemplateType(infrastructureNodeType).stream()
-                                          .filter(instance -> instance.getServiceTemplateInstance().getState()
-                                                                      .equals(ServiceTemplateInstanceState.CREATED))
-                                          .filter(instance -> instance.getState()
-                                                                      .equals(NodeTemplateInstanceState.STARTED))
-                                          .filter(instance -> isBuildPlanFinished(instance))
-                                          .filter(instance -> getEntrySetWithoutState(instance.getPropertiesAsMap()).equals(infrastructureEntrySet))
-                                          .findFirst().orElse(null);
+            InstanceDataMatchingCache.getInstances(infrastructureNodeType, infrastructureEntrySet,
+                                                   nodeTemplateInstanceRepository)
+                                     .stream()
+                                     .map(id -> nodeTemplateInstanceRepository.find(id).orElse(null))
+                                     .filter(Objects::nonNull)
+                                     .filter(instance -> instance.getServiceTemplateInstance().getState()
+                                                                 .equals(ServiceTemplateInstanceState.CREATED))
+                                     .filter(instance -> instance.getState()
+                                                                 .equals(NodeTemplateInstanceState.STARTED))
+                                     .filter(instance -> isBuildPlanFinished(instance))
+                                     // the index may have been built before the properties changed
+                                     .filter(instance -> InstanceDataMatchingCache.getMatchingProperties(instance.getPropertiesAsMap())
+                                                                                  .equals(infrastructureEntrySet))
+                                     .findFirst().orElse(null);
 
         if (Objects.nonNull(matchingInstance)) {
             // check whether the matching NodeTemplateInstance is managed by this Container
@@ -308,18 +419,6 @@ public class DeploymentDistributionDecisionMaker {
         }
     }
 
-    /**
-     * Filter out the 'State' property from the given properties Map if it is defined and return the
-     * corresponding entry Set.
-     *
-     * @param properties the properties as Map
-     * @return the properties as entry Set without 'State' property
-     */
-    private static Set<Entry<String, String>> getEntrySetWithoutState(final Map<String, String> properties) {
-        return properties.entrySet().stream().filter((entry) -> !entry.getKey().equals("State"))
-                         .collect(Collectors.toSet());
-    }
-
     /**
      * Check whether the build plan that corresponds to the given NodeTemplateInstance is finished.
      *
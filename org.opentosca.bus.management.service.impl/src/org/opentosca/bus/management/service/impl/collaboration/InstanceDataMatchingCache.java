@@ -0,0 +1,217 @@
+package org.opentosca.bus.management.service.impl.collaboration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.xml.namespace.QName;
+
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.model.NodeTemplateInstance;
+import org.opentosca.container.core.next.repository.NodeTemplateInstanceRepository;
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
+
+/**
+ * Caches the information needed by the {@link DeploymentDistributionDecisionMaker}.<br>
+ * <br>
+ *
+ * The results of instance data matchings are kept by infrastructure NodeType and property values
+ * for <tt>org.opentosca.container.collaboration.matching.ttl</tt> milliseconds. The local instance
+ * data is indexed by NodeType and property values, so a local matching does not have to compare the
+ * properties of all instances of the NodeType. The index and the results which depend on local
+ * instance data are dropped as soon as an instance of this NodeType or one of its properties changes
+ * (see {@link InstanceChangeListener#getVersion(QName)}). Results of remote matchings only expire, as
+ * the local instance data does not tell anything about them.<br>
+ * <br>
+ *
+ * Additionally, the infrastructure NodeTemplate of each NodeTemplate is kept, as it only depends on
+ * the topology of the ServiceTemplate.<br>
+ * <br>
+ *
+ * Copyright 2019 IAAS University of Stuttgart
+ */
+public class InstanceDataMatchingCache {
+
+    private final static long TTL = Long.parseLong(Settings.OPENTOSCA_COLLABORATION_MATCHING_TTL);
+
+    // expired results are removed once the cache grows beyond this size
+    private final static int CLEANUP_SIZE = 1000;
+
+    // version of results which do not depend on the local instance data
+    private final static long REMOTE = -1;
+
+    private final static Map<List<Object>, MatchingResult> results = new ConcurrentHashMap<>();
+
+    private final static Map<QName, PropertyIndex> indexes = new ConcurrentHashMap<>();
+
+    private final static Map<List<Object>, QName> infrastructureNodeTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * @param properties the properties of a NodeTemplateInstance
+     * @return the properties which are compared by the instance data matching, i.e., all properties
+     *         except the 'State' property
+     */
+    public static Set<Entry<String, String>> getMatchingProperties(final Map<String, String> properties) {
+        return properties.entrySet().stream().filter((entry) -> !entry.getKey().equals("State"))
+                         .collect(Collectors.toSet());
+    }
+
+    /**
+     * @param nodeType the NodeType of the infrastructure NodeTemplate
+     * @param properties the matching properties of the infrastructure NodeTemplateInstance
+     * @return the cached result of a previous matching or <tt>null</tt> if there is none or it is
+     *         outdated
+     */
+    public static MatchingResult getResult(final QName nodeType, final Set<Entry<String, String>> properties) {
+        final List<Object> key = Arrays.asList(nodeType, properties);
+        final MatchingResult result = results.get(key);
+        if (result == null) {
+            return null;
+        }
+        if (result.isExpired() || result.isLocal() && result.version != InstanceChangeListener.getVersion(nodeType)) {
+            results.remove(key, result);
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Cache the result of a matching which depends on the local instance data, i.e., a local match or
+     * no match at all.
+     *
+     * @param nodeType the NodeType of the infrastructure NodeTemplate
+     * @param properties the matching properties of the infrastructure NodeTemplateInstance
+     * @param version the {@link InstanceChangeListener#getVersion(QName)} of the NodeType read before
+     *        the matching was started
+     * @param deploymentLocation the host name of the matching Container or <tt>null</tt> if none
+     *        matched
+     */
+    public static void putResult(final QName nodeType, final Set<Entry<String, String>> properties,
+                                 final long version, final String deploymentLocation) {
+        putResult(nodeType, properties, new MatchingResult(deploymentLocation, version));
+    }
+
+    /**
+     * Cache the result of a matching with the instance data of a remote Container. The result is
+     * used until it expires.
+     *
+     * @param nodeType the NodeType of the infrastructure NodeTemplate
+     * @param properties the matching properties of the infrastructure NodeTemplateInstance
+     * @param deploymentLocation the host name of the matching Container
+     */
+    public static void putRemoteResult(final QName nodeType, final Set<Entry<String, String>> properties,
+                                       final String deploymentLocation) {
+        putResult(nodeType, properties, new MatchingResult(deploymentLocation, REMOTE));
+    }
+
+    private static void putResult(final QName nodeType, final Set<Entry<String, String>> properties,
+                                  final MatchingResult result) {
+        if (results.size() >= CLEANUP_SIZE) {
+            results.values().removeIf(MatchingResult::isExpired);
+        }
+        results.put(Arrays.asList(nodeType, properties), result);
+    }
+
+    /**
+     * Get the IDs of the local NodeTemplateInstances with the given NodeType and matching properties.
+     * The states of the returned instances are not checked.
+     *
+     * @param nodeType the NodeType of the instances
+     * @param properties the matching properties of the instances
+     * @param repository the repository to build the index from
+     * @return the IDs of the NodeTemplateInstances
+     */
+    public static Collection<Long> getInstances(final QName nodeType, final Set<Entry<String, String>> properties,
+                                                final NodeTemplateInstanceRepository repository) {
+        final long version = InstanceChangeListener.getVersion(nodeType);
+        PropertyIndex index = indexes.get(nodeType);
+        if (index == null || index.version != version) {
+            final Map<Set<Entry<String, String>>, List<Long>> instances = new HashMap<>();
+            for (final NodeTemplateInstance instance : repository.findByTemplateType(nodeType)) {
+                instances.computeIfAbsent(getMatchingProperties(instance.getPropertiesAsMap()),
+                                          (key) -> new ArrayList<>())
+                         .add(instance.getId());
+            }
+            index = new PropertyIndex(instances, version);
+            indexes.put(nodeType, index);
+        }
+        return index.instances.getOrDefault(properties, Collections.emptyList());
+    }
+
+    /**
+     * @param csarID the CSAR containing the ServiceTemplate
+     * @param serviceTemplateID the ServiceTemplate containing the NodeTemplate
+     * @param nodeTemplateID the NodeTemplate to get the infrastructure NodeTemplate for
+     * @return the cached infrastructure NodeTemplate or <tt>null</tt> if it is not known yet
+     */
+    public static QName getInfrastructureNodeTemplate(final CSARID csarID, final QName serviceTemplateID,
+                                                      final QName nodeTemplateID) {
+        return infrastructureNodeTemplates.get(Arrays.asList(csarID, serviceTemplateID, nodeTemplateID));
+    }
+
+    /**
+     * @param csarID the CSAR containing the ServiceTemplate
+     * @param serviceTemplateID the ServiceTemplate containing the NodeTemplate
+     * @param nodeTemplateID the NodeTemplate
+     * @param infrastructureNodeTemplateID the infrastructure NodeTemplate of the NodeTemplate
+     */
+    public static void putInfrastructureNodeTemplate(final CSARID csarID, final QName serviceTemplateID,
+                                                     final QName nodeTemplateID,
+                                                     final QName infrastructureNodeTemplateID) {
+        infrastructureNodeTemplates.put(Arrays.asList(csarID, serviceTemplateID, nodeTemplateID),
+                                        infrastructureNodeTemplateID);
+    }
+
+    /**
+     * The result of an instance data matching.
+     */
+    public static class MatchingResult {
+
+        private final String deploymentLocation;
+        private final long version;
+        private final long expiresAt;
+
+
+        private MatchingResult(final String deploymentLocation, final long version) {
+            this.deploymentLocation = deploymentLocation;
+            this.version = version;
+            this.expiresAt = System.currentTimeMillis() + TTL;
+        }
+
+        /**
+         * @return the host name of the matching Container or <tt>null</tt> if none matched
+         */
+        public String getDeploymentLocation() {
+            return this.deploymentLocation;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > this.expiresAt;
+        }
+
+        private boolean isLocal() {
+            return this.version != REMOTE;
+        }
+    }
+
+    private static class PropertyIndex {
+
+        private final Map<Set<Entry<String, String>>, List<Long>> instances;
+        private final long version;
+
+
+        private PropertyIndex(final Map<Set<Entry<String, String>>, List<Long>> instances, final long version) {
+            this.instances = instances;
+            this.version = version;
+        }
+    }
+}
@@ -6,10 +6,15 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
 
-import org.apache.camel.ConsumerTemplate;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
 import org.opentosca.bus.management.header.MBHeader;
@@ -17,6 +22,7 @@ import org.opentosca.bus.management.service.impl.Activator;
 import org.opentosca.bus.management.service.impl.Constants;
 import org.opentosca.bus.management.service.impl.collaboration.model.CollaborationMessage;
 import org.opentosca.bus.management.service.impl.collaboration.model.RemoteOperations;
+import org.opentosca.container.core.common.Settings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,14 +30,39 @@ import org.slf4j.LoggerFactory;
  * Utility class to send collaboration requests over MQTT to other OpenTOSCA Container nodes.<br>
  * <br>
  *
+ * Requests are sent without blocking the calling thread. Each pending request is registered with its
+ * correlation ID and the returned future is completed by the response route as soon as the response
+ * arrives, or exceptionally when the timeout of the request expires.<br>
+ * <br>
+ *
  * Copyright 2018 IAAS University of Stuttgart
  */
 public class RequestSender {
 
     static final private Logger LOG = LoggerFactory.getLogger(RequestSender.class);
 
+    private final static int DEFAULT_TIMEOUT = Integer.parseInt(Settings.OPENTOSCA_COLLABORATION_TIMEOUT);
+
+    // expires the pending requests
     private final static ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
 
+    // publishes the requests, so callers of the asynchronous method are never blocked by the broker
+    private final static ExecutorService publisher = Executors.newSingleThreadExecutor();
+
+    // pending requests by correlation ID
+    private final static Map<String, CompletableFuture<Exchange>> pendingRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Send an operation request to a remote OpenTOSCA Container node and wait for the response at most
+     * <tt>org.opentosca.container.collaboration.timeout</tt> milliseconds.
+     *
+     * @see #sendRequestToRemoteContainer(Message, RemoteOperations, CollaborationMessage, int)
+     */
+    public static Exchange sendRequestToRemoteContainer(final Message message, final RemoteOperations operation,
+                                                        final CollaborationMessage requestBody) {
+        return sendRequestToRemoteContainer(message, operation, requestBody, DEFAULT_TIMEOUT);
+    }
+
     /**
      * Send an operation request to a remote OpenTOSCA Container node. All information needed for the
      * remote operation that shall be executed has to be defined as header fields of the given message
@@ -41,11 +72,47 @@ public class RequestSender {
      * @param operation the operation to perform on the remote Container
      * @param requestBody the message body of the request
      * @param timeout the timeout to wait for a reply in ms. Zero means no timeout at all
-     * @return the exchange which is received as response of the request
+     * @return the exchange which is received as response of the request or <tt>null</tt> if no
+     *         response arrived in time
      */
     public static Exchange sendRequestToRemoteContainer(final Message message, final RemoteOperations operation,
                                                         final CollaborationMessage requestBody, final int timeout) {
 
+        final CompletableFuture<Exchange> response =
+            sendRequestToRemoteContainerAsync(message, operation, requestBody, timeout);
+        try {
+            return response.get();
+        }
+        catch (final InterruptedException e) {
+            LOG.warn("Interrupted while waiting for the response. Cancelling request.");
+            response.cancel(false);
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (final ExecutionException e) {
+            LOG.warn("Request failed: {}", e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Send an operation request to a remote OpenTOSCA Container node without waiting for the response.
+     * All information needed for the remote operation that shall be executed has to be defined as
+     * header fields of the given message or passed as CollaborationMessage.
+     *
+     * @param message the message containing the headers to send to the remote Container
+     * @param operation the operation to perform on the remote Container
+     * @param requestBody the message body of the request
+     * @param timeout the timeout to wait for a reply in ms. Zero means no timeout at all
+     * @return a future which is completed with the exchange received as response of the request. It is
+     *         completed exceptionally with a {@link TimeoutException} if no response arrived in time.
+     *         Cancelling the future stops waiting for the response.
+     */
+    public static CompletableFuture<Exchange> sendRequestToRemoteContainerAsync(final Message message,
+                                                                                final RemoteOperations operation,
+                                                                                final CollaborationMessage requestBody,
+                                                                                final int timeout) {
+
         Objects.requireNonNull(message);
 
         // create an unique correlation ID for the request
@@ -66,37 +133,55 @@ public class RequestSender {
         requestHeaders.put(MBHeader.CORRELATIONID_STRING.toString(), correlationID);
         requestHeaders.put(MBHeader.REPLYTOTOPIC_STRING.toString(), Constants.RESPONSE_TOPIC);
         requestHeaders.put(MBHeader.REMOTEOPERATION_STRING.toString(), operation);
+        requestHeaders.remove(MBHeader.TIMEOUT_LONG.toString());
+        if (timeout > 0) {
+            requestHeaders.put(MBHeader.TIMEOUT_LONG.toString(), (long) timeout);
+        }
+
+        // register the request before publishing it, so no response can be missed
+        final CompletableFuture<Exchange> response = new CompletableFuture<>();
+        pendingRequests.put(correlationID, response);
+        response.whenComplete((exchange, e) -> pendingRequests.remove(correlationID));
+
+        if (timeout > 0) {
+            final TimeoutException expired =
+                new TimeoutException("No response for request " + correlationID + " within " + timeout + " ms");
+            final ScheduledFuture<?> expiration =
+                scheduler.schedule(() -> response.completeExceptionally(expired), timeout, MILLISECONDS);
+            response.whenComplete((exchange, e) -> expiration.cancel(false));
+        }
 
         LOG.debug("Publishing request to MQTT broker at {} with topic {} and correlation ID {}",
                   Constants.LOCAL_MQTT_BROKER, Constants.REQUEST_TOPIC, correlationID);
 
         // publish the exchange over the camel route
-        scheduler.schedule(() -> Activator.producer.sendBodyAndHeaders("direct:SendMQTT", requestBody, requestHeaders),
-                           300, MILLISECONDS);
+        publisher.execute(() -> {
+            try {
+                Activator.producer.sendBodyAndHeaders("direct:SendMQTT", requestBody, requestHeaders);
+            }
+            catch (final RuntimeException e) {
+                response.completeExceptionally(e);
+            }
+        });
 
-        final String callbackEndpoint = "direct:Callback-" + correlationID;
-        LOG.debug("Waiting for response at endpoint: {}", callbackEndpoint);
+        return response;
+    }
 
-        // wait for a response at the created callback
-        final ConsumerTemplate consumer = Activator.camelContext.createConsumerTemplate();
+    /**
+     * Completes the pending request the given response belongs to. Used by the route receiving the
+     * responses of other OpenTOSCA Container nodes.
+     *
+     * @param exchange the exchange containing the response and its correlation ID
+     */
+    public static void completeRequest(final Exchange exchange) {
+        final String correlationID = exchange.getIn().getHeader(MBHeader.CORRELATIONID_STRING.toString(), String.class);
+        final CompletableFuture<Exchange> request = correlationID == null ? null : pendingRequests.get(correlationID);
 
-        Exchange response = null;
-        if (timeout == 0) {
-            // wait without timeout
-            response = consumer.receive(callbackEndpoint);
+        if (request == null || !request.complete(exchange.copy())) {
+            LOG.warn("No pending request for correlation ID {}. This could be due to a delayed message where the corresponding request has already timed out or if multiple receivers answer a request.",
+                     correlationID);
         } else {
-            // assess request as failed after timeout and return null
-            response = consumer.receive(callbackEndpoint, timeout);
-        }
-
-        // release resources
-        try {
-            consumer.stop();
-        }
-        catch (final Exception e) {
-            LOG.warn("Unable to stop consumer: {}", e.getMessage());
+            LOG.debug("Completed request with correlation ID {}", correlationID);
         }
-
-        return response;
     }
 }
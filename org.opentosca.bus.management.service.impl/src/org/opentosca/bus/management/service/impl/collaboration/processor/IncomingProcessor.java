@@ -79,6 +79,14 @@ public class IncomingProcessor implements Processor {
                 case "BOOLEAN":
                     message.setHeader(header.getKey(), Boolean.parseBoolean(header.getValue()));
                     break;
+                case "LONG":
+                    try {
+                        message.setHeader(header.getKey(), Long.parseLong(header.getValue()));
+                    }
+                    catch (final NumberFormatException e) {
+                        LOG.warn("Unable to parse header to type Long. Ignoring it.");
+                    }
+                    break;
                 case "CSARID":
                     message.setHeader(header.getKey(), new CSARID(header.getValue()));
                     break;
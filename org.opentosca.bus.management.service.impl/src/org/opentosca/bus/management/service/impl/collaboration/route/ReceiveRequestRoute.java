@@ -3,12 +3,15 @@ package org.opentosca.bus.management.service.impl.collaboration.route;
 import javax.xml.bind.JAXBContext;
 
 import org.apache.camel.LoggingLevel;
+import org.apache.camel.Predicate;
 import org.apache.camel.Processor;
+import org.apache.camel.ThreadPoolRejectedPolicy;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.converter.jaxb.JaxbDataFormat;
 import org.opentosca.bus.management.header.MBHeader;
 import org.opentosca.bus.management.service.impl.collaboration.model.RemoteOperations;
 import org.opentosca.bus.management.service.impl.collaboration.processor.IncomingProcessor;
+import org.opentosca.container.core.common.Settings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,12 +25,21 @@ import org.slf4j.LoggerFactory;
  * be defined in the config.ini and passed to this route via header fields.<br>
  * <br>
  *
+ * The requests are processed by a bounded thread pool. If all threads are busy and the queue is
+ * full, the receiving thread processes the request itself and does not take further requests from
+ * the broker meanwhile. Requests which waited longer than the timeout of their requester are
+ * dropped.<br>
+ * <br>
+ *
  * Copyright 2018 IAAS University of Stuttgart
  */
 public class ReceiveRequestRoute extends RouteBuilder {
 
     final private static Logger LOG = LoggerFactory.getLogger(ReceiveResponseRoute.class);
 
+    // exchange property containing the time the request was received
+    final private static String RECEIVED_AT = "OpenTOSCACollaborationReceivedAt";
+
     // MQTT broker credentials
     final private String host;
     final private String topic;
@@ -80,11 +92,20 @@ public class ReceiveRequestRoute extends RouteBuilder {
         // header field which is used as routing criteria
         final String remoteOperationHeader = MBHeader.REMOTEOPERATION_STRING.toString();
 
+        // requests the requester does not wait for anymore are not processed
+        final Predicate expired = exchange -> {
+            final Long timeout = exchange.getIn().getHeader(MBHeader.TIMEOUT_LONG.toString(), Long.class);
+            final Long receivedAt = exchange.getProperty(RECEIVED_AT, Long.class);
+            return timeout != null && timeout > 0 && receivedAt != null
+                && System.currentTimeMillis() - receivedAt > timeout;
+        };
+
         // log messages to increase the readability of the route
         final String messageReceived = "Received request message via MQTT topic. Unmarshaling...";
         final String operation = "Message has remote operation header: ${header." + remoteOperationHeader + "}";
         final String noMarshalling = "Unable to unmarshal message. Ignoring it!";
         final String invalidOperation = "Remote operation header is either null or contains an invalid operation!";
+        final String requestExpired = "Request waited longer than the timeout of the requester. Ignoring it!";
         final String invokeInstanceDataMatching = "Invoking instance data matching on local OpenTOSCA Container";
         final String invokeIADeployment = "Invoking IA deployment on local OpenTOSCA Container";
         final String invokeIAUndeployment = "Invoking IA undeployment on local OpenTOSCA Container";
@@ -92,13 +113,20 @@ public class ReceiveRequestRoute extends RouteBuilder {
 
         // @formatter:off
         this.from(consumerEndpoint)
-            .threads(2, 5)
+            .process(exchange -> exchange.setProperty(RECEIVED_AT, System.currentTimeMillis()))
+            .threads(Integer.parseInt(Settings.OPENTOSCA_COLLABORATION_THREADS_MIN),
+                     Integer.parseInt(Settings.OPENTOSCA_COLLABORATION_THREADS_MAX))
+                .maxQueueSize(Integer.parseInt(Settings.OPENTOSCA_COLLABORATION_QUEUE_SIZE))
+                .rejectedPolicy(ThreadPoolRejectedPolicy.CallerRuns)
             .log(LoggingLevel.DEBUG, LOG, messageReceived)
             .doTry()
                 .unmarshal(jaxb)
                 .process(headerProcessor)
                 .log(LoggingLevel.DEBUG, LOG, operation)
                 .choice()
+                    .when(expired)
+                        .log(LoggingLevel.WARN, LOG, requestExpired)
+                    .endChoice()
                     .when(header(remoteOperationHeader).isEqualTo(RemoteOperations.INVOKE_INSTANCE_DATA_MATCHING))
                         .log(LoggingLevel.DEBUG, LOG, invokeInstanceDataMatching)
                         .to(instanceMatchingEndpoint)
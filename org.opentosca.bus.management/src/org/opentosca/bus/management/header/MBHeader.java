@@ -195,5 +195,12 @@ public enum MBHeader {
      * <b>REMOTEOPERATION_STRING</b> This header field contains the name of the operation that shall
      * be executed on a remote OpenTOSCA Container.
      */
-    REMOTEOPERATION_STRING
+    REMOTEOPERATION_STRING,
+
+    /**
+     * <b>TIMEOUT_LONG</b> This header field is only used for request messages. It contains the time
+     * in milliseconds the requester waits for a reply. Receivers drop requests which could not be
+     * processed within this time.
+     */
+    TIMEOUT_LONG
 }
@@ -3,26 +3,32 @@ package org.opentosca.container.api.controller;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import javax.xml.namespace.QName;
 
@@ -36,11 +42,14 @@ import org.opentosca.container.api.dto.request.CsarTransformRequest;
 import org.opentosca.container.api.dto.request.CsarUploadRequest;
 import org.opentosca.container.api.service.CsarService;
 import org.opentosca.container.api.util.ModelUtil;
+import org.opentosca.container.api.util.TarOutputStream;
 import org.opentosca.container.api.util.UriUtil;
 import org.opentosca.container.connector.winery.WineryConnector;
 import org.opentosca.container.control.IOpenToscaControlService;
 import org.opentosca.container.core.common.EntityExistsException;
+import org.opentosca.container.core.common.SystemException;
 import org.opentosca.container.core.engine.IToscaEngineService;
+import org.opentosca.container.core.model.AbstractFile;
 import org.opentosca.container.core.model.csar.CSARContent;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.service.ICoreFileService;
@@ -148,6 +157,46 @@ public class CsarController {
         return new DirectoryController(csarContent.getCsarRoot());
     }
 
+    /**
+     * Packs several files of a CSAR into one tar archive, so clients like the script plugin of the
+     * management bus can fetch all artifacts of an operation with a single transfer. The entries are
+     * named by the given paths relative to the CSAR root.
+     */
+    @GET
+    @Path("/{csar}/archive")
+    @Produces("application/x-tar")
+    @ApiOperation(hidden = true, value = "")
+    public Response getContentArchive(@PathParam("csar") final String id,
+                                      @QueryParam("path") final List<String> paths) {
+        final CSARContent csarContent = this.csarService.findById(id);
+
+        final List<AbstractFile> files = paths.stream().map(path -> {
+            final AbstractFile file = csarContent.getCsarRoot().getFile(path);
+            if (file == null) {
+                throw new NotFoundException(String.format("Path '%s' does not exist in CSAR '%s'", path, id));
+            }
+            return file;
+        }).collect(Collectors.toList());
+
+        final StreamingOutput archive = (final OutputStream output) -> {
+            final TarOutputStream tar = new TarOutputStream(output);
+            try {
+                for (int i = 0; i < files.size(); i++) {
+                    final File file = files.get(i).getFile().toFile();
+                    tar.putEntry(paths.get(i), file.length(), file.lastModified());
+                    Files.copy(file.toPath(), tar);
+                }
+                tar.finish();
+            }
+            catch (final SystemException e) {
+                throw new IOException("Could not read file of CSAR " + id, e);
+            }
+        };
+
+        return Response.ok(archive).header("Content-Disposition", "attachment; filename=\"" + id + ".tar\"")
+                       .build();
+    }
+
     @POST
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
@@ -23,6 +23,7 @@ import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 import javax.xml.namespace.QName;
 
+import org.opentosca.container.api.dto.InstanceDataBatchResultDTO;
 import org.opentosca.container.api.dto.NodeOperationDTO;
 import org.opentosca.container.api.dto.ResourceDecorator;
 import org.opentosca.container.api.dto.ServiceTemplateInstanceDTO;
@@ -32,6 +33,7 @@ import org.opentosca.container.api.dto.boundarydefinitions.InterfaceListDTO;
 import org.opentosca.container.api.dto.boundarydefinitions.OperationDTO;
 import org.opentosca.container.api.dto.plan.PlanDTO;
 import org.opentosca.container.api.dto.request.CreateServiceTemplateInstanceRequest;
+import org.opentosca.container.api.dto.request.InstanceDataBatchRequest;
 import org.opentosca.container.api.dto.situations.SituationsMonitorDTO;
 import org.opentosca.container.api.dto.situations.SituationsMonitorListDTO;
 import org.opentosca.container.api.service.CsarService;
@@ -42,8 +44,11 @@ import org.opentosca.container.core.engine.IToscaReferenceMapper;
 import org.opentosca.container.core.model.csar.CSARContent;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.next.model.DeploymentTest;
+import org.opentosca.container.core.next.model.NodeTemplateInstance;
+import org.opentosca.container.core.next.model.PersistenceObject;
 import org.opentosca.container.core.next.model.PlanInstance;
 import org.opentosca.container.core.next.model.PlanType;
+import org.opentosca.container.core.next.model.RelationshipTemplateInstance;
 import org.opentosca.container.core.next.model.ServiceTemplateInstance;
 import org.opentosca.container.core.next.model.ServiceTemplateInstanceState;
 import org.opentosca.container.core.next.model.Situation;
@@ -295,6 +300,46 @@ public class ServiceTemplateInstanceController {
         return Response.ok(UriUtil.generateSelfURI(this.uriInfo)).build();
     }
     
+    @POST
+    @Path("/{id}/batch")
+    @Consumes({MediaType.APPLICATION_XML})
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    @ApiOperation(hidden = true, value = "")
+    public Response applyInstanceDataBatch(@PathParam("id") final Long id, final InstanceDataBatchRequest request) {
+        final Map<InstanceDataBatchRequest.Entry, PersistenceObject> created;
+        try {
+            created = this.instanceService.applyInstanceDataBatch(this.csarId, this.serviceTemplateId, id, request);
+        }
+        catch (final IllegalArgumentException e) { // this handles a null request too
+            return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+        }
+        catch (final ReflectiveOperationException e) {
+            logger.debug("Internal error occurred: {}", e.getMessage());
+            return Response.serverError().build();
+        }
+
+        final InstanceDataBatchResultDTO result = new InstanceDataBatchResultDTO();
+        for (final Map.Entry<InstanceDataBatchRequest.Entry, PersistenceObject> entry : created.entrySet()) {
+            final PersistenceObject instance = entry.getValue();
+            final String templatesPath;
+            final String templateId;
+            if (instance instanceof NodeTemplateInstance) {
+                templatesPath = "nodetemplates";
+                templateId = ((NodeTemplateInstance) instance).getTemplateId().getLocalPart();
+            } else {
+                templatesPath = "relationshiptemplates";
+                templateId = ((RelationshipTemplateInstance) instance).getTemplateId().getLocalPart();
+            }
+            final URI uri = this.uriInfo.getBaseUriBuilder()
+                                        .path("/csars/{csar}/servicetemplates/{servicetemplate}/{templates}/{template}/instances/{instance}")
+                                        .build(this.csarId, this.serviceTemplateId, templatesPath, templateId,
+                                               instance.getId());
+            result.add(entry.getKey().getRef(), instance.getId(), UriUtil.encode(uri).toString());
+        }
+
+        return Response.ok(result).build();
+    }
+
     @GET
     @Path("/{id}/situationsmonitors")
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
@@ -1,21 +1,53 @@
 package org.opentosca.container.api.controller.content;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.Map;
 import java.util.Objects;
 
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.io.FilenameUtils;
 import org.opentosca.container.core.model.AbstractFile;
+import org.opentosca.container.core.model.LocalFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Maps;
 
+/**
+ * Serves a file of a CSAR.<br>
+ * <br>
+ *
+ * If the file is available on the local disk (see {@link AbstractFile#getLocalFile()}), it's sent
+ * with {@link FileChannel#transferTo(long, long, WritableByteChannel)} and the response supports
+ * single byte ranges (<tt>Range</tt>, <tt>If-Range</tt>) and conditional requests
+ * (<tt>If-None-Match</tt>, <tt>If-Modified-Since</tt>, ...). The strong ETag of the file is the
+ * SHA-256 hash of its content. The file is opened before the response is built, so it can be sent
+ * completely even if the local file cache removes it meanwhile. Otherwise, the file is streamed from
+ * its storage provider.
+ */
 public class FileController {
 
     private static Logger logger = LoggerFactory.getLogger(FileController.class);
@@ -41,21 +73,64 @@ public class FileController {
 
     @GET
     @Produces({MediaType.APPLICATION_OCTET_STREAM, "image/*"})
-    public Response getFile() {
+    public Response getFile(@Context final Request request, @HeaderParam("Range") final String range,
+                            @HeaderParam("If-Range") final String ifRange) {
         logger.info("Attempt to get file: \"{}\"", this.file.getPath());
         try {
-            final InputStream is = this.file.getFileAsInputStream();
-            // Image or normal file download?
-            final String ext = FilenameUtils.getExtension(this.file.getName());
-            final MediaType imageType = IMAGE_TYPES.get(ext);
-            if (imageType != null) {
-                // Serve the image
-                return Response.ok(is, imageType).build();
-            } else {
-                // ... download the file
-                return Response.ok(is)
-                               .header("Content-Disposition", "attachment; filename=\"" + this.file.getName() + "\"")
-                               .build();
+            final LocalFile localFile = this.file.getLocalFile();
+            if (localFile == null) {
+                final InputStream is = this.file.getFileAsInputStream();
+                return this.withContentType(Response.ok(is)).build();
+            }
+
+            final EntityTag eTag = new EntityTag(localFile.getHash());
+            // HTTP dates have a precision of seconds
+            final Date lastModified = new Date(localFile.getLastModified() / 1000 * 1000);
+
+            // If-Match, If-None-Match, If-Modified-Since and If-Unmodified-Since
+            final ResponseBuilder preconditionResponse = request.evaluatePreconditions(lastModified, eTag);
+            if (preconditionResponse != null) {
+                logger.debug("Conditional request for file \"{}\" answered without content", this.file.getPath());
+                return preconditionResponse.tag(eTag).lastModified(lastModified).build();
+            }
+
+            final long size = localFile.getSize();
+            final long[] byteRange =
+                range != null && isIfRangeSatisfied(ifRange, eTag, lastModified) ? parseRange(range, size) : null;
+
+            if (byteRange != null && byteRange.length == 0) {
+                logger.debug("Range \"{}\" of file \"{}\" is not satisfiable", range, this.file.getPath());
+                return Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE).header("Content-Range", "bytes */" + size)
+                               .tag(eTag).lastModified(lastModified).build();
+            }
+
+            final FileChannel channel;
+            try {
+                channel = FileChannel.open(localFile.getPath(), StandardOpenOption.READ);
+            }
+            catch (final IOException e) {
+                logger.debug("Local file of \"{}\" was removed, streaming it: {}", this.file.getPath(), e.getMessage());
+                return this.withContentType(Response.ok(this.file.getFileAsInputStream())).build();
+            }
+            try {
+                final ResponseBuilder builder;
+                if (byteRange == null) {
+                    builder = Response.ok(transfer(channel, localFile.getPath(), 0, size))
+                                      .header(HttpHeaders.CONTENT_LENGTH, size);
+                } else {
+                    final long length = byteRange[1] - byteRange[0] + 1;
+                    builder = Response.status(Status.PARTIAL_CONTENT)
+                                      .entity(transfer(channel, localFile.getPath(), byteRange[0], length))
+                                      .header("Content-Range",
+                                              "bytes " + byteRange[0] + "-" + byteRange[1] + "/" + size)
+                                      .header(HttpHeaders.CONTENT_LENGTH, length);
+                }
+                return this.withContentType(builder).header("Accept-Ranges", "bytes").tag(eTag)
+                           .lastModified(lastModified).build();
+            }
+            catch (final RuntimeException e) {
+                channel.close();
+                throw e;
             }
         }
         catch (final Exception e) {
@@ -63,4 +138,113 @@ public class FileController {
             return Response.serverError().build();
         }
     }
+
+    private ResponseBuilder withContentType(final ResponseBuilder builder) {
+        // Image or normal file download?
+        final String ext = FilenameUtils.getExtension(this.file.getName());
+        final MediaType imageType = IMAGE_TYPES.get(ext);
+        if (imageType != null) {
+            // Serve the image
+            return builder.type(imageType);
+        } else {
+            // ... download the file
+            return builder.header("Content-Disposition", "attachment; filename=\"" + this.file.getName() + "\"");
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if there is no <tt>If-Range</tt> header or it matches the current file,
+     *         i.e., the requested range can be served
+     */
+    private static boolean isIfRangeSatisfied(final String ifRange, final EntityTag eTag, final Date lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        final String value = ifRange.trim();
+        if (value.startsWith("\"")) {
+            return value.equals("\"" + eTag.getValue() + "\"");
+        }
+        if (value.startsWith("W/")) {
+            // weak validators must not be used for ranges
+            return false;
+        }
+        try {
+            final long date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return date == lastModified.getTime();
+        }
+        catch (final DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a <tt>Range</tt> header with a single byte range. Other ranges are ignored, i.e., the
+     * whole file is served.
+     *
+     * @param range the value of the <tt>Range</tt> header
+     * @param size the size of the file
+     * @return first and last byte of the range, an empty array if the range is not satisfiable or
+     *         <tt>null</tt> if the range is ignored
+     */
+    private static long[] parseRange(final String range, final long size) {
+        final String value = range.trim();
+        if (!value.startsWith("bytes=") || value.contains(",")) {
+            return null;
+        }
+        final String spec = value.substring("bytes=".length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            final String first = spec.substring(0, dash).trim();
+            final String last = spec.substring(dash + 1).trim();
+            final long start;
+            final long end;
+            if (first.isEmpty()) {
+                // suffix range: the last n bytes
+                final long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                if (!last.isEmpty() && Long.parseLong(last) < start) {
+                    // syntactically invalid, so the header is ignored
+                    return null;
+                }
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size) {
+                return new long[0];
+            }
+            return new long[] {start, end};
+        }
+        catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends a part of an opened local file and closes it afterwards. The file channel transfers the
+     * bytes to the response without copying them through a stream.
+     */
+    private static StreamingOutput transfer(final FileChannel file, final Path path, final long position,
+                                            final long count) {
+        return (final OutputStream output) -> {
+            try (FileChannel channel = file) {
+                final WritableByteChannel target = Channels.newChannel(output);
+                long transferred = 0;
+                while (transferred < count) {
+                    final long bytes = channel.transferTo(position + transferred, count - transferred, target);
+                    if (bytes <= 0) {
+                        throw new IOException("File \"" + path + "\" was truncated while it was sent.");
+                    }
+                    transferred += bytes;
+                }
+            }
+        };
+    }
 }
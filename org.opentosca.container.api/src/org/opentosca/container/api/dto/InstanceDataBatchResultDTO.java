@@ -0,0 +1,80 @@
+package org.opentosca.container.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Lists the instances created by an instance data batch, keyed by the refs given in the request.
+ */
+@XmlRootElement(name = "InstanceDataBatchResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class InstanceDataBatchResultDTO {
+
+    @XmlElement(name = "Instance")
+    @JsonProperty("instances")
+    private List<CreatedInstance> instances = new ArrayList<>();
+
+    public List<CreatedInstance> getInstances() {
+        return this.instances;
+    }
+
+    public void setInstances(final List<CreatedInstance> instances) {
+        this.instances = instances;
+    }
+
+    public void add(final String ref, final Long id, final String uri) {
+        final CreatedInstance instance = new CreatedInstance();
+        instance.setRef(ref);
+        instance.setId(id);
+        instance.setUri(uri);
+        this.instances.add(instance);
+    }
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CreatedInstance {
+
+        @XmlAttribute(name = "ref")
+        private String ref;
+
+        @XmlAttribute(name = "id")
+        private Long id;
+
+        @XmlAttribute(name = "uri")
+        private String uri;
+
+        public String getRef() {
+            return this.ref;
+        }
+
+        public void setRef(final String ref) {
+            this.ref = ref;
+        }
+
+        public Long getId() {
+            return this.id;
+        }
+
+        public void setId(final Long id) {
+            this.id = id;
+        }
+
+        public String getUri() {
+            return this.uri;
+        }
+
+        public void setUri(final String uri) {
+            this.uri = uri;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.opentosca.container.api.dto.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.w3c.dom.Element;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Creates and updates several node and relationship template instances of one service template
+ * instance at once. Entries with an id update the existing instance, entries without one create a
+ * new instance of the given template. Created instances can be named by a ref which other entries of
+ * the same request use to point at them, e.g. as source or target of a new relationship instance.
+ */
+@XmlRootElement(name = "InstanceDataBatchRequest")
+@XmlAccessorType(XmlAccessType.FIELD)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class InstanceDataBatchRequest {
+
+    @XmlElement(name = "NodeTemplateInstance")
+    private List<NodeTemplateInstanceEntry> nodeTemplateInstances = new ArrayList<>();
+
+    @XmlElement(name = "RelationshipTemplateInstance")
+    private List<RelationshipTemplateInstanceEntry> relationshipTemplateInstances = new ArrayList<>();
+
+    public List<NodeTemplateInstanceEntry> getNodeTemplateInstances() {
+        return this.nodeTemplateInstances;
+    }
+
+    public void setNodeTemplateInstances(final List<NodeTemplateInstanceEntry> nodeTemplateInstances) {
+        this.nodeTemplateInstances = nodeTemplateInstances;
+    }
+
+    public List<RelationshipTemplateInstanceEntry> getRelationshipTemplateInstances() {
+        return this.relationshipTemplateInstances;
+    }
+
+    public void setRelationshipTemplateInstances(final List<RelationshipTemplateInstanceEntry> relationshipTemplateInstances) {
+        this.relationshipTemplateInstances = relationshipTemplateInstances;
+    }
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static abstract class Entry {
+
+        @XmlAttribute(name = "id")
+        private Long id;
+
+        @XmlAttribute(name = "ref")
+        private String ref;
+
+        @XmlAttribute(name = "state")
+        private String state;
+
+        @XmlElement(name = "Properties")
+        private Properties properties;
+
+        public Long getId() {
+            return this.id;
+        }
+
+        public void setId(final Long id) {
+            this.id = id;
+        }
+
+        public String getRef() {
+            return this.ref;
+        }
+
+        public void setRef(final String ref) {
+            this.ref = ref;
+        }
+
+        public String getState() {
+            return this.state;
+        }
+
+        public void setState(final String state) {
+            this.state = state;
+        }
+
+        public Properties getProperties() {
+            return this.properties;
+        }
+
+        public void setProperties(final Properties properties) {
+            this.properties = properties;
+        }
+    }
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class NodeTemplateInstanceEntry extends Entry {
+
+        @XmlAttribute(name = "node-template-id")
+        private String nodeTemplateId;
+
+        public String getNodeTemplateId() {
+            return this.nodeTemplateId;
+        }
+
+        public void setNodeTemplateId(final String nodeTemplateId) {
+            this.nodeTemplateId = nodeTemplateId;
+        }
+    }
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class RelationshipTemplateInstanceEntry extends Entry {
+
+        @XmlAttribute(name = "relationship-template-id")
+        private String relationshipTemplateId;
+
+        @XmlAttribute(name = "source-instance-id")
+        private Long sourceNodeTemplateInstanceId;
+
+        @XmlAttribute(name = "source-ref")
+        private String sourceRef;
+
+        @XmlAttribute(name = "target-instance-id")
+        private Long targetNodeTemplateInstanceId;
+
+        @XmlAttribute(name = "target-ref")
+        private String targetRef;
+
+        public String getRelationshipTemplateId() {
+            return this.relationshipTemplateId;
+        }
+
+        public void setRelationshipTemplateId(final String relationshipTemplateId) {
+            this.relationshipTemplateId = relationshipTemplateId;
+        }
+
+        public Long getSourceNodeTemplateInstanceId() {
+            return this.sourceNodeTemplateInstanceId;
+        }
+
+        public void setSourceNodeTemplateInstanceId(final Long sourceNodeTemplateInstanceId) {
+            this.sourceNodeTemplateInstanceId = sourceNodeTemplateInstanceId;
+        }
+
+        public String getSourceRef() {
+            return this.sourceRef;
+        }
+
+        public void setSourceRef(final String sourceRef) {
+            this.sourceRef = sourceRef;
+        }
+
+        public Long getTargetNodeTemplateInstanceId() {
+            return this.targetNodeTemplateInstanceId;
+        }
+
+        public void setTargetNodeTemplateInstanceId(final Long targetNodeTemplateInstanceId) {
+            this.targetNodeTemplateInstanceId = targetNodeTemplateInstanceId;
+        }
+
+        public String getTargetRef() {
+            return this.targetRef;
+        }
+
+        public void setTargetRef(final String targetRef) {
+            this.targetRef = targetRef;
+        }
+    }
+
+    /**
+     * Wraps the properties document of an instance, i.e., its single child element is the root
+     * element of the document stored for the instance.
+     */
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Properties {
+
+        @XmlAnyElement
+        private Element element;
+
+        public Element getElement() {
+            return this.element;
+        }
+
+        public void setElement(final Element element) {
+            this.element = element;
+        }
+    }
+}
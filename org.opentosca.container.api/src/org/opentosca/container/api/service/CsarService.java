@@ -22,6 +22,7 @@ import org.opentosca.container.core.common.UserException;
 import org.opentosca.container.core.engine.IToscaEngineService;
 import org.opentosca.container.core.model.csar.CSARContent;
 import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.service.ICoreFileService;
 import org.opentosca.container.core.service.IFileAccessService;
 import org.opentosca.planbuilder.export.Exporter;
@@ -99,7 +100,7 @@ public class CsarService {
     public Application getSelfserviceMetadata(final CSARContent csarContent) {
         try (final InputStream is =
             csarContent.getDirectory("SELFSERVICE-Metadata").getFile("data.xml").getFileAsInputStream()) {
-            final JAXBContext jaxbContext = JAXBContext.newInstance(Application.class);
+            final JAXBContext jaxbContext = XMLPools.getJAXBContext(Application.class);
             final Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
             return (Application) jaxbUnmarshaller.unmarshal(is);
         }
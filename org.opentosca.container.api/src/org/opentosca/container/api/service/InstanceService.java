@@ -1,20 +1,23 @@
 package org.opentosca.container.api.service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.NotFoundException;
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 
 import org.opentosca.container.api.dto.NodeTemplateDTO;
 import org.opentosca.container.api.dto.RelationshipTemplateDTO;
 import org.opentosca.container.api.dto.request.CreateRelationshipTemplateInstanceRequest;
+import org.opentosca.container.api.dto.request.InstanceDataBatchRequest;
 import org.opentosca.container.core.common.jpa.DocumentConverter;
 import org.opentosca.container.core.engine.IToscaEngineService;
 import org.opentosca.container.core.engine.IToscaReferenceMapper;
@@ -22,6 +25,7 @@ import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.next.model.NodeTemplateInstance;
 import org.opentosca.container.core.next.model.NodeTemplateInstanceProperty;
 import org.opentosca.container.core.next.model.NodeTemplateInstanceState;
+import org.opentosca.container.core.next.model.PersistenceObject;
 import org.opentosca.container.core.next.model.PlanInstance;
 import org.opentosca.container.core.next.model.PlanType;
 import org.opentosca.container.core.next.model.Property;
@@ -36,6 +40,7 @@ import org.opentosca.container.core.next.model.SituationTrigger;
 import org.opentosca.container.core.next.model.SituationTriggerInstance;
 import org.opentosca.container.core.next.model.SituationTriggerProperty;
 import org.opentosca.container.core.next.model.SituationsMonitor;
+import org.opentosca.container.core.next.repository.BatchRepository;
 import org.opentosca.container.core.next.repository.NodeTemplateInstanceRepository;
 import org.opentosca.container.core.next.repository.PlanInstanceRepository;
 import org.opentosca.container.core.next.repository.RelationshipTemplateInstanceRepository;
@@ -44,10 +49,12 @@ import org.opentosca.container.core.next.repository.SituationRepository;
 import org.opentosca.container.core.next.repository.SituationTriggerInstanceRepository;
 import org.opentosca.container.core.next.repository.SituationTriggerRepository;
 import org.opentosca.container.core.next.repository.SituationsMonitorRepository;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 import com.google.common.collect.Lists;
 
@@ -70,6 +77,8 @@ public class InstanceService {
     private final SituationTriggerInstanceRepository sitTrigInst = new SituationTriggerInstanceRepository();
     private final SituationsMonitorRepository situationsMonitorRepo = new SituationsMonitorRepository();
 
+    private final BatchRepository batchRepository = new BatchRepository();
+
     private RelationshipTemplateService relationshipTemplateService;
     private NodeTemplateService nodeTemplateService;
     private ServiceTemplateService serviceTemplateService;
@@ -290,26 +299,14 @@ public class InstanceService {
 
         logger.debug("No Properties found in BoundaryDefinitions for ST {} thus creating blank ones",
                      serviceTemplateQName);
-        final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(true);
-        DocumentBuilder db;
-        try {
-            db = dbf.newDocumentBuilder();
-            final Document doc = db.newDocument();
-            final Element createElementNS =
-                doc.createElementNS("http://docs.oasis-open.org/tosca/ns/2011/12", "Properties");
-            createElementNS.setAttribute("xmlns:tosca", "http://docs.oasis-open.org/tosca/ns/2011/12");
-            createElementNS.setPrefix("tosca");
-            doc.appendChild(createElementNS);
-
-            return doc;
-        }
-        catch (final ParserConfigurationException e) {
-            logger.info("Cannot create a new DocumentBuilder: {}", e.getMessage());
-        }
-
-        return null; // this should never happen
-
+        final Document doc = XMLPools.newDocument();
+        final Element createElementNS =
+            doc.createElementNS("http://docs.oasis-open.org/tosca/ns/2011/12", "Properties");
+        createElementNS.setAttribute("xmlns:tosca", "http://docs.oasis-open.org/tosca/ns/2011/12");
+        createElementNS.setPrefix("tosca");
+        doc.appendChild(createElementNS);
+
+        return doc;
     }
 
     /* Node Template Instances */
@@ -415,6 +412,31 @@ public class InstanceService {
                                                                                                     IllegalAccessException,
                                                                                                     IllegalArgumentException {
         final QName serviceTemplateQName = QName.valueOf(serviceTemplateQNameAsString);
+        // ServiceTemplateInstance
+        final ServiceTemplateInstance serviceTemplateInstance =
+            getServiceTemplateInstance(serviceTemplateInstanceId, false);
+
+        if (!serviceTemplateInstance.getTemplateId().equals(serviceTemplateQName)) {
+            final String msg =
+                String.format("Service template instance id <%s> does not belong to service template: %s",
+                              serviceTemplateInstanceId, serviceTemplateQName);
+            logger.debug(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        final NodeTemplateInstance newInstance =
+            buildNodeTemplateInstance(csarId, serviceTemplateQName, nodeTemplateId, serviceTemplateInstance);
+
+        this.nodeTemplateInstanceRepository.add(newInstance);
+
+        return newInstance;
+    }
+
+    private NodeTemplateInstance buildNodeTemplateInstance(final String csarId, final QName serviceTemplateQName,
+                                                           final String nodeTemplateId,
+                                                           final ServiceTemplateInstance serviceTemplateInstance) throws InstantiationException,
+                                                                                                                  IllegalAccessException,
+                                                                                                                  IllegalArgumentException {
         final NodeTemplateInstance newInstance = new NodeTemplateInstance();
         final NodeTemplateDTO dto =
             this.nodeTemplateService.getNodeTemplateById(csarId, serviceTemplateQName, nodeTemplateId);
@@ -436,20 +458,8 @@ public class InstanceService {
         // Type
         newInstance.setTemplateType(QName.valueOf(dto.getNodeType()));
         // ServiceTemplateInstance
-        final ServiceTemplateInstance serviceTemplateInstance =
-            getServiceTemplateInstance(serviceTemplateInstanceId, false);
-
-        if (!serviceTemplateInstance.getTemplateId().equals(serviceTemplateQName)) {
-            final String msg =
-                String.format("Service template instance id <%s> does not belong to service template: %s",
-                              serviceTemplateInstanceId, serviceTemplateQName);
-            logger.debug(msg);
-            throw new IllegalArgumentException(msg);
-        }
         newInstance.setServiceTemplateInstance(serviceTemplateInstance);
 
-        this.nodeTemplateInstanceRepository.add(newInstance);
-
         return newInstance;
     }
 
@@ -594,6 +604,26 @@ public class InstanceService {
         }
 
         final QName serviceTemplateQName = QName.valueOf(serviceTemplateId);
+        final RelationshipTemplateInstance newInstance =
+            buildRelationshipTemplateInstance(csarId, serviceTemplateQName, relationshipTemplateId,
+                                              getNodeTemplateInstance(request.getSourceNodeTemplateInstanceId()),
+                                              getNodeTemplateInstance(request.getTargetNodeTemplateInstanceId()),
+                                              this.serviceTemplateInstanceRepository.find(request.getServiceInstanceId())
+                                                                                    .get());
+
+        this.relationshipTemplateInstanceRepository.add(newInstance);
+
+        return newInstance;
+    }
+
+    private RelationshipTemplateInstance buildRelationshipTemplateInstance(final String csarId,
+                                                                           final QName serviceTemplateQName,
+                                                                           final String relationshipTemplateId,
+                                                                           final NodeTemplateInstance source,
+                                                                           final NodeTemplateInstance target,
+                                                                           final ServiceTemplateInstance serviceTemplateInstance) throws InstantiationException,
+                                                                                                                                  IllegalAccessException,
+                                                                                                                                  IllegalArgumentException {
         final RelationshipTemplateInstance newInstance = new RelationshipTemplateInstance();
         final RelationshipTemplateDTO dto =
             this.relationshipTemplateService.getRelationshipTemplateById(csarId, serviceTemplateQName,
@@ -617,12 +647,10 @@ public class InstanceService {
         // Type
         newInstance.setTemplateType(QName.valueOf(dto.getRelationshipType()));
         // Source node instance
-        newInstance.setSource(getNodeTemplateInstance(request.getSourceNodeTemplateInstanceId()));
+        newInstance.setSource(source);
         // Target node instance
-        newInstance.setTarget(getNodeTemplateInstance(request.getTargetNodeTemplateInstanceId()));        
-        newInstance.setServiceTemplateInstance(this.serviceTemplateInstanceRepository.find(request.getServiceInstanceId()).get());
-
-        this.relationshipTemplateInstanceRepository.add(newInstance);
+        newInstance.setTarget(target);
+        newInstance.setServiceTemplateInstance(serviceTemplateInstance);
 
         return newInstance;
     }
@@ -638,6 +666,228 @@ public class InstanceService {
         this.relationshipTemplateInstanceRepository.remove(instance);
     }
 
+    /* Instance Data Batches */
+    /***************************/
+
+    /**
+     * Applies all instance creations and state and property updates of the given batch to the node
+     * and relationship template instances of one service template instance. Nothing is stored until
+     * every entry has been validated, then all changes are written in a single transaction.<br>
+     * <br>
+     * The properties of an entry are merged into the current properties of the instance: each given
+     * property replaces the current property of the same name, all other current properties are kept.
+     *
+     * @param csarId the id of the CSAR containing the service template
+     * @param serviceTemplateQNameAsString the qualified name of the service template
+     * @param serviceTemplateInstanceId the id of the service template instance all entries belong to
+     * @param request the batch to apply
+     * @return the created instances by the entries they were created for, in request order
+     * @throws NotFoundException if the service template instance or an updated instance does not exist
+     * @throws IllegalArgumentException if the batch is empty or an entry is invalid
+     * @throws ReflectiveOperationException if a property entity cannot be instantiated
+     */
+    public Map<InstanceDataBatchRequest.Entry, PersistenceObject> applyInstanceDataBatch(final String csarId,
+                                                                                          final String serviceTemplateQNameAsString,
+                                                                                          final Long serviceTemplateInstanceId,
+                                                                                          final InstanceDataBatchRequest request) throws NotFoundException,
+                                                                                                                                  IllegalArgumentException,
+                                                                                                                                  ReflectiveOperationException {
+        if (request == null
+            || request.getNodeTemplateInstances().isEmpty() && request.getRelationshipTemplateInstances().isEmpty()) {
+            final String msg = "Instance data batch request is empty or missing content";
+            logger.info(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        final QName serviceTemplateQName = QName.valueOf(serviceTemplateQNameAsString);
+        final ServiceTemplateInstance serviceTemplateInstance =
+            getServiceTemplateInstance(serviceTemplateInstanceId, false);
+        if (!serviceTemplateInstance.getTemplateId().equals(serviceTemplateQName)) {
+            final String msg =
+                String.format("Service template instance id <%s> does not belong to service template: %s",
+                              serviceTemplateInstanceId, serviceTemplateQName);
+            logger.debug(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        final Map<InstanceDataBatchRequest.Entry, PersistenceObject> created = new LinkedHashMap<>();
+        final List<PersistenceObject> changed = new ArrayList<>();
+        final Map<String, NodeTemplateInstance> nodesByRef = new HashMap<>();
+
+        for (final InstanceDataBatchRequest.NodeTemplateInstanceEntry entry : request.getNodeTemplateInstances()) {
+            final NodeTemplateInstance node;
+            if (entry.getId() != null) {
+                node = getNodeTemplateInstance(entry.getId());
+                checkBatchMembership(node.getServiceTemplateInstance(), serviceTemplateInstanceId, entry.getId());
+                changed.add(node);
+            } else if (entry.getNodeTemplateId() != null) {
+                node = buildNodeTemplateInstance(csarId, serviceTemplateQName, entry.getNodeTemplateId(),
+                                                 serviceTemplateInstance);
+                created.put(entry, node);
+            } else {
+                final String msg = "Node template instance entry has neither an id nor a node template id";
+                logger.debug(msg);
+                throw new IllegalArgumentException(msg);
+            }
+
+            if (entry.getState() != null) {
+                node.setState(parseState(NodeTemplateInstanceState.class, entry.getState()));
+            }
+            final Document properties = toDocument(entry.getProperties());
+            if (properties != null) {
+                node.addProperty(convertDocumentToProperty(mergeProperties(node.getProperties(), properties),
+                                                           NodeTemplateInstanceProperty.class));
+            }
+            if (entry.getRef() != null && nodesByRef.put(entry.getRef(), node) != null) {
+                final String msg = String.format("The ref <%s> is used by more than one entry", entry.getRef());
+                logger.debug(msg);
+                throw new IllegalArgumentException(msg);
+            }
+        }
+
+        for (final InstanceDataBatchRequest.RelationshipTemplateInstanceEntry entry : request.getRelationshipTemplateInstances()) {
+            final RelationshipTemplateInstance relationship;
+            if (entry.getId() != null) {
+                relationship = getRelationshipTemplateInstanc(entry.getId());
+                checkBatchMembership(relationship.getServiceTemplateInstance(), serviceTemplateInstanceId,
+                                     entry.getId());
+                changed.add(relationship);
+            } else if (entry.getRelationshipTemplateId() != null) {
+                final NodeTemplateInstance source = resolveBatchNode(nodesByRef, entry.getSourceRef(),
+                                                                     entry.getSourceNodeTemplateInstanceId(),
+                                                                     serviceTemplateInstanceId);
+                final NodeTemplateInstance target = resolveBatchNode(nodesByRef, entry.getTargetRef(),
+                                                                     entry.getTargetNodeTemplateInstanceId(),
+                                                                     serviceTemplateInstanceId);
+                relationship = buildRelationshipTemplateInstance(csarId, serviceTemplateQName,
+                                                                 entry.getRelationshipTemplateId(), source, target,
+                                                                 serviceTemplateInstance);
+                created.put(entry, relationship);
+            } else {
+                final String msg =
+                    "Relationship template instance entry has neither an id nor a relationship template id";
+                logger.debug(msg);
+                throw new IllegalArgumentException(msg);
+            }
+
+            if (entry.getState() != null) {
+                relationship.setState(parseState(RelationshipTemplateInstanceState.class, entry.getState()));
+            }
+            final Document properties = toDocument(entry.getProperties());
+            if (properties != null) {
+                relationship.addProperty(convertDocumentToProperty(mergeProperties(relationship.getProperties(),
+                                                                                   properties),
+                                                                   RelationshipTemplateInstanceProperty.class));
+            }
+        }
+
+        this.batchRepository.save(created.values(), changed);
+        logger.debug("Applied instance data batch to service template instance <{}>: {} created, {} updated",
+                     serviceTemplateInstanceId, created.size(), changed.size());
+
+        return created;
+    }
+
+    private void checkBatchMembership(final ServiceTemplateInstance owner, final Long serviceTemplateInstanceId,
+                                      final Long instanceId) {
+        if (owner == null || !serviceTemplateInstanceId.equals(owner.getId())) {
+            final String msg = String.format("Instance <%s> does not belong to service template instance <%s>",
+                                             instanceId, serviceTemplateInstanceId);
+            logger.debug(msg);
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
+    private NodeTemplateInstance resolveBatchNode(final Map<String, NodeTemplateInstance> nodesByRef,
+                                                  final String ref, final Long id,
+                                                  final Long serviceTemplateInstanceId) {
+        if (ref != null) {
+            final NodeTemplateInstance node = nodesByRef.get(ref);
+            if (node == null) {
+                final String msg = String.format("The ref <%s> does not name a node template instance entry", ref);
+                logger.debug(msg);
+                throw new IllegalArgumentException(msg);
+            }
+            return node;
+        }
+        if (id == null) {
+            final String msg = "Relationship template instance entry is missing its source or target";
+            logger.debug(msg);
+            throw new IllegalArgumentException(msg);
+        }
+        final NodeTemplateInstance node = getNodeTemplateInstance(id);
+        checkBatchMembership(node.getServiceTemplateInstance(), serviceTemplateInstanceId, id);
+        return node;
+    }
+
+    private <S extends Enum<S>> S parseState(final Class<S> type, final String state) {
+        try {
+            return Enum.valueOf(type, state);
+        }
+        catch (final Exception e) {
+            final String msg = String.format("The given state %s is an illegal %s.", state, type.getSimpleName());
+            logger.debug(msg);
+            throw new IllegalArgumentException(msg, e);
+        }
+    }
+
+    private Document toDocument(final InstanceDataBatchRequest.Properties properties) {
+        if (properties == null || properties.getElement() == null) {
+            return null;
+        }
+        final Document doc = XMLPools.newDocument();
+        doc.appendChild(doc.importNode(properties.getElement(), true));
+        return doc;
+    }
+
+    /**
+     * @return the current XML properties of an instance in which each property element of the given
+     *         properties replaces the element of the same name, or the given properties if the instance
+     *         has no XML properties with the same root element
+     */
+    private Document mergeProperties(final Collection<? extends Property> currentProperties,
+                                     final Document properties) {
+        final Optional<? extends Property> current =
+            currentProperties.stream().filter(p -> "xml".equalsIgnoreCase(p.getType())).findFirst();
+        if (!current.isPresent()) {
+            return properties;
+        }
+        final Document merged = convertPropertyToDocument(current.get());
+        if (merged == null || merged.getDocumentElement() == null
+            || !isSameElement(merged.getDocumentElement(), properties.getDocumentElement())) {
+            return properties;
+        }
+
+        final Element mergedRoot = merged.getDocumentElement();
+        for (Node property = properties.getDocumentElement().getFirstChild(); property != null;
+             property = property.getNextSibling()) {
+            if (property.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            Node existing = mergedRoot.getFirstChild();
+            while (existing != null && !(existing.getNodeType() == Node.ELEMENT_NODE
+                && isSameElement(existing, property))) {
+                existing = existing.getNextSibling();
+            }
+            final Node imported = merged.importNode(property, true);
+            if (existing != null) {
+                mergedRoot.replaceChild(imported, existing);
+            } else {
+                mergedRoot.appendChild(imported);
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isSameElement(final Node element, final Node otherElement) {
+        return Objects.equals(element.getNamespaceURI(), otherElement.getNamespaceURI())
+            && Objects.equals(localName(element), localName(otherElement));
+    }
+
+    private static String localName(final Node element) {
+        return element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
+    }
+
     /* Situations */
     public Situation createNewSituation(final String thingId, final String situationTemplateId, final boolean active, float eventProbability, String eventTime) {
         final Situation newInstance = new Situation();
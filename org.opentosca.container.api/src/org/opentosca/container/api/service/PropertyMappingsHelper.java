@@ -4,14 +4,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.ws.rs.NotFoundException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
+import org.opentosca.container.core.engine.PropertyMappingQuery;
 import org.opentosca.container.core.next.model.NodeTemplateInstance;
 import org.opentosca.container.core.next.model.NodeTemplateInstanceProperty;
 import org.opentosca.container.core.next.model.ServiceTemplateInstance;
@@ -72,11 +70,16 @@ public class PropertyMappingsHelper {
             return;
         }
 
+        final Map<String, PropertyMappingQuery> queries =
+            this.instanceService.getReferenceMapper()
+                                .getServiceTemplateBoundsPropertyQueries(serviceInstance.getCsarId(),
+                                                                         serviceInstance.getTemplateId());
+
         // cycle through mappings and update accordingly
         for (final TPropertyMapping mapping : propertyMappings.getPropertyMapping()) {
             final String serviceTemplatePropertyQuery = mapping.getServiceTemplatePropertyRef();
             final List<Element> serviceTemplatePropertyElements =
-                queryElementList((Element) proprtiesAsXML.getFirstChild(), serviceTemplatePropertyQuery);
+                queryElementList((Element) proprtiesAsXML.getFirstChild(), serviceTemplatePropertyQuery, queries);
 
             // fetch element from serviceTemplateProperties
             if (serviceTemplatePropertyElements.size() != 1) {
@@ -117,7 +120,7 @@ public class PropertyMappingsHelper {
                 final Element nodePropertiesRoot = (Element) nodeProperties.getFirstChild();
                 final String nodeTemplatePropertyQuery = mapping.getTargetPropertyRef();
                 final List<Element> nodePropertyElements =
-                    queryElementList(nodePropertiesRoot, nodeTemplatePropertyQuery);
+                    queryElementList(nodePropertiesRoot, nodeTemplatePropertyQuery, queries);
 
                 if (nodePropertyElements.size() != 1) {
                     // skip this property, we expect only one
@@ -139,26 +142,14 @@ public class PropertyMappingsHelper {
         }
     }
 
-    private List<Element> queryElementList(final Element node, final String xpathQuery) {
-        final List<Element> elements = new ArrayList<>();
-        try {
-            final XPath xPath = XPathFactory.newInstance().newXPath();
-
-            final NodeList nodes = (NodeList) xPath.evaluate(xpathQuery, node, XPathConstants.NODESET);
-
-            for (int index = 0; index < nodes.getLength(); index++) {
-                if (nodes.item(index).getNodeType() == Node.ELEMENT_NODE) {
-                    elements.add((Element) nodes.item(index));
-                }
-
-            }
-
-        }
-        catch (final XPathExpressionException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+    private List<Element> queryElementList(final Element node, final String xpathQuery,
+                                           final Map<String, PropertyMappingQuery> queries) {
+        // the queries of the property mappings are prepared when the service template is resolved
+        PropertyMappingQuery query = queries.get(xpathQuery);
+        if (query == null) {
+            query = new PropertyMappingQuery(xpathQuery);
         }
-        return elements;
+        return query.selectElements(node);
     }
 
     private boolean isConcatQuery(final String xPathQuery) {
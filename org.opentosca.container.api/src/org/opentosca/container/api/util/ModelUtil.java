@@ -3,13 +3,12 @@ package org.opentosca.container.api.util;
 import java.util.List;
 
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 
 import org.opentosca.container.core.common.SystemException;
 import org.opentosca.container.core.common.UserException;
 import org.opentosca.container.core.engine.IToscaEngineService;
 import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -56,19 +55,10 @@ public abstract class ModelUtil {
     }
 
     public static Document createDocumentFromElement(final Element element) {
-        try {
-            final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(true);
-            dbf.setIgnoringComments(true);
-            final Document doc = dbf.newDocumentBuilder().newDocument();
-            final Node importedNode = doc.importNode(element, true);
-            doc.appendChild(importedNode);
-            return doc;
-        }
-        catch (final ParserConfigurationException e) {
-            e.printStackTrace();
-            return null;
-        }
+        final Document doc = XMLPools.newDocument();
+        final Node importedNode = doc.importNode(element, true);
+        doc.appendChild(importedNode);
+        return doc;
     }
 
 
@@ -0,0 +1,135 @@
+package org.opentosca.container.api.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a plain (uncompressed) tar archive which can be unpacked with the <tt>tar</tt> command
+ * available on every Linux machine. Only regular files are supported. Names longer than 100 bytes
+ * are written as GNU long name entries.
+ */
+public class TarOutputStream extends FilterOutputStream {
+
+    private static final int BLOCK_SIZE = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final String LONG_NAME = "././@LongLink";
+
+    private long remaining = 0;
+    private long written = 0;
+
+
+    public TarOutputStream(final OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Starts a new file entry. Exactly <tt>size</tt> bytes have to be written before the next entry
+     * is started.
+     *
+     * @param name the path of the file within the archive
+     * @param size the size of the file in bytes
+     * @param lastModified the modification time in milliseconds since the epoch
+     * @throws IOException if writing fails
+     */
+    public void putEntry(final String name, final long size, final long lastModified) throws IOException {
+        closeEntry();
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > NAME_LENGTH) {
+            writeHeader(LONG_NAME.getBytes(StandardCharsets.UTF_8), nameBytes.length + 1, 0, 'L');
+            this.remaining = nameBytes.length + 1;
+            write(nameBytes);
+            write(0);
+            closeEntry();
+        }
+        writeHeader(nameBytes, size, lastModified, '0');
+        this.remaining = size;
+    }
+
+    /**
+     * Pads the current entry to a full block.
+     *
+     * @throws IOException if the current entry was not completely written
+     */
+    public void closeEntry() throws IOException {
+        if (this.remaining != 0) {
+            throw new IOException("Entry is missing " + this.remaining + " bytes");
+        }
+        final int padding = (int) ((BLOCK_SIZE - this.written % BLOCK_SIZE) % BLOCK_SIZE);
+        this.out.write(new byte[padding]);
+        this.written = 0;
+    }
+
+    /**
+     * Writes the end of archive marker, i.e., two empty blocks.
+     *
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+        closeEntry();
+        this.out.write(new byte[2 * BLOCK_SIZE]);
+        this.out.flush();
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (this.remaining < 1) {
+            throw new IOException("Entry size exceeded");
+        }
+        this.out.write(b);
+        this.remaining--;
+        this.written++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (len > this.remaining) {
+            throw new IOException("Entry size exceeded");
+        }
+        this.out.write(b, off, len);
+        this.remaining -= len;
+        this.written += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        super.close();
+    }
+
+    private void writeHeader(final byte[] name, final long size, final long lastModified,
+                             final char type) throws IOException {
+        final byte[] header = new byte[BLOCK_SIZE];
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        writeOctal(header, 100, 8, 0644);
+        writeOctal(header, 108, 8, 0);
+        writeOctal(header, 116, 8, 0);
+        writeOctal(header, 124, 12, size);
+        writeOctal(header, 136, 12, lastModified / 1000);
+        header[156] = (byte) type;
+        System.arraycopy("ustar  ".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 7);
+
+        // the checksum is computed with the checksum field filled with spaces
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (final byte b : header) {
+            checksum += b & 0xff;
+        }
+        writeOctal(header, 148, 7, checksum);
+
+        this.out.write(header);
+    }
+
+    private static void writeOctal(final byte[] header, final int offset, final int length, final long value) {
+        final String octal = Long.toOctalString(value);
+        final int digits = length - 1;
+        for (int i = 0; i < digits; i++) {
+            final int index = octal.length() - digits + i;
+            header[offset + i] = (byte) (index < 0 ? '0' : octal.charAt(index));
+        }
+        header[offset + digits] = 0;
+    }
+}
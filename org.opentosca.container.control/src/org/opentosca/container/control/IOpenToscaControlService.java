@@ -39,6 +39,17 @@ public interface IOpenToscaControlService {
      */
     public Boolean invokePlanDeployment(CSARID csarID, QName serviceTemplateID);
 
+    /**
+     * Invoke the deployment of the Plans, unless the Plans and the CSAR are unchanged since their last
+     * successful deployment and the Plans are still deployed on their engines. This is used at the
+     * startup of the container.
+     *
+     * @param csarID ID which uniquely identifies a CSAR file.
+     * @param serviceTemplateID ID of the ServiceTemplate to deploy.
+     * @return Returns true for success, false for one or more errors.
+     */
+    public Boolean invokePlanDeploymentIfChanged(CSARID csarID, QName serviceTemplateID);
+
     /**
      * Returns all the stored CSARs inside the OpenTosca Container.
      *
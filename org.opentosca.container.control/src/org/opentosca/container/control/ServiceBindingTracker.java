@@ -1,12 +1,19 @@
 package org.opentosca.container.control;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.xml.namespace.QName;
 
 import org.opentosca.bus.management.service.IManagementBusService;
+import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.engine.IToscaEngineService;
 import org.opentosca.container.core.engine.xml.IXMLSerializerService;
 import org.opentosca.container.core.model.csar.id.CSARID;
@@ -95,18 +102,16 @@ public class ServiceBindingTracker {
      */
     private void logContainerIsAvailable() {
 
-        this.LOG.info("Start of the OpenTOSCA Container, now invoke the resolving and consolidation of TOSCA data inside of stored CSARs.");
-        for (final CSARID csarID : this.coreFileService.getCSARIDs()) {
-            this.openToscaControlService.invokeTOSCAProcessing(csarID);
+        if (Boolean.parseBoolean(Settings.OPENTOSCA_CSAR_PROCESSING_LAZY)) {
+            this.LOG.info("Start of the OpenTOSCA Container, the TOSCA data inside of stored CSARs is resolved and consolidated on demand.");
+            processCSARsLazily();
+        } else {
+            this.LOG.info("Start of the OpenTOSCA Container, now invoke the resolving and consolidation of TOSCA data inside of stored CSARs.");
+            processCSARsInParallel();
 
-            for (final QName serviceTemplateID : this.toscaEngineService.getToscaReferenceMapper()
-                                                                        .getServiceTemplateIDsContainedInCSAR(csarID)) {
-                this.openToscaControlService.invokePlanDeployment(csarID, serviceTemplateID);
-            }
+            this.toscaEngineService.getToscaReferenceMapper().printStoredData();
         }
 
-        this.toscaEngineService.getToscaReferenceMapper().printStoredData();
-
         this.LOG.info("#################################################################################################");
         this.LOG.info("#################################################################################################");
         this.LOG.info("########################### The OpenTOSCA Container is ready for use! ###########################");
@@ -114,6 +119,74 @@ public class ServiceBindingTracker {
         this.LOG.info("#################################################################################################");
     }
 
+    /**
+     * Resolves the TOSCA data of a stored CSAR and deploys its plans.
+     */
+    private void processCSAR(final CSARID csarID) {
+        this.openToscaControlService.invokeTOSCAProcessing(csarID);
+        deployPlans(csarID);
+    }
+
+    /**
+     * Deploys the plans of all Service Templates of a resolved CSAR.
+     */
+    private void deployPlans(final CSARID csarID) {
+        for (final QName serviceTemplateID : this.toscaEngineService.getToscaReferenceMapper()
+                                                                    .getServiceTemplateIDsContainedInCSAR(csarID)) {
+            this.openToscaControlService.invokePlanDeploymentIfChanged(csarID, serviceTemplateID);
+        }
+    }
+
+    /**
+     * Processes all stored CSARs in a pipeline and waits until it's done. The CSARs are independent,
+     * so multiple CSARs are resolved concurrently and the plans of a resolved CSAR are deployed while
+     * the next CSARs are resolved.
+     */
+    private void processCSARsInParallel() {
+        final int threads = Math.max(1, Integer.parseInt(Settings.OPENTOSCA_CSAR_STARTUP_THREADS));
+        final ExecutorService resolvingExecutor = Executors.newFixedThreadPool(threads);
+        final ExecutorService deployingExecutor = Executors.newFixedThreadPool(threads);
+
+        final List<CompletableFuture<Void>> processing = new ArrayList<>();
+        for (final CSARID csarID : this.coreFileService.getCSARIDs()) {
+            processing.add(CompletableFuture.runAsync(() -> this.openToscaControlService.invokeTOSCAProcessing(csarID),
+                                                      resolvingExecutor)
+                                            .thenRunAsync(() -> deployPlans(csarID), deployingExecutor)
+                                            .exceptionally(e -> {
+                                                this.LOG.error("Processing of CSAR \"{}\" failed.", csarID, e);
+                                                return null;
+                                            }));
+        }
+
+        try {
+            CompletableFuture.allOf(processing.toArray(new CompletableFuture<?>[processing.size()])).join();
+        }
+        finally {
+            resolvingExecutor.shutdown();
+            deployingExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Defers the processing of all stored CSARs until their first access, so the container is ready
+     * at once. The CSARs which are not accessed in the meantime are processed in the background by a
+     * bounded number of threads.
+     */
+    private void processCSARsLazily() {
+        final Set<CSARID> csarIDs = this.coreFileService.getCSARIDs();
+        for (final CSARID csarID : csarIDs) {
+            this.toscaEngineService.deferCSARProcessing(csarID, () -> processCSAR(csarID));
+        }
+
+        final ExecutorService warmUpExecutor =
+            Executors.newFixedThreadPool(Math.max(1, Integer.parseInt(Settings.OPENTOSCA_CSAR_WARMUP_THREADS)));
+        for (final CSARID csarID : csarIDs) {
+            warmUpExecutor.submit(() -> this.toscaEngineService.processDeferredCSAR(csarID));
+        }
+        // the threads terminate when all CSARs are processed
+        warmUpExecutor.shutdown();
+    }
+
     /**
      * Bind method for a service.
      *
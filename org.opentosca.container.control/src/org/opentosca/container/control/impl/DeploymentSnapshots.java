@@ -0,0 +1,335 @@
+package org.opentosca.container.control.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.namespace.QName;
+
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.container.core.common.SystemException;
+import org.opentosca.container.core.model.AbstractFile;
+import org.opentosca.container.core.model.csar.CSARContent;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.utils.Consts;
+import org.opentosca.container.core.tosca.model.TPlan;
+import org.opentosca.container.core.tosca.model.TPlans;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists a snapshot of the plan deployment status of each stored CSAR, so the plans of unchanged
+ * CSARs don't have to be deployed again at the startup of the container.<br>
+ * <br>
+ *
+ * A snapshot contains a fingerprint of the paths and meta data (size and modification time) of the
+ * files of the CSAR and a hash of the deployed plans of each Service Template. It's versioned and
+ * validated with a SHA-256 checksum, so a snapshot of another version, a corrupted snapshot or a
+ * snapshot of a changed CSAR, e.g., one that was deleted and stored again with other content, is
+ * ignored.<br>
+ * <br>
+ *
+ * The fingerprint is computed once per CSAR and kept until the CSAR is deleted. Reading and writing
+ * the snapshot of a CSAR is synchronized per CSAR, so CSARs can be processed concurrently.
+ */
+final class DeploymentSnapshots {
+
+    private final static Logger LOG = LoggerFactory.getLogger(DeploymentSnapshots.class);
+
+    private final static String VERSION = "3";
+
+    private final static String KEY_VERSION = "version";
+    private final static String KEY_CSAR = "csar";
+    private final static String KEY_FINGERPRINT = "fingerprint";
+    private final static String KEY_CHECKSUM = "checksum";
+    private final static String KEY_PLANS_PREFIX = "plans|";
+
+    private final static String SNAPSHOT_FILE_SUFFIX = ".snapshot";
+
+    private final static boolean ENABLED = Boolean.parseBoolean(Settings.OPENTOSCA_DEPLOYMENT_SNAPSHOT);
+
+    private final static Path SNAPSHOT_DIRECTORY =
+        Settings.OPENTOSCA_DEPLOYMENT_SNAPSHOT_DIRECTORY == null
+            || Settings.OPENTOSCA_DEPLOYMENT_SNAPSHOT_DIRECTORY.trim().isEmpty() ? new File(Consts.BASEDIR,
+                "snapshots").toPath() : Paths.get(Settings.OPENTOSCA_DEPLOYMENT_SNAPSHOT_DIRECTORY);
+
+    private final static ConcurrentMap<CSARID, String> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private final static ConcurrentMap<CSARID, Object> LOCKS = new ConcurrentHashMap<>();
+
+
+    private DeploymentSnapshots() {
+    }
+
+    /**
+     * @param csar the CSAR
+     * @param serviceTemplateID ID of a Service Template of the CSAR
+     * @param plans the plans of the Service Template
+     * @param namespace the namespace of the plans
+     * @return {@code true} if the snapshot of the CSAR states that the given plans are deployed and
+     *         neither the CSAR nor the plans changed since, otherwise {@code false}
+     */
+    static boolean isDeployed(final CSARContent csar, final QName serviceTemplateID, final TPlans plans,
+                              final String namespace) {
+        if (!ENABLED) {
+            return false;
+        }
+        final String fingerprint = fingerprint(csar);
+        if (fingerprint == null) {
+            return false;
+        }
+        final String plansHash = hashPlans(plans, namespace);
+        final Properties snapshot;
+        synchronized (lock(csar.getCSARID())) {
+            snapshot = load(csar.getCSARID());
+        }
+        return snapshot != null && fingerprint.equals(snapshot.getProperty(KEY_FINGERPRINT))
+            && plansHash.equals(snapshot.getProperty(KEY_PLANS_PREFIX + serviceTemplateID));
+    }
+
+    /**
+     * Records in the snapshot of the CSAR that the given plans of a Service Template are deployed.
+     */
+    static void storeDeployed(final CSARContent csar, final QName serviceTemplateID, final TPlans plans,
+                              final String namespace) {
+        if (!ENABLED) {
+            return;
+        }
+        final String fingerprint = fingerprint(csar);
+        if (fingerprint == null) {
+            return;
+        }
+        final String plansHash = hashPlans(plans, namespace);
+        synchronized (lock(csar.getCSARID())) {
+            Properties snapshot = load(csar.getCSARID());
+            if (snapshot == null || !fingerprint.equals(snapshot.getProperty(KEY_FINGERPRINT))) {
+                snapshot = new Properties();
+                snapshot.setProperty(KEY_VERSION, VERSION);
+                snapshot.setProperty(KEY_CSAR, csar.getCSARID().toString());
+                snapshot.setProperty(KEY_FINGERPRINT, fingerprint);
+            }
+            snapshot.setProperty(KEY_PLANS_PREFIX + serviceTemplateID, plansHash);
+            store(csar.getCSARID(), snapshot);
+        }
+    }
+
+    /**
+     * Removes the plans of a Service Template from the snapshot of the CSAR, e.g., because their
+     * deployment failed.
+     */
+    static void removeDeployed(final CSARID csarID, final QName serviceTemplateID) {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (lock(csarID)) {
+            final Properties snapshot = load(csarID);
+            if (snapshot != null && snapshot.remove(KEY_PLANS_PREFIX + serviceTemplateID) != null) {
+                store(csarID, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Deletes the snapshot and the fingerprint of the CSAR.
+     */
+    static void delete(final CSARID csarID) {
+        FINGERPRINTS.remove(csarID);
+        synchronized (lock(csarID)) {
+            try {
+                Files.deleteIfExists(getSnapshotFile(csarID));
+            }
+            catch (final IOException e) {
+                LOG.warn("Deleting the deployment snapshot of CSAR \"{}\" failed.", csarID, e);
+            }
+        }
+    }
+
+    private static Object lock(final CSARID csarID) {
+        final Object lock = LOCKS.get(csarID);
+        if (lock != null) {
+            return lock;
+        }
+        final Object newLock = new Object();
+        final Object existingLock = LOCKS.putIfAbsent(csarID, newLock);
+        return existingLock == null ? newLock : existingLock;
+    }
+
+    /**
+     * @return the snapshot of the CSAR or {@code null} if there is none or it's not valid
+     */
+    private static Properties load(final CSARID csarID) {
+        final Path snapshotFile = getSnapshotFile(csarID);
+        if (!Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+        final Properties snapshot = new Properties();
+        try (InputStream in = Files.newInputStream(snapshotFile)) {
+            snapshot.load(in);
+        }
+        catch (final IOException | IllegalArgumentException e) {
+            LOG.warn("Reading the deployment snapshot of CSAR \"{}\" failed.", csarID, e);
+            return null;
+        }
+        final String checksum = (String) snapshot.remove(KEY_CHECKSUM);
+        if (checksum == null || !checksum.equals(checksum(snapshot))) {
+            LOG.warn("The deployment snapshot of CSAR \"{}\" is corrupted and is ignored.", csarID);
+            return null;
+        }
+        if (!VERSION.equals(snapshot.getProperty(KEY_VERSION))
+            || !csarID.toString().equals(snapshot.getProperty(KEY_CSAR))) {
+            LOG.debug("The deployment snapshot of CSAR \"{}\" has another version and is ignored.", csarID);
+            return null;
+        }
+        return snapshot;
+    }
+
+    private static void store(final CSARID csarID, final Properties snapshot) {
+        final Properties snapshotWithChecksum = new Properties();
+        snapshotWithChecksum.putAll(snapshot);
+        snapshotWithChecksum.setProperty(KEY_CHECKSUM, checksum(snapshot));
+        try {
+            Files.createDirectories(SNAPSHOT_DIRECTORY);
+            final Path tempFile = Files.createTempFile(SNAPSHOT_DIRECTORY, "snapshot", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                snapshotWithChecksum.store(out, "Deployment snapshot of CSAR " + csarID);
+            }
+            // replace the old snapshot at once, so a crash can't leave a partially written snapshot
+            Files.move(tempFile, getSnapshotFile(csarID), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException e) {
+            LOG.warn("Writing the deployment snapshot of CSAR \"{}\" failed.", csarID, e);
+        }
+    }
+
+    private static Path getSnapshotFile(final CSARID csarID) {
+        return SNAPSHOT_DIRECTORY.resolve(csarID.toString() + SNAPSHOT_FILE_SUFFIX);
+    }
+
+    /**
+     * @return checksum of the entries of the snapshot (independent of their order)
+     */
+    private static String checksum(final Properties snapshot) {
+        final List<String> entries = new ArrayList<>();
+        for (final String key : snapshot.stringPropertyNames()) {
+            entries.add(key + "=" + snapshot.getProperty(key));
+        }
+        Collections.sort(entries);
+        return hash(entries);
+    }
+
+    /**
+     * @return fingerprint of the CSAR, computed on the first call for the CSAR
+     */
+    private static String fingerprint(final CSARContent csar) {
+        final String fingerprint = FINGERPRINTS.get(csar.getCSARID());
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        // computed without holding a lock, concurrent callers compute the same fingerprint
+        final String newFingerprint = computeFingerprint(csar);
+        if (newFingerprint == null) {
+            return null;
+        }
+        final String existingFingerprint = FINGERPRINTS.putIfAbsent(csar.getCSARID(), newFingerprint);
+        return existingFingerprint == null ? newFingerprint : existingFingerprint;
+    }
+
+    /**
+     * @return fingerprint of the paths and modification stamps of the files of the CSAR or {@code null}
+     *         if a file can't be read. The content of a file is only read if it has no modification
+     *         stamp.
+     */
+    private static String computeFingerprint(final CSARContent csar) {
+        final TreeMap<String, AbstractFile> files = new TreeMap<>();
+        for (final AbstractFile file : csar.getFilesRecursively()) {
+            files.put(file.getPath(), file);
+        }
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[8192];
+        for (final Map.Entry<String, AbstractFile> file : files.entrySet()) {
+            digest.update(file.getKey().getBytes(StandardCharsets.UTF_8));
+            try {
+                final String stamp = file.getValue().getModificationStamp();
+                if (stamp != null) {
+                    digest.update(("\nstamp:" + stamp + "\n").getBytes(StandardCharsets.UTF_8));
+                    continue;
+                }
+                long size = 0;
+                try (InputStream in = file.getValue().getFileAsInputStream()) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                        size += read;
+                    }
+                }
+                // the size separates the content from the path of the next file
+                digest.update(("\ncontent:" + size + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            catch (final SystemException | IOException e) {
+                LOG.warn("Reading file \"{}\" of CSAR \"{}\" failed.", file.getKey(), csar.getCSARID(), e);
+                return null;
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return hash of all properties of the plans that are relevant for their deployment
+     */
+    private static String hashPlans(final TPlans plans, final String namespace) {
+        final List<String> properties = new ArrayList<>();
+        properties.add(namespace);
+        for (final TPlan plan : plans.getPlan()) {
+            properties.add(plan.getId());
+            properties.add(plan.getPlanLanguage());
+            properties.add(plan.getPlanType());
+            properties.add(plan.getPlanModelReference() == null ? null : plan.getPlanModelReference().getReference());
+            properties.add(String.valueOf(plan.getPlanModel() != null));
+        }
+        return hash(properties);
+    }
+
+    private static String hash(final Iterable<String> values) {
+        final MessageDigest digest = newDigest();
+        for (final String value : values) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
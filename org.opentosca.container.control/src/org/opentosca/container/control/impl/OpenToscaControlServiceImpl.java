@@ -14,6 +14,7 @@ import org.opentosca.container.core.common.SystemException;
 import org.opentosca.container.core.common.UserException;
 import org.opentosca.container.core.engine.IToscaEngineService;
 import org.opentosca.container.core.engine.xml.IXMLSerializerService;
+import org.opentosca.container.core.model.csar.CSARContent;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.model.deployment.process.DeploymentProcessOperation;
 import org.opentosca.container.core.model.deployment.process.DeploymentProcessState;
@@ -120,21 +121,23 @@ public class OpenToscaControlServiceImpl implements IOpenToscaControlService {
                 namespace = serviceTemplateID.getNamespaceURI();
             }
 
-            for (final TPlan plan : plans.getPlan()) {
-
-                if (!OpenToscaControlServiceImpl.planEngine.deployPlan(plan, namespace, csarID)) {
-                    listOfUndeployedPlans.add(plan);
-                }
-            }
+            // deploy all plans at once, thus plugins can deploy them with one request to their engine
+            listOfUndeployedPlans.addAll(OpenToscaControlServiceImpl.planEngine.deployPlans(plans, namespace, csarID));
 
             // check the success of the plan deployment
             if (listOfUndeployedPlans.size() != 0) {
                 this.LOG.error("Plan deployment failed!");
+                DeploymentSnapshots.removeDeployed(csarID, serviceTemplateID);
                 OpenToscaControlServiceImpl.coreDeploymentTracker.storeDeploymentState(csarID,
                                                                                        DeploymentProcessState.TOSCA_PROCESSED);
                 return false;
             }
 
+            final CSARContent csar = getCSAR(csarID);
+            if (csar != null) {
+                DeploymentSnapshots.storeDeployed(csar, serviceTemplateID, plans, namespace);
+            }
+
         } else {
             this.LOG.error("PlanEngine is not alive!");
             OpenToscaControlServiceImpl.coreDeploymentTracker.storeDeploymentState(csarID,
@@ -152,6 +155,77 @@ public class OpenToscaControlServiceImpl implements IOpenToscaControlService {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Boolean invokePlanDeploymentIfChanged(final CSARID csarID, final QName serviceTemplateID) {
+
+        final TServiceTemplate mainServiceTemplate =
+            (TServiceTemplate) OpenToscaControlServiceImpl.toscaEngine.getToscaReferenceMapper()
+                                                                      .getJAXBReference(csarID, serviceTemplateID);
+        final CSARContent csar = getCSAR(csarID);
+
+        if (mainServiceTemplate != null && mainServiceTemplate.getPlans() != null && csar != null) {
+
+            final TPlans plans = mainServiceTemplate.getPlans();
+
+            String namespace = plans.getTargetNamespace();
+
+            if (namespace == null) {
+                namespace = serviceTemplateID.getNamespaceURI();
+            }
+
+            if (DeploymentSnapshots.isDeployed(csar, serviceTemplateID, plans, namespace)
+                && arePlansDeployed(csarID, plans, namespace)) {
+                this.LOG.info("The management plans of the Service Template \"" + serviceTemplateID
+                    + "\" inside of the CSAR \"" + csarID + "\" are unchanged and already deployed.");
+                OpenToscaControlServiceImpl.coreDeploymentTracker.storeDeploymentState(csarID,
+                                                                                       DeploymentProcessState.PLANS_DEPLOYED);
+                return true;
+            }
+        }
+
+        return invokePlanDeployment(csarID, serviceTemplateID);
+    }
+
+    /**
+     * @return {@code true} if the endpoints of all plans are stored and the plan engines still have
+     *         the plans deployed, e.g., they weren't reset while the container was stopped
+     */
+    private boolean arePlansDeployed(final CSARID csarID, final TPlans plans, final String namespace) {
+        if (OpenToscaControlServiceImpl.planEngine == null) {
+            this.LOG.warn("PlanEngine is not alive!");
+            return false;
+        }
+        for (final TPlan plan : plans.getPlan()) {
+            final QName planID = new QName(namespace, plan.getId());
+            if (OpenToscaControlServiceImpl.endpointService.getWSDLEndpointForPlanId(Settings.OPENTOSCA_CONTAINER_HOSTNAME,
+                                                                                     csarID, planID) == null) {
+                this.LOG.debug("No endpoint of plan \"{}\" of CSAR \"{}\" is stored.", planID, csarID);
+                return false;
+            }
+            if (!OpenToscaControlServiceImpl.planEngine.isPlanDeployed(plan, namespace, csarID)) {
+                this.LOG.debug("Plan \"{}\" of CSAR \"{}\" is not deployed anymore.", planID, csarID);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the content of the CSAR or {@code null} if it's not stored
+     */
+    private CSARContent getCSAR(final CSARID csarID) {
+        try {
+            return OpenToscaControlServiceImpl.fileService.getCSAR(csarID);
+        }
+        catch (final UserException e) {
+            this.LOG.warn("CSAR \"{}\" is not stored.", csarID, e);
+            return null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -217,6 +291,7 @@ public class OpenToscaControlServiceImpl implements IOpenToscaControlService {
         }
 
         OpenToscaControlServiceImpl.coreDeploymentTracker.deleteDeploymentState(csarID);
+        DeploymentSnapshots.delete(csarID);
 
         // Delete all plan endpoints related to this CSAR. IA endpoints are undeployed and deleted
         // by the Management Bus.
@@ -320,6 +395,9 @@ public class OpenToscaControlServiceImpl implements IOpenToscaControlService {
     @Override
     public Set<DeploymentProcessOperation> getExecutableDeploymentProcessOperations(final CSARID csarID) {
 
+        // the state of a lazily processed CSAR is known after its processing
+        OpenToscaControlServiceImpl.toscaEngine.processDeferredCSAR(csarID);
+
         final Set<DeploymentProcessOperation> operationList = new HashSet<>();
 
         // add all possible operations for a passed CSAR
@@ -368,6 +446,7 @@ public class OpenToscaControlServiceImpl implements IOpenToscaControlService {
      */
     @Override
     public DeploymentProcessState getDeploymentProcessState(final CSARID csarID) {
+        OpenToscaControlServiceImpl.toscaEngine.processDeferredCSAR(csarID);
         return OpenToscaControlServiceImpl.coreDeploymentTracker.getDeploymentState(csarID);
     }
 
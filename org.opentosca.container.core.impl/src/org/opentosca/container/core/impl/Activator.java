@@ -4,6 +4,7 @@
  *******************************************************************************/
 package org.opentosca.container.core.impl;
 
+import org.opentosca.container.core.impl.service.internal.file.StorageProviderManager;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
@@ -31,6 +32,7 @@ public class Activator implements BundleActivator {
     public void stop(final BundleContext bundleContext) throws Exception {
         logger.info("Stopping bundle \"{}\" ({})...", bundleContext.getBundle().getSymbolicName(),
                     bundleContext.getBundle().getVersion());
+        StorageProviderManager.shutdown();
         Activator.context = null;
     }
 }
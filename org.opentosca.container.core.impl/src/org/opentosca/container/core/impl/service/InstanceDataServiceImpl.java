@@ -15,17 +15,12 @@ import javax.jws.WebParam;
 import javax.jws.WebService;
 import javax.jws.soap.SOAPBinding;
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.opentosca.container.core.common.ReferenceNotFoundException;
 import org.opentosca.container.core.engine.IToscaEngineService;
+import org.opentosca.container.core.engine.IToscaReferenceMapper;
 import org.opentosca.container.core.engine.NodeTemplateInstanceCounts;
+import org.opentosca.container.core.engine.PropertyMappingQuery;
 import org.opentosca.container.core.impl.persistence.Converters;
 import org.opentosca.container.core.impl.persistence.DaoUtil;
 import org.opentosca.container.core.impl.persistence.NodeInstanceDAO;
@@ -42,6 +37,7 @@ import org.opentosca.container.core.next.model.ServiceTemplateInstance;
 import org.opentosca.container.core.next.repository.NodeTemplateInstanceRepository;
 import org.opentosca.container.core.next.repository.RelationshipTemplateInstanceRepository;
 import org.opentosca.container.core.next.repository.ServiceTemplateInstanceRepository;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.service.IInstanceDataService;
 import org.opentosca.container.core.tosca.model.TBoundaryDefinitions;
 import org.opentosca.container.core.tosca.model.TNodeTemplate;
@@ -742,17 +738,7 @@ public class InstanceDataServiceImpl implements IInstanceDataService {
      * @return An empty DOM document.
      */
     private static Document emptyDocument() {
-        final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(true);
-        try {
-            final DocumentBuilder db = dbf.newDocumentBuilder();
-            final Document doc = db.newDocument();
-            return doc;
-        }
-        catch (final ParserConfigurationException e) {
-            InstanceDataServiceImpl.logger.error(e.getMessage());
-        }
-        return null;
+        return XMLPools.newDocument();
     }
 
     @Override
@@ -876,12 +862,17 @@ public class InstanceDataServiceImpl implements IInstanceDataService {
         }
 
         final Element properties = (Element) serviceInstance.getProperties().getFirstChild();
+        final IToscaReferenceMapper referenceMapper =
+            InstanceDataServiceImpl.toscaEngineService.getToscaReferenceMapper();
+        final Map<String, PropertyMappingQuery> queries =
+            referenceMapper.getServiceTemplateBoundsPropertyQueries(serviceInstance.getCSAR_ID(),
+                                                                    serviceInstance.getServiceTemplateID());
 
         // cycle through mappings and update accordingly
         for (final TPropertyMapping mapping : boundaryDefs.getProperties().getPropertyMappings().getPropertyMapping()) {
             final String serviceTemplatePropertyQuery = mapping.getServiceTemplatePropertyRef();
             final List<Element> serviceTemplatePropertyElements =
-                queryElementList(properties, serviceTemplatePropertyQuery);
+                queryElementList(properties, serviceTemplatePropertyQuery, queries);
 
             // fetch element from serviceTemplateProperties
 
@@ -921,7 +912,7 @@ public class InstanceDataServiceImpl implements IInstanceDataService {
                 final String nodeTemplatePropertyQuery = mapping.getTargetPropertyRef();
 
                 final List<Element> nodePropertyElements =
-                    queryElementList(nodePropertiesRoot, nodeTemplatePropertyQuery);
+                    queryElementList(nodePropertiesRoot, nodeTemplatePropertyQuery, queries);
 
                 if (nodePropertyElements.size() != 1) {
                     // skip this property, we expect only one
@@ -1031,26 +1022,14 @@ public class InstanceDataServiceImpl implements IInstanceDataService {
         return null;
     }
 
-    private List<Element> queryElementList(final Element node, final String xpathQuery) {
-        final List<Element> elements = new ArrayList<>();
-        try {
-            final XPath xPath = XPathFactory.newInstance().newXPath();
-
-            final NodeList nodes = (NodeList) xPath.evaluate(xpathQuery, node, XPathConstants.NODESET);
-
-            for (int index = 0; index < nodes.getLength(); index++) {
-                if (nodes.item(index).getNodeType() == Node.ELEMENT_NODE) {
-                    elements.add((Element) nodes.item(index));
-                }
-
-            }
-
-        }
-        catch (final XPathExpressionException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+    private List<Element> queryElementList(final Element node, final String xpathQuery,
+                                           final Map<String, PropertyMappingQuery> queries) {
+        // the queries of the property mappings are prepared when the service template is resolved
+        PropertyMappingQuery query = queries.get(xpathQuery);
+        if (query == null) {
+            query = new PropertyMappingQuery(xpathQuery);
         }
-        return elements;
+        return query.selectElements(node);
     }
 
     private NodeInstance getNodeInstanceFromMappingObject(final ServiceInstance serviceInstance, final Object obj) {
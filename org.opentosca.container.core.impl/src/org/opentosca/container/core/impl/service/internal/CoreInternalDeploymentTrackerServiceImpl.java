@@ -57,7 +57,8 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public boolean storeDeploymentState(final CSARID csarID, final DeploymentProcessState deploymentState) {
+    public synchronized boolean storeDeploymentState(final CSARID csarID,
+                                                     final DeploymentProcessState deploymentState) {
         this.init();
         CoreInternalDeploymentTrackerServiceImpl.LOG.info("Storing deployment state {} for CSAR \"{}\"...",
                                                           deploymentState, csarID);
@@ -85,7 +86,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public DeploymentProcessState getDeploymentState(final CSARID csarID) {
+    public synchronized DeploymentProcessState getDeploymentState(final CSARID csarID) {
 
         CoreInternalDeploymentTrackerServiceImpl.LOG.info("Retrieving deployment state for CSAR \"{}\"...", csarID);
         this.init();
@@ -106,7 +107,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
     }
 
     @Override
-    public void deleteDeploymentState(final CSARID csarID) {
+    public synchronized void deleteDeploymentState(final CSARID csarID) {
         CoreInternalDeploymentTrackerServiceImpl.LOG.debug("Retrieving DeploymentProcessInfo for {}", csarID);
         final DeploymentProcessInfo info = this.getDeploymentProcessInfo(csarID);
         if (info != null) {
@@ -160,7 +161,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public boolean storeIADeploymentInfo(IADeploymentInfo iaDeploymentInfo) {
+    public synchronized boolean storeIADeploymentInfo(IADeploymentInfo iaDeploymentInfo) {
 
         this.init();
 
@@ -225,7 +226,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public IADeploymentInfo getIADeploymentInfo(final CSARID csarID, final String iaRelPath) {
+    public synchronized IADeploymentInfo getIADeploymentInfo(final CSARID csarID, final String iaRelPath) {
         this.init();
         CoreInternalDeploymentTrackerServiceImpl.LOG.info("Retrieving IA deployment info for IA \"{}\" of CSAR \"{}\"...",
                                                           iaRelPath, csarID);
@@ -250,7 +251,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public List<IADeploymentInfo> getIADeploymentInfos(final CSARID csarID) {
+    public synchronized List<IADeploymentInfo> getIADeploymentInfos(final CSARID csarID) {
         this.init();
         CoreInternalDeploymentTrackerServiceImpl.LOG.info("Retrieving all IA deployment infos of CSAR \"{}\"...",
                                                           csarID);
@@ -271,7 +272,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public boolean storePlanDeploymentInfo(PlanDeploymentInfo planDeploymentInfo) {
+    public synchronized boolean storePlanDeploymentInfo(PlanDeploymentInfo planDeploymentInfo) {
         this.init();
 
         CoreInternalDeploymentTrackerServiceImpl.LOG.info("Storing deployment state {} for Plan \"{}\" of CSAR \"{}\"...",
@@ -334,7 +335,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public PlanDeploymentInfo getPlanDeploymentInfo(final CSARID csarID, final String planRelPath) {
+    public synchronized PlanDeploymentInfo getPlanDeploymentInfo(final CSARID csarID, final String planRelPath) {
         this.init();
         CoreInternalDeploymentTrackerServiceImpl.LOG.info("Retrieving Plan deployment info for Plan \"{}\" of CSAR \"{}\"...",
                                                           planRelPath, csarID);
@@ -358,7 +359,7 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public List<PlanDeploymentInfo> getPlanDeploymentInfos(final CSARID csarID) {
+    public synchronized List<PlanDeploymentInfo> getPlanDeploymentInfos(final CSARID csarID) {
         this.init();
         CoreInternalDeploymentTrackerServiceImpl.LOG.info("Retrieving all Plan deployment infos of CSAR \"{}\"...",
                                                           csarID);
@@ -387,8 +388,8 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public boolean storeIADeploymentInfo(final CSARID csarID, final String iaRelPath,
-                                         final IADeploymentState iaDeploymentState) {
+    public synchronized boolean storeIADeploymentInfo(final CSARID csarID, final String iaRelPath,
+                                                      final IADeploymentState iaDeploymentState) {
         final IADeploymentInfo iaDeploymentInfo = new IADeploymentInfo(csarID, iaRelPath, iaDeploymentState);
         this.storeIADeploymentInfo(iaDeploymentInfo);
         return true;
@@ -398,8 +399,8 @@ public class CoreInternalDeploymentTrackerServiceImpl implements ICoreInternalDe
      * {@inheritDoc}
      */
     @Override
-    public boolean storePlanDeploymentInfo(final CSARID csarID, final String planRelPath,
-                                           final PlanDeploymentState planDeploymentState) {
+    public synchronized boolean storePlanDeploymentInfo(final CSARID csarID, final String planRelPath,
+                                                        final PlanDeploymentState planDeploymentState) {
         final PlanDeploymentInfo planDeploymentInfo = new PlanDeploymentInfo(csarID, planRelPath, planDeploymentState);
         this.storePlanDeploymentInfo(planDeploymentInfo);
         return true;
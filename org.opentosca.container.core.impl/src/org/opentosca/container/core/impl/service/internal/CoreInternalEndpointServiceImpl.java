@@ -62,8 +62,8 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     /**
      * {@Inheritdoc}
      */
-    public List<WSDLEndpoint> getWSDLEndpoints(final QName portType, final String triggeringContainer,
-                                               final CSARID csarId) {
+    public synchronized List<WSDLEndpoint> getWSDLEndpoints(final QName portType, final String triggeringContainer,
+                                                            final CSARID csarId) {
 
         final ArrayList<WSDLEndpoint> results = new ArrayList<>();
 
@@ -104,7 +104,7 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     /**
      * {@Inheritdoc}
      */
-    public void storeWSDLEndpoint(final WSDLEndpoint endpoint) {
+    public synchronized void storeWSDLEndpoint(final WSDLEndpoint endpoint) {
         CoreInternalEndpointServiceImpl.LOG.debug("Storing WSDL Endpoint with CSARID: \"" + endpoint.getCSARId()
             + "\", portType: \"" + endpoint.getPortType() + "\", IAName: \"" + endpoint.getIaName()
             + "\", TypeImplementation: \"" + endpoint.getTypeImplementation() + "\", URI: \""
@@ -158,8 +158,8 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     /**
      * {@Inheritdoc}
      */
-    public List<RESTEndpoint> getRestEndpoints(final URI anyURI, final String triggeringContainer,
-                                               final CSARID csarId) {
+    public synchronized List<RESTEndpoint> getRestEndpoints(final URI anyURI, final String triggeringContainer,
+                                                            final CSARID csarId) {
         final ArrayList<RESTEndpoint> results = new ArrayList<>();
 
         /**
@@ -188,7 +188,7 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     /**
      * {@Inheritdoc}
      */
-    public void storeRESTEndpoint(final RESTEndpoint endpoint) {
+    public synchronized void storeRESTEndpoint(final RESTEndpoint endpoint) {
         CoreInternalEndpointServiceImpl.LOG.debug("Storing REST Endpoint with Path : \"{}\", STID: \"{}\"",
                                                   endpoint.getPath(), endpoint.getCSARId().getFileName());
         if (!this.em.getTransaction().isActive()) {
@@ -303,7 +303,7 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public void removePlanEndpoints(final String triggeringContainer, final CSARID csarId) {
+    public synchronized void removePlanEndpoints(final String triggeringContainer, final CSARID csarId) {
         if (!this.em.getTransaction().isActive()) {
             this.em.getTransaction().begin();
         }
@@ -325,8 +325,8 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public WSDLEndpoint getWSDLEndpointForPlanId(final String triggeringContainer, final CSARID csarId,
-                                                 final QName planId) {
+    public synchronized WSDLEndpoint getWSDLEndpointForPlanId(final String triggeringContainer, final CSARID csarId,
+                                                              final QName planId) {
         WSDLEndpoint endpoint = null;
         final Query queryWSDLEndpoint =
             this.em.createQuery("SELECT e FROM WSDLEndpoint e where e.triggeringContainer = :triggeringContainer and e.csarId= :csarId and e.PlanId = :planId");
@@ -346,7 +346,8 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public List<WSDLEndpoint> getWSDLEndpointsForCSARID(final String triggeringContainer, final CSARID csarId) {
+    public synchronized List<WSDLEndpoint> getWSDLEndpointsForCSARID(final String triggeringContainer,
+                                                                     final CSARID csarId) {
         final ArrayList<WSDLEndpoint> endpoints = new ArrayList<>();
         final Query queryWSDLEndpoint =
             this.em.createQuery("SELECT e FROM WSDLEndpoint e where e.triggeringContainer = :triggeringContainer and e.csarId= :csarId");
@@ -363,8 +364,8 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public List<WSDLEndpoint> getWSDLEndpointsForSTID(final String triggeringContainer,
-                                                      final Long serviceTemplateInstanceID) {
+    public synchronized List<WSDLEndpoint> getWSDLEndpointsForSTID(final String triggeringContainer,
+                                                                   final Long serviceTemplateInstanceID) {
         final ArrayList<WSDLEndpoint> endpoints = new ArrayList<>();
         final Query queryWSDLEndpoint =
             this.em.createQuery("SELECT e FROM WSDLEndpoint e where e.triggeringContainer = :triggeringContainer and e.serviceTemplateInstanceID= :serviceTemplateInstanceID");
@@ -381,9 +382,10 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public List<WSDLEndpoint> getWSDLEndpointsForNTImplAndIAName(final String triggeringContainer,
-                                                                 final String managingContainer, final QName typeImpl,
-                                                                 final String iaName) {
+    public synchronized List<WSDLEndpoint> getWSDLEndpointsForNTImplAndIAName(final String triggeringContainer,
+                                                                              final String managingContainer,
+                                                                              final QName typeImpl,
+                                                                              final String iaName) {
         final ArrayList<WSDLEndpoint> endpoints = new ArrayList<>();
         final Query queryWSDLEndpoint =
             this.em.createQuery("SELECT e FROM WSDLEndpoint e where e.triggeringContainer = :triggeringContainer and e.managingContainer = :managingContainer and e.IaName = :IaName and e.TypeImplementation = :typeImpl");
@@ -402,7 +404,7 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public List<WSDLEndpoint> getWSDLEndpoints() {
+    public synchronized List<WSDLEndpoint> getWSDLEndpoints() {
         final ArrayList<WSDLEndpoint> endpoints = new ArrayList<>();
         final Query queryWSDLEndpoint = this.em.createQuery("SELECT e FROM WSDLEndpoint e");
 
@@ -416,7 +418,7 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public void printPlanEndpoints() {
+    public synchronized void printPlanEndpoints() {
         final Query queryWSDLEndpoint = this.em.createQuery("SELECT e FROM WSDLEndpoint e where e.PlanId is not null");
 
         @SuppressWarnings("unchecked")
@@ -434,7 +436,7 @@ public class CoreInternalEndpointServiceImpl implements ICoreInternalEndpointSer
     }
 
     @Override
-    public boolean removeWSDLEndpoint(final WSDLEndpoint endpoint) {
+    public synchronized boolean removeWSDLEndpoint(final WSDLEndpoint endpoint) {
         // get all wsdl endpoints with related properties
         final List<WSDLEndpoint> endpoints =
             getWSDLEndpointsForCSARID(endpoint.getTriggeringContainer(), endpoint.getCSARId());
@@ -135,13 +135,17 @@ public class CoreInternalFileServiceImpl implements ICoreInternalFileService {
             final Map<Path, String> fileToStorageProviderIDMap = new HashMap<>();
             final Set<Path> directories = new HashSet<>();
 
+            final Map<Path, Path> filesToStore = new HashMap<>();
+
             for (final Path fileInCSARUnpackDir : filesInCSARUnpackDir) {
                 final Path fileRelToCSARRoot = csarUnpackDir.relativize(fileInCSARUnpackDir);
-                this.STORAGE_PROVIDER_MANAGER.storeFileOfCSAR(fileInCSARUnpackDir, csarID, fileRelToCSARRoot,
-                                                              storageProviderID);
+                filesToStore.put(fileInCSARUnpackDir, fileRelToCSARRoot);
                 fileToStorageProviderIDMap.put(fileRelToCSARRoot, storageProviderID);
             }
 
+            // the files are independent of each other, so they are stored concurrently
+            this.STORAGE_PROVIDER_MANAGER.storeFilesOfCSAR(csarID, filesToStore, storageProviderID);
+
             for (final Path directoryInCSARUnpackDir : directoriesInCSARUnpackDir) {
                 final Path directoryRelToCSARRoot = csarUnpackDir.relativize(directoryInCSARUnpackDir);
                 directories.add(directoryRelToCSARRoot);
@@ -1,5 +1,8 @@
 package org.opentosca.container.core.impl.service.internal;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Properties;
 
 import org.eclipse.osgi.framework.console.CommandInterpreter;
@@ -69,6 +72,19 @@ public class CoreInternalFileStorageProviderFileSystemServiceImpl extends Abstra
         return props;
     }
 
+    /**
+     * @return {@inheritDoc} The file system-based blobstore stores a file at
+     *         {@code <BlobStorePath>/<containerName>/<relFilePathOnProvider>}.
+     */
+    @Override
+    public Path getLocalFile(final String relFilePathOnProvider) {
+        if (this.CSAR_STORE_PATH == null) {
+            return null;
+        }
+        final Path localFile = Paths.get(this.CSAR_STORE_PATH, this.getContainerName(), relFilePathOnProvider);
+        return Files.isRegularFile(localFile) ? localFile : null;
+    }
+
     @Override
     public boolean needsCredentials() {
         return false;
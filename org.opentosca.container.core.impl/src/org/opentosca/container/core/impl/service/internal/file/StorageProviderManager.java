@@ -3,17 +3,26 @@ package org.opentosca.container.core.impl.service.internal.file;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.common.SystemException;
 import org.opentosca.container.core.common.UserException;
 import org.opentosca.container.core.impl.service.internal.CoreInternalFileServiceImpl;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.service.internal.ICoreInternalFileStorageProviderService;
+import org.opentosca.container.core.service.internal.StorageProviderFileCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +37,9 @@ import org.slf4j.LoggerFactory;
  * Additionally, it provides methods for choosing the storage provider for a operation, getting all
  * available and ready storage providers, getting the default storage provider and a getter and
  * setter for the active storage provider.
+ *
+ * Files are read through the {@link StorageProviderFileCache}. Storing or deleting a file
+ * invalidates its cached copy.
  */
 public class StorageProviderManager {
 
@@ -61,6 +73,39 @@ public class StorageProviderManager {
      */
     private final String DEFAULT_STORAGE_PROVIDER_ID = "filesystem";
 
+    /**
+     * Stores files of CSARs concurrently. Created when it's used first, shut down with the bundle
+     * (see {@link #shutdown()}) and created again when it's used afterwards.
+     *
+     * @see #storeFilesOfCSAR(CSARID, Map, String)
+     */
+    private static ExecutorService uploadExecutor;
+
+
+    private static synchronized ExecutorService getUploadExecutor() {
+        if (StorageProviderManager.uploadExecutor == null) {
+            final AtomicInteger count = new AtomicInteger();
+            StorageProviderManager.uploadExecutor =
+                Executors.newFixedThreadPool(Integer.parseInt(Settings.OPENTOSCA_STORAGE_UPLOAD_THREADS), runnable -> {
+                    final Thread thread = new Thread(runnable, "csar-file-upload-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+        return StorageProviderManager.uploadExecutor;
+    }
+
+    /**
+     * Stops the threads storing files of CSARs. Uploads still running are interrupted and pending ones
+     * are dropped.
+     */
+    public static synchronized void shutdown() {
+        if (StorageProviderManager.uploadExecutor != null) {
+            StorageProviderManager.uploadExecutor.shutdownNow();
+            StorageProviderManager.uploadExecutor = null;
+        }
+    }
+
 
     /**
      * Chooses a storage provider for an operation.<br />
@@ -246,7 +291,7 @@ public class StorageProviderManager {
             final String relFilePathOnStorageProvider =
                 this.buildFileOfCSARStorageProviderPath(csarID, fileRelToCSARRoot);
 
-            storageProvider.getFile(relFilePathOnStorageProvider, targetAbsPath);
+            StorageProviderFileCache.getFile(storageProvider, relFilePathOnStorageProvider, targetAbsPath);
 
         } else {
 
@@ -278,7 +323,8 @@ public class StorageProviderManager {
             final String relFilePathOnStorageProvider =
                 this.buildFileOfCSARStorageProviderPath(csarID, fileRelToCSARRoot);
 
-            final InputStream fileInputStream = storageProvider.getFileAsInputStream(relFilePathOnStorageProvider);
+            final InputStream fileInputStream =
+                StorageProviderFileCache.getFileAsInputStream(storageProvider, relFilePathOnStorageProvider);
 
             return fileInputStream;
 
@@ -347,6 +393,7 @@ public class StorageProviderManager {
             final String relFilePathOnStorageProvider =
                 this.buildFileOfCSARStorageProviderPath(csarID, fileRelToCSARRoot);
 
+            StorageProviderFileCache.invalidate(storageProviderID, relFilePathOnStorageProvider);
             storageProvider.storeFile(absFilePath, relFilePathOnStorageProvider);
 
         } else {
@@ -359,6 +406,54 @@ public class StorageProviderManager {
 
     }
 
+    /**
+     * Stores the files {@code absFilePaths} of CSAR {@code csarID} on storage provider
+     * {@code storageProviderID}. Up to <tt>org.opentosca.container.storage.upload.threads</tt> files
+     * (of all CSARs) are stored concurrently.
+     *
+     * @param csarID of CSAR
+     * @param absFilePathToFileRelToCSARRoot - absolute path of each file mapped to its relative path to
+     *        CSAR root
+     * @param storageProviderID of storage provider
+     * @throws SystemException if storage provider {@code storageProviderID} is not available and ready
+     *         or an error occurred during storing one of the files. Files not stored yet are not stored
+     *         anymore in this case.
+     *
+     * @see #storeFileOfCSAR(Path, CSARID, Path, String)
+     */
+    public void storeFilesOfCSAR(final CSARID csarID, final Map<Path, Path> absFilePathToFileRelToCSARRoot,
+                                 final String storageProviderID) throws SystemException {
+
+        final List<Future<Void>> uploads = new ArrayList<>();
+        final ExecutorService uploadExecutor = StorageProviderManager.getUploadExecutor();
+
+        for (final Map.Entry<Path, Path> file : absFilePathToFileRelToCSARRoot.entrySet()) {
+            uploads.add(uploadExecutor.submit(() -> {
+                this.storeFileOfCSAR(file.getKey(), csarID, file.getValue(), storageProviderID);
+                return null;
+            }));
+        }
+
+        try {
+            for (final Future<Void> upload : uploads) {
+                upload.get();
+            }
+        }
+        catch (final ExecutionException exc) {
+            uploads.forEach(upload -> upload.cancel(false));
+            if (exc.getCause() instanceof SystemException) {
+                throw (SystemException) exc.getCause();
+            }
+            throw new SystemException("Storing files of CSAR \"" + csarID + "\" failed.", exc.getCause());
+        }
+        catch (final InterruptedException exc) {
+            uploads.forEach(upload -> upload.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new SystemException("Storing files of CSAR \"" + csarID + "\" was interrupted.", exc);
+        }
+
+    }
+
     /**
      * Deletes the file {@code fileRelToCSARRoot} of CSAR {@code csarID} on storage provider
      * {@code storageProviderID}, if it exists.
@@ -379,6 +474,7 @@ public class StorageProviderManager {
             final String relFilePathOnStorageProvider =
                 this.buildFileOfCSARStorageProviderPath(csarID, fileRelToCSARRoot);
 
+            StorageProviderFileCache.invalidate(storageProviderID, relFilePathOnStorageProvider);
             storageProvider.deleteFile(relFilePathOnStorageProvider);
 
         } else {
@@ -412,6 +508,7 @@ public class StorageProviderManager {
             final String relFilePathOnStorageProvider =
                 this.buildFileOfCSARStorageProviderPath(csarID, fileRelToCSARRoot);
 
+            StorageProviderFileCache.invalidate(storageProviderID, relFilePathOnStorageProvider);
             storageProvider.storeFile(fileInputStream, fileSize, relFilePathOnStorageProvider);
         } else {
 
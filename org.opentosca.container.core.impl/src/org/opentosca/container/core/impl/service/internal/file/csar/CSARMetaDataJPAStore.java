@@ -58,9 +58,9 @@ public class CSARMetaDataJPAStore {
      *        Each file path must be given relative to the CSAR root.
      * @param toscaMetaFile - represents the content of the TOSCA meta file of the CSAR.
      */
-    public void storeCSARMetaData(final CSARID csarID, final Set<Path> directories,
-                                  final Map<Path, String> fileToStorageProviderIDMap,
-                                  final TOSCAMetaFile toscaMetaFile) {
+    public synchronized void storeCSARMetaData(final CSARID csarID, final Set<Path> directories,
+                                               final Map<Path, String> fileToStorageProviderIDMap,
+                                               final TOSCAMetaFile toscaMetaFile) {
 
         CSARMetaDataJPAStore.LOG.debug("Storing meta data of CSAR \"{}\"...", csarID);
 
@@ -83,7 +83,7 @@ public class CSARMetaDataJPAStore {
      * @param csarID of CSAR
      * @return {@code true} if meta data of CSAR {@code csarID} were found, otherwise {@code false}.
      */
-    public boolean isCSARMetaDataStored(final CSARID csarID) {
+    public synchronized boolean isCSARMetaDataStored(final CSARID csarID) {
 
         CSARMetaDataJPAStore.LOG.debug("Checking if meta data of CSAR \"{}\" are stored...", csarID);
         initJPA();
@@ -108,7 +108,7 @@ public class CSARMetaDataJPAStore {
      *         file of the CSAR.
      * @throws UserException if meta data of CSAR {@code csarID} were not found.
      */
-    public CSARContent getCSARMetaData(final CSARID csarID) throws UserException {
+    public synchronized CSARContent getCSARMetaData(final CSARID csarID) throws UserException {
 
         initJPA();
 
@@ -129,7 +129,7 @@ public class CSARMetaDataJPAStore {
     /**
      * @return CSAR IDs of all stored CSAR files.
      */
-    public Set<CSARID> getCSARIDsMetaData() {
+    public synchronized Set<CSARID> getCSARIDsMetaData() {
 
         CSARMetaDataJPAStore.LOG.trace("Retrieving CSAR IDs of all stored CSARs...");
         initJPA();
@@ -148,7 +148,7 @@ public class CSARMetaDataJPAStore {
      * @param csarID of CSAR.
      * @throws UserException if meta data of CSAR {@code csarID} were not found.
      */
-    public void deleteCSARMetaData(final CSARID csarID) throws UserException {
+    public synchronized void deleteCSARMetaData(final CSARID csarID) throws UserException {
 
         initJPA();
 
@@ -174,8 +174,8 @@ public class CSARMetaDataJPAStore {
      * @throws UserException if meta data of file {@code fileRelToCSARRoot} in CSAR {@code CSARID} were
      *         not found.
      */
-    public void storeFileStorageProviderIDOfCSAR(final CSARID csarID, final Path fileRelToCSARRoot,
-                                                 final String storageProviderID) throws UserException {
+    public synchronized void storeFileStorageProviderIDOfCSAR(final CSARID csarID, final Path fileRelToCSARRoot,
+                                                              final String storageProviderID) throws UserException {
 
         CSARMetaDataJPAStore.LOG.debug("Setting storage provider \"{}\" in meta data of file \"{}\" in CSAR \"{}\"...",
                                        storageProviderID, fileRelToCSARRoot, csarID);
@@ -219,7 +219,7 @@ public class CSARMetaDataJPAStore {
      * @throws UserException if file to storage provider ID mapping meta data of CSAR {@code csarID}
      *         were not found.
      */
-    public Map<Path, String> getFileToStorageProviderIDMap(final CSARID csarID) throws UserException {
+    public synchronized Map<Path, String> getFileToStorageProviderIDMap(final CSARID csarID) throws UserException {
         CSARMetaDataJPAStore.LOG.debug("Retrieving file to storage provider mapping meta data of CSAR \"{}\"...",
                                        csarID);
         initJPA();
@@ -254,7 +254,7 @@ public class CSARMetaDataJPAStore {
      * @return Directories meta data of CSAR {@code csarID}.
      * @throws UserException if directories meta data of CSAR {@code csarID} were not found.
      */
-    public Set<Path> getDirectories(final CSARID csarID) throws UserException {
+    public synchronized Set<Path> getDirectories(final CSARID csarID) throws UserException {
 
         CSARMetaDataJPAStore.LOG.debug("Retrieving directories meta data of CSAR \"{}\"...", csarID);
 
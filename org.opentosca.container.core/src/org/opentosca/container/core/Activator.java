@@ -7,6 +7,7 @@ package org.opentosca.container.core;
 import java.io.File;
 
 import org.opentosca.container.core.common.Settings;
+import org.opentosca.container.core.engine.impl.resolver.DefinitionsResolver;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
@@ -89,6 +90,7 @@ public class Activator implements BundleActivator {
     public void stop(final BundleContext bundleContext) throws Exception {
         logger.info("Stopping bundle \"{}\" ({})...", bundleContext.getBundle().getSymbolicName(),
                     bundleContext.getBundle().getVersion());
+        DefinitionsResolver.shutdown();
         Activator.context = null;
     }
 }
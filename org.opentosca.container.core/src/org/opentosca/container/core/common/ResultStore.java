@@ -0,0 +1,502 @@
+package org.opentosca.container.core.common;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded store for the state and the results of asynchronous invocations, keyed by request id.
+ * <p>
+ * Finished entries expire once the configured time to live elapsed since they finished, so requests
+ * whose result is never fetched do not pile up. Requests which are still running never expire. If
+ * more than the configured number of entries are held, the least recently written ones are dropped,
+ * or moved to the spill directory if one is set and their result consists only of the spillable
+ * types given to the store. Spilled results are read back only as these types. The store counts
+ * outstanding, expired, evicted and spilled requests and logs these counters in the configured
+ * statistics interval while it's used. Callers can block until a request finishes, see
+ * {@link #awaitFinished(String, long)}.
+ *
+ * @param <V> the type of the results
+ */
+public class ResultStore<V> {
+
+    private final static Logger LOG = LoggerFactory.getLogger(ResultStore.class);
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long sweepIntervalMillis;
+    private final long statisticsIntervalMillis;
+    private final File spillDirectory;
+    // the classes spilled results may consist of, keyed by name, including their serializable
+    // super classes
+    private final Map<String, Class<?>> spillableClasses = new HashMap<>();
+
+    // insertion ordered, entries are re-inserted on every write, i.e., the head is the oldest entry
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+    private final LinkedHashMap<String, SpilledEntry> spilled = new LinkedHashMap<>();
+
+    private long lastSweep = System.currentTimeMillis();
+    private long lastStatistics = System.currentTimeMillis();
+    private int outstanding = 0;
+    private long expiredCount = 0;
+    private long evictedCount = 0;
+    private long spilledCount = 0;
+
+
+    /**
+     * @param name the name of the store, used for logging and as name of its spill directory
+     * @param maxEntries the maximum number of entries held in memory and on disk each
+     * @param ttlMillis the time in milliseconds after which finished entries expire
+     * @param spillDirectory the directory to move evicted results to, <tt>null</tt> to drop them
+     * @param spillableTypes the types evicted results may consist of to be spilled
+     */
+    public ResultStore(final String name, final int maxEntries, final long ttlMillis, final File spillDirectory,
+                       final Class<?>... spillableTypes) {
+        this(name, maxEntries, ttlMillis, 0, spillDirectory, spillableTypes);
+    }
+
+    /**
+     * @param name the name of the store, used for logging and as name of its spill directory
+     * @param maxEntries the maximum number of entries held in memory and on disk each
+     * @param ttlMillis the time in milliseconds after which finished entries expire
+     * @param statisticsIntervalMillis the interval in milliseconds the counters are logged in, 0 to
+     *        not log them
+     * @param spillDirectory the directory to move evicted results to, <tt>null</tt> to drop them
+     * @param spillableTypes the types evicted results may consist of to be spilled
+     */
+    public ResultStore(final String name, final int maxEntries, final long ttlMillis,
+                       final long statisticsIntervalMillis, final File spillDirectory,
+                       final Class<?>... spillableTypes) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("The size and the time to live of a result store must be positive");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.sweepIntervalMillis = Math.max(1000, ttlMillis / 10);
+        this.statisticsIntervalMillis = statisticsIntervalMillis;
+        this.spillDirectory = spillDirectory == null ? null : new File(spillDirectory, name);
+        if (this.spillDirectory != null) {
+            this.spillDirectory.mkdirs();
+        }
+        for (final Class<?> spillableType : spillableTypes) {
+            for (Class<?> type = spillableType; type != null
+                && Serializable.class.isAssignableFrom(type); type = type.getSuperclass()) {
+                this.spillableClasses.put(type.getName(), type);
+            }
+        }
+    }
+
+    /**
+     * Creates a store configured by the <tt>org.opentosca.bus.results.*</tt> settings.
+     *
+     * @param name the name of the store
+     * @param spillableTypes the types evicted results may consist of to be spilled
+     * @return the new store
+     */
+    public static <V> ResultStore<V> fromSettings(final String name, final Class<?>... spillableTypes) {
+        final String spillDirectory = Settings.OPENTOSCA_BUS_RESULTS_SPILL_DIRECTORY;
+        return new ResultStore<>(name, Integer.parseInt(Settings.OPENTOSCA_BUS_RESULTS_MAX_ENTRIES),
+            Long.parseLong(Settings.OPENTOSCA_BUS_RESULTS_TTL) * 1000,
+            Long.parseLong(Settings.OPENTOSCA_BUS_RESULTS_STATISTICS_INTERVAL) * 1000,
+            spillDirectory == null || spillDirectory.trim().isEmpty() ? null : new File(spillDirectory),
+            spillableTypes);
+    }
+
+    /**
+     * Registers a request as not finished, if it is not already known.
+     *
+     * @param id of the request
+     */
+    public synchronized void notFinished(final String id) {
+        sweepIfDue();
+        if (!this.entries.containsKey(id) && !this.spilled.containsKey(id)) {
+            this.entries.put(id, new Entry<V>());
+            this.outstanding++;
+            evictIfFull();
+        }
+    }
+
+    /**
+     * Marks a request as finished without storing a result.
+     *
+     * @param id of the request
+     */
+    public synchronized void finished(final String id) {
+        touch(id);
+    }
+
+    /**
+     * Stores the result of a request and marks it as finished. A <tt>null</tt> result is treated as
+     * failed invocation, i.e., the request is finished but has no result.
+     *
+     * @param id of the request
+     * @param result of the invocation
+     */
+    public synchronized void put(final String id, final V result) {
+        final Entry<V> entry = touch(id);
+        entry.result = result;
+        entry.hasResult = result != null;
+    }
+
+    /**
+     * @param id of the request
+     * @return <tt>true</tt> if the request is known, finished or not
+     */
+    public synchronized boolean containsID(final String id) {
+        expireIfDue(id);
+        return this.entries.containsKey(id) || this.spilled.containsKey(id);
+    }
+
+    /**
+     * @param id of the request
+     * @return <tt>true</tt> if the request is known and has finished
+     */
+    public synchronized boolean hasFinished(final String id) {
+        expireIfDue(id);
+        final Entry<V> entry = this.entries.get(id);
+        return entry != null ? entry.finished : this.spilled.containsKey(id);
+    }
+
+    /**
+     * @param id of the request
+     * @return <tt>true</tt> if a result is stored for the request
+     */
+    public synchronized boolean hasResult(final String id) {
+        expireIfDue(id);
+        final Entry<V> entry = this.entries.get(id);
+        return entry != null ? entry.hasResult : this.spilled.containsKey(id);
+    }
+
+    /**
+     * @param id of the request
+     * @return the result of the request or <tt>null</tt> if there is none
+     */
+    public synchronized V get(final String id) {
+        expireIfDue(id);
+        final Entry<V> entry = this.entries.get(id);
+        if (entry != null) {
+            return entry.result;
+        }
+        final SpilledEntry spilledEntry = this.spilled.get(id);
+        return spilledEntry == null ? null : readSpilled(id, spilledEntry);
+    }
+
+    /**
+     * Blocks until the request has finished, is removed, or the timeout elapsed. Writers wake up the
+     * waiting callers, i.e., they return as soon as the result was stored.
+     *
+     * @param id of the request
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return <tt>true</tt> if the request is known and has finished
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    public synchronized boolean awaitFinished(final String id, final long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (remaining > 0 && containsID(id) && !hasFinished(id)) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return hasFinished(id);
+    }
+
+    /**
+     * Removes the request and its result.
+     *
+     * @param id of the request
+     */
+    public synchronized void remove(final String id) {
+        final Entry<V> entry = this.entries.remove(id);
+        if (entry != null && !entry.finished) {
+            this.outstanding--;
+        }
+        final SpilledEntry spilledEntry = this.spilled.remove(id);
+        if (spilledEntry != null) {
+            spilledEntry.file.delete();
+        }
+        notifyAll();
+    }
+
+    /**
+     * @return the number of known requests which have not finished yet
+     */
+    public synchronized int getOutstandingCount() {
+        return this.outstanding;
+    }
+
+    /**
+     * @return the number of requests held in memory
+     */
+    public synchronized int getSize() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the number of results currently spilled to disk
+     */
+    public synchronized int getSpilledSize() {
+        return this.spilled.size();
+    }
+
+    /**
+     * @return the number of requests which expired since the store was created
+     */
+    public synchronized long getExpiredCount() {
+        return this.expiredCount;
+    }
+
+    /**
+     * @return the number of requests which were dropped because the store was full
+     */
+    public synchronized long getEvictedCount() {
+        return this.evictedCount;
+    }
+
+    /**
+     * @return the number of results which were spilled to disk since the store was created
+     */
+    public synchronized long getSpilledCount() {
+        return this.spilledCount;
+    }
+
+    /**
+     * Logs the counters of the store if the statistics interval elapsed since they were logged last.
+     *
+     * @return <tt>true</tt> if the counters were logged
+     */
+    synchronized boolean logStatisticsIfDue() {
+        final long now = System.currentTimeMillis();
+        if (this.statisticsIntervalMillis <= 0 || now - this.lastStatistics < this.statisticsIntervalMillis) {
+            return false;
+        }
+        this.lastStatistics = now;
+        LOG.info("{}", this);
+        return true;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final String format =
+            "ResultStore[%s: size=%d, spilledSize=%d, outstanding=%d, expired=%d, evicted=%d, spilled=%d]";
+        return String.format(format, this.name, this.entries.size(), this.spilled.size(), this.outstanding,
+                             this.expiredCount, this.evictedCount, this.spilledCount);
+    }
+
+    /**
+     * Fetches the entry of a request which is about to be marked as finished, creating it if needed,
+     * and moves it to the end of the eviction order.
+     */
+    private Entry<V> touch(final String id) {
+        sweepIfDue();
+        Entry<V> entry = this.entries.remove(id);
+        if (entry == null) {
+            final SpilledEntry spilledEntry = this.spilled.remove(id);
+            entry = new Entry<>();
+            if (spilledEntry != null) {
+                entry.finished = true;
+                entry.result = readSpilled(id, spilledEntry);
+                entry.hasResult = entry.result != null;
+                spilledEntry.file.delete();
+            }
+        } else if (!entry.finished) {
+            this.outstanding--;
+        }
+        entry.finished = true;
+        entry.written = System.currentTimeMillis();
+        this.entries.put(id, entry);
+        evictIfFull();
+        notifyAll();
+        return entry;
+    }
+
+    private void expireIfDue(final String id) {
+        final long now = System.currentTimeMillis();
+        final Entry<V> entry = this.entries.get(id);
+        if (entry != null && entry.finished && now - entry.written > this.ttlMillis) {
+            this.entries.remove(id);
+            this.expiredCount++;
+        }
+        final SpilledEntry spilledEntry = this.spilled.get(id);
+        if (spilledEntry != null && now - spilledEntry.written > this.ttlMillis) {
+            this.spilled.remove(id);
+            spilledEntry.file.delete();
+            this.expiredCount++;
+        }
+    }
+
+    private void sweepIfDue() {
+        logStatisticsIfDue();
+        final long now = System.currentTimeMillis();
+        if (now - this.lastSweep < this.sweepIntervalMillis) {
+            return;
+        }
+        this.lastSweep = now;
+
+        long expired = 0;
+        final Iterator<Entry<V>> it = this.entries.values().iterator();
+        while (it.hasNext()) {
+            final Entry<V> entry = it.next();
+            if (!entry.finished) {
+                // running requests don't expire
+                continue;
+            }
+            if (now - entry.written <= this.ttlMillis) {
+                break;
+            }
+            it.remove();
+            expired++;
+        }
+        final Iterator<SpilledEntry> spilledIt = this.spilled.values().iterator();
+        while (spilledIt.hasNext()) {
+            final SpilledEntry spilledEntry = spilledIt.next();
+            if (now - spilledEntry.written <= this.ttlMillis) {
+                break;
+            }
+            spilledIt.remove();
+            spilledEntry.file.delete();
+            expired++;
+        }
+
+        this.expiredCount += expired;
+        if (expired > 0) {
+            LOG.debug("Expired {} requests. {}", expired, this);
+        }
+    }
+
+    private void evictIfFull() {
+        while (this.entries.size() > this.maxEntries) {
+            final Iterator<Map.Entry<String, Entry<V>>> it = this.entries.entrySet().iterator();
+            final Map.Entry<String, Entry<V>> eldest = it.next();
+            it.remove();
+            final Entry<V> entry = eldest.getValue();
+            if (!entry.finished) {
+                this.outstanding--;
+            }
+            if (!spill(eldest.getKey(), entry)) {
+                this.evictedCount++;
+                LOG.debug("Evicted request {} from full result store {}", eldest.getKey(), this.name);
+            }
+        }
+    }
+
+    private boolean spill(final String id, final Entry<V> entry) {
+        if (this.spillDirectory == null || !entry.hasResult || !(entry.result instanceof Serializable)) {
+            return false;
+        }
+
+        final File file = new File(this.spillDirectory,
+            UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8)).toString() + ".result");
+        try (ObjectOutputStream out = new SpillOutputStream(new FileOutputStream(file))) {
+            out.writeObject(entry.result);
+        }
+        catch (final NotSerializableException e) {
+            LOG.debug("Result of request {} is not spillable: {}", id, e.getMessage());
+            file.delete();
+            return false;
+        }
+        catch (final IOException e) {
+            LOG.warn("Could not spill result of request {} to {}: {}", id, file, e.getMessage());
+            file.delete();
+            return false;
+        }
+
+        this.spilled.put(id, new SpilledEntry(file, entry.written));
+        this.spilledCount++;
+        while (this.spilled.size() > this.maxEntries) {
+            final Iterator<SpilledEntry> it = this.spilled.values().iterator();
+            it.next().file.delete();
+            it.remove();
+            this.evictedCount++;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V readSpilled(final String id, final SpilledEntry spilledEntry) {
+        try (ObjectInputStream in = new SpillInputStream(new FileInputStream(spilledEntry.file))) {
+            return (V) in.readObject();
+        }
+        catch (IOException | ClassNotFoundException e) {
+            LOG.warn("Could not read spilled result of request {} from {}: {}", id, spilledEntry.file,
+                     e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes spilled results, fails if they contain other than the spillable classes.
+     */
+    private class SpillOutputStream extends ObjectOutputStream {
+
+        private SpillOutputStream(final OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(final Class<?> cl) throws IOException {
+            if (ResultStore.this.spillableClasses.get(cl.getName()) != cl) {
+                throw new NotSerializableException(cl.getName() + " is not spillable");
+            }
+        }
+    }
+
+    /**
+     * Reads spilled results, resolves only the spillable classes, independent of the class loader of
+     * the calling bundle.
+     */
+    private class SpillInputStream extends ObjectInputStream {
+
+        private SpillInputStream(final InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException {
+            final Class<?> type = ResultStore.this.spillableClasses.get(desc.getName());
+            if (type == null) {
+                throw new InvalidClassException(desc.getName(), "not spillable");
+            }
+            return type;
+        }
+    }
+
+    private static class Entry<V> {
+
+        private long written = System.currentTimeMillis();
+        private boolean finished = false;
+        private boolean hasResult = false;
+        private V result;
+    }
+
+    private static class SpilledEntry {
+
+        private final File file;
+        private final long written;
+
+
+        private SpilledEntry(final File file, final long written) {
+            this.file = file;
+            this.written = written;
+        }
+    }
+}
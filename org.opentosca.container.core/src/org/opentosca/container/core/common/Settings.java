@@ -23,6 +23,41 @@ public class Settings {
     public final static String OPENTOSCA_CONTAINER_CONTENT_API = "http://" + Settings.OPENTOSCA_CONTAINER_HOSTNAME + ":"
         + Settings.OPENTOSCA_CONTAINER_PORT + "/csars/{csarid}/content/{artifactreference}";
 
+    // local read-through cache for CSAR files stored on remote storage providers; size in bytes
+    public final static String OPENTOSCA_STORAGE_CACHE =
+        System.getProperty("org.opentosca.container.storage.cache", "true");
+    public final static String OPENTOSCA_STORAGE_CACHE_DIRECTORY =
+        System.getProperty("org.opentosca.container.storage.cache.dir");
+    public final static String OPENTOSCA_STORAGE_CACHE_SIZE =
+        System.getProperty("org.opentosca.container.storage.cache.size", "536870912");
+    // number of files stored concurrently on storage providers and min. size in bytes of files stored
+    // with a multipart upload
+    public final static String OPENTOSCA_STORAGE_UPLOAD_THREADS =
+        System.getProperty("org.opentosca.container.storage.upload.threads", "4");
+    public final static String OPENTOSCA_STORAGE_MULTIPART_THRESHOLD =
+        System.getProperty("org.opentosca.container.storage.upload.multipart", "33554432");
+
+    // snapshots of the plan deployment status of the stored CSARs to skip the redeployment of
+    // unchanged plans at startup
+    public final static String OPENTOSCA_DEPLOYMENT_SNAPSHOT =
+        System.getProperty("org.opentosca.container.deployment.snapshot", "true");
+    public final static String OPENTOSCA_DEPLOYMENT_SNAPSHOT_DIRECTORY =
+        System.getProperty("org.opentosca.container.deployment.snapshot.dir");
+    // process stored CSARs on their first access instead of at startup; number of threads processing
+    // the remaining CSARs in the background
+    public final static String OPENTOSCA_CSAR_PROCESSING_LAZY =
+        System.getProperty("org.opentosca.container.csar.lazy", "false");
+    public final static String OPENTOSCA_CSAR_WARMUP_THREADS =
+        System.getProperty("org.opentosca.container.csar.warmup.threads", "2");
+    // number of threads resolving stored CSARs and deploying their plans at startup
+    public final static String OPENTOSCA_CSAR_STARTUP_THREADS =
+        System.getProperty("org.opentosca.container.csar.startup.threads",
+                           String.valueOf(Runtime.getRuntime().availableProcessors()));
+    // number of threads parsing and unmarshalling the imported files of CSARs
+    public final static String OPENTOSCA_CSAR_IMPORT_THREADS =
+        System.getProperty("org.opentosca.container.csar.import.threads",
+                           String.valueOf(Runtime.getRuntime().availableProcessors()));
+
     public final static String ENGINE_PLAN_BPMN_ENGINE =
         System.getProperty("org.opentosca.container.engine.plan.plugin.bpmn.engine", "Camunda");
     public final static String ENGINE_PLAN_BPMN_URL =
@@ -47,12 +82,89 @@ public class Settings {
     public final static String OPENTOSCA_BUS_MANAGEMENT_MOCK =
         System.getProperty("org.opentosca.bus.management.mocking", "false");
 
+    // results of asynchronous bus invocations: max. entries, time to live in seconds, spill directory
+    public final static String OPENTOSCA_BUS_RESULTS_MAX_ENTRIES =
+        System.getProperty("org.opentosca.bus.results.max", "10000");
+    public final static String OPENTOSCA_BUS_RESULTS_TTL = System.getProperty("org.opentosca.bus.results.ttl", "3600");
+    public final static String OPENTOSCA_BUS_RESULTS_SPILL_DIRECTORY =
+        System.getProperty("org.opentosca.bus.results.spill.dir");
+    // interval in seconds the counters of the result stores are logged in, 0 disables the logging
+    public final static String OPENTOSCA_BUS_RESULTS_STATISTICS_INTERVAL =
+        System.getProperty("org.opentosca.bus.results.statistics.interval", "300");
+    // upper bound in seconds for long-polling requests waiting for the result of an invocation and
+    // max. number of such requests waiting at the same time, further ones are answered at once
+    public final static String OPENTOSCA_BUS_RESULTS_MAX_WAIT =
+        System.getProperty("org.opentosca.bus.results.wait.max", "30");
+    public final static String OPENTOSCA_BUS_RESULTS_MAX_WAITERS =
+        System.getProperty("org.opentosca.bus.results.waiters.max", "4");
+
+    // max. number of resolved invocation endpoints the application bus keeps
+    public final static String OPENTOSCA_BUS_APPLICATION_ENDPOINT_CACHE_SIZE =
+        System.getProperty("org.opentosca.bus.application.endpoints.cache.max", "1000");
+    // polling interval in milliseconds of asynchronous application invocations: first and max. delay
+    public final static String OPENTOSCA_BUS_APPLICATION_POLLING_MIN =
+        System.getProperty("org.opentosca.bus.application.polling.min", "100");
+    public final static String OPENTOSCA_BUS_APPLICATION_POLLING_MAX =
+        System.getProperty("org.opentosca.bus.application.polling.max", "30000");
+
+    // script IAs: transfer all artifacts of an operation as one archive and run them in one session
+    public final static String OPENTOSCA_BUS_SCRIPT_BUNDLE_ARTIFACTS =
+        System.getProperty("org.opentosca.bus.management.script.bundle", "false");
+
+    // script IAs: keep uploaded artifacts on the target machine by content hash and upload unchanged
+    // artifacts only once, the least recently used artifacts above the max. number are deleted
+    public final static String OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE =
+        System.getProperty("org.opentosca.bus.management.script.cache", "false");
+
+    public final static String OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE_DIR =
+        System.getProperty("org.opentosca.bus.management.script.cache.dir", "~/.opentosca/artifacts");
+
+    public final static String OPENTOSCA_BUS_SCRIPT_ARTIFACT_CACHE_SIZE =
+        System.getProperty("org.opentosca.bus.management.script.cache.max", "100");
+
+    // script IAs: max. number of artifact content hashes kept by the container
+    public final static String OPENTOSCA_BUS_SCRIPT_ARTIFACT_HASHES_SIZE =
+        System.getProperty("org.opentosca.bus.management.script.hashes.max", "1000");
+
+    // generated plans send state and properties of an instance with one batch request
+    public final static String OPENTOSCA_PLANBUILDER_INSTANCEDATA_BATCH =
+        System.getProperty("org.opentosca.planbuilder.instancedata.batch", "false");
+
+    // plan builder service: threads generating plans, max. number of queued generation requests and
+    // time in seconds finished generation tasks are kept
+    public final static String OPENTOSCA_PLANBUILDER_SERVICE_THREADS =
+        System.getProperty("org.opentosca.planbuilder.service.threads", "2");
+    public final static String OPENTOSCA_PLANBUILDER_SERVICE_QUEUE_SIZE =
+        System.getProperty("org.opentosca.planbuilder.service.queue.max", "50");
+    public final static String OPENTOSCA_PLANBUILDER_SERVICE_TASK_TTL =
+        System.getProperty("org.opentosca.planbuilder.service.tasks.ttl", "3600");
+    // plan builder service: threads uploading generated plans and max. number of CSARs whose
+    // generated plans are reused for further requests with the same CSAR
+    public final static String OPENTOSCA_PLANBUILDER_SERVICE_UPLOAD_THREADS =
+        System.getProperty("org.opentosca.planbuilder.service.upload.threads", "4");
+    public final static String OPENTOSCA_PLANBUILDER_SERVICE_PLAN_CACHE_SIZE =
+        System.getProperty("org.opentosca.planbuilder.service.cache.max", "20");
+
     public final static String OPENTOSCA_COLLABORATION_MODE =
         System.getProperty("org.opentosca.container.collaboration.mode", "false");
     public final static String OPENTOSCA_COLLABORATION_HOSTNAMES =
         System.getProperty("org.opentosca.container.collaboration.hostnames");
     public final static String OPENTOSCA_COLLABORATION_PORTS =
         System.getProperty("org.opentosca.container.collaboration.ports");
+    // threads and queue size processing the requests of other Containers, requests beyond are
+    // processed by the receiving thread which stops taking further requests meanwhile
+    public final static String OPENTOSCA_COLLABORATION_THREADS_MIN =
+        System.getProperty("org.opentosca.container.collaboration.threads.min", "2");
+    public final static String OPENTOSCA_COLLABORATION_THREADS_MAX =
+        System.getProperty("org.opentosca.container.collaboration.threads.max", "10");
+    public final static String OPENTOSCA_COLLABORATION_QUEUE_SIZE =
+        System.getProperty("org.opentosca.container.collaboration.queue.max", "100");
+    // max. time in milliseconds to wait for the reply of another Container
+    public final static String OPENTOSCA_COLLABORATION_TIMEOUT =
+        System.getProperty("org.opentosca.container.collaboration.timeout", "600000");
+    // time in milliseconds the result of an instance data matching is reused
+    public final static String OPENTOSCA_COLLABORATION_MATCHING_TTL =
+        System.getProperty("org.opentosca.container.collaboration.matching.ttl", "300000");
 
     public final static String OPENTOSCA_BROKER_MQTT_PORT =
         System.getProperty("org.opentosca.container.broker.mqtt.port", "1883");
@@ -4,22 +4,17 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import org.eclipse.persistence.mappings.DatabaseMapping;
 import org.eclipse.persistence.mappings.converters.Converter;
 import org.eclipse.persistence.sessions.Session;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.InputSource;
@@ -70,18 +65,10 @@ public class DocumentConverter implements Converter {
         final InputSource iSource = new InputSource(new StringReader(documentString));
         Document doc = null;
         try {
-            final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(true);
-            dbf.setIgnoringComments(true);
-            final DocumentBuilder db = dbf.newDocumentBuilder();
-
             // parse
-            doc = db.parse(iSource);
+            doc = XMLPools.getDocumentBuilderIgnoringComments().parse(iSource);
             doc.getDocumentElement().normalize();
         }
-        catch (final ParserConfigurationException e) {
-            e.printStackTrace();
-        }
         catch (final SAXException e) {
             e.printStackTrace();
         }
@@ -97,18 +84,7 @@ public class DocumentConverter implements Converter {
      * @return empty document
      */
     public static Document emptyDocument() {
-        final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(true);
-
-        try {
-            final DocumentBuilder db = dbf.newDocumentBuilder();
-            final Document doc = db.newDocument();
-            return doc;
-        }
-        catch (final ParserConfigurationException e) {
-            e.printStackTrace();
-        }
-        return null;
+        return XMLPools.newDocument();
     }
 
     /**
@@ -125,18 +101,11 @@ public class DocumentConverter implements Converter {
                 final Source source = new DOMSource(node);
                 final StringWriter stringWriter = new StringWriter();
                 final Result streamResult = new StreamResult(stringWriter);
-                final TransformerFactory factory = TransformerFactory.newInstance();
-                final Transformer transformer = factory.newTransformer();
+                final Transformer transformer = XMLPools.getTransformer();
                 // serialize
                 transformer.transform(source, streamResult);
                 result = stringWriter.getBuffer().toString();
             }
-            catch (final TransformerConfigurationException e) {
-                e.printStackTrace();
-            }
-            catch (final TransformerFactoryConfigurationError e) {
-                e.printStackTrace();
-            }
             catch (final TransformerException e) {
                 e.printStackTrace();
             }
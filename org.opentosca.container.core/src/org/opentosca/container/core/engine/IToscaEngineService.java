@@ -48,6 +48,24 @@ public interface IToscaEngineService {
      */
     public boolean resolveDefinitions(CSARID csarID);
 
+    /**
+     * Defers the processing of the passed CSAR until its TOSCA data is accessed for the first time or
+     * {@link #processDeferredCSAR(CSARID)} is called. The processing is run by the accessing thread,
+     * other threads accessing the data of the CSAR in the meantime wait until it's done.
+     *
+     * @param csarID CSAR ID of the CSAR to process lazily.
+     * @param processing processing of the CSAR, e.g., resolving its Definitions and deploying its
+     *        plans.
+     */
+    public void deferCSARProcessing(CSARID csarID, Runnable processing);
+
+    /**
+     * Runs the deferred processing of the passed CSAR if it wasn't run yet and waits until it's done.
+     *
+     * @param csarID CSAR ID of the CSAR to process.
+     */
+    public void processDeferredCSAR(CSARID csarID);
+
     /**
      * Returns all Node Types (including the given) inside the type hierarchy of the given Node Type
      *
@@ -312,6 +312,16 @@ public interface IToscaReferenceMapper {
 
     public List<PropertyMappings> getServiceTemplateBoundsPropertyMappings(CSARID csarID);
 
+    /**
+     * Returns the queries of the property mappings of the BoundaryDefinitions of a ServiceTemplate.
+     *
+     * @param csarID the ID of the CSAR containing the ServiceTemplate
+     * @param serviceTemplateID the ID of the ServiceTemplate
+     * @return the queries mapped by their XPath expressions, empty if there are no property mappings
+     */
+    public Map<String, PropertyMappingQuery> getServiceTemplateBoundsPropertyQueries(CSARID csarID,
+                                                                                    QName serviceTemplateID);
+
     void storeServiceTemplateBoundsPlan(CSARID csarID, QName serviceTemplateID, String interfaceName, String opName,
                                         QName planID);
 
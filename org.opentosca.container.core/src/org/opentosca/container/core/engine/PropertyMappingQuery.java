@@ -0,0 +1,181 @@
+package org.opentosca.container.core.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * This class holds a query of a property mapping of the BoundaryDefinitions of a ServiceTemplate,
+ * i.e., an XPath expression selecting elements of the properties of the ServiceTemplate or of a
+ * NodeTemplate. Instances are thread-safe and are meant to be reused for all evaluations of the
+ * same query.
+ *
+ * Queries consisting only of steps to child elements, e.g. <code>/Property</code> or
+ * <code>*[local-name()='Property']</code>, are evaluated by walking the child elements. All other
+ * queries are compiled once per thread, as compiled XPath expressions aren't thread-safe.
+ */
+public class PropertyMappingQuery {
+
+    private final static Logger LOG = LoggerFactory.getLogger(PropertyMappingQuery.class);
+
+    private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+
+    // a step to child elements: *, a name without prefix or *[local-name()='name']
+    private static final Pattern STEP_PATTERN = Pattern.compile("\\*|([A-Za-z_][\\w.\\-]*)"
+        + "|\\*\\[\\s*local-name\\(\\)\\s*=\\s*(['\"])([A-Za-z_][\\w.\\-]*)\\2\\s*\\]");
+
+    private final String query;
+
+    // steps of a query consisting only of steps to child elements, otherwise null
+    private final List<Step> steps;
+    private final boolean absolute;
+
+    private final ThreadLocal<XPathExpression> expression;
+
+
+    /**
+     * @param query the XPath expression of the property mapping
+     */
+    public PropertyMappingQuery(final String query) {
+        this.query = query;
+
+        final String trimmedQuery = query.trim();
+        this.absolute = trimmedQuery.startsWith("/");
+        this.steps = parseSteps(this.absolute ? trimmedQuery.substring(1) : trimmedQuery);
+
+        this.expression = ThreadLocal.withInitial(() -> compile(query));
+    }
+
+    /**
+     * @return the XPath expression of the property mapping
+     */
+    public String getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Evaluates the query.
+     *
+     * @param context the element to evaluate the query on
+     * @return the selected elements in document order, empty if the query is invalid
+     */
+    public List<Element> selectElements(final Element context) {
+        if (this.steps == null) {
+            return evaluate(context);
+        }
+
+        // the root of an absolute query is the document, its only child element is the document element
+        List<Node> nodes =
+            Collections.singletonList(this.absolute ? (Node) context.getOwnerDocument() : (Node) context);
+        for (final Step step : this.steps) {
+            final List<Node> children = new ArrayList<>();
+            for (final Node node : nodes) {
+                for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child.getNodeType() == Node.ELEMENT_NODE && step.matches(child)) {
+                        children.add(child);
+                    }
+                }
+            }
+            nodes = children;
+        }
+
+        final List<Element> elements = new ArrayList<>(nodes.size());
+        for (final Node node : nodes) {
+            elements.add((Element) node);
+        }
+        return elements;
+    }
+
+    private List<Element> evaluate(final Element context) {
+        final List<Element> elements = new ArrayList<>();
+        final XPathExpression compiledExpression = this.expression.get();
+        if (compiledExpression == null) {
+            return elements;
+        }
+
+        try {
+            final NodeList nodes = (NodeList) compiledExpression.evaluate(context, XPathConstants.NODESET);
+            for (int index = 0; index < nodes.getLength(); index++) {
+                if (nodes.item(index).getNodeType() == Node.ELEMENT_NODE) {
+                    elements.add((Element) nodes.item(index));
+                }
+            }
+        }
+        catch (final XPathExpressionException e) {
+            LOG.warn("Evaluation of property mapping query \"{}\" failed: {}", this.query, e.getMessage());
+        }
+        return elements;
+    }
+
+    private static XPathExpression compile(final String query) {
+        try {
+            // XPathFactory isn't thread-safe
+            synchronized (XPATH_FACTORY) {
+                return XPATH_FACTORY.newXPath().compile(query);
+            }
+        }
+        catch (final XPathExpressionException e) {
+            LOG.warn("Property mapping query \"{}\" is invalid: {}", query, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the steps of the path or null if it doesn't consist only of steps to child elements
+     */
+    private static List<Step> parseSteps(final String path) {
+        final List<Step> steps = new ArrayList<>();
+        for (final String step : path.split("/", -1)) {
+            final Matcher matcher = STEP_PATTERN.matcher(step.trim());
+            if (!matcher.matches()) {
+                return null;
+            }
+            if (matcher.group(1) != null) {
+                steps.add(new Step(matcher.group(1), true));
+            } else {
+                steps.add(new Step(matcher.group(3), false));
+            }
+        }
+        return steps;
+    }
+
+
+    private static class Step {
+
+        // local name of the selected elements, null for all elements
+        private final String localName;
+
+        // whether only elements without namespace are selected
+        private final boolean noNamespace;
+
+
+        private Step(final String localName, final boolean noNamespace) {
+            this.localName = localName;
+            this.noNamespace = noNamespace;
+        }
+
+        private boolean matches(final Node element) {
+            if (this.localName == null) {
+                return true;
+            }
+            if (this.noNamespace && element.getNamespaceURI() != null) {
+                return false;
+            }
+            final String elementName = element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
+            return this.localName.equals(elementName);
+        }
+    }
+}
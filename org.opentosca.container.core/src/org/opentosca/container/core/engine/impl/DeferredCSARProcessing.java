@@ -0,0 +1,108 @@
+package org.opentosca.container.core.engine.impl;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the CSARs whose processing (e.g., resolving the Definitions and deploying the plans)
+ * is deferred until their TOSCA data is accessed for the first time.<br>
+ * <br>
+ *
+ * The first thread accessing the data of such a CSAR processes it, other threads accessing it in the
+ * meantime wait until the processing is done. Accesses of the processing thread itself don't wait,
+ * so the processing can read the data it's storing.
+ */
+final class DeferredCSARProcessing {
+
+    private final static Logger LOG = LoggerFactory.getLogger(DeferredCSARProcessing.class);
+
+    private final static Map<CSARID, Deferred> DEFERRED = new ConcurrentHashMap<>();
+
+
+    private DeferredCSARProcessing() {
+    }
+
+    /**
+     * Defers the processing of a CSAR until {@link #process(CSARID)} is called for it.
+     */
+    static void defer(final CSARID csarID, final Runnable processing) {
+        DEFERRED.put(csarID, new Deferred(processing));
+    }
+
+    /**
+     * Processes the CSAR if its processing is deferred and waits until it's done. Returns at once if
+     * the CSAR was already processed or is processed by the current thread.
+     */
+    static void process(final CSARID csarID) {
+        final Deferred deferred = DEFERRED.get(csarID);
+        if (deferred == null || deferred.lock.isHeldByCurrentThread()) {
+            return;
+        }
+        deferred.lock.lock();
+        try {
+            if (DEFERRED.get(csarID) != deferred) {
+                // processed by another thread or cancelled in the meantime
+                return;
+            }
+            LOG.info("Processing CSAR \"{}\" on demand.", csarID);
+            try {
+                deferred.processing.run();
+            }
+            catch (final RuntimeException e) {
+                LOG.error("Processing CSAR \"{}\" failed.", csarID, e);
+            }
+            finally {
+                DEFERRED.remove(csarID, deferred);
+            }
+        }
+        finally {
+            deferred.lock.unlock();
+        }
+    }
+
+    /**
+     * Processes all CSARs whose processing is deferred.
+     */
+    static void processAll() {
+        for (final CSARID csarID : new ArrayList<>(DEFERRED.keySet())) {
+            process(csarID);
+        }
+    }
+
+    /**
+     * Cancels the deferred processing of a CSAR. If the CSAR is processed at the moment, waits until
+     * it's done.
+     */
+    static void cancel(final CSARID csarID) {
+        final Deferred deferred = DEFERRED.get(csarID);
+        if (deferred == null) {
+            return;
+        }
+        deferred.lock.lock();
+        try {
+            DEFERRED.remove(csarID, deferred);
+        }
+        finally {
+            deferred.lock.unlock();
+        }
+    }
+
+
+    private static class Deferred {
+
+        private final Runnable processing;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+
+        private Deferred(final Runnable processing) {
+            this.processing = processing;
+        }
+    }
+}
@@ -14,7 +14,6 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.opentosca.container.core.common.SystemException;
@@ -30,6 +29,7 @@ import org.opentosca.container.core.engine.impl.resolver.DefinitionsResolver;
 import org.opentosca.container.core.model.AbstractArtifact;
 import org.opentosca.container.core.model.csar.CSARContent;
 import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.tosca.model.TArtifactReference;
 import org.opentosca.container.core.tosca.model.TArtifactReference.Exclude;
 import org.opentosca.container.core.tosca.model.TArtifactReference.Include;
@@ -75,16 +75,10 @@ public class ToscaEngineServiceImpl implements IToscaEngineService {
 
     public static ToscaReferenceMapper toscaReferenceMapper = null;
 
-    private DefinitionsResolver definitionsResolver = null;
-
-    private DefinitionsConsolidation definitionsConsolidation = null;
-
     private static final Logger LOG = LoggerFactory.getLogger(ToscaEngineServiceImpl.class);
 
     public ToscaEngineServiceImpl() {
         toscaReferenceMapper = new ToscaReferenceMapper();
-        this.definitionsResolver = new DefinitionsResolver();
-        this.definitionsConsolidation = new DefinitionsConsolidation();
     }
 
     /**
@@ -101,10 +95,15 @@ public class ToscaEngineServiceImpl implements IToscaEngineService {
     @Override
     public boolean resolveDefinitions(final CSARID csarID) {
 
+        // a deferred processing of the CSAR would resolve the Definitions again later
+        DeferredCSARProcessing.process(csarID);
+
         LOG.debug("Resolve a Definitions.");
-        boolean ret = this.definitionsResolver.resolveDefinitions(csarID);
+        // the resolver and the consolidation keep state of the CSAR they process, so multiple CSARs can
+        // be resolved concurrently with separate instances
+        boolean ret = new DefinitionsResolver().resolveDefinitions(csarID);
         if (ret) {
-            ret = this.definitionsConsolidation.consolidateCSAR(csarID);
+            ret = new DefinitionsConsolidation().consolidateCSAR(csarID);
         }
         toscaReferenceMapper.printStoredData();
 
@@ -112,6 +111,23 @@ public class ToscaEngineServiceImpl implements IToscaEngineService {
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deferCSARProcessing(final CSARID csarID, final Runnable processing) {
+        LOG.debug("Defer the processing of CSAR \"{}\" until its first access.", csarID);
+        DeferredCSARProcessing.defer(csarID, processing);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void processDeferredCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -902,6 +918,7 @@ public class ToscaEngineServiceImpl implements IToscaEngineService {
      * {@inheritDoc}
      */
     public boolean clearCSARContent(final CSARID csarID) {
+        DeferredCSARProcessing.cancel(csarID);
         return toscaReferenceMapper.clearCSARContent(csarID);
     }
 
@@ -965,7 +982,7 @@ public class ToscaEngineServiceImpl implements IToscaEngineService {
 
                     if (node.getLocalName().equals("PropertiesDefinition")) {
 
-                        final Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+                        final Document doc = XMLPools.newDocument();
                         doc.appendChild(doc.importNode(node, true));
 
                         return doc;
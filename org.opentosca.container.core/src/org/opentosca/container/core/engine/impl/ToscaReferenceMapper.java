@@ -3,6 +3,8 @@ package org.opentosca.container.core.engine.impl;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -15,6 +17,7 @@ import javax.xml.bind.Marshaller;
 import javax.xml.namespace.QName;
 
 import org.opentosca.container.core.engine.IToscaReferenceMapper;
+import org.opentosca.container.core.engine.PropertyMappingQuery;
 import org.opentosca.container.core.engine.xml.IXMLSerializerService;
 import org.opentosca.container.core.mapping.CSARIDToDefinitionsMap;
 import org.opentosca.container.core.mapping.CSARIDToServiceTemplateIDsMap;
@@ -26,6 +29,7 @@ import org.opentosca.container.core.mapping.DocumentMap;
 import org.opentosca.container.core.mapping.MapQNameNode;
 import org.opentosca.container.core.mapping.ReferenceMap;
 import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.tosca.extension.PlanTypes;
 import org.opentosca.container.core.tosca.model.TBoundaryDefinitions;
 import org.opentosca.container.core.tosca.model.TBoundaryDefinitions.Policies;
@@ -68,26 +72,36 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
     private static CsarIDToPlanTypeToPlanNameToPlan csarIDToPlanTypeToIntegerToPlan;
     private CsarIDToWSDLDocuments csarIDToWSDLDocuments;
     private CsarIDToServiceTemplateIDToPlanID csarIDToServiceTemplateIDToPlanID;
-    private final Map<CSARID, Map<QName, Boolean>> csarIDToPlanIDToSynchronousBoolean = new HashMap<>();
-    private final Map<CSARID, Map<QName, List<TExportedInterface>>> csarIDToExportedInterface = new HashMap<>();
+    private final Map<CSARID, Map<QName, Boolean>> csarIDToPlanIDToSynchronousBoolean =
+        Collections.synchronizedMap(new HashMap<>());
+    private final Map<CSARID, Map<QName, List<TExportedInterface>>> csarIDToExportedInterface =
+        Collections.synchronizedMap(new HashMap<>());
     private final CsarIDToPolicies csarIDToPolicies = new CsarIDToPolicies();
-    private final Map<CSARID, Map<QName, String>> mapDefinitionsIDToLocationString = new HashMap<>();
-    private final Map<CSARID, Map<QName, QName>> mapElementIDToDefinitionsID = new HashMap<>();
-    private final Map<CSARID, Map<QName, QName>> mapCSARIDToPlanIDToInputMessageID = new HashMap<>();
+    private final Map<CSARID, Map<QName, String>> mapDefinitionsIDToLocationString =
+        Collections.synchronizedMap(new HashMap<>());
+    private final Map<CSARID, Map<QName, QName>> mapElementIDToDefinitionsID =
+        Collections.synchronizedMap(new HashMap<>());
+    private final Map<CSARID, Map<QName, QName>> mapCSARIDToPlanIDToInputMessageID =
+        Collections.synchronizedMap(new HashMap<>());
 
     private final Map<CSARID, Map<QName, Map<String, Map<String, QName>>>> mapCSARIDToServiceTemplateIdToInterfaceToOperationToPlan =
-        new HashMap<>();
+        Collections.synchronizedMap(new HashMap<>());
 
-    private final Map<CSARID, Map<String, String>> mapCSARIDToPlanNameToNamespace = new HashMap<>();
+    private final Map<CSARID, Map<String, String>> mapCSARIDToPlanNameToNamespace =
+        Collections.synchronizedMap(new HashMap<>());
 
     private final Map<CSARID, Map<QName, List<String>>> mapCSARIDToServiceTemplateQNameToNodeTemplateID =
-        new HashMap<>();
+        Collections.synchronizedMap(new HashMap<>());
 
     private final Map<CSARID, Map<QName, List<String>>> mapCSARIDToServiceTemplateQNameToRelationshipTemplateID =
-        new HashMap<>();
+        Collections.synchronizedMap(new HashMap<>());
 
-    private final Map<CSARID, Map<QName, String>> serviceTemplatePropertiesContent = new HashMap<>();
-    private final Map<CSARID, Map<QName, PropertyMappings>> serviceTemplatePropertyMappings = new HashMap<>();
+    private final Map<CSARID, Map<QName, String>> serviceTemplatePropertiesContent =
+        Collections.synchronizedMap(new HashMap<>());
+    private final Map<CSARID, Map<QName, PropertyMappings>> serviceTemplatePropertyMappings =
+        Collections.synchronizedMap(new HashMap<>());
+    private final Map<CSARID, Map<QName, Map<String, PropertyMappingQuery>>> serviceTemplatePropertyMappingQueries =
+        Collections.synchronizedMap(new HashMap<>());
 
 
     public ToscaReferenceMapper() {
@@ -122,6 +136,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
         this.mapCSARIDToServiceTemplateQNameToRelationshipTemplateID.remove(csarID);
         this.serviceTemplatePropertiesContent.remove(csarID);
         this.serviceTemplatePropertyMappings.remove(csarID);
+        this.serviceTemplatePropertyMappingQueries.remove(csarID);
 
         if (containsCSARData(csarID)) {
             return false;
@@ -135,6 +150,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public TBoundaryDefinitions.Policies getPolicies(final CSARID csarID, final QName templateID) {
+        DeferredCSARProcessing.process(csarID);
         return this.csarIDToPolicies.get(csarID, templateID);
     }
 
@@ -151,6 +167,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public boolean containsCSARData(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         setup();
 
         boolean found = false;
@@ -203,6 +220,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public boolean containsReferenceInsideCSAR(final CSARID csarID, final QName reference) {
+        DeferredCSARProcessing.process(csarID);
         setup();
         if (containsCSARData(csarID)) {
             if (this.referenceMap.get(csarID).containsKey(reference)) {
@@ -214,6 +232,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public Map<PlanTypes, LinkedHashMap<QName, TPlan>> getCSARIDToPlans(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
 
         if (null == ToscaReferenceMapper.csarIDToPlanTypeToIntegerToPlan) {
             this.LOG.error("The variable is null.");
@@ -241,6 +260,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public List<QName> getDefinitionIDsOfCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         setup();
 
         final List<QName> listOfIDs = new ArrayList<>();
@@ -265,6 +285,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public List<TDefinitions> getDefinitionsOfCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         setup();
         if (this.mapCSARIDToDefinitions.containsKey(csarID)) {
             return this.mapCSARIDToDefinitions.get(csarID);
@@ -281,6 +302,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
     @Override
     @Deprecated
     public Document getDOMDocumentForReference(final CSARID csarID, final QName reference) {
+        DeferredCSARProcessing.process(csarID);
         setup();
         if (this.documentMap.containsKey(csarID)) {
 
@@ -305,6 +327,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public Map<QName, List<TExportedInterface>> getExportedInterfacesOfCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         if (this.csarIDToExportedInterface.containsKey(csarID)) {
             return this.csarIDToExportedInterface.get(csarID);
         } else {
@@ -317,6 +340,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public Object getReferenceAsNode(final CSARID csarID, final QName nodeID) {
+        DeferredCSARProcessing.process(csarID);
         setup();
 
         this.LOG.debug("Lookup for the node \"" + nodeID + "\" inside of the CSAR \"" + csarID + "\".");
@@ -344,6 +368,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public Object getJAXBReference(final CSARID csarID, final QName nodeID) {
+        DeferredCSARProcessing.process(csarID);
         setup();
 
         this.LOG.debug("Lookup for the node \"" + nodeID + "\" inside of the CSAR \"" + csarID + "\".");
@@ -383,6 +408,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
     }
 
     public List<Document> getListOfWSDLForCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         if (this.csarIDToWSDLDocuments.containsKey(csarID)) {
             return this.csarIDToWSDLDocuments.get(csarID);
         }
@@ -391,6 +417,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public Map<CSARID, Map<QName, List<QName>>> getMapCsarIDToServiceTemplateIDToPlanID() {
+        DeferredCSARProcessing.processAll();
         return this.csarIDToServiceTemplateIDToPlanID;
     }
 
@@ -403,6 +430,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public TPlan getPlanForCSARIDAndPlanID(final CSARID csarID, final QName planID) {
+        DeferredCSARProcessing.process(csarID);
 
         if (!ToscaReferenceMapper.csarIDToPlanTypeToIntegerToPlan.containsKey(csarID)) {
             ToscaReferenceMapper.csarIDToPlanTypeToIntegerToPlan.put(csarID,
@@ -438,12 +466,14 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public List<QName> getServiceTemplateIDsContainedInCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         setup();
         return this.mapCSARIDToServiceTemplateIDs.get(csarID);
     }
 
     @Override
     public Boolean isPlanAsynchronous(final CSARID csarID, final QName planID) {
+        DeferredCSARProcessing.process(csarID);
         if (null == this.csarIDToPlanIDToSynchronousBoolean.get(csarID)
             || null == this.csarIDToPlanIDToSynchronousBoolean.get(csarID).get(planID)) {
             this.LOG.error("There is no information stored about the plan " + planID + " of CSAR " + csarID
@@ -459,6 +489,10 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public void printStoredData() {
+        if (!this.LOG.isDebugEnabled()) {
+            // serializing all stored references is expensive
+            return;
+        }
         setup();
         String string = "";
         final String ls = System.getProperty("line.separator");
@@ -473,7 +507,8 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
             return;
         }
 
-        for (final CSARID csarID : this.referenceMap.keySet()) {
+        // other CSARs may be resolved concurrently
+        for (final CSARID csarID : new ArrayList<>(this.referenceMap.keySet())) {
 
             builder.append(ls + "Print all stored references of \"" + csarID + "\"." + ls);
             for (final QName ref : this.referenceMap.get(csarID).keySet()) {
@@ -547,7 +582,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
             Marshaller marshaller = null;
             final StringWriter writer = new StringWriter();
             try {
-                context = JAXBContext.newInstance(TPolicy.class);
+                context = XMLPools.getJAXBContext(TPolicy.class);
                 marshaller = context.createMarshaller();
                 marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
             }
@@ -840,6 +875,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public String getDefinitionsLocation(final CSARID csarID, final QName defID) {
+        DeferredCSARProcessing.process(csarID);
         if (this.mapDefinitionsIDToLocationString.containsKey(csarID)) {
             if (this.mapDefinitionsIDToLocationString.get(csarID).containsKey(defID)) {
                 return this.mapDefinitionsIDToLocationString.get(csarID).get(defID);
@@ -869,6 +905,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
      */
     @Override
     public QName getContainingDefinitionsID(final CSARID csarID, final QName elementID) {
+        DeferredCSARProcessing.process(csarID);
         if (this.mapElementIDToDefinitionsID.containsKey(csarID)) {
             if (this.mapElementIDToDefinitionsID.get(csarID).containsKey(elementID)) {
                 return this.mapElementIDToDefinitionsID.get(csarID).get(elementID);
@@ -907,6 +944,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public QName getPlanInputMessageID(final CSARID csarID, final QName planID) {
+        DeferredCSARProcessing.process(csarID);
         try {
             return this.mapCSARIDToPlanIDToInputMessageID.get(csarID).get(planID);
         }
@@ -978,6 +1016,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public String getIntferaceNameOfPlan(final CSARID csarID, final QName planID) {
+        DeferredCSARProcessing.process(csarID);
 
         if (!this.mapCSARIDToServiceTemplateIdToInterfaceToOperationToPlan.containsKey(csarID)) {
             return null;
@@ -1014,6 +1053,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public String getIntferaceNameOfPlan(final CSARID csarID, final QName serviceTemplateID, final QName planID) {
+        DeferredCSARProcessing.process(csarID);
 
         if (!this.mapCSARIDToServiceTemplateIdToInterfaceToOperationToPlan.containsKey(csarID)) {
             return null;
@@ -1039,6 +1079,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public String getOperationNameOfPlan(final CSARID csarID, final QName planID) {
+        DeferredCSARProcessing.process(csarID);
         if (!this.mapCSARIDToServiceTemplateIdToInterfaceToOperationToPlan.containsKey(csarID)) {
             return null;
         }
@@ -1060,6 +1101,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public List<String> getBoundaryInterfacesOfCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         final List<String> list = new ArrayList<>();
 
         if (!this.mapCSARIDToServiceTemplateIdToInterfaceToOperationToPlan.containsKey(csarID)) {
@@ -1077,6 +1119,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public List<String> getBoundaryInterfacesOfServiceTemplate(final CSARID csarID, final QName serviceTemplateID) {
+        DeferredCSARProcessing.process(csarID);
         final List<String> list = new ArrayList<>();
 
         if (!this.mapCSARIDToServiceTemplateIdToInterfaceToOperationToPlan.containsKey(csarID)) {
@@ -1135,6 +1178,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
     @Override
     public List<String> getBoundaryOperationsOfCSARInterface(final CSARID csarID, final QName serviceTemplateID,
                                                              final String intName) {
+        DeferredCSARProcessing.process(csarID);
         final List<String> list = new ArrayList<>();
 
         if (!this.mapCSARIDToServiceTemplateIdToInterfaceToOperationToPlan.containsKey(csarID)) {
@@ -1159,6 +1203,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public QName getBoundaryPlanOfCSARInterface(final CSARID csarID, final String intName, final String opName) {
+        DeferredCSARProcessing.process(csarID);
 
         final Map<QName, List<TExportedInterface>> stToIntfs = this.csarIDToExportedInterface.get(csarID);
 
@@ -1192,6 +1237,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public String getNamespaceOfPlan(final CSARID csarID, final String planID) {
+        DeferredCSARProcessing.process(csarID);
         if (null != this.mapCSARIDToPlanNameToNamespace.get(csarID)) {
             return this.mapCSARIDToPlanNameToNamespace.get(csarID).get(planID);
         }
@@ -1242,11 +1288,13 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public Map<QName, List<String>> getServiceTemplatesAndNodeTemplatesInCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         return this.mapCSARIDToServiceTemplateQNameToNodeTemplateID.get(csarID);
     }
 
     @Override
     public Map<QName, List<String>> getServiceTemplate2RelationshipTemplateMap(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         return this.mapCSARIDToServiceTemplateQNameToRelationshipTemplateID.get(csarID);
     }
 
@@ -1262,10 +1310,31 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
             this.serviceTemplatePropertyMappings.put(csarID, new HashMap<QName, PropertyMappings>());
         }
         this.serviceTemplatePropertyMappings.get(csarID).put(serviceTemplateID, propertyMappings);
+
+        // the queries are evaluated each time the properties of an instance are updated, thus they are
+        // prepared once here
+        final Map<String, PropertyMappingQuery> queries = new HashMap<>();
+        if (propertyMappings != null) {
+            for (final TPropertyMapping propertyMapping : propertyMappings.getPropertyMapping()) {
+                for (final String query : Arrays.asList(propertyMapping.getServiceTemplatePropertyRef(),
+                                                        propertyMapping.getTargetPropertyRef())) {
+                    if (query != null && !queries.containsKey(query)) {
+                        queries.put(query, new PropertyMappingQuery(query));
+                    }
+                }
+            }
+        }
+        if (null == this.serviceTemplatePropertyMappingQueries.get(csarID)) {
+            this.serviceTemplatePropertyMappingQueries.put(csarID,
+                                                           new HashMap<QName, Map<String, PropertyMappingQuery>>());
+        }
+        this.serviceTemplatePropertyMappingQueries.get(csarID).put(serviceTemplateID,
+                                                                   Collections.unmodifiableMap(queries));
     }
 
     @Override
     public String getServiceTemplateBoundsPropertiesContent(final CSARID csarID, final QName serviceTemplateID) {
+        DeferredCSARProcessing.process(csarID);
         final Map<QName, String> properties = this.serviceTemplatePropertiesContent.get(csarID);
         if (properties != null) {
             return properties.get(serviceTemplateID);
@@ -1275,6 +1344,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public Object getServiceTemplateBoundsPropertiesXMLFragment(final CSARID csarID, final QName serviceTemplateID) {
+        DeferredCSARProcessing.process(csarID);
         final String content = this.getServiceTemplateBoundsPropertiesContent(csarID, serviceTemplateID);
         final Object result = JAXB.unmarshal(new StringReader(content), TBoundaryDefinitions.Properties.class);
         final TBoundaryDefinitions.Properties properties = (Properties) result;
@@ -1284,6 +1354,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public List<String> getServiceTemplateBoundsPropertiesContent(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         final List<String> ret = new ArrayList<>();
         for (final QName st : this.serviceTemplatePropertiesContent.get(csarID).keySet()) {
             ret.add(this.serviceTemplatePropertiesContent.get(csarID).get(st));
@@ -1294,6 +1365,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
     @Override
     public PropertyMappings getServiceTemplateBoundsPropertyMappings(final CSARID csarID,
                                                                      final QName serviceTemplateID) {
+        DeferredCSARProcessing.process(csarID);
         final Map<QName, PropertyMappings> properties = this.serviceTemplatePropertyMappings.get(csarID);
         if (properties != null) {
             return properties.get(serviceTemplateID);
@@ -1303,6 +1375,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public List<PropertyMappings> getServiceTemplateBoundsPropertyMappings(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         final List<PropertyMappings> ret = new ArrayList<>();
         for (final QName st : this.serviceTemplatePropertyMappings.get(csarID).keySet()) {
             ret.add(this.serviceTemplatePropertyMappings.get(csarID).get(st));
@@ -1310,8 +1383,21 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
         return ret;
     }
 
+    @Override
+    public Map<String, PropertyMappingQuery> getServiceTemplateBoundsPropertyQueries(final CSARID csarID,
+                                                                                    final QName serviceTemplateID) {
+        DeferredCSARProcessing.process(csarID);
+        final Map<QName, Map<String, PropertyMappingQuery>> queries =
+            this.serviceTemplatePropertyMappingQueries.get(csarID);
+        if (queries != null && queries.containsKey(serviceTemplateID)) {
+            return queries.get(serviceTemplateID);
+        }
+        return Collections.emptyMap();
+    }
+
     @Override
     public List<TPropertyMapping> getPropertyMappings(final CSARID id, final QName serviceTemplate) {
+        DeferredCSARProcessing.process(id);
         final PropertyMappings propertyMappings = this.getServiceTemplateBoundsPropertyMappings(id, serviceTemplate);
         if (propertyMappings == null) {
             this.LOG.info("There are no Property Mappings for CSAR \"{}\"", id);
@@ -1340,6 +1426,7 @@ public class ToscaReferenceMapper implements IToscaReferenceMapper {
 
     @Override
     public Map<QName, List<String>> getServiceTemplatesAndRelationshipTemplatesInCSAR(final CSARID csarID) {
+        DeferredCSARProcessing.process(csarID);
         return this.mapCSARIDToServiceTemplateQNameToRelationshipTemplateID.get(csarID);
     }
 }
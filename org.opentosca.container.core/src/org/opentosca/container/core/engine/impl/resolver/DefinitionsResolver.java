@@ -1,28 +1,36 @@
 package org.opentosca.container.core.engine.impl.resolver;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 
+import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.common.SystemException;
 import org.opentosca.container.core.common.UserException;
 import org.opentosca.container.core.engine.impl.PathResolver;
 import org.opentosca.container.core.engine.impl.ServiceHandler;
 import org.opentosca.container.core.engine.impl.ToscaEngineServiceImpl;
+import org.opentosca.container.core.engine.impl.resolver.data.ElementIndex;
 import org.opentosca.container.core.model.AbstractFile;
 import org.opentosca.container.core.model.csar.CSARContent;
 import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.tosca.model.Definitions;
 import org.opentosca.container.core.tosca.model.TImport;
 import org.slf4j.Logger;
@@ -47,6 +55,13 @@ public class DefinitionsResolver {
 
     private final Logger LOG = LoggerFactory.getLogger(DefinitionsResolver.class);
 
+    /**
+     * Parses and unmarshals the imported files of all resolved CSARs concurrently. The threads are
+     * daemons and the pool is shut down with the core bundle, see {@link #shutdown()}, and created
+     * again if the bundle is started again.
+     */
+    private static ExecutorService importExecutor;
+
     private CSARContent csarContent = null;
 
     // list documents which are processed
@@ -54,21 +69,60 @@ public class DefinitionsResolver {
     private LinkedList<Definitions> listOfTOSCADefinitions = null;
     private LinkedList<Document> listOfXML = null;
     private LinkedList<Document> listOfWSDL = null;
-    private Map<String, List<Document>> mapOfNSToDocuments = null;
+    private ElementIndex elementIndex = null;
 
-    // list of TOSCA documents which imports are not processed
-    private LinkedList<AbstractFile> listOfNewlyImportedDocuments = null;
+    // files which are imported already, only accessed by the resolving thread
     private Set<AbstractFile> alreadyImportedDocuments = null;
 
 
+    private static int importThreads() {
+        try {
+            return Math.max(1, Integer.parseInt(Settings.OPENTOSCA_CSAR_IMPORT_THREADS));
+        }
+        catch (final NumberFormatException e) {
+            LoggerFactory.getLogger(DefinitionsResolver.class)
+                         .warn("Invalid number of CSAR import threads \"{}\", using one per processor.",
+                               Settings.OPENTOSCA_CSAR_IMPORT_THREADS);
+            return Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    private static synchronized ExecutorService getImportExecutor() {
+        if (importExecutor == null) {
+            importExecutor = Executors.newFixedThreadPool(importThreads(), new ThreadFactory() {
+
+                private final AtomicInteger count = new AtomicInteger();
+
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "csar-import-" + this.count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return importExecutor;
+    }
+
+    /**
+     * Stops the threads importing files. Imports still running are interrupted and pending ones are
+     * dropped.
+     */
+    public static synchronized void shutdown() {
+        if (importExecutor != null) {
+            importExecutor.shutdownNow();
+            importExecutor = null;
+        }
+    }
+
     private void init() {
         this.csarContent = null;
         this.listOfTOSCA = new LinkedList<>();
         this.listOfTOSCADefinitions = new LinkedList<>();
         this.listOfXML = new LinkedList<>();
         this.listOfWSDL = new LinkedList<>();
-        this.mapOfNSToDocuments = new HashMap<>();
-        this.listOfNewlyImportedDocuments = new LinkedList<>();
+        this.elementIndex = new ElementIndex();
         this.alreadyImportedDocuments = new HashSet<>();
     }
 
@@ -98,7 +152,7 @@ public class DefinitionsResolver {
         this.LOG.info("All import elements are resolvable, now starting the resolving.");
 
         // initialize all needed resolver
-        final ReferenceMapper referenceMapper = new ReferenceMapper(csarID, this.mapOfNSToDocuments);
+        final ReferenceMapper referenceMapper = new ReferenceMapper(csarID, this.elementIndex);
         final ExtensionsResolver extensionResolver = new ExtensionsResolver(referenceMapper);
         final TypesResolver typesResolver = new TypesResolver(referenceMapper);
         final ServiceTemplateResolver serviceTemplateResolver = new ServiceTemplateResolver(referenceMapper);
@@ -155,26 +209,15 @@ public class DefinitionsResolver {
      * This method traverses the tree of imports of TOSCA documents starting in the main TOSCA defined
      * in the TOSCA meta file of the CSAR.
      *
-     * TODO prevent cycles in the imports of other TOSCA documents
+     * The imported files are parsed and unmarshalled concurrently as soon as they are known, the parsed
+     * documents are processed in the order of a breadth-first traversal of the imports. Each file is
+     * imported only once, thus cycles in the imports of TOSCA documents are no problem.
      *
      * @param csarID of the CSAR
      * @return true means no error, false one or more errors
      */
     private boolean resolveImports(final CSARID csarID) {
 
-        // DocumentBuilder for parsing the files
-        final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder;
-        try {
-            dbf.setNamespaceAware(true);
-            dbf.setIgnoringComments(true);
-            builder = dbf.newDocumentBuilder();
-        }
-        catch (final ParserConfigurationException e) {
-            e.printStackTrace();
-            return false;
-        }
-
         if (ServiceHandler.coreFileService == null) {
             this.LOG.error("The CoreFileService is null!");
             return false;
@@ -189,144 +232,145 @@ public class DefinitionsResolver {
             return false;
         }
 
-        // get the main TOSCA
-        this.listOfNewlyImportedDocuments.add(this.csarContent.getRootTOSCA());
-
-        // while there are TOSCA files to process
-        while (!this.listOfNewlyImportedDocuments.isEmpty()) {
+        // TOSCA files which are parsed and which imports are not processed yet
+        final ExecutorService importExecutor = getImportExecutor();
+        final LinkedList<Future<ParsedFile>> newlyImportedTOSCA = new LinkedList<>();
+        // imported WSDL and other XML files which are parsed
+        final List<Future<ParsedFile>> importedWSDL = new ArrayList<>();
+        final List<Future<ParsedFile>> importedXML = new ArrayList<>();
 
-            // remove the current TOSCA file from the list
-            final AbstractFile file = this.listOfNewlyImportedDocuments.remove();
-
-            this.LOG.trace("File is at \"" + file.getPath() + "\".");
-
-            // parse the file
-            Document doc = null;
-            try {
-                doc = builder.parse(file.getFileAsInputStream());
-                doc.getDocumentElement().normalize();
-            }
-            catch (SAXException | IOException | SystemException e) {
-                e.printStackTrace();
-                this.LOG.error("There was an error while parsing a XML file.");
-                return false;
-            }
+        try {
+            // get the main TOSCA
+            final AbstractFile rootTOSCA = this.csarContent.getRootTOSCA();
+            this.alreadyImportedDocuments.add(rootTOSCA);
+            newlyImportedTOSCA.add(importExecutor.submit(new ParseTask(rootTOSCA, true)));
+
+            // while there are TOSCA files to process
+            while (!newlyImportedTOSCA.isEmpty()) {
+
+                // remove the current TOSCA file from the list and wait until it is parsed
+                final ParsedFile parsedFile = this.getParsedFile(newlyImportedTOSCA.remove());
+                if (parsedFile == null) {
+                    return false;
+                }
 
-            final Node root = doc.getFirstChild();
+                final AbstractFile file = parsedFile.file;
+                final Document doc = parsedFile.doc;
+                final String ns = parsedFile.namespace;
 
-            // some error checking and getting the namespace
-            if (null == root) {
-                this.LOG.warn("An imported XML document has no content.");
-                continue;
-            }
+                this.LOG.trace("File is at \"" + file.getPath() + "\".");
 
-            String ns = root.getNamespaceURI();
-            if (null == ns || ns.equals("")) {
-                if (null != root.getAttributes() && null != root.getAttributes().getNamedItem("xmlns")) {
-                    ns = root.getAttributes().getNamedItem("xmlns").getTextContent();
+                // some error checking
+                if (null == doc.getFirstChild()) {
+                    this.LOG.warn("An imported XML document has no content.");
+                    continue;
                 }
-            }
 
-            if (null == ns || ns.equals("")) {
-                this.LOG.error("An imported XML document has no namespace.");
-                return false;
-            }
-
-            if (ns.endsWith("/")) {
-                ns = ns.substring(0, ns.length() - 1);
-            }
+                if (null == ns) {
+                    this.LOG.error("An imported XML document has no namespace.");
+                    return false;
+                }
 
-            // add the document for further processing
-            if (!this.mapOfNSToDocuments.containsKey(ns)) {
-                this.mapOfNSToDocuments.put(ns, new ArrayList<Document>());
-            }
-            this.mapOfNSToDocuments.get(ns).add(doc);
+                // add the document for further processing, its elements are indexed once for resolving
+                // the references
+                this.elementIndex.addDocument(ns, doc);
 
-            // distinguish between TOSCA, WSLD and other XML
-            // TOSCA
-            if (ns.equals("http://docs.oasis-open.org/tosca/ns/2011/12")
-                || ns.equals("http://docs.oasis-open.org/tosca/ns/2011/12/")) {
-                this.LOG.trace("Found document is a TOSCA document.");
-                this.listOfTOSCA.add(doc);
+                // distinguish between TOSCA, WSLD and other XML
+                // TOSCA
+                if (DefinitionsResolver.isTOSCANamespace(ns)) {
+                    this.LOG.trace("Found document is a TOSCA document.");
+                    this.listOfTOSCA.add(doc);
 
-                final Definitions def = ServiceHandler.xmlSerializerService.getXmlSerializer().unmarshal(doc);
-                this.listOfTOSCADefinitions.add(def);
+                    final Definitions def = parsedFile.definitions;
+                    this.listOfTOSCADefinitions.add(def);
 
-                final QName defID = new QName(def.getTargetNamespace(), def.getId());
-                final String loc = file.getPath();
-                ToscaEngineServiceImpl.toscaReferenceMapper.storeDefinitionsLocation(csarID, defID, loc);
+                    final QName defID = new QName(def.getTargetNamespace(), def.getId());
+                    final String loc = file.getPath();
+                    ToscaEngineServiceImpl.toscaReferenceMapper.storeDefinitionsLocation(csarID, defID, loc);
 
-                // resolve the imports of the TOSCA
-                for (final TImport imp : def.getImport()) {
+                    // resolve the imports of the TOSCA
+                    for (final TImport imp : def.getImport()) {
 
-                    final String oldLocation = imp.getLocation();
+                        final String oldLocation = imp.getLocation();
 
-                    if (null == oldLocation || oldLocation.trim().equals("")) {
-                        this.LOG.error("One import has no or an empty location attribute.");
-                        return false;
-                    }
-
-                    // try {
-                    // location = URLDecoder.decode(location, "UTF-8");
-                    // } catch (UnsupportedEncodingException e1) {
-                    // this.LOG.error("The decoding of the location attribute of
-                    // an import failed: {}",
-                    // e1.getLocalizedMessage());
-                    // e1.printStackTrace();
-                    // continue;
-                    // }
+                        if (null == oldLocation || oldLocation.trim().equals("")) {
+                            this.LOG.error("One import has no or an empty location attribute.");
+                            return false;
+                        }
 
-                    final String location =
-                        PathResolver.resolveRelativePath(file.getPath(), oldLocation, this.csarContent);
+                        final String location =
+                            PathResolver.resolveRelativePath(file.getPath(), oldLocation, this.csarContent);
 
-                    this.LOG.trace("Import (at \"" + oldLocation + "\") should be at \"" + location + "\".");
+                        this.LOG.trace("Import (at \"" + oldLocation + "\") should be at \"" + location + "\".");
 
-                    AbstractFile newFile;
-                    try {
-                        newFile = this.csarContent.getFile(URLDecoder.decode(location, "UTF-8"));
+                        final AbstractFile newFile;
+                        try {
+                            newFile = this.csarContent.getFile(URLDecoder.decode(location, "UTF-8"));
+                        }
+                        catch (final UnsupportedEncodingException e) {
+                            this.LOG.error("The decoding of the location \"" + location + "\" failed.", e);
+                            return false;
+                        }
                         if (null == newFile) {
                             this.LOG.error("The file at \"" + location + "\" does not exit");
                             return false;
                         }
 
-                        doc = builder.parse(newFile.getFileAsInputStream());
-                        doc.getDocumentElement().normalize();
-                    }
-                    catch (SAXException | IOException | SystemException e) {
-                        e.printStackTrace();
-                        this.LOG.error("There was an error while parsing a XML file.");
-                        return false;
-                    }
-
-                    // add the documents to the according lists
-                    if (imp.getImportType().equals("http://docs.oasis-open.org/tosca/ns/2011/12")
-                        || imp.getImportType().equals("http://docs.oasis-open.org/tosca/ns/2011/12/")) {
-                        if (!this.alreadyImportedDocuments.contains(newFile)) {
-                            this.listOfNewlyImportedDocuments.add(newFile);
-                            this.alreadyImportedDocuments.add(newFile);
-                        }
-                    } else if (imp.getImportType().equals("http://schemas.xmlsoap.org/wsdl")
-                        || imp.getImportType().equals("http://schemas.xmlsoap.org/wsdl/")) {
-                        if (!this.listOfWSDL.contains(doc)) {
-                            this.listOfWSDL.add(doc);
+                        // each file is parsed only once, start parsing it at once
+                        if (!this.alreadyImportedDocuments.add(newFile)) {
+                            continue;
                         }
-                    } else {
-                        if (!this.listOfXML.contains(doc)) {
-                            this.listOfXML.add(doc);
+
+                        // add the documents to the according lists
+                        if (DefinitionsResolver.isTOSCANamespace(imp.getImportType())) {
+                            newlyImportedTOSCA.add(importExecutor.submit(new ParseTask(newFile, true)));
+                        } else if (imp.getImportType().equals("http://schemas.xmlsoap.org/wsdl")
+                            || imp.getImportType().equals("http://schemas.xmlsoap.org/wsdl/")) {
+                            importedWSDL.add(importExecutor.submit(new ParseTask(newFile, false)));
+                        } else {
+                            importedXML.add(importExecutor.submit(new ParseTask(newFile, false)));
                         }
                     }
+
+                }
+                // WSDL
+                else if (ns.equals("http://schemas.xmlsoap.org/wsdl")) {
+                    this.LOG.trace("Found document is a WSDL document.");
+                    this.listOfWSDL.add(doc);
+                }
+                // other XML
+                else {
+                    this.LOG.trace("Found document is a XML document.");
+                    this.listOfXML.add(doc);
                 }
+            }
 
+            // add the imported WSDL and XML documents in the order of their imports
+            for (final Future<ParsedFile> future : importedWSDL) {
+                final ParsedFile parsedFile = this.getParsedFile(future);
+                if (parsedFile == null) {
+                    return false;
+                }
+                this.listOfWSDL.add(parsedFile.doc);
             }
-            // WSDL
-            else if (ns.equals("http://schemas.xmlsoap.org/wsdl") || ns.equals("http://schemas.xmlsoap.org/wsdl/")) {
-                this.LOG.trace("Found document is a WSDL document.");
-                this.listOfWSDL.add(doc);
+            for (final Future<ParsedFile> future : importedXML) {
+                final ParsedFile parsedFile = this.getParsedFile(future);
+                if (parsedFile == null) {
+                    return false;
+                }
+                this.listOfXML.add(parsedFile.doc);
             }
-            // other XML
-            else {
-                this.LOG.trace("Found document is a XML document.");
-                this.listOfXML.add(doc);
+        }
+        finally {
+            // stop parsing the remaining files if an error occurred
+            for (final Future<ParsedFile> future : newlyImportedTOSCA) {
+                future.cancel(true);
+            }
+            for (final Future<ParsedFile> future : importedWSDL) {
+                future.cancel(true);
+            }
+            for (final Future<ParsedFile> future : importedXML) {
+                future.cancel(true);
             }
         }
 
@@ -335,4 +379,96 @@ public class DefinitionsResolver {
         return true;
     }
 
+    /**
+     * Waits until a file is parsed.
+     *
+     * @param future the parsing of the file
+     * @return the parsed file or null if an error occurred
+     */
+    private ParsedFile getParsedFile(final Future<ParsedFile> future) {
+        try {
+            return future.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.LOG.error("The parsing of the imported files was interrupted.");
+        }
+        catch (final ExecutionException e) {
+            this.LOG.error("There was an error while parsing a XML file.", e.getCause());
+        }
+        return null;
+    }
+
+    private static boolean isTOSCANamespace(final String ns) {
+        return ns.equals("http://docs.oasis-open.org/tosca/ns/2011/12")
+            || ns.equals("http://docs.oasis-open.org/tosca/ns/2011/12/");
+    }
+
+
+    /**
+     * A parsed file and, if it's a TOSCA document, its unmarshalled Definitions.
+     */
+    private static class ParsedFile {
+
+        private AbstractFile file;
+        private Document doc;
+        private String namespace;
+        private Definitions definitions;
+    }
+
+    /**
+     * Parses a file with the DocumentBuilder of the current thread and unmarshals TOSCA documents.
+     */
+    private static class ParseTask implements Callable<ParsedFile> {
+
+        private final AbstractFile file;
+        private final boolean unmarshal;
+
+
+        private ParseTask(final AbstractFile file, final boolean unmarshal) {
+            this.file = file;
+            this.unmarshal = unmarshal;
+        }
+
+        @Override
+        public ParsedFile call() throws SAXException, IOException, SystemException {
+
+            final DocumentBuilder builder = XMLPools.getDocumentBuilderIgnoringComments();
+
+            final ParsedFile parsedFile = new ParsedFile();
+            parsedFile.file = this.file;
+            try (InputStream in = this.file.getFileAsInputStream()) {
+                parsedFile.doc = builder.parse(in);
+            }
+            parsedFile.doc.getDocumentElement().normalize();
+
+            final Node root = parsedFile.doc.getFirstChild();
+            if (null == root) {
+                return parsedFile;
+            }
+
+            // get the namespace
+            String ns = root.getNamespaceURI();
+            if (null == ns || ns.equals("")) {
+                if (null != root.getAttributes() && null != root.getAttributes().getNamedItem("xmlns")) {
+                    ns = root.getAttributes().getNamedItem("xmlns").getTextContent();
+                }
+            }
+
+            if (null == ns || ns.equals("")) {
+                return parsedFile;
+            }
+
+            if (ns.endsWith("/")) {
+                ns = ns.substring(0, ns.length() - 1);
+            }
+            parsedFile.namespace = ns;
+
+            if (this.unmarshal && DefinitionsResolver.isTOSCANamespace(ns)) {
+                parsedFile.definitions =
+                    ServiceHandler.xmlSerializerService.getXmlSerializer().unmarshal(parsedFile.doc);
+            }
+            return parsedFile;
+        }
+    }
 }
@@ -1,19 +1,13 @@
 package org.opentosca.container.core.engine.impl.resolver;
 
 import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.opentosca.container.core.engine.impl.ServiceHandler;
 import org.opentosca.container.core.engine.impl.ToscaEngineServiceImpl;
+import org.opentosca.container.core.engine.impl.resolver.data.ElementIndex;
 import org.opentosca.container.core.engine.impl.resolver.data.ElementNamesEnum;
 import org.opentosca.container.core.engine.impl.resolver.data.ReferenceResultWrapper;
 import org.opentosca.container.core.model.csar.id.CSARID;
@@ -40,9 +34,8 @@ import org.w3c.dom.NodeList;
 public class ReferenceMapper {
 
 
-    private final XPath xpath = XPathFactory.newInstance().newXPath();
     private CSARID csarID = null;
-    private Map<String, List<Document>> mapOfNSToDocuments = null;
+    private ElementIndex elementIndex = null;
 
     private final Logger LOG = LoggerFactory.getLogger(ReferenceMapper.class);
 
@@ -88,13 +81,12 @@ public class ReferenceMapper {
      * Initialize a new ReferenceMapper.
      *
      * @param csarID The identification of the CSAR.
-     * @param mapOfNSToDocuments the data structure containing the DOM Documents in which an instance of
-     *        this ReferenceMapper searches.
+     * @param elementIndex the index of the DOM Documents in which an instance of this ReferenceMapper
+     *        searches.
      */
-    public ReferenceMapper(final CSARID csarID, final Map<String, List<Document>> mapOfNSToDocuments) {
+    public ReferenceMapper(final CSARID csarID, final ElementIndex elementIndex) {
         this.csarID = csarID;
-        this.mapOfNSToDocuments = mapOfNSToDocuments;
-        this.xpath.setNamespaceContext(this.nsContext);
+        this.elementIndex = elementIndex;
     }
 
     /**
@@ -160,47 +152,25 @@ public class ReferenceMapper {
         this.LOG.debug("Search for an ID for the QName \"" + elementReference.toString() + "\".");
 
         // if there are no documents
-        if (this.mapOfNSToDocuments.isEmpty()) {
+        if (this.elementIndex.isEmpty()) {
             this.LOG.error("There are no known documents.");
             return null;
         }
 
         // if there is no document list defined for the namespace of the element
         // reference there cannot be searched
-        if (!this.mapOfNSToDocuments.containsKey(elementReference.getNamespaceURI())) {
+        if (!this.elementIndex.containsNamespace(elementReference.getNamespaceURI())) {
             this.LOG.warn("The namespace \"" + elementReference.getNamespaceURI()
                 + "\" was not found inside the data structure.");
             return null;
         }
 
-        // xpath expression which selects by ID
-        final String exprString = "//*[@id=\"" + elementReference.getLocalPart() + "\"]";
-
         // search inside of the documents of the passed reference namespace
-        for (final Document doc : this.mapOfNSToDocuments.get(elementReference.getNamespaceURI())) {
-
-            // checks if the document type is the passed one
-            if (doc.getFirstChild().getLocalName().equals(documentType)) {
-
-                // search and wrap the result
-                try {
-                    final XPathExpression expr = this.xpath.compile(exprString);
-                    final Object result = expr.evaluate(doc, XPathConstants.NODESET);
-                    final NodeList list = (NodeList) result;
-                    if (list.getLength() > 0) {
-                        final ReferenceResultWrapper wrapper = new ReferenceResultWrapper();
-                        wrapper.setDoc(doc);
-                        wrapper.setNodeList(list);
-                        return wrapper;
-                    }
-
-                }
-                catch (final XPathExpressionException e) {
-                    e.printStackTrace();
-                    this.LOG.error("An error occured while searching inside the document via xpath. The message is: "
-                        + e.getMessage());
-                }
-            }
+        final ReferenceResultWrapper wrapper = this.elementIndex.searchByID(elementReference.getLocalPart(),
+                                                                            elementReference.getNamespaceURI(),
+                                                                            documentType);
+        if (wrapper != null) {
+            return wrapper;
         }
 
         this.LOG.warn("The ID \"" + elementReference + "\" was not found.");
@@ -220,38 +190,15 @@ public class ReferenceMapper {
         this.LOG.debug("Search somewhere else.");
 
         // if there are no documents
-        if (this.mapOfNSToDocuments.isEmpty()) {
+        if (this.elementIndex.isEmpty()) {
             this.LOG.error("There are no known documents.");
             return null;
         }
 
-        // xpath expression which selects by ID
-        final String exprString = "//*[@id=\"" + reference.getLocalPart() + "\"]";
-
         // search inside of all known documents
-        for (final String key : this.mapOfNSToDocuments.keySet()) {
-            for (final Document doc : this.mapOfNSToDocuments.get(key)) {
-
-                // search and wrap the result
-                try {
-
-                    final XPathExpression expr = this.xpath.compile(exprString);
-                    final Object result = expr.evaluate(doc, XPathConstants.NODESET);
-                    final NodeList list = (NodeList) result;
-                    if (list.getLength() > 0) {
-                        final ReferenceResultWrapper wrapper = new ReferenceResultWrapper();
-                        wrapper.setDoc(doc);
-                        wrapper.setNodeList(list);
-                        return wrapper;
-                    }
-
-                }
-                catch (final XPathExpressionException e) {
-                    e.printStackTrace();
-                    this.LOG.error("An error occured while searching inside the document via xpath. The message is: "
-                        + e.getMessage());
-                }
-            }
+        final ReferenceResultWrapper wrapper = this.elementIndex.searchByID(reference.getLocalPart(), null, null);
+        if (wrapper != null) {
+            return wrapper;
         }
 
         this.LOG.error("The ID \"" + reference + "\" was not found.");
@@ -269,60 +216,32 @@ public class ReferenceMapper {
      * @param documentType The Type of document in which shall be searched.
      * @return the ReferenceResultWrapper in case of success, otherwise null
      */
-    private ReferenceResultWrapper searchElementWithName(final QName elementReference, String elementName,
+    private ReferenceResultWrapper searchElementWithName(final QName elementReference, final String elementName,
                                                          final String documentType) {
 
         // if there are no documents
-        if (this.mapOfNSToDocuments.isEmpty()) {
+        if (this.elementIndex.isEmpty()) {
             this.LOG.error("There are no known documents.");
             return null;
         }
 
         // if there is no document list defined for the namespace of the element
         // reference there cannot be searched
-        if (!this.mapOfNSToDocuments.containsKey(elementReference.getNamespaceURI())) {
+        if (!this.elementIndex.containsNamespace(elementReference.getNamespaceURI())) {
             this.LOG.warn("The namespace \"" + elementReference.getNamespaceURI()
                 + "\" was not found inside the data structure.");
             return null;
         }
 
-        // no name passed, thus search for all via wildcard
-        if (elementName == null) {
-            elementName = "*";
-        }
-
         this.LOG.debug("Search for a name for the QName \"" + elementReference.toString() + "\" inside of an element \""
-            + elementName + "\".");
-
-        // xpath expression which selects by element name and the attribute name
-        // of the element
-        final String exprString = "//" + elementName + "[@name=\"" + elementReference.getLocalPart() + "\"]";
+            + (elementName == null ? "*" : elementName) + "\".");
 
         // search inside of the documents of the passed reference namespace
-        for (final Document doc : this.mapOfNSToDocuments.get(elementReference.getNamespaceURI())) {
-
-            // checks if the document type is the passed one
-            if (doc.getFirstChild().getLocalName().equals(documentType)) {
-
-                try {
-
-                    final XPathExpression expr = this.xpath.compile(exprString);
-                    final Object result = expr.evaluate(doc, XPathConstants.NODESET);
-                    final NodeList list = (NodeList) result;
-                    if (list.getLength() > 0) {
-                        final ReferenceResultWrapper wrapper = new ReferenceResultWrapper();
-                        wrapper.setDoc(doc);
-                        wrapper.setNodeList(list);
-                        return wrapper;
-                    }
-
-                }
-                catch (final XPathExpressionException e) {
-                    e.printStackTrace();
-                    this.LOG.error("An error occured while searching inside the document via xpath. The message is: "
-                        + e.getMessage());
-                }
-            }
+        final ReferenceResultWrapper wrapper =
+            this.elementIndex.searchByName(elementReference.getLocalPart(), toElementQName(elementName),
+                                           elementReference.getNamespaceURI(), documentType);
+        if (wrapper != null) {
+            return wrapper;
         }
 
         this.LOG.warn("The element with the name \"" + elementReference + "\" was not found.");
@@ -340,53 +259,24 @@ public class ReferenceMapper {
      * @return the ReferenceResultWrapper in case of success, otherwise null
      */
     private ReferenceResultWrapper searchElementWithNameWithoutNamespacePresort(final QName reference,
-                                                                                String elementName) {
+                                                                                final String elementName) {
 
         this.LOG.debug("Search somewhere else.");
 
         // if there are no documents
-        if (this.mapOfNSToDocuments.isEmpty()) {
+        if (this.elementIndex.isEmpty()) {
             this.LOG.error("There are no known documents.");
             return null;
         }
 
-        // no name passed, thus search for all via wildcard
-        if (elementName == null) {
-            elementName = "*";
-        }
-
-        // xpath expression which selects by element name and the attribute name
-        // of the element
-        // String exprString = "//" + elementName + "[@name=\"" +
-        // reference.getLocalPart() + "\" and @targetNamespace='" +
-        // reference.getNamespaceURI() + "']";
-        final String exprString = "//" + elementName + "[@name=\"" + reference.getLocalPart() + "\"]";
-        this.LOG.debug(exprString);
+        this.LOG.debug("Search for an element \"" + (elementName == null ? "*" : elementName)
+            + "\" with the name \"" + reference.getLocalPart() + "\".");
 
         // search inside of all known documents
-        for (final String key : this.mapOfNSToDocuments.keySet()) {
-            for (final Document doc : this.mapOfNSToDocuments.get(key)) {
-
-                // search and wrap the result
-                try {
-
-                    final XPathExpression expr = this.xpath.compile(exprString);
-                    final Object result = expr.evaluate(doc, XPathConstants.NODESET);
-                    final NodeList list = (NodeList) result;
-                    if (list.getLength() > 0) {
-                        final ReferenceResultWrapper wrapper = new ReferenceResultWrapper();
-                        wrapper.setDoc(doc);
-                        wrapper.setNodeList(list);
-                        return wrapper;
-                    }
-
-                }
-                catch (final XPathExpressionException e) {
-                    e.printStackTrace();
-                    this.LOG.error("An error occured while searching inside the document via xpath. The message is: "
-                        + e.getMessage());
-                }
-            }
+        final ReferenceResultWrapper wrapper =
+            this.elementIndex.searchByName(reference.getLocalPart(), toElementQName(elementName), null, null);
+        if (wrapper != null) {
+            return wrapper;
         }
 
         this.LOG.error("The element with the name \"" + reference + "\" was not found.");
@@ -394,6 +284,25 @@ public class ReferenceMapper {
         return null;
     }
 
+    /**
+     * Converts the prefixed name of an element (e.g. tosca:NodeType) into a QName by means of the
+     * default namespaces.
+     *
+     * @param elementName the prefixed name of the element, null or * for all elements
+     * @return the QName of the element or null for all elements
+     */
+    private QName toElementQName(final String elementName) {
+        if (elementName == null || elementName.equals("*")) {
+            return null;
+        }
+        final int separator = elementName.indexOf(':');
+        if (separator < 0) {
+            return new QName(elementName);
+        }
+        final String namespaceURI = this.nsContext.getNamespaceURI(elementName.substring(0, separator));
+        return new QName(namespaceURI == null ? "" : namespaceURI, elementName.substring(separator + 1));
+    }
+
     /**
      * Searches for an element inside the ServiceTemplate via IDRef and stores it. Possible are only
      * TNodeTemplates.
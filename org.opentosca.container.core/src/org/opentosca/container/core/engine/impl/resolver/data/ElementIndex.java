@@ -0,0 +1,188 @@
+package org.opentosca.container.core.engine.impl.resolver.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * This index maps the values of the attributes id and name of all elements inside of the imported
+ * documents of a CSAR to these elements. Each document is traversed once when it is added, thus
+ * references can be resolved without searching the documents again.
+ *
+ * The results are the same as of the XPath expressions <code>//*[@id="..."]</code> and
+ * <code>//element[@name="..."]</code> evaluated on each document in the order the documents were
+ * added.
+ */
+public class ElementIndex {
+
+    private final Set<String> namespaces = new HashSet<>();
+
+    private final Map<String, List<IndexedElement>> elementsByID = new HashMap<>();
+    private final Map<String, List<IndexedElement>> elementsByName = new HashMap<>();
+
+
+    /**
+     * Adds a document and indexes all of its elements with an attribute id or name.
+     *
+     * @param namespace the target namespace of the document
+     * @param document the document to add
+     */
+    public void addDocument(final String namespace, final Document document) {
+        this.namespaces.add(namespace);
+
+        final Node firstChild = document.getFirstChild();
+        final String documentType = firstChild == null ? null : firstChild.getLocalName();
+
+        // all elements of the document in document order
+        final NodeList elements = document.getElementsByTagNameNS("*", "*");
+        for (int itr = 0; itr < elements.getLength(); itr++) {
+            final Element element = (Element) elements.item(itr);
+            final IndexedElement indexedElement = new IndexedElement(namespace, documentType, element);
+            if (element.hasAttributeNS(null, "id")) {
+                add(this.elementsByID, element.getAttributeNS(null, "id"), indexedElement);
+            }
+            if (element.hasAttributeNS(null, "name")) {
+                add(this.elementsByName, element.getAttributeNS(null, "name"), indexedElement);
+            }
+        }
+    }
+
+    private void add(final Map<String, List<IndexedElement>> index, final String key,
+                     final IndexedElement indexedElement) {
+        if (!index.containsKey(key)) {
+            index.put(key, new ArrayList<IndexedElement>());
+        }
+        index.get(key).add(indexedElement);
+    }
+
+    /**
+     * @return true if no document was added, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.namespaces.isEmpty();
+    }
+
+    /**
+     * @param namespace the namespace to check
+     * @return true if a document of the namespace was added, otherwise false
+     */
+    public boolean containsNamespace(final String namespace) {
+        return this.namespaces.contains(namespace);
+    }
+
+    /**
+     * Searches for elements with an attribute id.
+     *
+     * @param id the value of the attribute id
+     * @param namespace the namespace of the documents to search in, null for all documents
+     * @param documentType the local name of the root of the documents to search in, null for all
+     *        documents
+     * @return the found elements of the first document containing any, or null if there are none
+     */
+    public ReferenceResultWrapper searchByID(final String id, final String namespace, final String documentType) {
+        return search(this.elementsByID.get(id), null, namespace, documentType);
+    }
+
+    /**
+     * Searches for elements with an attribute name.
+     *
+     * @param name the value of the attribute name
+     * @param elementName the name of the elements, null for all elements
+     * @param namespace the namespace of the documents to search in, null for all documents
+     * @param documentType the local name of the root of the documents to search in, null for all
+     *        documents
+     * @return the found elements of the first document containing any, or null if there are none
+     */
+    public ReferenceResultWrapper searchByName(final String name, final QName elementName, final String namespace,
+                                               final String documentType) {
+        return search(this.elementsByName.get(name), elementName, namespace, documentType);
+    }
+
+    private ReferenceResultWrapper search(final List<IndexedElement> candidates, final QName elementName,
+                                          final String namespace, final String documentType) {
+        if (candidates == null) {
+            return null;
+        }
+
+        Document doc = null;
+        final List<Node> nodes = new ArrayList<>();
+        for (final IndexedElement candidate : candidates) {
+            if (doc != null && candidate.element.getOwnerDocument() != doc) {
+                // only the elements of the first document containing any are part of the result
+                break;
+            }
+            if (candidate.matches(elementName, namespace, documentType)) {
+                doc = candidate.element.getOwnerDocument();
+                nodes.add(candidate.element);
+            }
+        }
+
+        if (doc == null) {
+            return null;
+        }
+        final ReferenceResultWrapper wrapper = new ReferenceResultWrapper();
+        wrapper.setDoc(doc);
+        wrapper.setNodeList(new NodeListImpl(nodes));
+        return wrapper;
+    }
+
+
+    private static class IndexedElement {
+
+        private final String namespace;
+        private final String documentType;
+        private final Element element;
+
+
+        private IndexedElement(final String namespace, final String documentType, final Element element) {
+            this.namespace = namespace;
+            this.documentType = documentType;
+            this.element = element;
+        }
+
+        private boolean matches(final QName elementName, final String namespace, final String documentType) {
+            if (namespace != null && !namespace.equals(this.namespace)) {
+                return false;
+            }
+            if (documentType != null && !documentType.equals(this.documentType)) {
+                return false;
+            }
+            if (elementName != null) {
+                final String elementNamespace = this.element.getNamespaceURI();
+                return elementName.getNamespaceURI().equals(elementNamespace == null ? "" : elementNamespace)
+                    && elementName.getLocalPart().equals(this.element.getLocalName());
+            }
+            return true;
+        }
+    }
+
+    private static class NodeListImpl implements NodeList {
+
+        private final List<Node> nodes;
+
+
+        private NodeListImpl(final List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public Node item(final int index) {
+            return index < 0 || index >= this.nodes.size() ? null : this.nodes.get(index);
+        }
+
+        @Override
+        public int getLength() {
+            return this.nodes.size();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.io.StringWriter;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -13,6 +14,7 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.w3c.dom.Node;
 
 public class FormatOutputUtil implements IOutputFormatter {
@@ -32,13 +34,11 @@ public class FormatOutputUtil implements IOutputFormatter {
                 final Source source = new DOMSource(node);
                 final StringWriter stringWriter = new StringWriter();
                 final Result streamResult = new StreamResult(stringWriter);
-                final TransformerFactory factory = TransformerFactory.newInstance();
                 Transformer transformer;
                 if (removeWhitespaces) {
-                    transformer = factory.newTransformer(new StreamSource(
-                        new ByteArrayInputStream(FormatOutputUtil.stripSpaceXSL.getBytes())));
+                    transformer = getStripSpaceTemplates().newTransformer();
                 } else {
-                    transformer = factory.newTransformer();
+                    transformer = XMLPools.getTransformer();
                 }
                 transformer.transform(source, streamResult);
                 result = stringWriter.getBuffer().toString();
@@ -53,6 +53,21 @@ public class FormatOutputUtil implements IOutputFormatter {
         return result.replace(System.getProperty("line.separator"), "");
     }
 
+    /**
+     * @return the compiled stylesheet removing whitespace, compiled on first use
+     */
+    private static Templates getStripSpaceTemplates() throws TransformerConfigurationException {
+        if (FormatOutputUtil.stripSpaceTemplates == null) {
+            synchronized (FormatOutputUtil.class) {
+                if (FormatOutputUtil.stripSpaceTemplates == null) {
+                    FormatOutputUtil.stripSpaceTemplates = TransformerFactory.newInstance().newTemplates(
+                        new StreamSource(new ByteArrayInputStream(FormatOutputUtil.stripSpaceXSL.getBytes())));
+                }
+            }
+        }
+        return FormatOutputUtil.stripSpaceTemplates;
+    }
+
 
     /**
      * Serializes ServiceTemplate node to String
@@ -64,4 +79,7 @@ public class FormatOutputUtil implements IOutputFormatter {
     private static String stripSpaceXSL =
         "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\"><xsl:output method=\"xml\" omit-xml-declaration=\"yes\" /><xsl:strip-space elements=\"*\" /><xsl:template match=\"@*|node()\"><xsl:copy><xsl:apply-templates select=\"@*|node()\" /></xsl:copy></xsl:template></xsl:stylesheet>";
 
+    // compiled stylesheets are thread-safe, the Transformers created from them aren't
+    private static volatile Templates stripSpaceTemplates;
+
 }
@@ -14,13 +14,11 @@ import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.ValidationEvent;
 import javax.xml.bind.util.ValidationEventCollector;
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
 import org.opentosca.container.core.engine.xml.IXMLSerializer;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.tosca.model.Definitions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,19 +46,13 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
     private JAXBContext jaxbContext;
     private SchemaFactory schemaFactory;
     private Schema schema = null;
-    private ValidationEventCollector validationEventCollector;
-    private boolean validationActive = false;
+    private volatile boolean validationActive = false;
 
-    private Marshaller marshaller;
-    // This marshaller is for internal marshalling of data which is validated
-    // during the initial import process. This data is validated, therefore
-    // there is no need to validate again. In the current version of JAXB
-    // sometimes it is causing problems to serialize internal data with
-    // validation.
-    private Marshaller marshallerWithoutValidation;
-
-    private DocumentBuilderFactory documentBuilderFactory;
-    private DocumentBuilder documentBuilder;
+    // Marshallers, unmarshallers and document builders are not thread-safe,
+    // so each call creates its own marshaller or unmarshaller with its own
+    // event collector and uses the document builder of the current thread.
+    // Thus all methods can be called concurrently, e.g., while the stored
+    // CSARs are processed in parallel at startup.
 
     // logger
     private final Logger LOG = LoggerFactory.getLogger(XMLSerializer.class);
@@ -83,17 +75,6 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
             // setup of the Serializer
             this.jaxbContext = JAXBContext.newInstance(context.getPackage().getName());
 
-            this.validationEventCollector = new ValidationEventCollector();
-
-            this.marshaller = this.jaxbContext.createMarshaller();
-            this.marshaller.setEventHandler(this.validationEventCollector);
-
-            this.marshallerWithoutValidation = this.jaxbContext.createMarshaller();
-            this.marshallerWithoutValidation.setEventHandler(this.validationEventCollector);
-
-            this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
-            this.documentBuilderFactory.setNamespaceAware(true);
-
             // if the Schema object is null no validation is set
             if (schemaFile != null) {
                 this.LOG.info("There is a given Schema at \"" + schemaFile.toString() + "\".");
@@ -103,14 +84,11 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
                 // set the validation
                 this.LOG.debug("Activate validation for serialization to JAXB classes.");
                 this.setValidation(true);
-                this.documentBuilderFactory.setSchema(this.schema);
 
             } else {
                 this.LOG.info("Initialize without a Schema.");
             }
 
-            this.documentBuilder = this.documentBuilderFactory.newDocumentBuilder();
-
         }
         catch (final JAXBException e) {
             this.LOG.error(e.getMessage());
@@ -118,9 +96,6 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
         catch (final SAXException e) {
             this.LOG.error(e.getMessage());
         }
-        catch (final ParserConfigurationException e) {
-            this.LOG.error(e.getMessage());
-        }
 
         this.LOG.debug("Initialization of the JAXB objects completed.");
     }
@@ -141,10 +116,11 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
             final JAXBElement<?> elementToMarshal = this.createJAXBElement(objToMarshal);
 
             this.LOG.debug("The JAXBElement \"" + elementToMarshal.getName() + "\" seems to be a legal element.");
+            final ValidationEventCollector eventCollector = new ValidationEventCollector();
             try {
 
-                final Document result = this.documentBuilder.newDocument();
-                this.marshallerWithoutValidation.marshal(elementToMarshal, result);
+                final Document result = XMLPools.newDocument();
+                this.createMarshaller(eventCollector, false).marshal(elementToMarshal, result);
 
                 return result.getFirstChild();
 
@@ -152,7 +128,7 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
             catch (final JAXBException e) {
             }
             finally {
-                this.printErrorsWhileSerialization();
+                this.printErrorsWhileSerialization(eventCollector);
             }
         } else {
             this.LOG.error("The Object can not be marshalled because it is not a JAXBElement of TOSCA.");
@@ -169,10 +145,11 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
         this.LOG.debug("Marshal the Definitions \"" + definitions.getId() + "\".");
 
         Document result = null;
+        final ValidationEventCollector eventCollector = new ValidationEventCollector();
         try {
 
-            result = this.documentBuilder.newDocument();
-            this.marshaller.marshal(definitions, result);
+            result = XMLPools.newDocument();
+            this.createMarshaller(eventCollector, this.validationActive).marshal(definitions, result);
 
             return result;
 
@@ -180,7 +157,7 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
         catch (final JAXBException e) {
         }
         finally {
-            this.printErrorsWhileSerialization();
+            this.printErrorsWhileSerialization(eventCollector);
         }
         return null;
     }
@@ -201,16 +178,17 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
             final JAXBElement<?> elementToMarshal = this.createJAXBElement(objToMarshal);
 
             this.LOG.debug("The JAXBElement \"" + elementToMarshal.getName() + "\" seems to be a legal element.");
+            final ValidationEventCollector eventCollector = new ValidationEventCollector();
             try {
 
-                this.marshallerWithoutValidation.marshal(elementToMarshal, writer);
+                this.createMarshaller(eventCollector, false).marshal(elementToMarshal, writer);
                 return writer.toString();
 
             }
             catch (final JAXBException e) {
             }
             finally {
-                this.printErrorsWhileSerialization();
+                this.printErrorsWhileSerialization(eventCollector);
             }
         } else {
             this.LOG.error("The Object can not be marshalled because it is not a JAXBElement of TOSCA.");
@@ -226,15 +204,16 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
     public Definitions unmarshal(final File fileToUnmarshal) {
 
         this.LOG.debug("Start the unmarshalling of file \"" + fileToUnmarshal.toString() + "\".");
+        final ValidationEventCollector eventCollector = new ValidationEventCollector();
         try {
             // return the unmarshaled data
-            return (Definitions) this.createUnmarshaller().unmarshal(fileToUnmarshal);
+            return (Definitions) this.createUnmarshaller(eventCollector).unmarshal(fileToUnmarshal);
 
         }
         catch (final JAXBException e) {
         }
         finally {
-            this.printErrorsWhileSerialization();
+            this.printErrorsWhileSerialization(eventCollector);
         }
 
         return null;
@@ -247,15 +226,16 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
     public Definitions unmarshal(final InputStream streamToUnmarshal) {
 
         this.LOG.debug("Start the unmarshalling of an InputStream.");
+        final ValidationEventCollector eventCollector = new ValidationEventCollector();
         try {
             // return the unmarshaled data
-            return (Definitions) this.createUnmarshaller().unmarshal(streamToUnmarshal);
+            return (Definitions) this.createUnmarshaller(eventCollector).unmarshal(streamToUnmarshal);
 
         }
         catch (final JAXBException e) {
         }
         finally {
-            this.printErrorsWhileSerialization();
+            this.printErrorsWhileSerialization(eventCollector);
         }
 
         return null;
@@ -268,14 +248,17 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
     public Definitions unmarshal(final Document doc) {
 
         this.LOG.debug("Start the unmarshalling of a DOM Document.");
-        this.LOG.trace(this.docToString(doc.getFirstChild(), true));
+        if (this.LOG.isTraceEnabled()) {
+            this.LOG.trace(this.docToString(doc.getFirstChild(), true));
+        }
+        final ValidationEventCollector eventCollector = new ValidationEventCollector();
         try {
-            return (Definitions) this.createUnmarshaller().unmarshal(doc.getFirstChild());
+            return (Definitions) this.createUnmarshaller(eventCollector).unmarshal(doc.getFirstChild());
         }
         catch (final JAXBException e) {
         }
         finally {
-            this.printErrorsWhileSerialization();
+            this.printErrorsWhileSerialization(eventCollector);
         }
 
         return null;
@@ -290,8 +273,9 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
         this.LOG.trace("Start the unmarshalling of the node: " + nodeToUnmarshal.toString() + " to clazz: "
             + destinationClazz.toString());
 
+        final ValidationEventCollector eventCollector = new ValidationEventCollector();
         try {
-            final Unmarshaller u = this.createUnmarshaller();
+            final Unmarshaller u = this.createUnmarshaller(eventCollector);
             final JAXBElement<?> jaxbElement = u.unmarshal(nodeToUnmarshal, destinationClazz);
             if (jaxbElement != null) {
                 return jaxbElement.getValue();
@@ -301,7 +285,7 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
             e.printStackTrace();
         }
         finally {
-            this.printErrorsWhileSerialization();
+            this.printErrorsWhileSerialization(eventCollector);
         }
 
         return null;
@@ -346,7 +330,7 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
     @Override
     public Document elementIntoDocument(final Element element) {
 
-        final Document returnDoc = this.documentBuilder.newDocument();
+        final Document returnDoc = XMLPools.newDocument();
 
         final Node node = returnDoc.importNode(element, true);
 
@@ -368,7 +352,7 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
     @Override
     public Document elementsIntoDocument(final List<Element> elements, final String rootElementName) {
 
-        final Document returnDoc = this.documentBuilder.newDocument();
+        final Document returnDoc = XMLPools.newDocument();
 
         final Element root = returnDoc.createElement(rootElementName);
         returnDoc.appendChild(root);
@@ -396,33 +380,51 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
     public void setValidation(final Boolean bool) {
 
         /*
-         * if true give the Schema to the marshaller and unmarshaller if false delete the reference to the
-         * Schema
+         * if true the Schema is given to the marshallers and unmarshallers created afterwards, if false
+         * they get no Schema
          */
         this.validationActive = bool;
-        if (this.validationActive == true) {
-            this.marshaller.setSchema(this.schema);
-        } else {
-            this.marshaller.setSchema(null);
-        }
     }
 
     /**
-     * Method for printing errors stored in the validationEventCollector. For each error the logger gets
+     * Method for printing errors stored in the passed event collector. For each error the logger gets
      * one error message.
      */
-    private void printErrorsWhileSerialization() {
+    private void printErrorsWhileSerialization(final ValidationEventCollector eventCollector) {
         // print the errors occurred
-        if (this.validationEventCollector != null && this.validationEventCollector.hasEvents()) {
+        if (eventCollector != null && eventCollector.hasEvents()) {
             this.LOG.error("One or more errors occured while marshalling.");
-            for (final ValidationEvent event : this.validationEventCollector.getEvents()) {
+            for (final ValidationEvent event : eventCollector.getEvents()) {
                 this.LOG.error("XML processing error: {} \n at {}", event.getMessage(), event.getLocator());
             }
         }
-        this.validationEventCollector.reset();
+        eventCollector.reset();
     }
 
-    private Unmarshaller createUnmarshaller() {
+    /**
+     * Creates a marshaller. Marshallers are not thread-safe, thus each marshalling gets its own one
+     * and its own event collector, so the marshal methods can be called concurrently.
+     *
+     * @param validate {@code false} for internal marshalling of data which is validated during the
+     *        initial import process. This data is validated, therefore there is no need to validate
+     *        again. In the current version of JAXB sometimes it is causing problems to serialize
+     *        internal data with validation.
+     */
+    private Marshaller createMarshaller(final ValidationEventCollector eventCollector,
+                                        final boolean validate) throws JAXBException {
+        final Marshaller m = this.jaxbContext.createMarshaller();
+        if (validate) {
+            m.setSchema(this.schema);
+        }
+        m.setEventHandler(eventCollector);
+        return m;
+    }
+
+    /**
+     * Creates an unmarshaller. Unmarshallers are not thread-safe, thus each unmarshalling gets its own
+     * one and its own event collector, so the unmarshal methods can be called concurrently.
+     */
+    private Unmarshaller createUnmarshaller(final ValidationEventCollector eventCollector) {
         try {
             Unmarshaller u;
             u = this.jaxbContext.createUnmarshaller();
@@ -430,7 +432,7 @@ public class XMLSerializer extends FormatOutputUtil implements IXMLSerializer {
             if (this.validationActive) {
                 u.setSchema(this.schema);
             }
-            u.setEventHandler(this.validationEventCollector);
+            u.setEventHandler(eventCollector);
             return u;
         }
         catch (final JAXBException e) {
@@ -1,6 +1,7 @@
 package org.opentosca.container.core.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,7 +17,7 @@ import org.opentosca.container.core.tosca.model.TDefinitions;
  */
 public class CSARIDToDefinitionsMap implements Map<CSARID, List<TDefinitions>> {
 
-    private Map<CSARID, List<TDefinitions>> definitionsMap = new HashMap<>();
+    private Map<CSARID, List<TDefinitions>> definitionsMap = Collections.synchronizedMap(new HashMap<>());
 
 
     @Override
@@ -1,6 +1,7 @@
 package org.opentosca.container.core.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +16,7 @@ import org.opentosca.container.core.model.csar.id.CSARID;
  */
 public class CSARIDToServiceTemplateIDsMap implements Map<CSARID, List<QName>> {
 
-    private Map<CSARID, List<QName>> serviceTemplatesMap = new HashMap<>();
+    private Map<CSARID, List<QName>> serviceTemplatesMap = Collections.synchronizedMap(new HashMap<>());
 
 
     @Override
@@ -1,6 +1,7 @@
 package org.opentosca.container.core.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -20,7 +21,7 @@ import org.opentosca.container.core.tosca.model.TPlan;
 public class CsarIDToPlanTypeToPlanNameToPlan implements Map<CSARID, Map<PlanTypes, LinkedHashMap<QName, TPlan>>> {
 
     private Map<CSARID, Map<PlanTypes, LinkedHashMap<QName, TPlan>>> csarIDToPlanTypeToIntegerToPlanMap =
-        new HashMap<>();
+        Collections.synchronizedMap(new HashMap<>());
 
 
     @Override
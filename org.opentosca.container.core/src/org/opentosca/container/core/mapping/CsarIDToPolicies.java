@@ -2,6 +2,7 @@ package org.opentosca.container.core.mapping;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +26,8 @@ public class CsarIDToPolicies implements Map<CSARID, Map<QName, Policies>> {
 
     private final Logger LOG = LoggerFactory.getLogger(CsarIDToPolicies.class);
 
-    private final Map<CSARID, Map<QName, Policies>> csarIDToTemplateToPolicies = new HashMap<>();
+    private final Map<CSARID, Map<QName, Policies>> csarIDToTemplateToPolicies =
+        Collections.synchronizedMap(new HashMap<>());
 
 
     /**
@@ -1,6 +1,7 @@
 package org.opentosca.container.core.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +16,8 @@ import org.opentosca.container.core.model.csar.id.CSARID;
  */
 public class CsarIDToServiceTemplateIDToPlanID implements Map<CSARID, Map<QName, List<QName>>> {
 
-    private Map<CSARID, Map<QName, List<QName>>> csarIDToServiceTemplateIDToPlanIDMap = new HashMap<>();
+    private Map<CSARID, Map<QName, List<QName>>> csarIDToServiceTemplateIDToPlanIDMap =
+        Collections.synchronizedMap(new HashMap<>());
 
 
     @Override
@@ -1,6 +1,7 @@
 package org.opentosca.container.core.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,7 +15,7 @@ import org.w3c.dom.Document;
  */
 public class CsarIDToWSDLDocuments implements Map<CSARID, List<Document>> {
 
-    private Map<CSARID, List<Document>> csarIDToWSDLDocumentsMap = new HashMap<>();
+    private Map<CSARID, List<Document>> csarIDToWSDLDocumentsMap = Collections.synchronizedMap(new HashMap<>());
 
 
     @Override
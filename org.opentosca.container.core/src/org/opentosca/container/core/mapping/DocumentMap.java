@@ -1,6 +1,7 @@
 package org.opentosca.container.core.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -12,7 +13,7 @@ import org.w3c.dom.Document;
 
 public class DocumentMap implements Map<CSARID, Map<QName, Document>> {
 
-    private Map<CSARID, Map<QName, Document>> documentMapMap = new HashMap<>();
+    private Map<CSARID, Map<QName, Document>> documentMapMap = Collections.synchronizedMap(new HashMap<>());
 
 
     @Override
@@ -1,6 +1,7 @@
 package org.opentosca.container.core.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -9,7 +10,7 @@ import org.opentosca.container.core.model.csar.id.CSARID;
 
 public class ReferenceMap implements Map<CSARID, MapQNameNode> {
 
-    private Map<CSARID, MapQNameNode> csarIDToMapQNameNode = new HashMap<>();
+    private Map<CSARID, MapQNameNode> csarIDToMapQNameNode = Collections.synchronizedMap(new HashMap<>());
 
 
     @Override
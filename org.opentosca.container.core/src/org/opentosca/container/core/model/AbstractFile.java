@@ -39,6 +39,27 @@ public abstract class AbstractFile {
      */
     public abstract InputStream getFileAsInputStream() throws SystemException;
 
+    /**
+     * @throws SystemException if an error occurred during getting.
+     *
+     * @return Content of this file on the local disk or {@code null} if it can't be provided locally.
+     *         By default {@code null}.
+     */
+    public LocalFile getLocalFile() throws SystemException {
+        return null;
+    }
+
+    /**
+     * @throws SystemException if an error occurred during getting.
+     *
+     * @return Stamp of the meta data of this file (e.g. its size and modification time) that changes
+     *         when its content changes, or {@code null} if it can't be determined without reading the
+     *         content. By default {@code null}.
+     */
+    public String getModificationStamp() throws SystemException {
+        return null;
+    }
+
     /**
      * @return File name of this file.
      */
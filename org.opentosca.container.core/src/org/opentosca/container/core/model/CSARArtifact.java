@@ -10,8 +10,6 @@ import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -59,6 +57,24 @@ public class CSARArtifact extends AbstractArtifact {
     public CSARArtifact(final String artifactReference, final Set<String> includePatterns,
                         final Set<String> excludePatterns, final CSARID csarID, final Set<Path> directories,
                         final Map<Path, String> fileToStorageProviderIDMap) throws UserException {
+        this(artifactReference, includePatterns, excludePatterns, csarID,
+             new CSARPathIndex(directories, fileToStorageProviderIDMap));
+    }
+
+    /**
+     * Creates a {@link CSARArtifact}.
+     *
+     * @param artifactReference that points to this CSAR artifact.
+     * @param includePatterns to include only certain files in this CSAR artifact.
+     * @param excludePatterns to exclude certain files from this CSAR artifact.
+     * @param csarID of CSAR this artifact belongs to.
+     * @param index of the directories and files of the CSAR.
+     * @throws UserException if artifact reference points a non-existent file / directory in CSAR or URL
+     *         decoding on artifact reference failed.
+     */
+    public CSARArtifact(final String artifactReference, final Set<String> includePatterns,
+                        final Set<String> excludePatterns, final CSARID csarID,
+                        final CSARPathIndex index) throws UserException {
         super(artifactReference, includePatterns, excludePatterns);
 
         // As the artifact reference is a URI we must decode it to get the
@@ -67,63 +83,30 @@ public class CSARArtifact extends AbstractArtifact {
         try {
             final String artifactReferenceDecoded = URLDecoder.decode(this.getArtifactReference(), "UTF-8");
 
-            // directories and files in the artifact
-            final Set<Path> artifactDirectories = new HashSet<>();
-            final Map<Path, String> artifactFileToStorageProviderIDMap = new HashMap<>();
-
             // Artifact reference points to the CSAR root. We know
             // directly that all directories and files of the CSAR belongs
             // the artifact.
-            if (artifactReferenceDecoded.equals("")) {
-
-                artifactDirectories.addAll(directories);
-                artifactFileToStorageProviderIDMap.putAll(fileToStorageProviderIDMap);
-
-            } else {
+            if (!artifactReferenceDecoded.equals("")) {
 
                 final Path artifactReferenceAsPath = Paths.get(artifactReferenceDecoded);
 
-                for (final Map.Entry<Path, String> fileToStorageProviderIDEntry : fileToStorageProviderIDMap.entrySet()) {
-                    final Path file = fileToStorageProviderIDEntry.getKey();
-                    if (file.startsWith(artifactReferenceAsPath)) {
-                        final String fileStorageProviderID = fileToStorageProviderIDEntry.getValue();
-                        artifactFileToStorageProviderIDMap.put(file, fileStorageProviderID);
-                    }
-                }
-
                 // artifact reference points to a file in CSAR
-                if (artifactFileToStorageProviderIDMap.containsKey(artifactReferenceAsPath)) {
+                if (index.getStorageProviderID(artifactReferenceAsPath) != null) {
 
                     this.fileArtifactReference = true;
 
                     // artifact reference points to a directory or non-existent
                     // file / directory in CSAR
-                } else {
-
-                    for (final Path directory : directories) {
-                        if (directory.startsWith(artifactReferenceAsPath)) {
-                            artifactDirectories.add(directory);
-                        }
-                    }
-
-                    // artifact reference points to a directory
-                    if (!artifactDirectories.isEmpty() || !artifactFileToStorageProviderIDMap.isEmpty()) {
-                        // remove artifact root, because it's not in the
-                        // artifact
-                        artifactDirectories.remove(artifactReferenceAsPath);
-                    } else {
-                        throw new UserException("Artifact reference \"" + artifactReferenceDecoded
-                            + "\" points to a non-existent file / directory in CSAR \"" + csarID + "\".");
-                    }
-
+                } else if (index.getNode(artifactReferenceAsPath) == null) {
+                    throw new UserException("Artifact reference \"" + artifactReferenceDecoded
+                        + "\" points to a non-existent file / directory in CSAR \"" + csarID + "\".");
                 }
 
             }
 
             // creates CSARDirectory that represents the artifact root
-            this.CSAR_ARTIFACT_ROOT =
-                new CSARDirectory(artifactReferenceDecoded, this.getIncludePatterns(), this.getExcludePatterns(),
-                    csarID, artifactDirectories, artifactFileToStorageProviderIDMap, this.isFileArtifact());
+            this.CSAR_ARTIFACT_ROOT = new CSARDirectory(artifactReferenceDecoded, this.getIncludePatterns(),
+                this.getExcludePatterns(), csarID, index, this.isFileArtifact());
 
         }
         catch (final UnsupportedEncodingException exc) {
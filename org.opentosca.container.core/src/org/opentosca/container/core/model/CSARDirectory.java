@@ -3,7 +3,6 @@ package org.opentosca.container.core.model;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -26,10 +25,15 @@ public class CSARDirectory extends AbstractDirectory {
     private final CSARID CSAR_ID;
 
     /**
-     * Files and directories in this directory.
+     * Index of the files and directories of the CSAR. It's shared by all directories browsed from
+     * this directory.
      */
-    private final Set<Path> DIRECTORIES;
-    private final Map<Path, String> FILE_TO_STORAGE_PROVIDER_ID_MAP;
+    private final CSARPathIndex INDEX;
+
+    /**
+     * This directory in the index. It's {@code null} if the index contains nothing in this directory.
+     */
+    private final CSARPathIndex.Node NODE;
 
 
     /**
@@ -46,10 +50,22 @@ public class CSARDirectory extends AbstractDirectory {
      */
     public CSARDirectory(final String directoryPath, final CSARID csarID, final Set<Path> directories,
                          final Map<Path, String> fileToStorageProviderIDMap) {
+        this(directoryPath, csarID, new CSARPathIndex(directories, fileToStorageProviderIDMap));
+    }
+
+    /**
+     * Creates a {@link CSARDirectory} without any include / exclude patterns which have to be
+     * considered. Besides, the directory not represents a file artifact (reference of a file artifact
+     * points to a file).
+     *
+     * @param path - relative path to CSAR root of this directory. An empty string means the root.
+     * @param csarID of CSAR that contains this directory.
+     * @param index of the directories and files of the CSAR.
+     */
+    public CSARDirectory(final String directoryPath, final CSARID csarID, final CSARPathIndex index) {
         // no patterns, so we pass empty sets (immutable to avoid unnecessary
         // object creations)
-        this(directoryPath, Collections.<String>emptySet(), Collections.<String>emptySet(), csarID, directories,
-             fileToStorageProviderIDMap, false);
+        this(directoryPath, Collections.<String>emptySet(), Collections.<String>emptySet(), csarID, index, false);
     }
 
     /**
@@ -69,45 +85,43 @@ public class CSARDirectory extends AbstractDirectory {
     public CSARDirectory(final String directoryPath, final Set<String> includePatterns,
                          final Set<String> excludePatterns, final CSARID csarID, final Set<Path> directories,
                          final Map<Path, String> fileToStorageProviderIDMap, final boolean fileArtifact) {
+        this(directoryPath, includePatterns, excludePatterns, csarID,
+             new CSARPathIndex(directories, fileToStorageProviderIDMap), fileArtifact);
+    }
+
+    /**
+     * Creates a {@link CSARDirectory}.
+     *
+     * @param path - relative path to CSAR root of this directory. An empty string means the root.
+     * @param includePatterns to include only certain files in this directory.
+     * @param excludePatterns to exclude certain files from this directory.
+     * @param csarID of CSAR that contains this directory.
+     * @param index of the directories and files of the CSAR. Only the directories and files in this
+     *        directory are considered.
+     * @param fileArtifact - {@code true} if this directory represents a file artifact (directory
+     *        contains only the file at the artifact reference), otherwise {@code false}.
+     */
+    public CSARDirectory(final String directoryPath, final Set<String> includePatterns,
+                         final Set<String> excludePatterns, final CSARID csarID, final CSARPathIndex index,
+                         final boolean fileArtifact) {
         super(directoryPath, includePatterns, excludePatterns, fileArtifact);
-        this.FILE_TO_STORAGE_PROVIDER_ID_MAP = fileToStorageProviderIDMap;
         this.CSAR_ID = csarID;
-        this.DIRECTORIES = directories;
-
+        this.INDEX = index;
+        this.NODE = fileArtifact ? null : index.getNode(Paths.get(directoryPath));
     }
 
     @Override
     protected AbstractFile getFileNotConsiderPatterns(final String relPathOfFile) {
 
-        final Path relPathOfFileToCSARRoot = Paths.get(this.getPath()).resolve(relPathOfFile);
+        // If it's a file artifact we know directly that the file at the
+        // artifact reference is the file of the artifact.
+        final Path relPathOfFileToCSARRoot =
+            this.isFileArtifact() ? Paths.get(this.getPath()) : Paths.get(this.getPath()).resolve(relPathOfFile);
 
-        if (!this.isFileArtifact()) {
-
-            for (final Map.Entry<Path, String> fileToStorageProviderIDEntry : this.FILE_TO_STORAGE_PROVIDER_ID_MAP.entrySet()) {
-
-                final Path file = fileToStorageProviderIDEntry.getKey();
-                final String fileStorageProviderID = fileToStorageProviderIDEntry.getValue();
-
-                // found file to get
-                if (file.equals(relPathOfFileToCSARRoot)) {
-                    return new CSARFile(file.toString(), this.CSAR_ID, fileStorageProviderID);
-                }
-
-            }
-
-        } else {
-
-            // If it's a file artifact we know directly that the one file in the
-            // Map is the file of the artifact.
-            for (final Map.Entry<Path, String> fileToStorageProviderIDEntry : this.FILE_TO_STORAGE_PROVIDER_ID_MAP.entrySet()) {
-
-                final Path file = fileToStorageProviderIDEntry.getKey();
-                final String fileStorageProviderID = fileToStorageProviderIDEntry.getValue();
-
-                return new CSARFile(file.toString(), this.CSAR_ID, fileStorageProviderID);
-
-            }
+        final String fileStorageProviderID = this.INDEX.getStorageProviderID(relPathOfFileToCSARRoot);
 
+        if (fileStorageProviderID != null) {
+            return new CSARFile(relPathOfFileToCSARRoot.toString(), this.CSAR_ID, fileStorageProviderID);
         }
 
         return null;
@@ -121,20 +135,10 @@ public class CSARDirectory extends AbstractDirectory {
 
         if (!this.isFileArtifact()) {
 
-            final Path directoryReferenceAsPath = Paths.get(this.getPath());
-
-            for (final Map.Entry<Path, String> fileToStorageProviderIDEntry : this.FILE_TO_STORAGE_PROVIDER_ID_MAP.entrySet()) {
-
-                final Path file = fileToStorageProviderIDEntry.getKey();
-                final Path fileParent = file.getParent();
-                final String fileStorageProviderID = fileToStorageProviderIDEntry.getValue();
-
-                // the second condition only applies if the file is in
-                // the CSAR root, because a file in root has no parent
-                if (directoryReferenceAsPath.equals(fileParent) || fileParent == null) {
-                    csarFiles.add(new CSARFile(file.toString(), this.CSAR_ID, fileStorageProviderID));
+            if (this.NODE != null) {
+                for (final Path file : this.NODE.getFiles()) {
+                    csarFiles.add(new CSARFile(file.toString(), this.CSAR_ID, this.INDEX.getStorageProviderID(file)));
                 }
-
             }
 
         } else {
@@ -179,39 +183,25 @@ public class CSARDirectory extends AbstractDirectory {
      */
     private AbstractDirectory getDirectory(final Path relPathOfDirectoryToCSARRoot) {
 
-        // directories in directory to get
-        final Set<Path> directoriesInDirectory = new HashSet<>();
-
-        for (final Path directory : this.DIRECTORIES) {
-            if (directory.startsWith(relPathOfDirectoryToCSARRoot)) {
-                directoriesInDirectory.add(directory);
-            }
+        if (relPathOfDirectoryToCSARRoot.toString().isEmpty()) {
+            return null;
         }
 
-        // directory to get exists
-        if (!directoriesInDirectory.isEmpty()) {
-
-            // files in directory to get
-            final Map<Path, String> fileToStorageProviderIDMapOfDirectory = new HashMap<>();
-
-            for (final Map.Entry<Path, String> fileToStorageProviderID : this.FILE_TO_STORAGE_PROVIDER_ID_MAP.entrySet()) {
-
-                final Path file = fileToStorageProviderID.getKey();
-                final String fileStorageProviderID = fileToStorageProviderID.getValue();
+        final CSARPathIndex.Node node = this.INDEX.getNode(relPathOfDirectoryToCSARRoot);
 
-                if (file.startsWith(relPathOfDirectoryToCSARRoot)) {
-                    fileToStorageProviderIDMapOfDirectory.put(file, fileStorageProviderID);
-                }
-
-            }
+        if (node == null) {
+            return null;
+        }
 
-            // remove the directory to get (it's not IN the directory)
-            directoriesInDirectory.remove(relPathOfDirectoryToCSARRoot);
+        // directory to get exists if it or a directory in it is known. This
+        // directory itself is not in this directory, so only directories in it
+        // count.
+        final boolean exists = relPathOfDirectoryToCSARRoot.equals(Paths.get(this.getPath()))
+            ? node.hasSubDirectories() : node.isDirectory() || node.hasSubDirectories();
 
+        if (exists) {
             return new CSARDirectory(relPathOfDirectoryToCSARRoot.toString(), this.getIncludePatterns(),
-                this.getExcludePatterns(), this.CSAR_ID, directoriesInDirectory, fileToStorageProviderIDMapOfDirectory,
-                false);
-
+                this.getExcludePatterns(), this.CSAR_ID, this.INDEX, false);
         }
 
         return null;
@@ -224,20 +214,11 @@ public class CSARDirectory extends AbstractDirectory {
 
         // If it's a file artifact we have no directories and can directly
         // return an empty set.
-        if (!this.isFileArtifact()) {
-
-            final Path directoryReferenceAsPath = Paths.get(this.getPath());
-
-            for (final Path directory : this.DIRECTORIES) {
-
-                final Path directoryParent = directory.getParent();
-
-                // the second condition only applies if this directory is in
-                // the CSAR root, because a directory in root has no parent
-                if (directoryReferenceAsPath.equals(directoryParent) || directoryParent == null) {
-                    csarDirectories.add(this.getDirectory(directory));
-                }
+        if (!this.isFileArtifact() && this.NODE != null) {
 
+            for (final CSARPathIndex.Node directory : this.NODE.getDirectories()) {
+                csarDirectories.add(new CSARDirectory(directory.getPath().toString(), this.getIncludePatterns(),
+                    this.getExcludePatterns(), this.CSAR_ID, this.INDEX, false));
             }
 
         }
@@ -1,6 +1,8 @@
 package org.opentosca.container.core.model;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
@@ -11,13 +13,14 @@ import org.opentosca.container.core.common.SystemException;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.service.IFileAccessService;
 import org.opentosca.container.core.service.internal.ICoreInternalFileStorageProviderService;
+import org.opentosca.container.core.service.internal.StorageProviderFileCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Represents a file in a CSAR. This file can be stored at an arbitrary storage provider. Provides
  * methods to get it's meta data using the local stored meta data and fetch the file from the
- * appropriate storage provider.
+ * appropriate storage provider through the {@link StorageProviderFileCache}.
  *
  * @see ICoreInternalFileStorageProviderService
  */
@@ -122,7 +125,7 @@ public class CSARFile extends AbstractFile {
             final String relFilePathOnStorageProvider =
                 this.buildFileOfCSARStorageProviderPath(this.CSAR_ID, this.getPath());
 
-            storageProvider.getFile(relFilePathOnStorageProvider, targetFile);
+            StorageProviderFileCache.getFile(storageProvider, relFilePathOnStorageProvider, targetFile);
 
             return targetFile;
 
@@ -150,7 +153,8 @@ public class CSARFile extends AbstractFile {
 
             InputStream fileInputStream;
 
-            fileInputStream = storageProvider.getFileAsInputStream(relFilePathOnStorageProvider);
+            fileInputStream =
+                StorageProviderFileCache.getFileAsInputStream(storageProvider, relFilePathOnStorageProvider);
 
             return fileInputStream;
 
@@ -161,6 +165,66 @@ public class CSARFile extends AbstractFile {
 
     }
 
+    /**
+     * @throws SystemException if required storage provider is not available and ready, file was not
+     *         found on storage provider or an error occurred during getting.
+     */
+    @Override
+    public LocalFile getLocalFile() throws SystemException {
+
+        if (this.isStorageProviderReady(this.STORAGE_PROVIDER_ID)) {
+
+            final ICoreInternalFileStorageProviderService storageProvider =
+                CSARFile.STORAGE_PROVIDERS.get(this.STORAGE_PROVIDER_ID);
+
+            final String relFilePathOnStorageProvider =
+                this.buildFileOfCSARStorageProviderPath(this.CSAR_ID, this.getPath());
+
+            return StorageProviderFileCache.getLocalFile(storageProvider, relFilePathOnStorageProvider);
+
+        } else {
+            throw new SystemException("Can't retrieve file \"" + this.getPath() + "\" of CSAR \"" + this.CSAR_ID
+                + "\" on the local disk, because storage provider \"" + this.STORAGE_PROVIDER_ID + "\" is not ready.");
+        }
+
+    }
+
+    /**
+     * @return {@inheritDoc} It's the size and modification time of the file if the storage provider
+     *         stores it on the local disk, otherwise its size on the storage provider.
+     * @throws SystemException if required storage provider is not available and ready, file was not
+     *         found on storage provider or an error occurred during getting its size.
+     */
+    @Override
+    public String getModificationStamp() throws SystemException {
+
+        if (this.isStorageProviderReady(this.STORAGE_PROVIDER_ID)) {
+
+            final ICoreInternalFileStorageProviderService storageProvider =
+                CSARFile.STORAGE_PROVIDERS.get(this.STORAGE_PROVIDER_ID);
+
+            final String relFilePathOnStorageProvider =
+                this.buildFileOfCSARStorageProviderPath(this.CSAR_ID, this.getPath());
+
+            final Path localFile = storageProvider.getLocalFile(relFilePathOnStorageProvider);
+            if (localFile != null) {
+                try {
+                    return Files.size(localFile) + ":" + Files.getLastModifiedTime(localFile).toMillis();
+                }
+                catch (final IOException e) {
+                    throw new SystemException("Can't read the meta data of file \"" + this.getPath() + "\" of CSAR \""
+                        + this.CSAR_ID + "\".", e);
+                }
+            }
+            return String.valueOf(storageProvider.getFileSize(relFilePathOnStorageProvider));
+
+        } else {
+            throw new SystemException("Can't retrieve the meta data of file \"" + this.getPath() + "\" of CSAR \""
+                + this.CSAR_ID + "\", because storage provider \"" + this.STORAGE_PROVIDER_ID + "\" is not ready.");
+        }
+
+    }
+
     /**
      * Builds the relative path where file {@code relFilePathToCSARRoot} of CSAR {@code csarID} should
      * be stored / is located on a storage provider.<br />
@@ -0,0 +1,200 @@
+package org.opentosca.container.core.model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the directories and files of a CSAR. The paths are stored as a tree of their elements, so
+ * the content of a directory can be listed without iterating over all directories and files of the
+ * CSAR. The index is built once per CSAR and shared by all {@link CSARDirectory}s browsing it.
+ */
+public class CSARPathIndex {
+
+    /**
+     * Directory in the index.
+     */
+    public static class Node {
+
+        private final Path path;
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        private final Set<Path> files = new HashSet<>();
+
+        /**
+         * {@code true} if this directory is contained in the directories of the index.
+         */
+        private boolean directory = false;
+
+        /**
+         * {@code true} if a directory below this directory is contained in the directories of the
+         * index.
+         */
+        private boolean subDirectories = false;
+
+
+        private Node(final Path path) {
+            this.path = path;
+        }
+
+        /**
+         * @return path of this directory relative to the CSAR root.
+         */
+        public Path getPath() {
+            return this.path;
+        }
+
+        /**
+         * @return files directly in this directory. Each file is given relative to the CSAR root.
+         */
+        public Set<Path> getFiles() {
+            return Collections.unmodifiableSet(this.files);
+        }
+
+        /**
+         * @return directories directly in this directory which are contained in the directories of
+         *         the index.
+         */
+        public Set<Node> getDirectories() {
+            final Set<Node> directories = new HashSet<>();
+            for (final Node child : this.children.values()) {
+                if (child.directory) {
+                    directories.add(child);
+                }
+            }
+            return directories;
+        }
+
+        /**
+         * @return {@code true} if this directory is contained in the directories of the index.
+         */
+        public boolean isDirectory() {
+            return this.directory;
+        }
+
+        /**
+         * @return {@code true} if a directory below this directory is contained in the directories of
+         *         the index.
+         */
+        public boolean hasSubDirectories() {
+            return this.subDirectories;
+        }
+
+        /**
+         * Adds the directories below this directory (recursively) to {@code directories}.
+         *
+         * @param directories to add the directories to.
+         */
+        public void collectDirectories(final Collection<Path> directories) {
+            for (final Node child : this.children.values()) {
+                if (child.directory) {
+                    directories.add(child.path);
+                }
+                child.collectDirectories(directories);
+            }
+        }
+
+        /**
+         * Adds the files in and below this directory (recursively) to {@code files}.
+         *
+         * @param files to add the files to.
+         */
+        public void collectFiles(final Collection<Path> files) {
+            files.addAll(this.files);
+            for (final Node child : this.children.values()) {
+                child.collectFiles(files);
+            }
+        }
+    }
+
+
+    private final Node root = new Node(Paths.get(""));
+
+    private final Map<Path, String> fileToStorageProviderIDMap;
+
+
+    /**
+     * Creates the index.
+     *
+     * @param directories - directories to index. Each directory must be given relative to the CSAR
+     *        root.
+     * @param fileToStorageProviderIDMap - file to storage provider ID mapping of the files to index.
+     *        Each file must be given relative to the CSAR root. The map is not copied, so storage
+     *        provider IDs changed later on are considered.
+     */
+    public CSARPathIndex(final Set<Path> directories, final Map<Path, String> fileToStorageProviderIDMap) {
+        this.fileToStorageProviderIDMap = fileToStorageProviderIDMap;
+
+        for (final Path directory : directories) {
+            Node node = this.root;
+            for (final Path name : directory) {
+                node.subDirectories = true;
+                node = this.getOrCreateChild(node, name.toString());
+            }
+            node.directory = true;
+        }
+
+        for (final Path file : fileToStorageProviderIDMap.keySet()) {
+            Node node = this.root;
+            final Path parent = file.getParent();
+            if (parent != null) {
+                for (final Path name : parent) {
+                    node = this.getOrCreateChild(node, name.toString());
+                }
+            }
+            node.files.add(file);
+        }
+    }
+
+    private Node getOrCreateChild(final Node node, final String name) {
+        Node child = node.children.get(name);
+        if (child == null) {
+            child = new Node(node.path.resolve(name));
+            node.children.put(name, child);
+        }
+        return child;
+    }
+
+    /**
+     * @param path - directory path relative to the CSAR root. An empty path means the root.
+     * @return the indexed directory or {@code null} if no directory or file in or below it is indexed.
+     */
+    public Node getNode(final Path path) {
+        if (path.isAbsolute()) {
+            return null;
+        }
+        Node node = this.root;
+        if (path.toString().isEmpty()) {
+            return node;
+        }
+        for (final Path name : path) {
+            node = node.children.get(name.toString());
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * @param file - file path relative to the CSAR root.
+     * @return ID of the storage provider the file is stored on or {@code null} if the file is not
+     *         indexed.
+     */
+    public String getStorageProviderID(final Path file) {
+        return this.fileToStorageProviderIDMap.get(file);
+    }
+
+    /**
+     * @return file to storage provider ID mapping of all indexed files.
+     */
+    public Map<Path, String> getFileToStorageProviderIDMap() {
+        return this.fileToStorageProviderIDMap;
+    }
+}
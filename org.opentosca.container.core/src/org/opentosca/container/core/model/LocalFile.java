@@ -0,0 +1,64 @@
+package org.opentosca.container.core.model;
+
+import java.nio.file.Path;
+
+/**
+ * Content of a file that is available on the local disk, e.g., because it's stored on the file
+ * system storage provider or was cached locally. It's used to serve the file directly from disk.
+ *
+ * @see AbstractFile#getLocalFile()
+ */
+public class LocalFile {
+
+    private final Path path;
+
+    private final long size;
+
+    private final long lastModified;
+
+    private final String hash;
+
+
+    /**
+     * Creates a {@link LocalFile}.
+     *
+     * @param path - absolute path of the file on the local disk.
+     * @param size of the file in bytes.
+     * @param lastModified - modification time of the file in milliseconds since the epoch.
+     * @param hash - hex encoded SHA-256 hash of the file content.
+     */
+    public LocalFile(final Path path, final long size, final long lastModified, final String hash) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+
+    /**
+     * @return absolute path of the file on the local disk. The file must only be read.
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * @return size of the file in bytes.
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return modification time of the file in milliseconds since the epoch.
+     */
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * @return hex encoded SHA-256 hash of the file content.
+     */
+    public String getHash() {
+        return this.hash;
+    }
+}
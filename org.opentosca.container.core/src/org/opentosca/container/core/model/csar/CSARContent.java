@@ -35,6 +35,7 @@ import org.opentosca.container.core.model.AbstractDirectory;
 import org.opentosca.container.core.model.AbstractFile;
 import org.opentosca.container.core.model.CSARArtifact;
 import org.opentosca.container.core.model.CSARDirectory;
+import org.opentosca.container.core.model.CSARPathIndex;
 import org.opentosca.container.core.model.IBrowseable;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.model.csar.id.CSARIDConverter;
@@ -158,6 +159,14 @@ public class CSARContent implements IBrowseable {
     @Transient
     private AbstractDirectory csarRoot = null;
 
+    /**
+     * Index of the directories and files of this CSAR. It's built once and shared by the CSAR root and
+     * all artifacts resolved in this CSAR, so browsing doesn't have to iterate over all directories
+     * and files of the CSAR.
+     */
+    @Transient
+    private CSARPathIndex pathIndex = null;
+
 
     /**
      * Needed by Eclipse Link.
@@ -190,7 +199,17 @@ public class CSARContent implements IBrowseable {
      */
     @PostLoad
     protected void setUpBrowsing() {
-        this.csarRoot = new CSARDirectory("", this.csarID, this.directories, this.fileToStorageProviderIDMap);
+        this.csarRoot = new CSARDirectory("", this.csarID, this.getPathIndex());
+    }
+
+    /**
+     * @return index of the directories and files of this CSAR. It's built at the first call.
+     */
+    private CSARPathIndex getPathIndex() {
+        if (this.pathIndex == null) {
+            this.pathIndex = new CSARPathIndex(this.directories, this.fileToStorageProviderIDMap);
+        }
+        return this.pathIndex;
     }
 
     /**
@@ -324,7 +343,7 @@ public class CSARContent implements IBrowseable {
 
             if (CSARArtifact.fitsArtifactReference(artifactReferenceTrimed)) {
                 artifact = new CSARArtifact(artifactReferenceTrimed, includePatterns, excludePatterns, this.csarID,
-                    this.directories, this.fileToStorageProviderIDMap);
+                    this.getPathIndex());
                 // if further AbstractArtifact implementations exists, we
                 // can check here if they fits
             } else {
@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
@@ -20,6 +21,7 @@ import javax.persistence.Table;
 import javax.xml.namespace.QName;
 
 import org.eclipse.persistence.annotations.Convert;
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
 import org.opentosca.container.core.next.xml.PropertyParser;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -29,6 +31,7 @@ import com.google.common.collect.Sets;
 
 @Entity
 @Table(name = NodeTemplateInstance.TABLE_NAME)
+@EntityListeners({InstanceChangeListener.class})
 public class NodeTemplateInstance extends PersistenceObject {
 
     private static final long serialVersionUID = 6596755785422340480L;
@@ -1,14 +1,18 @@
 package org.opentosca.container.core.next.model;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = NodeTemplateInstanceProperty.TABLE_NAME)
+@EntityListeners({InstanceChangeListener.class})
 public class NodeTemplateInstanceProperty extends Property {
 
     private static final long serialVersionUID = -8847410322957873980L;
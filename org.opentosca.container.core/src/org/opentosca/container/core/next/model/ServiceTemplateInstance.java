@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.OneToMany;
@@ -19,6 +20,7 @@ import javax.xml.namespace.QName;
 import org.eclipse.persistence.annotations.Convert;
 import org.opentosca.container.core.common.jpa.DocumentConverter;
 import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
 import org.opentosca.container.core.next.xml.PropertyParser;
 import org.w3c.dom.Document;
 
@@ -29,6 +31,7 @@ import com.google.common.collect.Sets;
 
 @Entity
 @Table(name = ServiceTemplateInstance.TABLE_NAME)
+@EntityListeners({InstanceChangeListener.class})
 public class ServiceTemplateInstance extends PersistenceObject {
 
     private static final long serialVersionUID = 6652347924001914320L;
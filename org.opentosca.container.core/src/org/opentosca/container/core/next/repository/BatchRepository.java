@@ -0,0 +1,37 @@
+package org.opentosca.container.core.next.repository;
+
+import javax.persistence.EntityManager;
+
+import org.opentosca.container.core.next.jpa.EntityManagerProvider;
+
+/**
+ * Writes entities of different types within a single transaction. In contrast to the
+ * {@link JpaRepository} implementations, which open an entity manager and a transaction for each
+ * call, either all given changes are stored or none of them.
+ */
+public class BatchRepository {
+
+    /**
+     * Persists the new entities and merges the changed ones in one transaction. New entities are
+     * persisted in iteration order, i.e., entities referencing other new entities have to come after
+     * them.
+     *
+     * @param newEntities the entities to persist
+     * @param changedEntities the already persisted entities to update
+     */
+    public void save(final Iterable<?> newEntities, final Iterable<?> changedEntities) {
+        final EntityManager em = EntityManagerProvider.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            newEntities.forEach(em::persist);
+            changedEntities.forEach(em::merge);
+            em.getTransaction().commit();
+        }
+        finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
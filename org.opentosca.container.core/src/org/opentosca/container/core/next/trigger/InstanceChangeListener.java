@@ -0,0 +1,185 @@
+package org.opentosca.container.core.next.trigger;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.xml.namespace.QName;
+
+import org.opentosca.container.core.next.model.NodeTemplateInstance;
+import org.opentosca.container.core.next.model.NodeTemplateInstanceProperty;
+import org.opentosca.container.core.next.model.ServiceTemplateInstance;
+
+/**
+ * Counts the changes of service template instances, node template instances and their properties.
+ * <p>
+ * Components caching information derived from instance data remember the version they read and
+ * resolve again once it changed, see {@link #getVersion()}. Components which only depend on the
+ * instances of certain node types use {@link #getVersion(QName)} and components which only depend on
+ * a single service template instance use {@link #getServiceTemplateInstanceVersion(Long)} instead.
+ * Writes of such components which don't change the information they derived can be excluded from
+ * the node type versions with {@link #runWithoutNodeTypeVersionChange(Runnable)}.
+ * <p>
+ * The versions are changed when the writes are flushed and again when their transaction was
+ * committed (see {@link InstanceChangeTransactionListener}). Information resolved by other threads
+ * in between still reads the previously committed instance data and therefore has to be resolved
+ * again afterwards.
+ */
+public class InstanceChangeListener {
+
+    private static final AtomicLong version = new AtomicLong();
+
+    private static final Map<QName, AtomicLong> nodeTypeVersions = new ConcurrentHashMap<>();
+
+    // the service template instances share a fixed number of versions, so the versions of removed
+    // instances don't have to be cleaned up, at the cost of invalidating some unrelated ones
+    private static final int SERVICE_TEMPLATE_INSTANCE_VERSIONS = 1024;
+
+    private static final AtomicLongArray serviceTemplateInstanceVersions =
+        new AtomicLongArray(SERVICE_TEMPLATE_INSTANCE_VERSIONS);
+
+    private static final ThreadLocal<PendingChanges> pendingChanges = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> nodeTypeVersionChangesSuspended =
+        ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * @return a number which changes whenever instance data was written
+     */
+    public static long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @param nodeType the node type of the node template instances
+     * @return a number which changes whenever a node template instance of the given type, one of its
+     *         properties or a service template instance containing such a node template instance was
+     *         written
+     */
+    public static long getVersion(final QName nodeType) {
+        final AtomicLong nodeTypeVersion = nodeTypeVersions.get(nodeType);
+        return nodeTypeVersion == null ? 0 : nodeTypeVersion.get();
+    }
+
+    /**
+     * @param serviceTemplateInstanceId the id of the service template instance
+     * @return a number which changes whenever the service template instance, one of its node template
+     *         instances or one of their properties was written
+     */
+    public static long getServiceTemplateInstanceVersion(final Long serviceTemplateInstanceId) {
+        return serviceTemplateInstanceVersions.get(indexOf(serviceTemplateInstanceId));
+    }
+
+    /**
+     * Runs the given writes of the current thread without changing {@link #getVersion(QName)}.
+     * {@link #getVersion()} and {@link #getServiceTemplateInstanceVersion(Long)} are changed as usual. Writes of other threads aren't affected.
+     *
+     * @param writes the writes which don't change the information derived from the instances of their
+     *        node types
+     */
+    public static void runWithoutNodeTypeVersionChange(final Runnable writes) {
+        final Boolean suspended = nodeTypeVersionChangesSuspended.get();
+        nodeTypeVersionChangesSuspended.set(Boolean.TRUE);
+        try {
+            writes.run();
+        }
+        finally {
+            nodeTypeVersionChangesSuspended.set(suspended);
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void instanceChanged(final Object instance) {
+        final PendingChanges changes = new PendingChanges();
+        final boolean nodeTypesChanged = !nodeTypeVersionChangesSuspended.get();
+        if (instance instanceof NodeTemplateInstance) {
+            changes.add((NodeTemplateInstance) instance, nodeTypesChanged);
+        } else if (instance instanceof NodeTemplateInstanceProperty) {
+            changes.add(((NodeTemplateInstanceProperty) instance).getNodeTemplateInstance(), nodeTypesChanged);
+        } else if (instance instanceof ServiceTemplateInstance) {
+            final ServiceTemplateInstance serviceTemplateInstance = (ServiceTemplateInstance) instance;
+            changes.serviceTemplateInstanceIds.add(serviceTemplateInstance.getId());
+            if (nodeTypesChanged) {
+                // e.g. the state of the service template instance is part of the state of its node
+                // template instances
+                serviceTemplateInstance.getNodeTemplateInstances().forEach(nti -> changes.add(nti, true));
+            }
+        }
+        changes.apply();
+
+        final PendingChanges pending = pendingChanges.get();
+        if (pending == null) {
+            pendingChanges.set(changes);
+        } else {
+            pending.nodeTypes.addAll(changes.nodeTypes);
+            pending.serviceTemplateInstanceIds.addAll(changes.serviceTemplateInstanceIds);
+        }
+    }
+
+    /**
+     * Changes the versions of the writes flushed by the current thread again, as the transaction
+     * containing them was committed.
+     */
+    static void transactionCommitted() {
+        final PendingChanges changes = pendingChanges.get();
+        if (changes != null) {
+            pendingChanges.remove();
+            changes.apply();
+        }
+    }
+
+    /**
+     * Forgets the writes flushed by the current thread, as the transaction containing them was rolled
+     * back.
+     */
+    static void transactionRolledBack() {
+        pendingChanges.remove();
+    }
+
+    private static int indexOf(final Long serviceTemplateInstanceId) {
+        return serviceTemplateInstanceId == null ? 0
+                                                 : Math.floorMod(serviceTemplateInstanceId.hashCode(),
+                                                                 SERVICE_TEMPLATE_INSTANCE_VERSIONS);
+    }
+
+    /**
+     * The node types and service template instances written by a thread since its transaction began.
+     */
+    private static class PendingChanges {
+
+        private final Set<QName> nodeTypes = new HashSet<>();
+
+        private final Set<Long> serviceTemplateInstanceIds = new HashSet<>();
+
+
+        void add(final NodeTemplateInstance nodeTemplateInstance, final boolean nodeTypeChanged) {
+            if (nodeTemplateInstance == null) {
+                return;
+            }
+            if (nodeTemplateInstance.getServiceTemplateInstance() != null) {
+                this.serviceTemplateInstanceIds.add(nodeTemplateInstance.getServiceTemplateInstance().getId());
+            }
+            if (nodeTypeChanged && nodeTemplateInstance.getTemplateType() != null) {
+                this.nodeTypes.add(nodeTemplateInstance.getTemplateType());
+            }
+        }
+
+        void apply() {
+            version.incrementAndGet();
+            for (final QName nodeType : this.nodeTypes) {
+                nodeTypeVersions.computeIfAbsent(nodeType, type -> new AtomicLong()).incrementAndGet();
+            }
+            for (final Long serviceTemplateInstanceId : this.serviceTemplateInstanceIds) {
+                serviceTemplateInstanceVersions.incrementAndGet(indexOf(serviceTemplateInstanceId));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.opentosca.container.core.next.trigger;
+
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+
+/**
+ * Notifies the {@link InstanceChangeListener} when the transaction of the current thread ended, so
+ * that the versions of the instance data written in it are changed again once the writes are
+ * visible to other threads.
+ * <p>
+ * Registered with the <tt>eclipselink.session-event-listener</tt> property of the persistence unit.
+ */
+public class InstanceChangeTransactionListener extends SessionEventAdapter {
+
+    @Override
+    public void postCommitTransaction(final SessionEvent event) {
+        InstanceChangeListener.transactionCommitted();
+    }
+
+    @Override
+    public void postRollbackTransaction(final SessionEvent event) {
+        InstanceChangeListener.transactionRolledBack();
+    }
+}
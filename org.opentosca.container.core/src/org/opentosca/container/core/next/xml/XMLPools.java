@@ -0,0 +1,212 @@
+package org.opentosca.container.core.next.xml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Shared XML infrastructure of the Container.
+ *
+ * The factories of the JAXP APIs are looked up once instead of per operation. DocumentBuilders,
+ * Transformers and XPath evaluators aren't thread-safe, thus each thread gets its own instances
+ * which are reset before they are handed out. The returned instances must not be shared with other
+ * threads or kept beyond the current operation. JAXBContexts are thread-safe and are cached per
+ * context path and class loader respectively per bound class. The cache doesn't keep class loaders
+ * of stopped bundles alive.
+ */
+public abstract class XMLPools {
+
+    // the factories themselves aren't thread-safe, instances are created while holding their lock
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+    private static final DocumentBuilderFactory IGNORING_COMMENTS_DOCUMENT_BUILDER_FACTORY =
+        DocumentBuilderFactory.newInstance();
+    private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+    private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+
+    static {
+        DOCUMENT_BUILDER_FACTORY.setNamespaceAware(true);
+        IGNORING_COMMENTS_DOCUMENT_BUILDER_FACTORY.setNamespaceAware(true);
+        IGNORING_COMMENTS_DOCUMENT_BUILDER_FACTORY.setIgnoringComments(true);
+    }
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS =
+        ThreadLocal.withInitial(() -> newDocumentBuilder(DOCUMENT_BUILDER_FACTORY));
+    private static final ThreadLocal<DocumentBuilder> IGNORING_COMMENTS_DOCUMENT_BUILDERS =
+        ThreadLocal.withInitial(() -> newDocumentBuilder(IGNORING_COMMENTS_DOCUMENT_BUILDER_FACTORY));
+    private static final ThreadLocal<Transformer> TRANSFORMERS = ThreadLocal.withInitial(XMLPools::newTransformer);
+    private static final ThreadLocal<XPath> XPATHS = ThreadLocal.withInitial(XMLPools::newXPath);
+
+    // a context references its classes and thereby their class loader, thus the contexts are only
+    // held softly, otherwise the weak keys would never be cleared
+    private static final Map<ClassLoader, Map<String, SoftReference<JAXBContext>>> JAXB_CONTEXTS_BY_CLASS_LOADER =
+        new WeakHashMap<>();
+    private static final Map<Class<?>, SoftReference<JAXBContext>> JAXB_CONTEXTS_BY_CLASS = new WeakHashMap<>();
+
+
+    /**
+     * @return the namespace-aware DocumentBuilder of the current thread
+     */
+    public static DocumentBuilder getDocumentBuilder() {
+        final DocumentBuilder builder = DOCUMENT_BUILDERS.get();
+        builder.reset();
+        return builder;
+    }
+
+    /**
+     * @return the namespace-aware DocumentBuilder of the current thread which drops comments while
+     *         parsing
+     */
+    public static DocumentBuilder getDocumentBuilderIgnoringComments() {
+        final DocumentBuilder builder = IGNORING_COMMENTS_DOCUMENT_BUILDERS.get();
+        builder.reset();
+        return builder;
+    }
+
+    /**
+     * @return a new empty Document
+     */
+    public static Document newDocument() {
+        return getDocumentBuilder().newDocument();
+    }
+
+    /**
+     * Parses a String with the namespace-aware DocumentBuilder of the current thread.
+     *
+     * @param xml the XML String to parse
+     * @return the parsed Document
+     * @throws SAXException if the String isn't well-formed XML
+     * @throws IOException if the String can't be read
+     */
+    public static Document parse(final String xml) throws SAXException, IOException {
+        return getDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+
+    /**
+     * @return the identity Transformer of the current thread without any output properties set
+     */
+    public static Transformer getTransformer() {
+        final Transformer transformer = TRANSFORMERS.get();
+        transformer.reset();
+        return transformer;
+    }
+
+    /**
+     * @return the XPath evaluator of the current thread without namespace context, variable or
+     *         function resolver
+     */
+    public static XPath getXPath() {
+        final XPath xpath = XPATHS.get();
+        xpath.reset();
+        return xpath;
+    }
+
+    /**
+     * @param contextPath the packages of the bound classes, separated by colons
+     * @param classLoader the class loader to load the bound classes with
+     * @return the cached JAXBContext of the packages
+     * @throws JAXBException if the context can't be created
+     */
+    public static JAXBContext getJAXBContext(final String contextPath,
+                                             final ClassLoader classLoader) throws JAXBException {
+        synchronized (JAXB_CONTEXTS_BY_CLASS_LOADER) {
+            final JAXBContext context = getContext(JAXB_CONTEXTS_BY_CLASS_LOADER.get(classLoader), contextPath);
+            if (context != null) {
+                return context;
+            }
+        }
+
+        // creating a context takes long, thus it's done without holding the lock
+        final JAXBContext context = JAXBContext.newInstance(contextPath, classLoader);
+        synchronized (JAXB_CONTEXTS_BY_CLASS_LOADER) {
+            final Map<String, SoftReference<JAXBContext>> contexts =
+                JAXB_CONTEXTS_BY_CLASS_LOADER.computeIfAbsent(classLoader, key -> new HashMap<>());
+            return putIfAbsent(contexts, contextPath, context);
+        }
+    }
+
+    /**
+     * @param boundClass the class to bind
+     * @return the cached JAXBContext of the class
+     * @throws JAXBException if the context can't be created
+     */
+    public static JAXBContext getJAXBContext(final Class<?> boundClass) throws JAXBException {
+        synchronized (JAXB_CONTEXTS_BY_CLASS) {
+            final JAXBContext context = getContext(JAXB_CONTEXTS_BY_CLASS, boundClass);
+            if (context != null) {
+                return context;
+            }
+        }
+
+        final JAXBContext context = JAXBContext.newInstance(boundClass);
+        synchronized (JAXB_CONTEXTS_BY_CLASS) {
+            return putIfAbsent(JAXB_CONTEXTS_BY_CLASS, boundClass, context);
+        }
+    }
+
+    private static <K> JAXBContext getContext(final Map<K, SoftReference<JAXBContext>> contexts, final K key) {
+        if (contexts == null) {
+            return null;
+        }
+        final SoftReference<JAXBContext> reference = contexts.get(key);
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * @return the context cached for the key if it's still available, otherwise the given context
+     */
+    private static <K> JAXBContext putIfAbsent(final Map<K, SoftReference<JAXBContext>> contexts, final K key,
+                                               final JAXBContext context) {
+        final JAXBContext existingContext = getContext(contexts, key);
+        if (existingContext != null) {
+            return existingContext;
+        }
+        contexts.put(key, new SoftReference<>(context));
+        return context;
+    }
+
+    private static DocumentBuilder newDocumentBuilder(final DocumentBuilderFactory factory) {
+        try {
+            synchronized (factory) {
+                return factory.newDocumentBuilder();
+            }
+        }
+        catch (final ParserConfigurationException e) {
+            throw new IllegalStateException("Could not create DocumentBuilder: " + e.getMessage(), e);
+        }
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            synchronized (TRANSFORMER_FACTORY) {
+                return TRANSFORMER_FACTORY.newTransformer();
+            }
+        }
+        catch (final TransformerConfigurationException e) {
+            throw new IllegalStateException("Could not create Transformer: " + e.getMessage(), e);
+        }
+    }
+
+    private static XPath newXPath() {
+        synchronized (XPATH_FACTORY) {
+            return XPATH_FACTORY.newXPath();
+        }
+    }
+}
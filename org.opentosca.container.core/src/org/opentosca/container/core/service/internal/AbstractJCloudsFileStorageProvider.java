@@ -17,6 +17,7 @@ import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.domain.Location;
 import org.jclouds.logging.slf4j.config.SLF4JLoggingModule;
 import org.jclouds.osgi.ApiListener;
@@ -24,6 +25,7 @@ import org.jclouds.osgi.MetadataBundleListener;
 import org.jclouds.osgi.ProviderListener;
 import org.jclouds.providers.ProviderMetadata;
 import org.jclouds.rest.AuthorizationException;
+import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.common.SystemException;
 import org.opentosca.container.core.model.credentials.Credentials;
 import org.opentosca.container.core.service.PathUtils;
@@ -46,6 +48,10 @@ import com.google.inject.Module;
  * {@code org.opentosca.csars}. Setting a new bucket name or getting the current one is possible
  * with appropriate methods.
  *
+ * Files of at least <tt>org.opentosca.container.storage.upload.multipart</tt> bytes are stored with
+ * a multipart upload, if the jclouds Provider / API supports it. The storage provider can be used by
+ * several threads concurrently.
+ *
  * If a storage provider will be implemented that is supported by jclouds it should be realized by
  * extending from this class.
  */
@@ -54,6 +60,8 @@ public abstract class AbstractJCloudsFileStorageProvider implements ICoreInterna
 
     private final static Logger LOG = LoggerFactory.getLogger(AbstractJCloudsFileStorageProvider.class);
 
+    private final static long MULTIPART_THRESHOLD = Long.parseLong(Settings.OPENTOSCA_STORAGE_MULTIPART_THRESHOLD);
+
     private Long credentialsID = null;
 
     /**
@@ -124,7 +132,7 @@ public abstract class AbstractJCloudsFileStorageProvider implements ICoreInterna
      * @throws SystemException if storage provider is not ready, credentials are invalid or an other
      *         jclouds error occurred.
      */
-    private void initialize() throws SystemException {
+    private synchronized void initialize() throws SystemException {
 
         if (!this.isInitialized) {
 
@@ -202,7 +210,16 @@ public abstract class AbstractJCloudsFileStorageProvider implements ICoreInterna
                 BlobBuilder blobBuilder = this.blobStore.blobBuilder(PathUtils.separatorsToUnix(relFilePathOnProvider));
                 blobBuilder = blobBuilder.payload(absFilePath.toFile());
                 final Blob blob = blobBuilder.build();
-                this.blobStore.putBlob(this.getContainerName(), blob);
+
+                // large files are uploaded in parts, if the storage provider supports it; others
+                // store them as one blob
+                if (Files.size(absFilePath) >= AbstractJCloudsFileStorageProvider.MULTIPART_THRESHOLD) {
+                    AbstractJCloudsFileStorageProvider.LOG.debug("File \"{}\" is stored with a multipart upload.",
+                                                                 absFilePath);
+                    this.blobStore.putBlob(this.getContainerName(), blob, PutOptions.Builder.multipart());
+                } else {
+                    this.blobStore.putBlob(this.getContainerName(), blob);
+                }
 
                 AbstractJCloudsFileStorageProvider.LOG.debug("Storing file \"{}\" as \"{}\" on storage provider \"{}\" completed.",
                                                              absFilePath, relFilePathOnProvider,
@@ -453,6 +470,16 @@ public abstract class AbstractJCloudsFileStorageProvider implements ICoreInterna
         return contentLength;
     }
 
+    /**
+     * @return {@inheritDoc}<br />
+     *         By default {@code null}, as blobstores are remote. Storage providers keeping their
+     *         blobs on the local disk should override this method.
+     */
+    @Override
+    public Path getLocalFile(final String relFilePathOnProvider) {
+        return null;
+    }
+
     /**
      * @return {@inheritDoc}<br />
      *         Note: The ID must be equal to the ID of the used jclouds Provider / API, otherwise the
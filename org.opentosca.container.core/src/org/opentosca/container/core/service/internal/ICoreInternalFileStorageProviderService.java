@@ -92,6 +92,14 @@ public interface ICoreInternalFileStorageProviderService {
      */
     public long getFileSize(String relFilePathOnProvider) throws SystemException;
 
+    /**
+     * @param relFilePathOnProvider - relative path of file on storage provider.
+     * @return Absolute path of file {@code relFilePathOnProvider} on the local disk, if this storage
+     *         provider stores it there and it exists, otherwise {@code null}. The file must only be
+     *         read.
+     */
+    public Path getLocalFile(String relFilePathOnProvider);
+
     /**
      * Deletes the file {@code relFilePathOnProvider} on this storage provider, if it exists (deleting a
      * non-existent file is also a successful execution).
@@ -0,0 +1,548 @@
+package org.opentosca.container.core.service.internal;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.container.core.common.SystemException;
+import org.opentosca.container.core.model.LocalFile;
+import org.opentosca.container.core.next.utils.Consts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local read-through cache for files on storage providers.<br />
+ * <br />
+ * A file read through this cache is retrieved from its storage provider once and kept in the
+ * directory <tt>org.opentosca.container.storage.cache.dir</tt>. Further reads are served from this
+ * local copy. The cache is bounded by <tt>org.opentosca.container.storage.cache.size</tt> bytes; if
+ * it is full, the least recently used files are removed.<br />
+ * <br />
+ * The SHA-256 hash of each cached file is kept and checked while the file is read from the cache. If
+ * the local copy was changed, it is dropped and the next read is served by the storage provider
+ * again. A cached file must be invalidated with {@link #invalidate(String, String)} if it's stored
+ * again or deleted on its storage provider.<br />
+ * <br />
+ * Files of the file system storage provider are not cached, as they are already on the local disk.
+ * {@link #getLocalFile(ICoreInternalFileStorageProviderService, String)} provides them and cached
+ * files together with their hash, so they can be served directly from disk.
+ */
+public class StorageProviderFileCache {
+
+    private final static Logger LOG = LoggerFactory.getLogger(StorageProviderFileCache.class);
+
+    private final static boolean ENABLED = Boolean.parseBoolean(Settings.OPENTOSCA_STORAGE_CACHE);
+
+    private final static long MAX_SIZE = Long.parseLong(Settings.OPENTOSCA_STORAGE_CACHE_SIZE);
+
+    private final static Path CACHE_DIRECTORY =
+        Settings.OPENTOSCA_STORAGE_CACHE_DIRECTORY == null
+            || Settings.OPENTOSCA_STORAGE_CACHE_DIRECTORY.trim().isEmpty() ? new File(Consts.BASEDIR, "cache").toPath()
+                : Paths.get(Settings.OPENTOSCA_STORAGE_CACHE_DIRECTORY);
+
+    private final static String CACHE_FILE_SUFFIX = ".cache";
+
+    /**
+     * ID of the storage provider storing the files on the local file system.
+     */
+    private final static String FILE_SYSTEM_STORAGE_PROVIDER_ID = "filesystem";
+
+    /**
+     * Cached files by storage provider ID and path on the storage provider. Iteration order is from
+     * least to most recently used.
+     */
+    private final static Map<List<String>, CachedFile> CACHED_FILES = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long size = 0;
+
+    // the hashes of the least recently used local files are dropped above this number and computed
+    // again on demand
+    private final static int MAX_LOCAL_FILE_HASHES = 10000;
+
+    /**
+     * Hashes of files stored on the local disk by their storage provider. A hash is computed again if
+     * size or modification time of its file changed.
+     */
+    private final static Map<Path, CachedFile> LOCAL_FILE_HASHES =
+        Collections.synchronizedMap(new LinkedHashMap<Path, CachedFile>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Path, CachedFile> eldest) {
+                return size() > StorageProviderFileCache.MAX_LOCAL_FILE_HASHES;
+            }
+        });
+
+    private static boolean initialized = false;
+
+
+    /**
+     * @param storageProvider to get the file from if it's not cached.
+     * @param relFilePathOnProvider - relative path of the file on the storage provider.
+     * @return the file as input stream.
+     * @throws SystemException if the file was not found on the storage provider or an error occurred
+     *         during getting.
+     *
+     * @see ICoreInternalFileStorageProviderService#getFileAsInputStream(String)
+     */
+    public static InputStream getFileAsInputStream(final ICoreInternalFileStorageProviderService storageProvider,
+                                                   final String relFilePathOnProvider) throws SystemException {
+
+        if (!isCacheable(storageProvider)) {
+            return storageProvider.getFileAsInputStream(relFilePathOnProvider);
+        }
+
+        final List<String> key = Arrays.asList(storageProvider.getStorageProviderID(), relFilePathOnProvider);
+
+        final CachedFile cachedFile = getCachedFile(key);
+        if (cachedFile != null) {
+            try {
+                return new VerifyingInputStream(Files.newInputStream(cachedFile.path), key, cachedFile);
+            }
+            catch (final IOException exc) {
+                StorageProviderFileCache.LOG.debug("Cached file \"{}\" can't be read: {}", relFilePathOnProvider,
+                                                   exc.getMessage());
+                remove(key, cachedFile);
+            }
+        }
+
+        final Path downloadedFile = download(storageProvider, relFilePathOnProvider);
+        try {
+            if (put(key, downloadedFile) != null) {
+                return Files.newInputStream(downloadedFile);
+            }
+            // too large for the cache, so the downloaded file is deleted after reading
+            return Files.newInputStream(downloadedFile, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        catch (final IOException exc) {
+            StorageProviderFileCache.LOG.debug("Downloaded file \"{}\" can't be read: {}", relFilePathOnProvider,
+                                               exc.getMessage());
+            return storageProvider.getFileAsInputStream(relFilePathOnProvider);
+        }
+    }
+
+    /**
+     * @param storageProvider to get the file from if it's not cached.
+     * @param relFilePathOnProvider - relative path of the file on the storage provider.
+     * @param targetAbsFilePath - local absolute path to write the file to.
+     * @throws SystemException if the file was not found on the storage provider or an error occurred
+     *         during getting.
+     *
+     * @see ICoreInternalFileStorageProviderService#getFile(String, Path)
+     */
+    public static void getFile(final ICoreInternalFileStorageProviderService storageProvider,
+                               final String relFilePathOnProvider,
+                               final Path targetAbsFilePath) throws SystemException {
+
+        if (!isCacheable(storageProvider)) {
+            storageProvider.getFile(relFilePathOnProvider, targetAbsFilePath);
+            return;
+        }
+
+        final List<String> key = Arrays.asList(storageProvider.getStorageProviderID(), relFilePathOnProvider);
+
+        final CachedFile cachedFile = getCachedFile(key);
+        if (cachedFile != null && copyVerified(key, cachedFile, targetAbsFilePath)) {
+            return;
+        }
+
+        final Path downloadedFile = download(storageProvider, relFilePathOnProvider);
+        try {
+            if (put(key, downloadedFile) != null) {
+                Files.copy(downloadedFile, targetAbsFilePath, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.move(downloadedFile, targetAbsFilePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (final IOException exc) {
+            StorageProviderFileCache.LOG.debug("Downloaded file \"{}\" can't be copied: {}", relFilePathOnProvider,
+                                               exc.getMessage());
+            storageProvider.getFile(relFilePathOnProvider, targetAbsFilePath);
+        }
+    }
+
+    /**
+     * Provides a file on the local disk, so it can be served directly from there. A file stored on the
+     * local disk by its storage provider is used as it is, other files are added to the cache if
+     * needed. Files provided from the cache are not checked against their hash while they are read, so
+     * only their size and modification time are checked.
+     *
+     * @param storageProvider storing the file.
+     * @param relFilePathOnProvider - relative path of the file on the storage provider.
+     * @return the file on the local disk or {@code null} if it can't be provided locally, e.g.,
+     *         because it's larger than the cache.
+     * @throws SystemException if the file was not found on the storage provider or an error occurred
+     *         during getting.
+     */
+    public static LocalFile getLocalFile(final ICoreInternalFileStorageProviderService storageProvider,
+                                         final String relFilePathOnProvider) throws SystemException {
+
+        final Path providerFile = storageProvider.getLocalFile(relFilePathOnProvider);
+        if (providerFile != null) {
+            try {
+                return toLocalFile(getLocalFileHash(providerFile));
+            }
+            catch (final IOException exc) {
+                StorageProviderFileCache.LOG.debug("Local file \"{}\" can't be read: {}", providerFile,
+                                                   exc.getMessage());
+                return null;
+            }
+        }
+
+        if (!isCacheable(storageProvider)) {
+            return null;
+        }
+
+        final List<String> key = Arrays.asList(storageProvider.getStorageProviderID(), relFilePathOnProvider);
+
+        final CachedFile cachedFile = getCachedFile(key);
+        if (cachedFile != null) {
+            return toLocalFile(cachedFile);
+        }
+
+        // avoid downloading files that can't be cached anyway
+        if (storageProvider.getFileSize(relFilePathOnProvider) > StorageProviderFileCache.MAX_SIZE) {
+            return null;
+        }
+
+        final Path downloadedFile = download(storageProvider, relFilePathOnProvider);
+        try {
+            final CachedFile addedFile = put(key, downloadedFile);
+            if (addedFile != null) {
+                return toLocalFile(addedFile);
+            }
+        }
+        catch (final IOException exc) {
+            StorageProviderFileCache.LOG.debug("Downloaded file \"{}\" can't be read: {}", relFilePathOnProvider,
+                                               exc.getMessage());
+        }
+        deleteFile(downloadedFile);
+        return null;
+    }
+
+    /**
+     * Removes a file from the cache. Must be called if the file is stored again or deleted on the
+     * storage provider.
+     *
+     * @param storageProviderID of the storage provider storing the file.
+     * @param relFilePathOnProvider - relative path of the file on the storage provider.
+     */
+    public static void invalidate(final String storageProviderID, final String relFilePathOnProvider) {
+        final List<String> key = Arrays.asList(storageProviderID, relFilePathOnProvider);
+        final CachedFile cachedFile;
+        synchronized (StorageProviderFileCache.CACHED_FILES) {
+            cachedFile = StorageProviderFileCache.CACHED_FILES.get(key);
+        }
+        if (cachedFile != null) {
+            StorageProviderFileCache.LOG.debug("Cached file \"{}\" of storage provider \"{}\" is invalidated.",
+                                               relFilePathOnProvider, storageProviderID);
+            remove(key, cachedFile);
+        }
+    }
+
+    private static boolean isCacheable(final ICoreInternalFileStorageProviderService storageProvider) {
+        return StorageProviderFileCache.ENABLED && StorageProviderFileCache.MAX_SIZE > 0
+            && !StorageProviderFileCache.FILE_SYSTEM_STORAGE_PROVIDER_ID.equals(storageProvider.getStorageProviderID());
+    }
+
+    /**
+     * @return the cached file or {@code null} if it's not cached or its local copy was changed.
+     */
+    private static CachedFile getCachedFile(final List<String> key) {
+        final CachedFile cachedFile;
+        synchronized (StorageProviderFileCache.CACHED_FILES) {
+            cachedFile = StorageProviderFileCache.CACHED_FILES.get(key);
+        }
+        if (cachedFile == null) {
+            return null;
+        }
+        try {
+            if (Files.size(cachedFile.path) == cachedFile.size
+                && Files.getLastModifiedTime(cachedFile.path).toMillis() == cachedFile.lastModified) {
+                StorageProviderFileCache.LOG.debug("File \"{}\" is served from the cache.", key.get(1));
+                return cachedFile;
+            }
+        }
+        catch (final IOException exc) {
+            // handled below
+        }
+        StorageProviderFileCache.LOG.warn("Cached file \"{}\" was changed or removed.", key.get(1));
+        remove(key, cachedFile);
+        return null;
+    }
+
+    /**
+     * Copies a cached file to {@code target} and checks its hash.
+     *
+     * @return {@code true} if the file was copied and its hash is correct, otherwise {@code false}.
+     */
+    private static boolean copyVerified(final List<String> key, final CachedFile cachedFile, final Path target) {
+        try (InputStream in = new VerifyingInputStream(Files.newInputStream(cachedFile.path), key, cachedFile);
+            OutputStream out = Files.newOutputStream(target)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        catch (final IOException exc) {
+            StorageProviderFileCache.LOG.debug("Cached file \"{}\" can't be copied: {}", key.get(1), exc.getMessage());
+            remove(key, cachedFile);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves a file from the storage provider into the cache directory.
+     *
+     * @return the retrieved file.
+     */
+    private static Path download(final ICoreInternalFileStorageProviderService storageProvider,
+                                 final String relFilePathOnProvider) throws SystemException {
+        final Path downloadedFile;
+        try {
+            initialize();
+            downloadedFile = Files.createTempFile(StorageProviderFileCache.CACHE_DIRECTORY, "file",
+                                                  StorageProviderFileCache.CACHE_FILE_SUFFIX);
+        }
+        catch (final IOException exc) {
+            throw new SystemException("Creating file in cache directory \""
+                + StorageProviderFileCache.CACHE_DIRECTORY + "\" failed.", exc);
+        }
+        try {
+            storageProvider.getFile(relFilePathOnProvider, downloadedFile);
+        }
+        catch (final SystemException exc) {
+            deleteFile(downloadedFile);
+            throw exc;
+        }
+        return downloadedFile;
+    }
+
+    /**
+     * Adds a downloaded file to the cache and removes the least recently used files if the cache is
+     * full.
+     *
+     * @return the added file or {@code null} if it's larger than the cache.
+     */
+    private static CachedFile put(final List<String> key, final Path downloadedFile) throws IOException {
+        final long fileSize = Files.size(downloadedFile);
+        if (fileSize > StorageProviderFileCache.MAX_SIZE) {
+            return null;
+        }
+        final CachedFile cachedFile = new CachedFile(downloadedFile, fileSize,
+            Files.getLastModifiedTime(downloadedFile).toMillis(), computeHash(downloadedFile));
+
+        synchronized (StorageProviderFileCache.CACHED_FILES) {
+            final CachedFile replacedFile = StorageProviderFileCache.CACHED_FILES.put(key, cachedFile);
+            if (replacedFile != null) {
+                StorageProviderFileCache.size -= replacedFile.size;
+                deleteFile(replacedFile.path);
+            }
+            StorageProviderFileCache.size += fileSize;
+
+            // the added file is the most recently used one, so it's removed last
+            final Iterator<CachedFile> iterator = StorageProviderFileCache.CACHED_FILES.values().iterator();
+            while (StorageProviderFileCache.size > StorageProviderFileCache.MAX_SIZE && iterator.hasNext()) {
+                final CachedFile evictedFile = iterator.next();
+                if (evictedFile == cachedFile) {
+                    break;
+                }
+                iterator.remove();
+                StorageProviderFileCache.size -= evictedFile.size;
+                deleteFile(evictedFile.path);
+            }
+        }
+        StorageProviderFileCache.LOG.debug("File \"{}\" of storage provider \"{}\" was added to the cache.",
+                                           key.get(1), key.get(0));
+        return cachedFile;
+    }
+
+    private static void remove(final List<String> key, final CachedFile cachedFile) {
+        synchronized (StorageProviderFileCache.CACHED_FILES) {
+            if (StorageProviderFileCache.CACHED_FILES.remove(key, cachedFile)) {
+                StorageProviderFileCache.size -= cachedFile.size;
+            }
+        }
+        deleteFile(cachedFile.path);
+    }
+
+    private static void deleteFile(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (final IOException exc) {
+            StorageProviderFileCache.LOG.warn("Deleting cached file \"{}\" failed: {}", file, exc.getMessage());
+        }
+    }
+
+    /**
+     * Creates the cache directory and removes the files cached before the last restart, as they are
+     * not known anymore.
+     */
+    private static synchronized void initialize() throws IOException {
+        if (StorageProviderFileCache.initialized) {
+            return;
+        }
+        Files.createDirectories(StorageProviderFileCache.CACHE_DIRECTORY);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(StorageProviderFileCache.CACHE_DIRECTORY,
+                                                                    "*" + StorageProviderFileCache.CACHE_FILE_SUFFIX)) {
+            for (final Path file : files) {
+                deleteFile(file);
+            }
+        }
+        StorageProviderFileCache.initialized = true;
+        StorageProviderFileCache.LOG.debug("Storage provider file cache uses directory \"{}\".",
+                                           StorageProviderFileCache.CACHE_DIRECTORY);
+    }
+
+    private static CachedFile getLocalFileHash(final Path file) throws IOException {
+        final long fileSize = Files.size(file);
+        final long lastModified = Files.getLastModifiedTime(file).toMillis();
+        final CachedFile hashedFile = StorageProviderFileCache.LOCAL_FILE_HASHES.get(file);
+        if (hashedFile != null && hashedFile.size == fileSize && hashedFile.lastModified == lastModified) {
+            return hashedFile;
+        }
+        final CachedFile newHashedFile = new CachedFile(file, fileSize, lastModified, computeHash(file));
+        StorageProviderFileCache.LOCAL_FILE_HASHES.put(file, newHashedFile);
+        return newHashedFile;
+    }
+
+    private static LocalFile toLocalFile(final CachedFile cachedFile) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : cachedFile.hash) {
+            hex.append(String.format("%02x", b));
+        }
+        return new LocalFile(cachedFile.path, cachedFile.size, cachedFile.lastModified, hex.toString());
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException e) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] computeHash(final Path file) throws IOException {
+        final MessageDigest digest = createDigest();
+        try (InputStream in = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static class CachedFile {
+
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final byte[] hash;
+
+
+        private CachedFile(final Path path, final long size, final long lastModified, final byte[] hash) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Computes the hash of a cached file while it's read. If the hash is not correct, the file is
+     * removed from the cache and reaching the end of the stream results in an {@link IOException}.
+     */
+    private static class VerifyingInputStream extends FilterInputStream {
+
+        private final List<String> key;
+        private final CachedFile cachedFile;
+        private final MessageDigest digest = createDigest();
+        private boolean verified = false;
+
+
+        private VerifyingInputStream(final InputStream in, final List<String> key, final CachedFile cachedFile) {
+            super(in);
+            this.key = key;
+            this.cachedFile = cachedFile;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b == -1) {
+                verify();
+            } else {
+                this.digest.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read == -1) {
+                verify();
+            } else {
+                this.digest.update(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            // skipped bytes have to be hashed as well
+            final byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 0))];
+            long skipped = 0;
+            while (skipped < n) {
+                final int read = this.read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void verify() throws IOException {
+            if (this.verified) {
+                return;
+            }
+            this.verified = true;
+            if (!MessageDigest.isEqual(this.digest.digest(), this.cachedFile.hash)) {
+                StorageProviderFileCache.LOG.warn("Content of cached file \"{}\" was changed.", this.key.get(1));
+                remove(this.key, this.cachedFile);
+                throw new IOException("Content of cached file \"" + this.key.get(1) + "\" was changed.");
+            }
+        }
+    }
+}
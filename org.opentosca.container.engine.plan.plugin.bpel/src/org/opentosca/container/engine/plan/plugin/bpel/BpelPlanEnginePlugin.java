@@ -2,6 +2,7 @@ package org.opentosca.container.engine.plan.plugin.bpel;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -12,8 +13,6 @@ import java.util.Map;
 
 import javax.wsdl.WSDLException;
 import javax.xml.namespace.QName;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerConfigurationException;
 
 import org.opentosca.container.connector.bps.BpsConnector;
 import org.opentosca.container.connector.ode.OdeConnector;
@@ -183,12 +182,6 @@ public class BpelPlanEnginePlugin implements IPlanEnginePlanRefPluginService {
                 BpelPlanEnginePlugin.LOG.warn("Could'nt change all endpoints inside BPEL4RESTLight Elements in the given process {}", filePath);
             }
         }
-        catch (final TransformerConfigurationException e) {
-            BpelPlanEnginePlugin.LOG.error("Couldn't load BPELRESTLightUpdater transformer", e);
-        }
-        catch (final ParserConfigurationException e) {
-            BpelPlanEnginePlugin.LOG.error("Couldn't load BPELRESTLightUpdaters parser", e);
-        }
         catch (final SAXException e) {
             BpelPlanEnginePlugin.LOG.error("ParseError: Couldn't parse .bpel file", e);
         }
@@ -454,6 +447,47 @@ public class BpelPlanEnginePlugin implements IPlanEnginePlanRefPluginService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The engines publish the WSDL of a process service as long as the process is deployed, thus the
+     * WSDL of the stored endpoint of the plan is requested.
+     */
+    @Override
+    public boolean isPlanReferenceDeployed(final QName planId, final PlanModelReference planRef,
+                                           final CSARID csarId) {
+        if (this.endpointService == null) {
+            BpelPlanEnginePlugin.LOG.warn("Can't check deployment of plan {}, cause endpoint service is not available",
+                                          planId);
+            return false;
+        }
+
+        final WSDLEndpoint endpoint =
+            this.endpointService.getWSDLEndpointForPlanId(Settings.OPENTOSCA_CONTAINER_HOSTNAME, csarId, planId);
+        if (endpoint == null || endpoint.getURI() == null) {
+            return false;
+        }
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) URI.create(endpoint.getURI() + "?wsdl").toURL().openConnection();
+            connection.setConnectTimeout(10000);
+            connection.setReadTimeout(10000);
+            final int statusCode = connection.getResponseCode();
+            BpelPlanEnginePlugin.LOG.debug("WSDL of plan {} returned status code {}", planId, statusCode);
+            return statusCode == HttpURLConnection.HTTP_OK;
+        }
+        catch (final IOException e) {
+            BpelPlanEnginePlugin.LOG.debug("Can't retrieve WSDL of plan {}: {}", planId, e.getMessage());
+            return false;
+        }
+        finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
     /**
      * Bind method for IFileServices
      *
@@ -7,10 +7,10 @@ import java.net.URISyntaxException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.DOMException;
@@ -348,7 +348,7 @@ public class BPELRESTLightElement {
         // http://stackoverflow.com/questions/4412848/xml-node-to-string-in-java
         final StringWriter sw = new StringWriter();
         try {
-            final Transformer t = TransformerFactory.newInstance().newTransformer();
+            final Transformer t = XMLPools.getTransformer();
             t.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
             t.setOutputProperty(OutputKeys.INDENT, "yes");
             t.transform(new DOMSource(this.parentNode), new StreamResult(sw));
@@ -9,24 +9,18 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.model.endpoint.rest.RESTEndpoint;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.service.ICoreEndpointService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,26 +56,11 @@ public class BPELRESTLightUpdater {
 
     private static ICoreEndpointService endpointService;
     private static ICoreEndpointService oldEndpointService;
-    private final DocumentBuilder builder;
-    private final DocumentBuilderFactory domFactory;
-    private final XPathFactory factory;
-    private final TransformerFactory transformerFactory;
-    private final Transformer transformer;
     private CSARID csarId;
 
     private final static Logger LOG = LoggerFactory.getLogger(BPELRESTLightUpdater.class);
 
 
-    public BPELRESTLightUpdater() throws ParserConfigurationException, TransformerConfigurationException {
-        // initialize parsers
-        this.domFactory = DocumentBuilderFactory.newInstance();
-        this.domFactory.setNamespaceAware(true);
-        this.builder = this.domFactory.newDocumentBuilder();
-        this.factory = XPathFactory.newInstance();
-        this.transformerFactory = TransformerFactory.newInstance();
-        this.transformer = this.transformerFactory.newTransformer();
-    }
-
     /**
      * <p>
      * Changes endpoints (URIs) inside the given BPEL file. If the bpel file contains somewhere the
@@ -111,7 +90,7 @@ public class BPELRESTLightUpdater {
         }
 
         BPELRESTLightUpdater.LOG.debug("Parsing bpel file {} ", bpelFile.getAbsoluteFile());
-        final Document document = this.builder.parse(bpelFile);
+        final Document document = XMLPools.getDocumentBuilder().parse(bpelFile);
 
         // get the elements
         final List<BPELRESTLightElement> elements = getAllBPELRESTLightElements(document);
@@ -136,7 +115,7 @@ public class BPELRESTLightUpdater {
             final StreamResult result = new StreamResult(bpelFile);
             boolean wroteFile = false;
             try {
-                this.transformer.transform(source, result);
+                XMLPools.getTransformer().transform(source, result);
                 wroteFile = true;
             }
             catch (final TransformerException e) {
@@ -204,7 +183,7 @@ public class BPELRESTLightUpdater {
         final List<BPELRESTLightElement> elements = new LinkedList<>();
         NodeList result = null;
 
-        final XPath xpath = this.factory.newXPath();
+        final XPath xpath = XMLPools.getXPath();
         XPathExpression expr;
         try {
             BPELRESTLightUpdater.LOG.debug("Querying document with {} ", xpathExp);
@@ -33,6 +33,7 @@ import org.apache.ode.schemas.dd._2007._03.TProvide;
 import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.model.endpoint.wsdl.WSDLEndpoint;
+import org.opentosca.container.core.next.xml.XMLPools;
 import org.opentosca.container.core.service.ICoreEndpointService;
 import org.opentosca.container.engine.plan.plugin.bpel.BpelPlanEnginePlugin;
 import org.slf4j.Logger;
@@ -221,7 +222,7 @@ public class ODEEndpointUpdater {
         // grabbed that and using jaxb
         final List<QName> qnames = new LinkedList<>();
         final JAXBContext context =
-            JAXBContext.newInstance("org.apache.ode.schemas.dd._2007._03", this.getClass().getClassLoader());
+            XMLPools.getJAXBContext("org.apache.ode.schemas.dd._2007._03", this.getClass().getClassLoader());
         final Unmarshaller unmarshaller = context.createUnmarshaller();
         final TDeployment deploy = unmarshaller.unmarshal(new StreamSource(deployXML), TDeployment.class).getValue();
         for (final org.apache.ode.schemas.dd._2007._03.TDeployment.Process process : deploy.getProcess()) {
@@ -246,7 +247,7 @@ public class ODEEndpointUpdater {
     private List<QName> getProvidedDeployXMLPorts(final File deployXML) throws JAXBException {
         final List<QName> ports = new ArrayList<>();
         final JAXBContext context =
-            JAXBContext.newInstance("org.apache.ode.schemas.dd._2007._03", this.getClass().getClassLoader());
+            XMLPools.getJAXBContext("org.apache.ode.schemas.dd._2007._03", this.getClass().getClassLoader());
         final Unmarshaller unmarshaller = context.createUnmarshaller();
         final TDeployment deploy = unmarshaller.unmarshal(new StreamSource(deployXML), TDeployment.class).getValue();
         for (final org.apache.ode.schemas.dd._2007._03.TDeployment.Process process : deploy.getProcess()) {
@@ -690,7 +691,7 @@ public class ODEEndpointUpdater {
         try {
             final File deployXML = getDeployXML(planContents);
             final JAXBContext context =
-                JAXBContext.newInstance("org.apache.ode.schemas.dd._2007._03", this.getClass().getClassLoader());
+                XMLPools.getJAXBContext("org.apache.ode.schemas.dd._2007._03", this.getClass().getClassLoader());
             final Unmarshaller unmarshaller = context.createUnmarshaller();
             final TDeployment deploy =
                 unmarshaller.unmarshal(new StreamSource(deployXML), TDeployment.class).getValue();
@@ -5,16 +5,21 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.xml.namespace.QName;
 
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
@@ -59,6 +64,10 @@ public class CamundaPlanEnginePlugin implements IPlanEnginePlanRefPluginService
 
     final private static Logger LOG = LoggerFactory.getLogger(CamundaPlanEnginePlugin.class);
 
+    // shared by all requests to the engine to reuse its connections
+    private static final CloseableHttpClient HTTP_CLIENT =
+        HttpClients.custom().setMaxConnTotal(20).setMaxConnPerRoute(20).build();
+
     private final String CAMUNDA_DESCRIPTION = "OpenTOSCA PlanEngine Camunda BPMN 2.0 Plugin v1.0";
     private final String DEPLOYMENT_SUFFIX = "/deployment";
     private final String CREATE_SUFFIX = "/create";
@@ -69,15 +78,52 @@ public class CamundaPlanEnginePlugin implements IPlanEnginePlanRefPluginService
     private IToscaEngineService toscaEngine = null;
     private IFileAccessService fileAccessService = null;
     private ICoreEndpointService endpointService = null;
-    private final JSONParser parser = new JSONParser();
 
     @Override
     public boolean deployPlanReference(final QName planId, final PlanModelReference planRef, final CSARID csarId) {
-        LOG.debug("Trying to deploy plan with ID {} on Camunda BPMN engine...", planId);
+        final Map<QName, PlanModelReference> planRefs = new HashMap<>();
+        planRefs.put(planId, planRef);
+        return deployPlanReferences(planRefs, csarId).isEmpty();
+    }
+
+    @Override
+    public List<QName> deployPlanReferences(final Map<QName, PlanModelReference> planRefs, final CSARID csarId) {
+        LOG.debug("Trying to deploy plans with IDs {} on Camunda BPMN engine...", planRefs.keySet());
+
+        final List<QName> nonDeployedPlans = new ArrayList<>();
+
+        // retrieve the plan files and group them by the namespace of the plans
+        final Map<String, Map<QName, Path>> planFilesByNamespace = new HashMap<>();
+        for (final QName planId : planRefs.keySet()) {
+            final Path planFile = getPlanFile(planId, csarId);
+            if (Objects.isNull(planFile)) {
+                nonDeployedPlans.add(planId);
+                continue;
+            }
+            if (!planFilesByNamespace.containsKey(planId.getNamespaceURI())) {
+                planFilesByNamespace.put(planId.getNamespaceURI(), new LinkedHashMap<QName, Path>());
+            }
+            planFilesByNamespace.get(planId.getNamespaceURI()).put(planId, planFile);
+        }
 
+        for (final Entry<String, Map<QName, Path>> planFiles : planFilesByNamespace.entrySet()) {
+            nonDeployedPlans.addAll(deployPlanFiles(planFiles.getValue(), csarId,
+                                                    csarId.toString() + "#" + planFiles.getKey()));
+        }
+        return nonDeployedPlans;
+    }
+
+    /**
+     * Retrieves the zip file containing the plan and its artifacts
+     *
+     * @param planId the QName to identify the plan
+     * @param csarId the ID of the CSAR to which the plan belongs
+     * @return the path to the zip file or <code>null</code> if it can't be retrieved
+     */
+    private Path getPlanFile(final QName planId, final CSARID csarId) {
         if (Objects.isNull(this.fileService)) {
             LOG.error("Unable to deploy plan reference with file service equal to null!");
-            return false;
+            return null;
         }
 
         // get CSAR containing the plan
@@ -87,148 +133,197 @@ public class CamundaPlanEnginePlugin implements IPlanEnginePlanRefPluginService
         }
         catch (final UserException exc) {
             LOG.error("An User Exception occured while retrieving the CSAR: {}", exc);
-            return false;
+            return null;
         }
 
         final AbstractArtifact planReference = this.toscaEngine.getPlanModelReferenceAbstractArtifact(csar, planId);
         if (Objects.isNull(planReference) || !planReference.isFileArtifact()) {
-            LOG.error("Referenced artifact is invalid!");
-            return false;
+            LOG.error("Referenced artifact of plan {} is invalid!", planId);
+            return null;
         }
 
         final AbstractFile plan = planReference.getFile("");
         if (Objects.isNull(plan) || !plan.getName().substring(plan.getName().lastIndexOf('.') + 1).equals("zip")) {
-            LOG.debug("Plan reference is not a ZIP file!");
-            return false;
+            LOG.debug("Plan reference of plan {} is not a ZIP file!", planId);
+            return null;
         }
 
-        Path fetchedPlan = null;
         try {
-            fetchedPlan = plan.getFile();
+            return plan.getFile();
         }
         catch (final SystemException exc) {
             LOG.error("An System Exception occured while fetching the plan file: {}", exc);
-            return false;
+            return null;
         }
-
-        return deployPlanFile(fetchedPlan, csarId, planId);
     }
 
     /**
-     * Deploys the given plan into the Camunda BPMN engine
+     * Deploys the given plans with one deployment into the Camunda BPMN engine. Only files which
+     * changed since the last deployment with the same name are deployed again, thus deploying
+     * unchanged plans creates no new process definitions.
      *
-     * @param planPath the path to the zip file containing the plan and its artifacts
-     * @param csarId the ID of the CSAR to which the plan belongs
-     * @param planId the QName to identify the plan
-     * @return <code>true</code> if deployment is successful, <code>false</code> otherwise
+     * @param planPaths the paths to the zip files containing the plans and their artifacts mapped by
+     *        the QNames to identify the plans
+     * @param csarId the ID of the CSAR to which the plans belong
+     * @param deploymentName the name of the deployment
+     * @return the QNames of the plans which couldn't be deployed
      */
-    private boolean deployPlanFile(final Path planPath, final CSARID csarId, final QName planId) {
-        LOG.debug("Starting to deploy plan from retrieved file...");
+    private List<QName> deployPlanFiles(final Map<QName, Path> planPaths, final CSARID csarId,
+                                        final String deploymentName) {
+        LOG.debug("Starting to deploy {} plan(s) from retrieved files...", planPaths.size());
 
         if (Objects.isNull(this.fileAccessService)) {
             LOG.error("FileAccessService is not available, can't create needed temporary space on disk!");
-            return false;
+            return new ArrayList<>(planPaths.keySet());
         }
 
         if (Objects.isNull(this.endpointService)) {
             LOG.error("EndpointService is not available, unable to create plan endpoint!");
-            return false;
+            return new ArrayList<>(planPaths.keySet());
         }
 
-        // create temporary directory and unzip plan
-        final File tempDir = this.fileAccessService.getTemp();
-        final List<File> planContents = this.fileAccessService.unzip(planPath.toFile(), tempDir);
-        LOG.debug("Plan contains {} files.", planContents.size());
-
         // create Post request for the Camunda REST API
         final HttpPost deploymentRequest =
             new HttpPost(Settings.ENGINE_PLAN_BPMN_URL + this.DEPLOYMENT_SUFFIX + this.CREATE_SUFFIX);
 
         // only deploy if plan was not deployed before or files have changed
-        final StringBody enableDuplicateFiltering = new StringBody("false", ContentType.TEXT_PLAIN);
-        final StringBody deployChangedOnly = new StringBody("false", ContentType.TEXT_PLAIN);
-        final StringBody deploymentName = new StringBody(planId.toString(), ContentType.TEXT_PLAIN);
+        final StringBody enableDuplicateFiltering = new StringBody("true", ContentType.TEXT_PLAIN);
+        final StringBody deployChangedOnly = new StringBody("true", ContentType.TEXT_PLAIN);
 
         // add required meta data to the request
         final MultipartEntityBuilder builder =
-            MultipartEntityBuilder.create().addPart("deployment-name", deploymentName)
+            MultipartEntityBuilder.create()
+                                  .addPart("deployment-name", new StringBody(deploymentName, ContentType.TEXT_PLAIN))
                                   .addPart("enable-duplicate-filtering", enableDuplicateFiltering)
                                   .addPart("deploy-changed-only", deployChangedOnly);
 
-        // add all files contained in the plan to the request
-        for (final File file : planContents) {
-            final FileBody fileBody = new FileBody(file);
-            builder.addPart(file.getName(), fileBody);
+        // add all files contained in the plans to the request, the names of the resources are prefixed
+        // by the plan to keep the files of different plans apart
+        for (final Entry<QName, Path> planPath : planPaths.entrySet()) {
+            final File tempDir = this.fileAccessService.getTemp();
+            final List<File> planContents = this.fileAccessService.unzip(planPath.getValue().toFile(), tempDir);
+            LOG.debug("Plan {} contains {} files.", planPath.getKey(), planContents.size());
+
+            for (final File file : planContents) {
+                final String resourceName = getResourcePrefix(planPath.getKey()) + file.getName();
+                builder.addPart(resourceName, new FileBody(file, ContentType.DEFAULT_BINARY, resourceName));
+            }
         }
 
-        final CloseableHttpClient httpClient = HttpClients.createDefault();
         try {
             // send Post request to the engine
-            final HttpEntity httpEntity = builder.build();
-            deploymentRequest.setEntity(httpEntity);
-            HttpResponse response = httpClient.execute(deploymentRequest);
-
-            if (response.getStatusLine().getStatusCode() != 200) {
-                LOG.error("Response returned status code: {}", response.getStatusLine().getStatusCode());
-                return false;
+            deploymentRequest.setEntity(builder.build());
+            try (CloseableHttpResponse response = HTTP_CLIENT.execute(deploymentRequest)) {
+                final String body = EntityUtils.toString(response.getEntity());
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    LOG.error("Response returned status code: {}", response.getStatusLine().getStatusCode());
+                    return new ArrayList<>(planPaths.keySet());
+                }
+                final JSONObject json = (JSONObject) new JSONParser().parse(body);
+                LOG.debug("Deployment {} has the following ID: {}", deploymentName, json.get("id"));
             }
 
-            // get the ID of the created deployment
-            final JSONObject json = (JSONObject) this.parser.parse(EntityUtils.toString(response.getEntity()));
-            if (!json.containsKey("id")) {
-                LOG.error("Deployment response contains no ID for further processing!");
-                return false;
+            // unchanged plans keep their process definitions of previous deployments with this name
+            final Set<String> deploymentIds = getDeploymentIds(deploymentName);
+
+            final List<QName> nonDeployedPlans = new ArrayList<>();
+            for (final QName planId : planPaths.keySet()) {
+                final String planDefinitionID = getProcessDefinitionId(planId, deploymentIds);
+                if (Objects.isNull(planDefinitionID)) {
+                    LOG.error("No process definition of plan {} contained in deployment {}!", planId, deploymentName);
+                    nonDeployedPlans.add(planId);
+                    continue;
+                }
+
+                // create corresponding endpoint for the process definition of the plan
+                final URI endpoint = new URI(Settings.ENGINE_PLAN_BPMN_URL + this.PROCESS_DEFINITION_SUFFIX + "/"
+                    + planDefinitionID + this.INSTANCE_CREATION_SUFFIX);
+                final WSDLEndpoint wsdlEndpoint =
+                    new WSDLEndpoint(endpoint, null, Settings.OPENTOSCA_CONTAINER_HOSTNAME,
+                        Settings.OPENTOSCA_CONTAINER_HOSTNAME, csarId, null, planId, null, null,
+                        new HashMap<String, String>());
+                this.endpointService.storeWSDLEndpoint(wsdlEndpoint);
             }
-            final String id = json.get("id").toString();
-            LOG.debug("Deployment has the following ID: {}", id);
-
-            // get all process definition IDs of the created deployment
-            final URIBuilder uriBuilder =
-                new URIBuilder(Settings.ENGINE_PLAN_BPMN_URL + this.PROCESS_DEFINITION_SUFFIX);
-            uriBuilder.setParameter("deploymentId", id);
-            final HttpGet getProcessDefinition = new HttpGet(uriBuilder.build());
-            response = httpClient.execute(getProcessDefinition);
-
-            final JSONArray processDefinitions =
-                (JSONArray) this.parser.parse(EntityUtils.toString(response.getEntity()));
-            if (processDefinitions.isEmpty()) {
-                LOG.error("No process definitions contained in created deployment!");
-                return false;
-            }
-
-            // get the first process definition and create corresponding endpoint
-            final JSONObject planProcessDefinition = (JSONObject) processDefinitions.get(0);
-            final String planDefinitionID = planProcessDefinition.get("id").toString();
-            final URI endpoint = new URI(Settings.ENGINE_PLAN_BPMN_URL + this.PROCESS_DEFINITION_SUFFIX + "/"
-                + planDefinitionID + this.INSTANCE_CREATION_SUFFIX);
-            final WSDLEndpoint wsdlEndpoint = new WSDLEndpoint(endpoint, null, Settings.OPENTOSCA_CONTAINER_HOSTNAME,
-                Settings.OPENTOSCA_CONTAINER_HOSTNAME, csarId, null, planId, null, null, new HashMap<String, String>());
-            this.endpointService.storeWSDLEndpoint(wsdlEndpoint);
-            return true;
+            return nonDeployedPlans;
         }
         catch (final ClientProtocolException e) {
             LOG.error("An ClientProtocolException occured while sending post to the engine:", e);
-            return false;
         }
         catch (final IOException e) {
             LOG.error("An IOException occured while sending post to the engine:", e);
-            return false;
         }
         catch (final org.json.simple.parser.ParseException e) {
             LOG.error("An ParseException occured while parsing response to Json:", e);
-            return false;
         }
         catch (final URISyntaxException e) {
             LOG.error("An URISyntaxException occured while creating URI to retrieve the process ID:", e);
-            return false;
         }
-        finally {
-            try {
-                httpClient.close();
+        return new ArrayList<>(planPaths.keySet());
+    }
+
+    /**
+     * @param planId the QName to identify the plan
+     * @return the prefix of the names of the resources belonging to the plan
+     */
+    private String getResourcePrefix(final QName planId) {
+        // the local part of a plan ID is a NCName, thus it can't contain the separator
+        return planId.getLocalPart() + "/";
+    }
+
+    /**
+     * Retrieves the IDs of all deployments with the given name
+     *
+     * @param deploymentName the name of the deployments
+     * @return the IDs of the deployments
+     */
+    private Set<String> getDeploymentIds(final String deploymentName)
+        throws IOException, URISyntaxException, org.json.simple.parser.ParseException {
+        final URIBuilder uriBuilder = new URIBuilder(Settings.ENGINE_PLAN_BPMN_URL + this.DEPLOYMENT_SUFFIX);
+        uriBuilder.setParameter("name", deploymentName);
+
+        final Set<String> deploymentIds = new HashSet<>();
+        for (final Object deployment : getJSONArray(new HttpGet(uriBuilder.build()))) {
+            deploymentIds.add(((JSONObject) deployment).get("id").toString());
+        }
+        return deploymentIds;
+    }
+
+    /**
+     * Retrieves the ID of the latest process definition deployed from the resources of the given plan
+     * with one of the given deployments
+     *
+     * @param planId the QName to identify the plan
+     * @param deploymentIds the IDs of the deployments
+     * @return the ID of the process definition or <code>null</code> if there is none
+     */
+    private String getProcessDefinitionId(final QName planId, final Set<String> deploymentIds)
+        throws IOException, URISyntaxException, org.json.simple.parser.ParseException {
+        final String resourcePrefix = getResourcePrefix(planId);
+        final URIBuilder uriBuilder = new URIBuilder(Settings.ENGINE_PLAN_BPMN_URL + this.PROCESS_DEFINITION_SUFFIX);
+        uriBuilder.setParameter("resourceNameLike", resourcePrefix + "%");
+        uriBuilder.setParameter("sortBy", "version");
+        uriBuilder.setParameter("sortOrder", "desc");
+
+        for (final Object definition : getJSONArray(new HttpGet(uriBuilder.build()))) {
+            final JSONObject processDefinition = (JSONObject) definition;
+            // '_' is a wildcard of the resourceNameLike parameter, thus check the results again
+            if (deploymentIds.contains(String.valueOf(processDefinition.get("deploymentId")))
+                && String.valueOf(processDefinition.get("resource")).startsWith(resourcePrefix)) {
+                return processDefinition.get("id").toString();
             }
-            catch (final IOException e) {
-                // ignore
+        }
+        return null;
+    }
+
+    private JSONArray getJSONArray(final HttpGet request)
+        throws IOException, org.json.simple.parser.ParseException {
+        try (CloseableHttpResponse response = HTTP_CLIENT.execute(request)) {
+            final String body = EntityUtils.toString(response.getEntity());
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new IOException("Request " + request.getURI() + " returned status code "
+                    + response.getStatusLine().getStatusCode());
             }
+            return (JSONArray) new JSONParser().parse(body);
         }
     }
 
@@ -244,32 +339,35 @@ public class CamundaPlanEnginePlugin implements IPlanEnginePlanRefPluginService
         // get endpoint related to the plan and extract process definition ID from URI
         final WSDLEndpoint endpoint =
             this.endpointService.getWSDLEndpointForPlanId(Settings.OPENTOSCA_CONTAINER_HOSTNAME, csarId, planId);
-        final String[] endpointParts = endpoint.getURI().toString().split("/");
-
-        if (endpointParts.length < 2) {
-            LOG.error("Unable to parse process definition ID out of endpoint: {}", endpoint.getURI());
+        final String processDefinitionID = parseProcessDefinitionId(endpoint);
+        if (Objects.isNull(processDefinitionID)) {
             return false;
         }
 
-        final String processDefinitionID = endpointParts[endpointParts.length - 2];
-        LOG.debug("Extracted following process definition ID: {}", processDefinitionID);
-
-        final CloseableHttpClient httpClient = HttpClients.createDefault();
         try {
             // get information for process definition to extract related deployment ID
             final HttpGet getProcessDefinition =
                 new HttpGet(Settings.ENGINE_PLAN_BPMN_URL + this.PROCESS_DEFINITION_SUFFIX + "/" + processDefinitionID);
-            final HttpResponse processDefinitionResponse = httpClient.execute(getProcessDefinition);
-
-            if (processDefinitionResponse.getStatusLine().getStatusCode() != 200) {
-                LOG.error("Request to retrieve process definition returned invalid status code: {}",
-                          processDefinitionResponse.getStatusLine().getStatusCode());
-                return false;
+            final String processDefinitionInformation;
+            try (CloseableHttpResponse processDefinitionResponse = HTTP_CLIENT.execute(getProcessDefinition)) {
+                final int statusCode = processDefinitionResponse.getStatusLine().getStatusCode();
+                processDefinitionInformation = EntityUtils.toString(processDefinitionResponse.getEntity());
+
+                if (statusCode == 404) {
+                    // the plans of a service template share their deployment, thus it may be deleted
+                    // with another plan already
+                    LOG.debug("Process definition {} is already deleted.", processDefinitionID);
+                    return true;
+                }
+                if (statusCode != 200) {
+                    LOG.error("Request to retrieve process definition returned invalid status code: {}",
+                              statusCode);
+                    return false;
+                }
             }
 
             // extract deployment ID from Json response
-            final String processDefinitionInformation = EntityUtils.toString(processDefinitionResponse.getEntity());
-            final JSONObject json = (JSONObject) this.parser.parse(processDefinitionInformation);
+            final JSONObject json = (JSONObject) new JSONParser().parse(processDefinitionInformation);
             if (!json.containsKey("deploymentId")) {
                 LOG.error("Deployment response contains no ID for further processing!");
                 return false;
@@ -282,16 +380,18 @@ public class CamundaPlanEnginePlugin implements IPlanEnginePlanRefPluginService
                 new URIBuilder(Settings.ENGINE_PLAN_BPMN_URL + this.DEPLOYMENT_SUFFIX + "/" + deploymentID);
             uriBuilder.setParameter("cascade", "true");
             final HttpDelete deleteDeployment = new HttpDelete(uriBuilder.build());
-            final HttpResponse deletionResponse = httpClient.execute(deleteDeployment);
-
-            // check success and return to caller
-            if (deletionResponse.getStatusLine().getStatusCode() == 204) {
-                LOG.debug("Deletion of plan deployment successful.");
-                return true;
-            } else {
-                LOG.error("Deletion response returned invalid status code: {}",
-                          deletionResponse.getStatusLine().getStatusCode());
-                return false;
+            try (CloseableHttpResponse deletionResponse = HTTP_CLIENT.execute(deleteDeployment)) {
+                EntityUtils.consume(deletionResponse.getEntity());
+
+                // check success and return to caller
+                if (deletionResponse.getStatusLine().getStatusCode() == 204) {
+                    LOG.debug("Deletion of plan deployment successful.");
+                    return true;
+                } else {
+                    LOG.error("Deletion response returned invalid status code: {}",
+                              deletionResponse.getStatusLine().getStatusCode());
+                    return false;
+                }
             }
         }
         catch (final IOException e) {
@@ -306,14 +406,58 @@ public class CamundaPlanEnginePlugin implements IPlanEnginePlanRefPluginService
             LOG.error("An URISyntaxException occured while building delete URL: {}", e);
             return false;
         }
-        finally {
-            try {
-                httpClient.close();
-            }
-            catch (final IOException e) {
-                // ignore
-            }
+    }
+
+    @Override
+    public boolean isPlanReferenceDeployed(final QName planId, final PlanModelReference planRef,
+                                           final CSARID csarId) {
+        if (Objects.isNull(this.endpointService)) {
+            LOG.error("EndpointService is null. Unable to retrieve endpoint of plan {}!", planId);
+            return false;
+        }
+
+        final WSDLEndpoint endpoint =
+            this.endpointService.getWSDLEndpointForPlanId(Settings.OPENTOSCA_CONTAINER_HOSTNAME, csarId, planId);
+        final String processDefinitionID = parseProcessDefinitionId(endpoint);
+        if (Objects.isNull(processDefinitionID)) {
+            return false;
+        }
+
+        final HttpGet getProcessDefinition =
+            new HttpGet(Settings.ENGINE_PLAN_BPMN_URL + this.PROCESS_DEFINITION_SUFFIX + "/" + processDefinitionID);
+        try (CloseableHttpResponse response = HTTP_CLIENT.execute(getProcessDefinition)) {
+            EntityUtils.consume(response.getEntity());
+            LOG.debug("Request to retrieve process definition {} returned status code: {}", processDefinitionID,
+                      response.getStatusLine().getStatusCode());
+            return response.getStatusLine().getStatusCode() == 200;
+        }
+        catch (final IOException e) {
+            LOG.error("An IOException occured while retrieving process definition {}: {}", processDefinitionID, e);
+            return false;
+        }
+    }
+
+    /**
+     * Extracts the ID of the process definition of a plan from its endpoint
+     *
+     * @param endpoint the endpoint of the plan
+     * @return the ID of the process definition or <code>null</code> if it can't be extracted
+     */
+    private String parseProcessDefinitionId(final WSDLEndpoint endpoint) {
+        if (Objects.isNull(endpoint) || Objects.isNull(endpoint.getURI())) {
+            LOG.error("No endpoint to extract the process definition ID from!");
+            return null;
         }
+
+        final String[] endpointParts = endpoint.getURI().toString().split("/");
+        if (endpointParts.length < 2) {
+            LOG.error("Unable to parse process definition ID out of endpoint: {}", endpoint.getURI());
+            return null;
+        }
+
+        final String processDefinitionID = endpointParts[endpointParts.length - 2];
+        LOG.debug("Extracted following process definition ID: {}", processDefinitionID);
+        return processDefinitionID;
     }
 
     @Override
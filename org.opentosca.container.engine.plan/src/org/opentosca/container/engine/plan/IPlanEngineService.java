@@ -73,4 +73,15 @@ public interface IPlanEngineService {
      */
     public boolean undeployPlan(TPlan plan, String targetNamspace, CSARID csarId);
 
+    /**
+     * Checks whether the given TPlan is still deployed on its engine
+     *
+     * @param plan The TPlan to check
+     * @param targetNamespace the namespace of the given plan element. It must come either from a
+     *        wrapping Plans element (targetNamespace attribute) or the ServiceTemplate itself
+     * @param csarId The id of CSAR file where this TPlan is contained
+     * @return true if the plan is deployed, false if it isn't or this can't be determined
+     */
+    public boolean isPlanDeployed(TPlan plan, String targetNamespace, CSARID csarId);
+
 }
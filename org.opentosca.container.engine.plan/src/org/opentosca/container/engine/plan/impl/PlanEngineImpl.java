@@ -1,10 +1,13 @@
 package org.opentosca.container.engine.plan.impl;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.xml.namespace.QName;
 
@@ -12,6 +15,7 @@ import org.opentosca.container.core.model.capability.provider.ProviderType;
 import org.opentosca.container.core.model.csar.id.CSARID;
 import org.opentosca.container.core.service.ICoreCapabilityService;
 import org.opentosca.container.core.tosca.model.TPlan;
+import org.opentosca.container.core.tosca.model.TPlan.PlanModelReference;
 import org.opentosca.container.core.tosca.model.TPlans;
 import org.opentosca.container.engine.plan.IPlanEngineService;
 import org.opentosca.container.engine.plan.plugin.IPlanEnginePlanModelPluginService;
@@ -117,6 +121,25 @@ public class PlanEngineImpl implements IPlanEngineService {
         return planCheck;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPlanDeployed(final TPlan plan, final String targetNamespace, final CSARID csarId) {
+        if (plan.getPlanModel() != null) {
+            // the model plugins can't tell whether a plan is deployed
+            return false;
+        }
+
+        final IPlanEnginePlanRefPluginService plugin = this.getRefPlugin(plan.getPlanLanguage());
+        if (plugin == null) {
+            PlanEngineImpl.LOG.warn("No PlanReferencePlugin available for plan {} ", plan.getId());
+            return false;
+        }
+        return plugin.isPlanReferenceDeployed(new QName(targetNamespace, plan.getId()),
+                                              plan.getPlanModelReference(), csarId);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -136,13 +159,27 @@ public class PlanEngineImpl implements IPlanEngineService {
             return p;
         }
 
+        // plans referencing their model are passed to their plugin together, thus the plugin can
+        // deploy them with one request to its engine
+        final Map<String, Map<QName, TPlan>> planRefsByLanguage = new LinkedHashMap<>();
         for (final TPlan plan : p) {
 
-            if (!this.deployPlan(plan, namespace, csarId)) {
-                nonDeployedPlans.add(plan);
+            if (plan.getPlanModel() != null) {
+                if (!this.deployPlan(plan, namespace, csarId)) {
+                    nonDeployedPlans.add(plan);
+                }
+            } else {
+                if (!planRefsByLanguage.containsKey(plan.getPlanLanguage())) {
+                    planRefsByLanguage.put(plan.getPlanLanguage(), new LinkedHashMap<QName, TPlan>());
+                }
+                planRefsByLanguage.get(plan.getPlanLanguage()).put(new QName(namespace, plan.getId()), plan);
             }
         }
 
+        for (final Entry<String, Map<QName, TPlan>> planRefs : planRefsByLanguage.entrySet()) {
+            nonDeployedPlans.addAll(this.deployPlanReferences(planRefs.getKey(), planRefs.getValue(), csarId));
+        }
+
         if (nonDeployedPlans.isEmpty()) {
             PlanEngineImpl.LOG.info("Deployment of plans was successful");
         } else {
@@ -154,6 +191,38 @@ public class PlanEngineImpl implements IPlanEngineService {
         return nonDeployedPlans;
     }
 
+    /**
+     * Deploys plans referencing their model with one call of the PlanReferencePlugin of their
+     * language.
+     *
+     * @param language the language of the plans
+     * @param plans the plans mapped by their identifiers
+     * @param csarId the identifier of the CSAR the plans belong to
+     * @return the plans which couldn't be deployed
+     */
+    private List<TPlan> deployPlanReferences(final String language, final Map<QName, TPlan> plans,
+                                             final CSARID csarId) {
+        PlanEngineImpl.LOG.info("Searching PlanReferencePlugin for {} plan(s) written in language {}", plans.size(),
+                                language);
+        final IPlanEnginePlanRefPluginService plugin = this.getRefPlugin(language);
+        if (plugin == null) {
+            PlanEngineImpl.LOG.warn("No PlanReferencePlugin available for plans {} ", plans.keySet());
+            return new ArrayList<>(plans.values());
+        }
+        PlanEngineImpl.LOG.info("Found PlanReferencePlugin for plans {} ", plans.keySet());
+
+        final Map<QName, PlanModelReference> planRefs = new LinkedHashMap<>();
+        for (final Entry<QName, TPlan> plan : plans.entrySet()) {
+            planRefs.put(plan.getKey(), plan.getValue().getPlanModelReference());
+        }
+
+        final List<TPlan> nonDeployedPlans = new ArrayList<>();
+        for (final QName planId : plugin.deployPlanReferences(planRefs, csarId)) {
+            nonDeployedPlans.add(plans.get(planId));
+        }
+        return nonDeployedPlans;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1,5 +1,10 @@
 package org.opentosca.container.engine.plan.plugin;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import javax.xml.namespace.QName;
 
 import org.opentosca.container.core.model.csar.id.CSARID;
@@ -35,6 +40,32 @@ public interface IPlanEnginePlanRefPluginService extends IPlanEnginePluginServic
      */
     public boolean deployPlanReference(QName planId, PlanModelReference planRef, CSARID csarId);
 
+    /**
+     * <p>
+     * Method allows deployment of several PlanModelReferences of the same CSAR at once, e.g., of all
+     * plans of a ServiceTemplate.
+     * </p>
+     * <p>
+     * By default the plans are deployed one after another, plugins able to deploy several plans
+     * with one request to their engine should override this method.
+     * </p>
+     *
+     * @param planRefs the PlanReference elements mapped by the identifiers of their plans
+     * @param csarId the identifier of the CSAR the PlanReference elements belong to
+     * @return the identifiers of the plans which couldn't be deployed, empty if deployment was
+     *         successful
+     */
+    public default List<QName> deployPlanReferences(final Map<QName, PlanModelReference> planRefs,
+                                                    final CSARID csarId) {
+        final List<QName> nonDeployedPlans = new ArrayList<>();
+        for (final Entry<QName, PlanModelReference> planRef : planRefs.entrySet()) {
+            if (!deployPlanReference(planRef.getKey(), planRef.getValue(), csarId)) {
+                nonDeployedPlans.add(planRef.getKey());
+            }
+        }
+        return nonDeployedPlans;
+    }
+
     /**
      * <p>
      * Method allows undeployment of PlanModelReferences.
@@ -53,4 +84,24 @@ public interface IPlanEnginePlanRefPluginService extends IPlanEnginePluginServic
      */
     public boolean undeployPlanReference(QName planId, PlanModelReference planRef, CSARID csarId);
 
+    /**
+     * <p>
+     * Method allows to check whether a PlanModelReference deployed before is still deployed on the
+     * engine, e.g., after a restart of the container.
+     * </p>
+     * <p>
+     * By default the deployment state is unknown and <code>false</code> is returned, thus the plan
+     * is deployed again.
+     * </p>
+     *
+     * @param planId the identifier of the plan
+     * @param planRef the PlanReference element under a Plan element of a ServiceTemplate Definition
+     * @param csarId the identifier of the CSAR the PlanReference element belongs to
+     * @return true if the plan is deployed on the engine, else false
+     */
+    public default boolean isPlanReferenceDeployed(final QName planId, final PlanModelReference planRef,
+                                                   final CSARID csarId) {
+        return false;
+    }
+
 }
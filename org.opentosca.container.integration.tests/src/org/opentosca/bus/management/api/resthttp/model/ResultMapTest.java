@@ -0,0 +1,59 @@
+package org.opentosca.bus.management.api.resthttp.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.opentosca.container.core.common.Settings;
+
+public class ResultMapTest {
+
+  @Test
+  public void testFurtherWaitersAreAnsweredAtOnce() throws Exception {
+    final String id = UUID.randomUUID().toString();
+    ResultMap.getStore().notFinished(id);
+
+    final int maxWaiters = Integer.parseInt(Settings.OPENTOSCA_BUS_RESULTS_MAX_WAITERS);
+    final ExecutorService executor = Executors.newFixedThreadPool(maxWaiters);
+    try {
+      final List<Future<Boolean>> waiting = new ArrayList<>();
+      for (int i = 0; i < maxWaiters; i++) {
+        waiting.add(executor.submit(() -> ResultMap.awaitFinished(id, 30)));
+      }
+      while (getWaiters().availablePermits() > 0) {
+        Thread.sleep(10);
+      }
+
+      final long start = System.nanoTime();
+      assertThat(ResultMap.awaitFinished(id, 30), is(false));
+      assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(1000L)));
+
+      ResultMap.getStore().finished(id);
+      for (final Future<Boolean> waiter : waiting) {
+        assertThat(waiter.get(10, TimeUnit.SECONDS), is(true));
+      }
+      assertThat(getWaiters().availablePermits(), is(maxWaiters));
+    }
+    finally {
+      executor.shutdownNow();
+      ResultMap.remove(id);
+    }
+  }
+
+  private static Semaphore getWaiters() throws Exception {
+    final Field waiters = ResultMap.class.getDeclaredField("waiters");
+    waiters.setAccessible(true);
+    return (Semaphore) waiters.get(null);
+  }
+}
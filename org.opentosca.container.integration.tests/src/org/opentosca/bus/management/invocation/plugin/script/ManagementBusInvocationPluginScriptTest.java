@@ -0,0 +1,153 @@
+package org.opentosca.bus.management.invocation.plugin.script;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the commands used for the artifact cache on target machines in a local shell and parses
+ * their output like the results of the operating system IA.
+ */
+public class ManagementBusInvocationPluginScriptTest {
+
+  private final ManagementBusInvocationPluginScript plugin = new ManagementBusInvocationPluginScript();
+
+  private Path cacheDir;
+
+  @Before
+  public void setUp() throws Exception {
+    this.cacheDir = Files.createTempDirectory("artifacts");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(this.cacheDir.toFile());
+  }
+
+  @Test
+  public void testCacheCheckReportsMissingArtifacts() throws Exception {
+    final Path cached = createFile(hash('a'), 100);
+
+    final String output = run(checkCommand(Arrays.asList(hash('a'), hash('b'), hash('c'))));
+
+    assertThat(missingArtifacts(output), containsInAnyOrder(hash('b'), hash('c')));
+    // cached artifacts are touched, so they are deleted last
+    assertThat(Files.getLastModifiedTime(cached).toMillis(),
+               is(greaterThan(System.currentTimeMillis() - 60 * 1000)));
+  }
+
+  @Test
+  public void testCacheCheckOfCompleteCache() throws Exception {
+    createFile(hash('a'), 0);
+    createFile(hash('b'), 0);
+
+    assertThat(missingArtifacts(run(checkCommand(Arrays.asList(hash('a'), hash('b'))))), is(empty()));
+  }
+
+  @Test
+  public void testParsesMissingArtifacts() throws Exception {
+    final String output = "OPENTOSCA_ARTIFACT_MISSING=" + hash('a') + "\r\n  OPENTOSCA_ARTIFACT_MISSING="
+        + hash('b') + "  \r\nsome output\nOPENTOSCA_ARTIFACT_CACHE_CHECKED\n";
+
+    assertThat(missingArtifacts(output), containsInAnyOrder(hash('a'), hash('b')));
+  }
+
+  @Test
+  public void testIncompleteCheckIsNoResult() throws Exception {
+    // e.g., the operating system IA failed before the check finished
+    assertThat(missingArtifacts("OPENTOSCA_ARTIFACT_MISSING=" + hash('a')), is(nullValue()));
+    assertThat(invoke("getMissingArtifacts", new Class<?>[] {Object.class}, "failed"), is(nullValue()));
+    assertThat(invoke("getMissingArtifacts", new Class<?>[] {Object.class}, new HashMap<String, Object>()),
+               is(nullValue()));
+  }
+
+  @Test
+  public void testCleanupDeletesLeastRecentlyUsedArtifacts() throws Exception {
+    createFile(hash('a'), 300);
+    createFile(hash('b'), 200);
+    createFile(hash('c'), 100);
+    createFile(hash('d'), 0);
+    createFile(hash('e') + ".1234", 120);
+    createFile(hash('f') + ".5678", 0);
+    createFile("other", 300);
+
+    run((String) invoke("createCacheCleanupCommand", new Class<?>[] {String.class, int.class},
+                        this.cacheDir.toString(), 2));
+
+    // the two most recently used artifacts, a temporary file still being written and other files
+    // are kept
+    try (Stream<Path> files = Files.list(this.cacheDir)) {
+      assertThat(files.map(file -> file.getFileName().toString()).collect(Collectors.toList()),
+                 is(containsInAnyOrder(hash('c'), hash('d'), hash('f') + ".5678", "other")));
+    }
+  }
+
+  private String checkCommand(final Collection<String> hashes) throws Exception {
+    return (String) invoke("createCacheCheckCommand", new Class<?>[] {String.class, Collection.class},
+                           this.cacheDir.toString(), hashes);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Set<String> missingArtifacts(final String output) throws Exception {
+    final HashMap<String, Object> result = new HashMap<>();
+    result.put("ScriptResult", output);
+    return (Set<String>) invoke("getMissingArtifacts", new Class<?>[] {Object.class}, result);
+  }
+
+  private Object invoke(final String name, final Class<?>[] parameterTypes, final Object... args) throws Exception {
+    final Method method = ManagementBusInvocationPluginScript.class.getDeclaredMethod(name, parameterTypes);
+    method.setAccessible(true);
+    return method.invoke(this.plugin, args);
+  }
+
+  /**
+   * Creates a file in the cache which was last modified the given number of minutes ago.
+   */
+  private Path createFile(final String name, final int minutesAgo) throws Exception {
+    final Path file = Files.write(this.cacheDir.resolve(name), name.getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - minutesAgo * 60 * 1000L));
+    return file;
+  }
+
+  private static String run(final String command) throws Exception {
+    final Process process = new ProcessBuilder("sh", "-c", command).redirectErrorStream(true).start();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream in = process.getInputStream()) {
+      final byte[] buffer = new byte[1024];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+    }
+    assertThat(command, process.waitFor(), is(0));
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static String hash(final char c) {
+    final char[] hash = new char[64];
+    Arrays.fill(hash, c);
+    return new String(hash);
+  }
+}
@@ -0,0 +1,132 @@
+package org.opentosca.bus.management.service.impl.collaboration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opentosca.container.core.next.model.NodeTemplateInstance;
+import org.opentosca.container.core.next.model.ServiceTemplateInstance;
+import org.opentosca.container.core.next.trigger.InstanceChangeListener;
+
+/**
+ * Runs the steps of {@link DeploymentDistributionDecisionMaker} which use the
+ * {@link InstanceDataMatchingCache} and notifies the {@link InstanceChangeListener} about the
+ * writes in between the way the JPA provider does.
+ */
+public class InstanceDataMatchingCacheTest {
+
+  private static final String LOCATION = "container-1";
+
+  private final InstanceChangeListener listener = new InstanceChangeListener();
+
+  private QName nodeType;
+
+  private NodeTemplateInstance infrastructure;
+
+  private NodeTemplateInstance application;
+
+  private Set<Entry<String, String>> properties;
+
+  @Before
+  public void createInstances() {
+    // a new type per test, as the versions and results are kept statically
+    this.nodeType = new QName("http://opentosca.org/test", "VM-" + UUID.randomUUID());
+
+    final ServiceTemplateInstance serviceTemplateInstance = new ServiceTemplateInstance();
+    this.infrastructure = new NodeTemplateInstance();
+    this.infrastructure.setTemplateType(this.nodeType);
+    this.infrastructure.setServiceTemplateInstance(serviceTemplateInstance);
+    this.application = new NodeTemplateInstance();
+    this.application.setTemplateType(new QName("http://opentosca.org/test", "Application"));
+    this.application.setServiceTemplateInstance(serviceTemplateInstance);
+
+    final Map<String, String> values = new HashMap<>();
+    values.put("IP", "10.0.0.1");
+    values.put("State", "Running");
+    this.properties = InstanceDataMatchingCache.getMatchingProperties(values);
+  }
+
+  @Test
+  public void testSecondLocalMatchingIsServedFromCache() throws Exception {
+    assertThat(InstanceDataMatchingCache.getResult(this.nodeType, this.properties), nullValue());
+
+    // first matching: read the version, match and store the managing Container
+    final long version = InstanceChangeListener.getVersion(this.nodeType);
+    InstanceDataMatchingCache.putResult(this.nodeType, this.properties, version, LOCATION);
+    storeManagingContainers();
+
+    // second identical matching
+    final InstanceDataMatchingCache.MatchingResult result =
+        InstanceDataMatchingCache.getResult(this.nodeType, this.properties);
+    assertThat(result, notNullValue());
+    assertThat(result.getDeploymentLocation(), is(LOCATION));
+    storeManagingContainers();
+    assertThat(InstanceDataMatchingCache.getResult(this.nodeType, this.properties), notNullValue());
+  }
+
+  @Test
+  public void testLocalResultIsDroppedWhenInstanceDataChanges() throws Exception {
+    InstanceDataMatchingCache.putResult(this.nodeType, this.properties,
+        InstanceChangeListener.getVersion(this.nodeType), LOCATION);
+
+    // e.g. the properties of the infrastructure instance are changed by a plan
+    notifyListener(this.infrastructure);
+    assertThat(InstanceDataMatchingCache.getResult(this.nodeType, this.properties), nullValue());
+  }
+
+  @Test
+  public void testLocalResultIsKeptWhenOtherServiceTemplateInstanceChanges() throws Exception {
+    InstanceDataMatchingCache.putResult(this.nodeType, this.properties,
+        InstanceChangeListener.getVersion(this.nodeType), null);
+
+    notifyListener(new ServiceTemplateInstance());
+    assertThat(InstanceDataMatchingCache.getResult(this.nodeType, this.properties), notNullValue());
+
+    notifyListener(this.infrastructure.getServiceTemplateInstance());
+    assertThat(InstanceDataMatchingCache.getResult(this.nodeType, this.properties), nullValue());
+  }
+
+  @Test
+  public void testRemoteResultIsKeptWhenInstanceDataChanges() throws Exception {
+    InstanceDataMatchingCache.putRemoteResult(this.nodeType, this.properties, LOCATION);
+
+    notifyListener(this.infrastructure);
+    notifyListener(this.infrastructure.getServiceTemplateInstance());
+    final InstanceDataMatchingCache.MatchingResult result =
+        InstanceDataMatchingCache.getResult(this.nodeType, this.properties);
+    assertThat(result, notNullValue());
+    assertThat(result.getDeploymentLocation(), is(LOCATION));
+  }
+
+  private void storeManagingContainers() {
+    this.infrastructure.setManagingContainer(LOCATION);
+    this.application.setManagingContainer(LOCATION);
+    InstanceChangeListener.runWithoutNodeTypeVersionChange(() -> {
+      notifyListener(this.application);
+      notifyListener(this.infrastructure);
+    });
+  }
+
+  private void notifyListener(final Object instance) {
+    try {
+      final Method callback = InstanceChangeListener.class.getDeclaredMethod("instanceChanged", Object.class);
+      callback.setAccessible(true);
+      callback.invoke(this.listener, instance);
+    }
+    catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,317 @@
+package org.opentosca.container.api.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opentosca.container.api.dto.NodeTemplateDTO;
+import org.opentosca.container.api.dto.RelationshipTemplateDTO;
+import org.opentosca.container.api.dto.request.InstanceDataBatchRequest;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.model.NodeTemplateInstance;
+import org.opentosca.container.core.next.model.NodeTemplateInstanceState;
+import org.opentosca.container.core.next.model.PersistenceObject;
+import org.opentosca.container.core.next.model.RelationshipTemplateInstance;
+import org.opentosca.container.core.next.model.RelationshipTemplateInstanceState;
+import org.opentosca.container.core.next.model.ServiceTemplateInstance;
+import org.opentosca.container.core.next.model.ServiceTemplateInstanceState;
+import org.opentosca.container.core.next.repository.NodeTemplateInstanceRepository;
+import org.opentosca.container.core.next.repository.RelationshipTemplateInstanceRepository;
+import org.opentosca.container.core.next.repository.ServiceTemplateInstanceRepository;
+import org.opentosca.container.core.next.xml.XMLPools;
+
+/**
+ * Applies instance data batches to the instances of a service template instance in the database of
+ * the container. The node and relationship templates are provided by mocked template services.
+ */
+public class InstanceServiceBatchTest {
+
+  private static final String CSAR = "batch.csar";
+
+  private static final String NAMESPACE = "http://opentosca.org/test";
+
+  private final InstanceService instanceService = new InstanceService();
+
+  private final ServiceTemplateInstanceRepository serviceTemplateInstanceRepository =
+      new ServiceTemplateInstanceRepository();
+
+  private final NodeTemplateInstanceRepository nodeTemplateInstanceRepository = new NodeTemplateInstanceRepository();
+
+  private final RelationshipTemplateInstanceRepository relationshipTemplateInstanceRepository =
+      new RelationshipTemplateInstanceRepository();
+
+  private QName serviceTemplate;
+
+  private ServiceTemplateInstance serviceTemplateInstance;
+
+  private NodeTemplateInstance existingNode;
+
+  @Before
+  public void createServiceTemplateInstance() throws Exception {
+    // a new service template per test, so the instances of other tests don't interfere
+    this.serviceTemplate = new QName(NAMESPACE + "/" + UUID.randomUUID(), "ServiceTemplate");
+
+    final NodeTemplateDTO nodeTemplate = new NodeTemplateDTO();
+    nodeTemplate.setId("Node");
+    nodeTemplate.setNodeType(new QName(NAMESPACE, "NodeType").toString());
+    final NodeTemplateService nodeTemplateService = mock(NodeTemplateService.class);
+    when(nodeTemplateService.getNodeTemplateById(eq(CSAR), any(QName.class), anyString())).thenReturn(nodeTemplate);
+    when(nodeTemplateService.getPropertiesOfNodeTemplate(eq(CSAR), any(QName.class), anyString()))
+        .thenAnswer(invocation -> XMLPools.parse(properties("template", "template")));
+    this.instanceService.setNodeTemplateService(nodeTemplateService);
+
+    final RelationshipTemplateDTO relationshipTemplate = new RelationshipTemplateDTO();
+    relationshipTemplate.setId("Relationship");
+    relationshipTemplate.setRelationshipType(new QName(NAMESPACE, "RelationshipType").toString());
+    final RelationshipTemplateService relationshipTemplateService = mock(RelationshipTemplateService.class);
+    when(relationshipTemplateService.getRelationshipTemplateById(eq(CSAR), any(QName.class), anyString()))
+        .thenReturn(relationshipTemplate);
+    this.instanceService.setRelationshipTemplateService(relationshipTemplateService);
+
+    this.serviceTemplateInstance = newServiceTemplateInstance();
+    this.existingNode = this.instanceService.createNewNodeTemplateInstance(CSAR, this.serviceTemplate.toString(),
+        "Node", this.serviceTemplateInstance.getId());
+    // a property which isn't part of the template, e.g. set by an operation
+    this.instanceService.setNodeTemplateInstanceProperties(this.serviceTemplate.toString(), "Node",
+        this.existingNode.getId(), XMLPools.parse("<Properties xmlns=\"" + NAMESPACE
+            + "\"><A>template</A><B>template</B><C>runtime</C></Properties>"));
+  }
+
+  @Test
+  public void testCreatesAndUpdatesInstancesInOneBatch() throws Exception {
+    final InstanceDataBatchRequest request = new InstanceDataBatchRequest();
+    final InstanceDataBatchRequest.NodeTemplateInstanceEntry update =
+        nodeEntry(this.existingNode.getId(), null, "STARTED", properties("a", null));
+    final InstanceDataBatchRequest.NodeTemplateInstanceEntry create = nodeEntry(null, "new", "CREATED", null);
+    request.getNodeTemplateInstances().add(update);
+    request.getNodeTemplateInstances().add(create);
+
+    final Map<InstanceDataBatchRequest.Entry, PersistenceObject> created = apply(request);
+
+    assertThat(created.keySet(), contains((InstanceDataBatchRequest.Entry) create));
+    final NodeTemplateInstance updated = this.instanceService.getNodeTemplateInstance(this.existingNode.getId());
+    assertThat(updated.getState(), is(NodeTemplateInstanceState.STARTED));
+    final NodeTemplateInstance createdNode =
+        this.instanceService.getNodeTemplateInstance(created.get(create).getId());
+    assertThat(createdNode.getState(), is(NodeTemplateInstanceState.CREATED));
+    assertThat(createdNode.getServiceTemplateInstance().getId(), is(this.serviceTemplateInstance.getId()));
+    assertThat(createdNode.getPropertiesAsMap().get("A"), is("template"));
+    assertThat(nodesOfServiceTemplate(), hasSize(2));
+  }
+
+  @Test
+  public void testMergesPropertiesIntoTheCurrentProperties() throws Exception {
+    final InstanceDataBatchRequest request = new InstanceDataBatchRequest();
+    request.getNodeTemplateInstances().add(nodeEntry(this.existingNode.getId(), null, null, properties("a", null)));
+
+    apply(request);
+
+    final Map<String, String> properties =
+        this.instanceService.getNodeTemplateInstance(this.existingNode.getId()).getPropertiesAsMap();
+    assertThat(properties.get("A"), is("a"));
+    assertThat(properties.get("B"), is("template"));
+    assertThat(properties.get("C"), is("runtime"));
+  }
+
+  @Test
+  public void testConnectsNewRelationshipsToNewNodesByRef() throws Exception {
+    final InstanceDataBatchRequest request = new InstanceDataBatchRequest();
+    request.getNodeTemplateInstances().add(nodeEntry(null, "source", null, null));
+    request.getNodeTemplateInstances().add(nodeEntry(null, "target", null, null));
+    final InstanceDataBatchRequest.RelationshipTemplateInstanceEntry toNew = relationshipEntry("source", "target");
+    final InstanceDataBatchRequest.RelationshipTemplateInstanceEntry toExisting = relationshipEntry("source", null);
+    toExisting.setTargetNodeTemplateInstanceId(this.existingNode.getId());
+    request.getRelationshipTemplateInstances().add(toNew);
+    request.getRelationshipTemplateInstances().add(toExisting);
+
+    final Map<InstanceDataBatchRequest.Entry, PersistenceObject> created = apply(request);
+
+    assertThat(created.size(), is(4));
+    final Long sourceId = created.get(request.getNodeTemplateInstances().get(0)).getId();
+    final Long targetId = created.get(request.getNodeTemplateInstances().get(1)).getId();
+    final RelationshipTemplateInstance newToNew = this.relationshipTemplateInstanceRepository
+        .find(created.get(toNew).getId()).get();
+    assertThat(newToNew.getSource().getId(), is(sourceId));
+    assertThat(newToNew.getTarget().getId(), is(targetId));
+    assertThat(newToNew.getState(), is(RelationshipTemplateInstanceState.CREATED));
+    final RelationshipTemplateInstance newToExisting = this.relationshipTemplateInstanceRepository
+        .find(created.get(toExisting).getId()).get();
+    assertThat(newToExisting.getSource().getId(), is(sourceId));
+    assertThat(newToExisting.getTarget().getId(), is(this.existingNode.getId()));
+  }
+
+  @Test
+  public void testStoresNothingIfAnEntryIsInvalid() throws Exception {
+    final InstanceDataBatchRequest request = new InstanceDataBatchRequest();
+    request.getNodeTemplateInstances().add(nodeEntry(this.existingNode.getId(), null, "STARTED", properties("a", "b")));
+    request.getNodeTemplateInstances().add(nodeEntry(null, "new", null, null));
+    // the source of the relationship doesn't exist
+    request.getRelationshipTemplateInstances().add(relationshipEntry("missing", "new"));
+
+    assertRejected(request);
+
+    final NodeTemplateInstance unchanged = this.instanceService.getNodeTemplateInstance(this.existingNode.getId());
+    assertThat(unchanged.getState(), is(NodeTemplateInstanceState.INITIAL));
+    assertThat(unchanged.getPropertiesAsMap().get("A"), is("template"));
+    assertThat(nodesOfServiceTemplate(), contains(this.existingNode.getId()));
+
+    // an illegal state of the last entry
+    final InstanceDataBatchRequest illegalState = new InstanceDataBatchRequest();
+    illegalState.getNodeTemplateInstances().add(nodeEntry(null, "new", null, null));
+    illegalState.getNodeTemplateInstances().add(nodeEntry(this.existingNode.getId(), null, "RUNNING", null));
+
+    assertRejected(illegalState);
+
+    assertThat(nodesOfServiceTemplate(), contains(this.existingNode.getId()));
+  }
+
+  @Test
+  public void testRejectsInstancesOfOtherServiceTemplateInstances() throws Exception {
+    final ServiceTemplateInstance otherServiceTemplateInstance = newServiceTemplateInstance();
+    final NodeTemplateInstance otherNode = this.instanceService.createNewNodeTemplateInstance(CSAR,
+        this.serviceTemplate.toString(), "Node", otherServiceTemplateInstance.getId());
+
+    final InstanceDataBatchRequest request = new InstanceDataBatchRequest();
+    request.getNodeTemplateInstances().add(nodeEntry(otherNode.getId(), null, "STARTED", null));
+
+    assertRejected(request);
+    assertThat(this.instanceService.getNodeTemplateInstance(otherNode.getId()).getState(),
+        is(NodeTemplateInstanceState.INITIAL));
+
+    // new relationships can't connect the instances of other service template instances
+    final InstanceDataBatchRequest toOtherNode = new InstanceDataBatchRequest();
+    toOtherNode.getRelationshipTemplateInstances().add(relationshipEntry(null, null));
+    toOtherNode.getRelationshipTemplateInstances().get(0).setSourceNodeTemplateInstanceId(this.existingNode.getId());
+    toOtherNode.getRelationshipTemplateInstances().get(0).setTargetNodeTemplateInstanceId(otherNode.getId());
+
+    assertRejected(toOtherNode);
+
+    // relationships of other service template instances can't be updated
+    final InstanceDataBatchRequest otherRelationship = new InstanceDataBatchRequest();
+    otherRelationship.getRelationshipTemplateInstances().add(relationshipEntry(null, null));
+    otherRelationship.getRelationshipTemplateInstances().get(0).setState(null);
+    otherRelationship.getRelationshipTemplateInstances().get(0).setSourceNodeTemplateInstanceId(otherNode.getId());
+    otherRelationship.getRelationshipTemplateInstances().get(0).setTargetNodeTemplateInstanceId(otherNode.getId());
+    final Map<InstanceDataBatchRequest.Entry, PersistenceObject> created = this.instanceService
+        .applyInstanceDataBatch(CSAR, this.serviceTemplate.toString(), otherServiceTemplateInstance.getId(),
+            otherRelationship);
+    final RelationshipTemplateInstance relationship =
+        (RelationshipTemplateInstance) created.values().iterator().next();
+
+    final InstanceDataBatchRequest update = new InstanceDataBatchRequest();
+    final InstanceDataBatchRequest.RelationshipTemplateInstanceEntry updateEntry =
+        new InstanceDataBatchRequest.RelationshipTemplateInstanceEntry();
+    updateEntry.setId(relationship.getId());
+    updateEntry.setState("CREATED");
+    update.getRelationshipTemplateInstances().add(updateEntry);
+
+    assertRejected(update);
+    assertThat(this.relationshipTemplateInstanceRepository.find(relationship.getId()).get().getState(),
+        is(RelationshipTemplateInstanceState.INITIAL));
+  }
+
+  @Test
+  public void testRejectsEmptyBatchesAndOtherServiceTemplates() throws Exception {
+    assertRejected(new InstanceDataBatchRequest());
+
+    final InstanceDataBatchRequest request = new InstanceDataBatchRequest();
+    request.getNodeTemplateInstances().add(nodeEntry(null, "new", null, null));
+    try {
+      this.instanceService.applyInstanceDataBatch(CSAR, new QName(NAMESPACE, "Other").toString(),
+          this.serviceTemplateInstance.getId(), request);
+      fail("The batch was applied to the instance of another service template");
+    } catch (final IllegalArgumentException e) {
+      assertThat(e.getMessage(), notNullValue());
+    }
+    assertThat(nodesOfServiceTemplate(), hasSize(1));
+  }
+
+  private Map<InstanceDataBatchRequest.Entry, PersistenceObject> apply(final InstanceDataBatchRequest request)
+      throws Exception {
+    return this.instanceService.applyInstanceDataBatch(CSAR, this.serviceTemplate.toString(),
+        this.serviceTemplateInstance.getId(), request);
+  }
+
+  private void assertRejected(final InstanceDataBatchRequest request) throws Exception {
+    try {
+      apply(request);
+      fail("The invalid batch was applied");
+    } catch (final IllegalArgumentException e) {
+      assertThat(e.getMessage(), notNullValue());
+    }
+  }
+
+  private ServiceTemplateInstance newServiceTemplateInstance() {
+    final ServiceTemplateInstance instance = new ServiceTemplateInstance();
+    instance.setCsarId(new CSARID(CSAR));
+    instance.setTemplateId(this.serviceTemplate);
+    instance.setState(ServiceTemplateInstanceState.CREATED);
+    this.serviceTemplateInstanceRepository.add(instance);
+    return instance;
+  }
+
+  private List<Long> nodesOfServiceTemplate() {
+    final List<Long> ids = new ArrayList<>();
+    for (final NodeTemplateInstance node : this.nodeTemplateInstanceRepository
+        .findByTemplateId(new QName(this.serviceTemplate.getNamespaceURI(), "Node"))) {
+      ids.add(node.getId());
+    }
+    return ids;
+  }
+
+  private static InstanceDataBatchRequest.NodeTemplateInstanceEntry nodeEntry(final Long id, final String ref,
+                                                                              final String state,
+                                                                              final String properties)
+      throws Exception {
+    final InstanceDataBatchRequest.NodeTemplateInstanceEntry entry =
+        new InstanceDataBatchRequest.NodeTemplateInstanceEntry();
+    entry.setId(id);
+    if (id == null) {
+      entry.setNodeTemplateId("Node");
+    }
+    entry.setRef(ref);
+    entry.setState(state);
+    if (properties != null) {
+      final InstanceDataBatchRequest.Properties batchProperties = new InstanceDataBatchRequest.Properties();
+      batchProperties.setElement(XMLPools.parse(properties).getDocumentElement());
+      entry.setProperties(batchProperties);
+    }
+    return entry;
+  }
+
+  private static InstanceDataBatchRequest.RelationshipTemplateInstanceEntry relationshipEntry(final String sourceRef,
+                                                                                              final String targetRef) {
+    final InstanceDataBatchRequest.RelationshipTemplateInstanceEntry entry =
+        new InstanceDataBatchRequest.RelationshipTemplateInstanceEntry();
+    entry.setRelationshipTemplateId("Relationship");
+    entry.setSourceRef(sourceRef);
+    entry.setTargetRef(targetRef);
+    entry.setState("CREATED");
+    return entry;
+  }
+
+  /**
+   * @return properties with the given values of A and B, a property is left out if its value is null
+   */
+  private static String properties(final String a, final String b) {
+    return "<Properties xmlns=\"" + NAMESPACE + "\">" + (a != null ? "<A>" + a + "</A>" : "")
+        + (b != null ? "<B>" + b + "</B>" : "") + "</Properties>";
+  }
+}
@@ -0,0 +1,133 @@
+package org.opentosca.container.api.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Writes archives with {@link TarOutputStream} and reads them back with the <tt>tar</tt> command.
+ */
+public class TarOutputStreamTest {
+
+  private static final long MODIFIED = 1500000000000L;
+
+  private File directory;
+
+  @Before
+  public void createDirectory() throws Exception {
+    this.directory = Files.createTempDirectory("tartest").toFile();
+  }
+
+  @After
+  public void deleteDirectory() throws Exception {
+    FileUtils.deleteDirectory(this.directory);
+  }
+
+  @Test
+  public void testArchiveIsReadableByTar() throws Exception {
+    Assume.assumeTrue("tar is not available", run(this.directory, "tar", "--version") == 0);
+
+    final Map<String, byte[]> files = new LinkedHashMap<>();
+    files.put("install.sh", "#!/bin/sh\necho installed\n".getBytes(StandardCharsets.UTF_8));
+    files.put("empty.txt", new byte[0]);
+    files.put("artifacts/block.bin", random(512, 1));
+    files.put("artifacts/" + repeat("very-long-directory-name/", 5) + "configure-the-application.sh",
+        random(1000, 2));
+    files.put("artifacts/" + repeat("x", 100), random(100000, 3));
+
+    final File archive = new File(this.directory, "artifacts.tar");
+    try (TarOutputStream tar = new TarOutputStream(new FileOutputStream(archive))) {
+      for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+        tar.putEntry(file.getKey(), file.getValue().length, MODIFIED);
+        tar.write(file.getValue());
+      }
+    }
+    assertThat(archive.length() % 512, is(0L));
+
+    final File extracted = new File(this.directory, "extracted");
+    extracted.mkdirs();
+    assertThat(run(extracted, "tar", "-xf", archive.getAbsolutePath()), is(0));
+
+    for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+      final File extractedFile = new File(extracted, file.getKey());
+      assertThat(file.getKey(), extractedFile.isFile());
+      assertThat(Arrays.equals(Files.readAllBytes(extractedFile.toPath()), file.getValue()), is(true));
+      assertThat(extractedFile.lastModified(), is(MODIFIED));
+    }
+    final List<String> listed = FileUtils.readLines(list(archive), StandardCharsets.UTF_8);
+    assertThat(listed, is(Arrays.asList(files.keySet().toArray(new String[0]))));
+  }
+
+  @Test
+  public void testEntriesMustBeWrittenCompletely() throws Exception {
+    final TarOutputStream tar = new TarOutputStream(new ByteArrayOutputStream());
+    tar.putEntry("a.txt", 2, MODIFIED);
+    try {
+      tar.write(new byte[3]);
+      fail("Writing beyond the entry size must fail");
+    }
+    catch (final IOException e) {
+      // expected
+    }
+    tar.write(1);
+    try {
+      tar.putEntry("b.txt", 0, MODIFIED);
+      fail("Starting an entry before the previous one is complete must fail");
+    }
+    catch (final IOException e) {
+      // expected
+    }
+  }
+
+  private File list(final File archive) throws Exception {
+    final File listing = new File(this.directory, "listing.txt");
+    final Process process =
+        new ProcessBuilder("tar", "-tf", archive.getAbsolutePath()).redirectOutput(listing).start();
+    assertThat(process.waitFor(30, TimeUnit.SECONDS), is(true));
+    assertThat(process.exitValue(), is(0));
+    return listing;
+  }
+
+  private static int run(final File workingDirectory, final String... command) {
+    try {
+      final Process process = new ProcessBuilder(command).directory(workingDirectory).start();
+      return process.waitFor(30, TimeUnit.SECONDS) ? process.exitValue() : -1;
+    }
+    catch (final IOException | InterruptedException e) {
+      return -1;
+    }
+  }
+
+  private static byte[] random(final int size, final long seed) {
+    final byte[] bytes = new byte[size];
+    new Random(seed).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static String repeat(final String value, final int count) {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append(value);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,184 @@
+package org.opentosca.container.core.common;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResultStoreTest {
+
+  private static final long TTL = 200;
+
+  private File spillDirectory;
+
+  @Before
+  public void createSpillDirectory() throws Exception {
+    this.spillDirectory = Files.createTempDirectory("resultstore").toFile();
+  }
+
+  @After
+  public void deleteSpillDirectory() throws Exception {
+    FileUtils.deleteDirectory(this.spillDirectory);
+  }
+
+  @Test
+  public void testFinishedRequestsExpire() throws Exception {
+    final ResultStore<String> store = new ResultStore<>("ttl", 10, TTL, null);
+    store.put("a", "result");
+    assertThat(store.get("a"), is("result"));
+
+    Thread.sleep(TTL * 2);
+    assertThat(store.containsID("a"), is(false));
+    assertThat(store.get("a"), nullValue());
+    assertThat(store.getExpiredCount(), is(1L));
+  }
+
+  @Test
+  public void testRunningRequestsDoNotExpire() throws Exception {
+    final ResultStore<String> store = new ResultStore<>("running", 10, TTL, null);
+    store.notFinished("a");
+    assertThat(store.getOutstandingCount(), is(1));
+
+    Thread.sleep(TTL * 2);
+    assertThat(store.containsID("a"), is(true));
+    assertThat(store.hasFinished("a"), is(false));
+    assertThat(store.getExpiredCount(), is(0L));
+
+    // the time to live counts from the completion
+    store.put("a", "result");
+    assertThat(store.getOutstandingCount(), is(0));
+    assertThat(store.hasResult("a"), is(true));
+    assertThat(store.get("a"), is("result"));
+    assertThat(store.getSize(), is(1));
+  }
+
+  @Test
+  public void testEvictsOldestEntriesWithoutSpillDirectory() {
+    final ResultStore<String> store = new ResultStore<>("evict", 2, 60000, null);
+    store.notFinished("a");
+    store.put("b", "b");
+    store.put("c", "c");
+
+    assertThat(store.containsID("a"), is(false));
+    assertThat(store.getOutstandingCount(), is(0));
+    assertThat(store.get("b"), is("b"));
+    assertThat(store.get("c"), is("c"));
+    assertThat(store.getEvictedCount(), is(1L));
+    assertThat(store.getSpilledCount(), is(0L));
+  }
+
+  @Test
+  public void testSpillsAndReloadsEvictedResults() {
+    final ResultStore<HashMap<String, String>> store =
+        new ResultStore<>("spill", 1, 60000, this.spillDirectory, HashMap.class, String.class);
+    store.put("a", result("a"));
+    store.put("b", result("b"));
+
+    assertThat(store.getSize(), is(1));
+    assertThat(store.getSpilledSize(), is(1));
+    assertThat(store.getSpilledCount(), is(1L));
+    assertThat(spillFile("spill", "a").isFile(), is(true));
+
+    // spilled results are read from disk
+    assertThat(store.hasFinished("a"), is(true));
+    assertThat(store.hasResult("a"), is(true));
+    assertThat(store.get("a"), is(result("a")));
+
+    // writing a spilled request loads it back into memory and spills the other one
+    store.finished("a");
+    assertThat(store.getSpilledSize(), is(1));
+    assertThat(spillFile("spill", "a").exists(), is(false));
+    assertThat(store.get("a"), is(result("a")));
+    assertThat(store.get("b"), is(result("b")));
+
+    store.remove("b");
+    assertThat(spillFile("spill", "b").exists(), is(false));
+    assertThat(store.containsID("b"), is(false));
+  }
+
+  @Test
+  public void testDoesNotSpillResultsOfOtherTypes() {
+    final ResultStore<Object> store = new ResultStore<>("types", 1, 60000, this.spillDirectory, String.class);
+    store.put("a", new ArrayList<>(Arrays.asList("a")));
+    store.put("b", "b");
+
+    assertThat(store.containsID("a"), is(false));
+    assertThat(store.getSpilledSize(), is(0));
+    assertThat(store.getEvictedCount(), is(1L));
+
+    store.put("c", "c");
+    assertThat(store.getSpilledSize(), is(1));
+    assertThat(store.get("b"), is("b"));
+  }
+
+  @Test
+  public void testReadsSpilledFilesOnlyAsSpillableTypes() throws Exception {
+    final ResultStore<HashMap<String, String>> store =
+        new ResultStore<>("read", 1, 60000, this.spillDirectory, HashMap.class, String.class);
+    store.put("a", result("a"));
+    store.put("b", result("b"));
+
+    // replace the spilled result by an object of another type
+    try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(spillFile("read", "a")))) {
+      out.writeObject(new ArrayList<>(Arrays.asList("a")));
+    }
+    assertThat(store.get("a"), nullValue());
+  }
+
+  @Test
+  public void testLogsCountersInTheStatisticsInterval() throws Exception {
+    final ResultStore<HashMap<String, String>> store =
+        new ResultStore<>("statistics", 1, TTL, TTL, this.spillDirectory, HashMap.class, String.class);
+    store.notFinished("a");
+    store.put("b", result("b"));
+    store.put("c", result("c"));
+    // spills c, which drops b from disk
+    store.put("d", result("d"));
+    assertThat(store.logStatisticsIfDue(), is(false));
+
+    Thread.sleep(TTL * 2);
+    assertThat(store.containsID("c"), is(false));
+    assertThat(store.logStatisticsIfDue(), is(true));
+    assertThat(store.logStatisticsIfDue(), is(false));
+    assertThat(store.toString(),
+               is("ResultStore[statistics: size=1, spilledSize=0, outstanding=0, expired=1, evicted=2, spilled=2]"));
+
+    // writes log the counters, too
+    Thread.sleep(TTL * 2);
+    store.notFinished("e");
+    assertThat(store.logStatisticsIfDue(), is(false));
+    assertThat(store.getOutstandingCount(), is(1));
+  }
+
+  @Test
+  public void testDoesNotLogCountersWithoutStatisticsInterval() throws Exception {
+    final ResultStore<String> store = new ResultStore<>("no-statistics", 10, TTL, null);
+    Thread.sleep(TTL * 2);
+    assertThat(store.logStatisticsIfDue(), is(false));
+  }
+
+  private File spillFile(final String storeName, final String id) {
+    return new File(new File(this.spillDirectory, storeName),
+        UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8)).toString() + ".result");
+  }
+
+  private static HashMap<String, String> result(final String value) {
+    final HashMap<String, String> result = new HashMap<>();
+    result.put("value", value);
+    return result;
+  }
+}
@@ -0,0 +1,117 @@
+package org.opentosca.container.core.engine;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.Test;
+import org.opentosca.container.core.next.xml.XMLPools;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Compares the elements selected by {@link PropertyMappingQuery} with the elements selected by
+ * evaluating the same query with the XPath implementation of the platform.
+ */
+public class PropertyMappingQueryTest {
+
+  private static final String PROPERTIES = "<Properties xmlns:ns=\"http://opentosca.org/test\">"
+      + "<Property>a</Property><ns:Property>b</ns:Property><Other>c</Other>"
+      + "<Group><Property>d</Property><X>e</X></Group><Property>f</Property><X/></Properties>";
+
+  private static final String NAMESPACED_PROPERTIES =
+      "<Properties xmlns=\"http://opentosca.org/test\"><Property>a</Property><X>b</X></Properties>";
+
+  @Test
+  public void testAbsoluteChildSteps() throws Exception {
+    assertSelects(PROPERTIES, "/Property", 0, true);
+    assertSelects(PROPERTIES, "/Properties", 1, true);
+    assertSelects(PROPERTIES, "/*", 1, true);
+    assertSelects(PROPERTIES, "/*/Property", 2, true);
+    assertSelects(PROPERTIES, "/Properties/Group/X", 1, true);
+  }
+
+  @Test
+  public void testRelativeChildSteps() throws Exception {
+    assertSelects(PROPERTIES, "Property", 2, true);
+    assertSelects(PROPERTIES, " Property ", 2, true);
+    assertSelects(PROPERTIES, "Group/Property", 1, true);
+    assertSelects(PROPERTIES, "*", 6, true);
+    assertSelects(PROPERTIES, "*/Property", 1, true);
+    assertSelects(PROPERTIES, "Missing", 0, true);
+  }
+
+  @Test
+  public void testLocalNameSteps() throws Exception {
+    assertSelects(PROPERTIES, "*[local-name()='X']", 1, true);
+    assertSelects(PROPERTIES, "*[local-name()=\"Property\"]", 3, true);
+    assertSelects(PROPERTIES, "*[ local-name() = 'Group' ]/X", 1, true);
+    assertSelects(PROPERTIES, "/*/*[local-name()='Property']", 3, true);
+  }
+
+  @Test
+  public void testNamespacedElements() throws Exception {
+    // names without prefix only select elements without namespace
+    assertSelects(NAMESPACED_PROPERTIES, "Property", 0, true);
+    assertSelects(NAMESPACED_PROPERTIES, "/Properties", 0, true);
+    assertSelects(NAMESPACED_PROPERTIES, "*[local-name()='Property']", 1, true);
+    assertSelects(NAMESPACED_PROPERTIES, "/*[local-name()='Properties']/*[local-name()='X']", 1, true);
+    assertSelects(NAMESPACED_PROPERTIES, "/*/*", 2, true);
+  }
+
+  @Test
+  public void testOtherQueriesAreEvaluatedAsXPath() throws Exception {
+    assertSelects(PROPERTIES, "Property[2]", 1, false);
+    assertSelects(PROPERTIES, "//Property", 3, false);
+    assertSelects(PROPERTIES, "Property[text()='f']", 1, false);
+    assertSelects(PROPERTIES, "descendant::X", 2, false);
+    assertSelects(PROPERTIES, "Other | X", 2, false);
+    // only elements are selected
+    assertSelects(PROPERTIES, "Group/Property/text()", 0, false);
+    assertSelects(NAMESPACED_PROPERTIES, "//*[local-name()='X']", 1, false);
+  }
+
+  @Test
+  public void testInvalidQuerySelectsNothing() throws Exception {
+    final Element properties = XMLPools.parse(PROPERTIES).getDocumentElement();
+    assertThat(new PropertyMappingQuery("Property[").selectElements(properties), is(empty()));
+  }
+
+  /**
+   * Asserts that the query selects the same elements as the XPath implementation of the platform
+   * when evaluated on the document element of the properties.
+   */
+  private static void assertSelects(final String xml, final String query, final int count,
+                                    final boolean walked) throws Exception {
+    final Element properties = XMLPools.parse(xml).getDocumentElement();
+    final PropertyMappingQuery propertyMappingQuery = new PropertyMappingQuery(query);
+    final List<Element> selected = propertyMappingQuery.selectElements(properties);
+
+    final List<Element> expected = new ArrayList<>();
+    final NodeList nodes =
+        (NodeList) XPathFactory.newInstance().newXPath().evaluate(query, properties, XPathConstants.NODESET);
+    for (int index = 0; index < nodes.getLength(); index++) {
+      if (nodes.item(index).getNodeType() == Node.ELEMENT_NODE) {
+        expected.add((Element) nodes.item(index));
+      }
+    }
+
+    assertThat(query, selected, is(expected));
+    assertThat(query, selected.size(), is(count));
+    assertThat(query, isWalked(propertyMappingQuery), is(walked));
+  }
+
+  private static boolean isWalked(final PropertyMappingQuery query) throws Exception {
+    final Field steps = PropertyMappingQuery.class.getDeclaredField("steps");
+    steps.setAccessible(true);
+    return steps.get(query) != null;
+  }
+}
@@ -0,0 +1,163 @@
+package org.opentosca.container.core.impl.service.internal.file;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jclouds.apis.ApiMetadata;
+import org.jclouds.blobstore.TransientApiMetadata;
+import org.jclouds.osgi.ApiRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.service.internal.AbstractJCloudsFileStorageProvider;
+import org.opentosca.container.core.service.internal.ICoreInternalFileStorageProviderService;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * Stores the files of a CSAR with {@link StorageProviderManager#storeFilesOfCSAR(CSARID, Map, String)}
+ * on the in-memory blobstore of jclouds and reads them back.
+ */
+public class StorageProviderManagerTest {
+
+  private static final String STORAGE_PROVIDER_ID = "transient";
+
+  // at least the default org.opentosca.container.storage.upload.multipart threshold
+  private static final int LARGE_FILE_SIZE = 32 * 1024 * 1024 + 1;
+
+  private final StorageProviderManager manager = new StorageProviderManager();
+
+  private ServiceRegistration<ICoreInternalFileStorageProviderService> registration;
+
+  private File directory;
+
+  @Before
+  public void registerStorageProvider() throws Exception {
+    this.directory = Files.createTempDirectory("storagetest").toFile();
+
+    final TransientStorageProvider storageProvider = new TransientStorageProvider();
+    // what the jclouds bundle listener does once the jclouds-blobstore bundle is active
+    final ApiMetadata transientApi = new TransientApiMetadata();
+    ApiRegistry.registerApi(transientApi);
+    storageProvider.added(transientApi);
+
+    // the storage providers of the manager are bound by the OSGi framework
+    this.registration = FrameworkUtil.getBundle(StorageProviderManagerTest.class).getBundleContext()
+        .registerService(ICoreInternalFileStorageProviderService.class, storageProvider, null);
+    for (int i = 0; i < 50 && !this.manager.getStorageProviders().contains(STORAGE_PROVIDER_ID); i++) {
+      Thread.sleep(100);
+    }
+    assertThat(this.manager.isStorageProviderReady(STORAGE_PROVIDER_ID), is(true));
+  }
+
+  @After
+  public void unregisterStorageProvider() throws Exception {
+    this.registration.unregister();
+    FileUtils.deleteDirectory(this.directory);
+  }
+
+  @Test
+  public void testStoreFilesOfCSAR() throws Exception {
+    final CSARID csarID = new CSARID("storage-test-" + UUID.randomUUID() + ".csar");
+
+    final Map<Path, Path> files = new LinkedHashMap<>();
+    files.put(write("TOSCA-Metadata/TOSCA.meta", "TOSCA-Meta-Version: 1.0\nCSAR-Version: 1.0\n".getBytes()),
+        Paths.get("TOSCA-Metadata", "TOSCA.meta"));
+    files.put(write("Definitions/ServiceTemplate.tosca", "<Definitions/>".getBytes()),
+        Paths.get("Definitions", "ServiceTemplate.tosca"));
+    files.put(write("empty.txt", new byte[0]), Paths.get("empty.txt"));
+    for (int i = 0; i < 10; i++) {
+      files.put(write("IA/artifact" + i + ".war", random(100000 + i, i)), Paths.get("IA", "artifact" + i + ".war"));
+    }
+    files.put(write("IA/large.zip", random(LARGE_FILE_SIZE, 42)), Paths.get("IA", "large.zip"));
+
+    this.manager.storeFilesOfCSAR(csarID, files, STORAGE_PROVIDER_ID);
+
+    for (final Map.Entry<Path, Path> file : files.entrySet()) {
+      final Path fileRelToCSARRoot = file.getValue();
+      assertThat(fileRelToCSARRoot.toString(),
+          this.manager.getFileOfCSARSize(csarID, fileRelToCSARRoot, STORAGE_PROVIDER_ID),
+          is(Files.size(file.getKey())));
+      try (InputStream expected = Files.newInputStream(file.getKey());
+           InputStream stored =
+               this.manager.getFileOfCSARAsInputStream(csarID, fileRelToCSARRoot, STORAGE_PROVIDER_ID)) {
+        assertThat(fileRelToCSARRoot.toString(), IOUtils.contentEquals(expected, stored), is(true));
+      }
+    }
+  }
+
+  @Test
+  public void testStoresFilesAgainAfterShutdown() throws Exception {
+    final CSARID csarID = new CSARID("storage-test-" + UUID.randomUUID() + ".csar");
+    final Path before = write("before.txt", "before".getBytes());
+    final Path after = write("after.txt", "after".getBytes());
+
+    this.manager.storeFilesOfCSAR(csarID, Collections.singletonMap(before, Paths.get("before.txt")),
+        STORAGE_PROVIDER_ID);
+    StorageProviderManager.shutdown();
+    this.manager.storeFilesOfCSAR(csarID, Collections.singletonMap(after, Paths.get("after.txt")),
+        STORAGE_PROVIDER_ID);
+
+    assertThat(this.manager.getFileOfCSARSize(csarID, Paths.get("before.txt"), STORAGE_PROVIDER_ID),
+        is(Files.size(before)));
+    assertThat(this.manager.getFileOfCSARSize(csarID, Paths.get("after.txt"), STORAGE_PROVIDER_ID),
+        is(Files.size(after)));
+  }
+
+  private Path write(final String relativePath, final byte[] content) throws Exception {
+    final Path file = this.directory.toPath().resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.write(file, content);
+  }
+
+  private static byte[] random(final int size, final long seed) {
+    final byte[] bytes = new byte[size];
+    new Random(seed).nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * Storage provider for the in-memory blobstore of jclouds.
+   */
+  private static class TransientStorageProvider extends AbstractJCloudsFileStorageProvider {
+
+    @Override
+    public String getStorageProviderID() {
+      return STORAGE_PROVIDER_ID;
+    }
+
+    @Override
+    public String getStorageProviderName() {
+      return "Transient BlobStore";
+    }
+
+    @Override
+    public boolean needsCredentials() {
+      return false;
+    }
+
+    @Override
+    public String getCredentialsIdentityName() {
+      return null;
+    }
+
+    @Override
+    public String getCredentialsKeyName() {
+      return null;
+    }
+  }
+}
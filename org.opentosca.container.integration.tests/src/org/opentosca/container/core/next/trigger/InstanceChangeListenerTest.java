@@ -0,0 +1,147 @@
+package org.opentosca.container.core.next.trigger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.xml.namespace.QName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.next.jpa.EntityManagerProvider;
+import org.opentosca.container.core.next.model.NodeTemplateInstance;
+import org.opentosca.container.core.next.model.NodeTemplateInstanceState;
+import org.opentosca.container.core.next.model.ServiceTemplateInstance;
+import org.opentosca.container.core.next.model.ServiceTemplateInstanceState;
+import org.opentosca.container.core.next.repository.ServiceTemplateInstanceRepository;
+
+/**
+ * Writes instances to the database of the container and checks which versions of the
+ * {@link InstanceChangeListener} change at flush and at commit.
+ */
+public class InstanceChangeListenerTest {
+
+  private static final String NAMESPACE = "http://opentosca.org/test";
+
+  private final ServiceTemplateInstanceRepository serviceTemplateInstanceRepository =
+      new ServiceTemplateInstanceRepository();
+
+  private QName nodeType;
+
+  private ServiceTemplateInstance serviceTemplateInstance;
+
+  private ServiceTemplateInstance otherServiceTemplateInstance;
+
+  @Before
+  public void createServiceTemplateInstances() {
+    // a new node type per test, so the instances of other tests don't interfere
+    this.nodeType = new QName(NAMESPACE, "NodeType-" + UUID.randomUUID());
+    this.serviceTemplateInstance = newServiceTemplateInstance();
+    this.otherServiceTemplateInstance = newServiceTemplateInstance();
+    while (sameVersion(this.serviceTemplateInstance, this.otherServiceTemplateInstance)) {
+      this.otherServiceTemplateInstance = newServiceTemplateInstance();
+    }
+  }
+
+  @Test
+  public void testVersionsChangeAgainAtCommit() {
+    final EntityManager em = EntityManagerProvider.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      em.persist(newNodeTemplateInstance(em));
+      em.flush();
+
+      // other threads still read the previously committed instances
+      final long flushedVersion = InstanceChangeListener.getVersion();
+      final long flushedNodeTypeVersion = InstanceChangeListener.getVersion(this.nodeType);
+      final long flushedServiceTemplateInstanceVersion = serviceTemplateInstanceVersion();
+      assertThat(flushedNodeTypeVersion, greaterThan(0L));
+
+      em.getTransaction().commit();
+
+      assertThat(InstanceChangeListener.getVersion(), greaterThan(flushedVersion));
+      assertThat(InstanceChangeListener.getVersion(this.nodeType), greaterThan(flushedNodeTypeVersion));
+      assertThat(serviceTemplateInstanceVersion(), greaterThan(flushedServiceTemplateInstanceVersion));
+    }
+    finally {
+      if (em.getTransaction().isActive()) {
+        em.getTransaction().rollback();
+      }
+      em.close();
+    }
+  }
+
+  @Test
+  public void testRolledBackChangesAreNotCommitted() {
+    final EntityManager em = EntityManagerProvider.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      em.persist(newNodeTemplateInstance(em));
+      em.flush();
+      em.getTransaction().rollback();
+
+      // the next commit of the thread doesn't change the versions of the rolled back writes
+      final long version = InstanceChangeListener.getVersion(this.nodeType);
+      newServiceTemplateInstance();
+      assertThat(InstanceChangeListener.getVersion(this.nodeType), is(version));
+    }
+    finally {
+      if (em.getTransaction().isActive()) {
+        em.getTransaction().rollback();
+      }
+      em.close();
+    }
+  }
+
+  @Test
+  public void testOnlyTheWrittenServiceTemplateInstanceChanges() {
+    final long otherVersion = InstanceChangeListener.getServiceTemplateInstanceVersion(
+        this.otherServiceTemplateInstance.getId());
+    final long version = serviceTemplateInstanceVersion();
+
+    final EntityManager em = EntityManagerProvider.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      em.persist(newNodeTemplateInstance(em));
+      em.getTransaction().commit();
+    }
+    finally {
+      em.close();
+    }
+
+    assertThat(serviceTemplateInstanceVersion(), greaterThan(version));
+    assertThat(InstanceChangeListener.getServiceTemplateInstanceVersion(this.otherServiceTemplateInstance.getId()),
+        is(otherVersion));
+  }
+
+  private long serviceTemplateInstanceVersion() {
+    return InstanceChangeListener.getServiceTemplateInstanceVersion(this.serviceTemplateInstance.getId());
+  }
+
+  private NodeTemplateInstance newNodeTemplateInstance(final EntityManager em) {
+    final NodeTemplateInstance instance = new NodeTemplateInstance();
+    instance.setTemplateId(new QName(NAMESPACE, "Node"));
+    instance.setTemplateType(this.nodeType);
+    instance.setState(NodeTemplateInstanceState.CREATED);
+    instance.setServiceTemplateInstance(em.find(ServiceTemplateInstance.class, this.serviceTemplateInstance.getId()));
+    return instance;
+  }
+
+  private ServiceTemplateInstance newServiceTemplateInstance() {
+    final ServiceTemplateInstance instance = new ServiceTemplateInstance();
+    instance.setCsarId(new CSARID("listener.csar"));
+    instance.setTemplateId(new QName(NAMESPACE, "ServiceTemplate"));
+    instance.setState(ServiceTemplateInstanceState.CREATED);
+    this.serviceTemplateInstanceRepository.add(instance);
+    return instance;
+  }
+
+  private static boolean sameVersion(final ServiceTemplateInstance a, final ServiceTemplateInstance b) {
+    // the service template instances share their versions with a few others
+    return Math.floorMod(a.getId().hashCode(), 1024) == Math.floorMod(b.getId().hashCode(), 1024);
+  }
+}
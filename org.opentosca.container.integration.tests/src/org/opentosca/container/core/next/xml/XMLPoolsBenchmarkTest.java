@@ -0,0 +1,149 @@
+package org.opentosca.container.core.next.xml;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.opentosca.container.core.tosca.model.TPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Compares parsing, serializing, querying and marshalling properties documents with factories and
+ * JAXBContexts created per operation with the shared instances of {@link XMLPools}.
+ */
+public class XMLPoolsBenchmarkTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(XMLPoolsBenchmarkTest.class);
+
+  private static final int OPERATIONS = 200;
+
+  // the timing comparison takes about half a minute and only runs on request
+  private static final String BENCHMARK_PROPERTY = "org.opentosca.container.benchmark";
+
+  private static final String QUERY = "/*[local-name()='Properties']/*[local-name()='IP']";
+
+  @Test
+  public void testPooledInstancesAreReusedPerThread() throws Exception {
+    assertThat(XMLPools.getDocumentBuilder(), sameInstance(XMLPools.getDocumentBuilder()));
+    assertThat(XMLPools.getTransformer(), sameInstance(XMLPools.getTransformer()));
+    assertThat(XMLPools.getXPath(), sameInstance(XMLPools.getXPath()));
+    assertThat(XMLPools.getJAXBContext(TPolicy.class), sameInstance(XMLPools.getJAXBContext(TPolicy.class)));
+    assertThat(XMLPools.getDocumentBuilder().isNamespaceAware(), is(true));
+  }
+
+  @Test
+  public void testPooledOperationsEqualPerOperationFactories() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      assertThat(pooled(i), is(perOperation(i)));
+    }
+  }
+
+  @Test
+  public void testOperationsForManyDocuments() throws Exception {
+    Assume.assumeTrue("Benchmarks are enabled with -D" + BENCHMARK_PROPERTY + "=true",
+        Boolean.getBoolean(BENCHMARK_PROPERTY));
+
+    // warm up
+    runPerOperation();
+    runPooled();
+
+    long start = System.nanoTime();
+    final List<String> perOperationResults = runPerOperation();
+    final long perOperationDuration = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final List<String> pooledResults = runPooled();
+    final long pooledDuration = System.nanoTime() - start;
+
+    LOG.info("Ran {} parse/serialize/query/marshal cycles in {} ms with new factories and in {} ms with XMLPools (x{})",
+        OPERATIONS, perOperationDuration / 1000000, pooledDuration / 1000000,
+        String.format("%.2f", (double) perOperationDuration / pooledDuration));
+
+    assertThat(pooledResults, is(perOperationResults));
+  }
+
+  private List<String> runPerOperation() throws Exception {
+    final List<String> results = new ArrayList<>();
+    for (int i = 0; i < OPERATIONS; i++) {
+      results.add(perOperation(i));
+    }
+    return results;
+  }
+
+  private List<String> runPooled() throws Exception {
+    final List<String> results = new ArrayList<>();
+    for (int i = 0; i < OPERATIONS; i++) {
+      results.add(pooled(i));
+    }
+    return results;
+  }
+
+  private static String perOperation(final int index) throws Exception {
+    // the way the call sites worked before: new factories and contexts for every operation
+    final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+    dbf.setNamespaceAware(true);
+    final Document doc = dbf.newDocumentBuilder().parse(new InputSource(new StringReader(properties(index))));
+
+    final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+    final StringWriter serialized = new StringWriter();
+    transformer.transform(new DOMSource(doc), new StreamResult(serialized));
+
+    final NodeList selected =
+        (NodeList) XPathFactory.newInstance().newXPath().evaluate(QUERY, doc, XPathConstants.NODESET);
+
+    final Marshaller marshaller = JAXBContext.newInstance(TPolicy.class).createMarshaller();
+    final StringWriter marshalled = new StringWriter();
+    marshaller.marshal(policy(index), marshalled);
+
+    return serialized + "|" + selected.item(0).getTextContent() + "|" + marshalled;
+  }
+
+  private static String pooled(final int index) throws Exception {
+    final Document doc = XMLPools.parse(properties(index));
+
+    final StringWriter serialized = new StringWriter();
+    XMLPools.getTransformer().transform(new DOMSource(doc), new StreamResult(serialized));
+
+    final NodeList selected = (NodeList) XMLPools.getXPath().evaluate(QUERY, doc, XPathConstants.NODESET);
+
+    final Marshaller marshaller = XMLPools.getJAXBContext(TPolicy.class).createMarshaller();
+    final StringWriter marshalled = new StringWriter();
+    marshaller.marshal(policy(index), marshalled);
+
+    return serialized + "|" + selected.item(0).getTextContent() + "|" + marshalled;
+  }
+
+  private static String properties(final int index) {
+    return "<Properties xmlns=\"http://opentosca.org/benchmark\"><IP>10.0.0." + index % 256 + "</IP><State>started"
+        + index + "</State><!-- instance " + index + " --></Properties>";
+  }
+
+  private static TPolicy policy(final int index) {
+    final TPolicy policy = new TPolicy();
+    policy.setName("policy" + index);
+    policy.setPolicyType(new QName("http://opentosca.org/benchmark", "Type" + index % 10));
+    return policy;
+  }
+}
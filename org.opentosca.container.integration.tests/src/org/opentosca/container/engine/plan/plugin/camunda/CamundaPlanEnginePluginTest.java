@@ -0,0 +1,522 @@
+package org.opentosca.container.engine.plan.plugin.camunda;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.namespace.QName;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.container.core.engine.IToscaEngineService;
+import org.opentosca.container.core.model.AbstractArtifact;
+import org.opentosca.container.core.model.AbstractFile;
+import org.opentosca.container.core.model.csar.CSARContent;
+import org.opentosca.container.core.model.csar.id.CSARID;
+import org.opentosca.container.core.model.endpoint.wsdl.WSDLEndpoint;
+import org.opentosca.container.core.service.ICoreEndpointService;
+import org.opentosca.container.core.service.ICoreFileService;
+import org.opentosca.container.core.service.IFileAccessService;
+import org.opentosca.container.core.tosca.model.TPlan.PlanModelReference;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Deploys and undeploys plans with {@link CamundaPlanEnginePlugin} on a stub of the REST API of the
+ * Camunda BPMN engine listening at the configured engine URL.
+ */
+public class CamundaPlanEnginePluginTest {
+
+  private static final String NAMESPACE = "http://opentosca.org/plans/camunda";
+
+  // '_' is a wildcard of the resourceNameLike parameter, thus the resources of the second plan match
+  // the resource prefix of the first plan
+  private static final QName BUILD_PLAN = new QName(NAMESPACE, "build_plan");
+  private static final QName OTHER_PLAN = new QName(NAMESPACE, "buildXplan");
+
+  private static final CamundaStub CAMUNDA = new CamundaStub();
+
+  private static HttpServer server;
+
+  private final CSARID csarId = new CSARID("camunda-test-" + UUID.randomUUID() + ".csar");
+
+  private final Map<QName, WSDLEndpoint> endpoints = new HashMap<>();
+
+  private final CamundaPlanEnginePlugin plugin = new CamundaPlanEnginePlugin();
+
+  private File directory;
+
+  @BeforeClass
+  public static void startCamunda() throws Exception {
+    // one server for all tests, the plugin keeps the connections to the engine open
+    final URI engineUrl = URI.create(Settings.ENGINE_PLAN_BPMN_URL);
+    try {
+      server = HttpServer.create(
+          new InetSocketAddress(engineUrl.getHost(), engineUrl.getPort() == -1 ? 80 : engineUrl.getPort()), 0);
+    }
+    catch (final BindException e) {
+      Assume.assumeNoException("The port of the configured Camunda engine is in use", e);
+    }
+    server.createContext(engineUrl.getPath(), CAMUNDA);
+    server.start();
+  }
+
+  @AfterClass
+  public static void stopCamunda() {
+    if (server != null) {
+      server.stop(0);
+    }
+  }
+
+  @Before
+  public void createPlugin() throws Exception {
+    CAMUNDA.reset(URI.create(Settings.ENGINE_PLAN_BPMN_URL).getPath());
+    this.directory = Files.createTempDirectory("camundatest").toFile();
+
+    final CSARContent csar = mock(CSARContent.class);
+    final ICoreFileService fileService = mock(ICoreFileService.class);
+    when(fileService.getCSAR(this.csarId)).thenReturn(csar);
+
+    final IToscaEngineService toscaEngine = mock(IToscaEngineService.class);
+    final IFileAccessService fileAccessService = mock(IFileAccessService.class);
+    when(fileAccessService.getTemp()).thenReturn(this.directory);
+    for (final QName planId : Arrays.asList(BUILD_PLAN, OTHER_PLAN)) {
+      // the plan files are only unzipped by the mocked file access service
+      final File zip = new File(this.directory, planId.getLocalPart() + ".zip");
+      final AbstractFile planFile = mock(AbstractFile.class);
+      when(planFile.getName()).thenReturn(zip.getName());
+      when(planFile.getFile()).thenReturn(zip.toPath());
+      final AbstractArtifact planReference = mock(AbstractArtifact.class);
+      when(planReference.isFileArtifact()).thenReturn(true);
+      when(planReference.getFile("")).thenReturn(planFile);
+      when(toscaEngine.getPlanModelReferenceAbstractArtifact(csar, planId)).thenReturn(planReference);
+
+      final List<File> contents = Arrays.asList(writePlanFile(planId, planId.getLocalPart() + ".bpmn", 1),
+          writePlanFile(planId, "form.html", 1));
+      when(fileAccessService.unzip(eq(zip), any(File.class))).thenReturn(contents);
+    }
+
+    final ICoreEndpointService endpointService = mock(ICoreEndpointService.class);
+    doAnswer(invocation -> {
+      final WSDLEndpoint endpoint = (WSDLEndpoint) invocation.getArguments()[0];
+      this.endpoints.put(endpoint.getPlanId(), endpoint);
+      return null;
+    }).when(endpointService).storeWSDLEndpoint(any(WSDLEndpoint.class));
+    when(endpointService.getWSDLEndpointForPlanId(anyString(), eq(this.csarId), any(QName.class)))
+        .thenAnswer(invocation -> this.endpoints.get(invocation.getArguments()[2]));
+
+    this.plugin.registerFileService(fileService);
+    this.plugin.registerToscaEngine(toscaEngine);
+    this.plugin.registerFileAccessService(fileAccessService);
+    this.plugin.registerEndpointService(endpointService);
+  }
+
+  @After
+  public void deleteDirectory() throws Exception {
+    FileUtils.deleteDirectory(this.directory);
+  }
+
+  @Test
+  public void testDeploysAllPlansOfANamespaceWithOneRequest() throws Exception {
+    assertThat(this.plugin.deployPlanReferences(plans(), this.csarId), is(empty()));
+
+    assertThat(CAMUNDA.deploymentRequests.size(), is(1));
+    final Map<String, String> request = CAMUNDA.deploymentRequests.get(0);
+    assertThat(request.keySet(),
+        containsInAnyOrder("deployment-name", "enable-duplicate-filtering", "deploy-changed-only",
+            "build_plan/build_plan.bpmn", "build_plan/form.html", "buildXplan/buildXplan.bpmn",
+            "buildXplan/form.html"));
+    assertThat(request.get("deployment-name"), is(this.csarId + "#" + NAMESPACE));
+    assertThat(request.get("enable-duplicate-filtering"), is("true"));
+    assertThat(request.get("deploy-changed-only"), is("true"));
+    assertThat(request.get("build_plan/form.html"), is(content(BUILD_PLAN, "form.html", 1)));
+    assertThat(request.get("buildXplan/form.html"), is(content(OTHER_PLAN, "form.html", 1)));
+
+    assertThat(CAMUNDA.deployments.size(), is(1));
+    assertThat(endpoint(BUILD_PLAN), is(expectedEndpoint("build_plan/build_plan.bpmn", 1)));
+    assertThat(endpoint(OTHER_PLAN), is(expectedEndpoint("buildXplan/buildXplan.bpmn", 1)));
+  }
+
+  @Test
+  public void testRedeploysChangedPlansOnly() throws Exception {
+    assertThat(this.plugin.deployPlanReferences(plans(), this.csarId), is(empty()));
+    final String buildPlanEndpoint = endpoint(BUILD_PLAN);
+
+    writePlanFile(OTHER_PLAN, "buildXplan.bpmn", 2);
+    assertThat(this.plugin.deployPlanReferences(plans(), this.csarId), is(empty()));
+
+    // all files are sent again, the engine only deploys the changed one
+    assertThat(CAMUNDA.deploymentRequests.size(), is(2));
+    assertThat(CAMUNDA.deploymentRequests.get(1).get("deploy-changed-only"), is("true"));
+    assertThat(CAMUNDA.deploymentRequests.get(1).keySet(), is(CAMUNDA.deploymentRequests.get(0).keySet()));
+    assertThat(CAMUNDA.deployments.size(), is(2));
+    assertThat(CAMUNDA.deployments.get(1).resources.keySet(), containsInAnyOrder("buildXplan/buildXplan.bpmn"));
+
+    assertThat(endpoint(OTHER_PLAN), is(expectedEndpoint("buildXplan/buildXplan.bpmn", 2)));
+    // the unchanged plan keeps the process definition of the first deployment although the newer
+    // definition of the other plan matches its resource prefix as well
+    assertThat(endpoint(BUILD_PLAN), is(buildPlanEndpoint));
+    assertThat(endpoint(BUILD_PLAN), is(expectedEndpoint("build_plan/build_plan.bpmn", 1)));
+
+    // deploying unchanged plans creates no deployment
+    assertThat(this.plugin.deployPlanReferences(plans(), this.csarId), is(empty()));
+    assertThat(CAMUNDA.deploymentRequests.size(), is(3));
+    assertThat(CAMUNDA.deployments.size(), is(2));
+    assertThat(endpoint(OTHER_PLAN), is(expectedEndpoint("buildXplan/buildXplan.bpmn", 2)));
+    assertThat(endpoint(BUILD_PLAN), is(buildPlanEndpoint));
+  }
+
+  @Test
+  public void testUndeploysPlansOfDeletedDeployment() throws Exception {
+    assertThat(this.plugin.deployPlanReferences(plans(), this.csarId), is(empty()));
+    assertThat(CAMUNDA.definitions, is(not(empty())));
+
+    assertThat(this.plugin.undeployPlanReference(BUILD_PLAN, null, this.csarId), is(true));
+    assertThat(CAMUNDA.deletedDeployments.size(), is(1));
+    assertThat(CAMUNDA.deployments, is(empty()));
+    assertThat(CAMUNDA.definitions, is(empty()));
+
+    // the process definition was deleted together with the shared deployment
+    assertThat(this.plugin.undeployPlanReference(OTHER_PLAN, null, this.csarId), is(true));
+    assertThat(CAMUNDA.deletedDeployments.size(), is(1));
+  }
+
+  private static Map<QName, PlanModelReference> plans() {
+    // the plugin retrieves the plan files by the plan IDs
+    final Map<QName, PlanModelReference> plans = new LinkedHashMap<>();
+    plans.put(BUILD_PLAN, null);
+    plans.put(OTHER_PLAN, null);
+    return plans;
+  }
+
+  private String endpoint(final QName planId) {
+    return this.endpoints.get(planId).getURI().toString();
+  }
+
+  private static String expectedEndpoint(final String resource, final int version) {
+    return Settings.ENGINE_PLAN_BPMN_URL + "/process-definition/" + CAMUNDA.definitionId(resource, version)
+        + "/submit-form";
+  }
+
+  private File writePlanFile(final QName planId, final String name, final int version) throws IOException {
+    final File file = new File(new File(this.directory, planId.getLocalPart()), name);
+    FileUtils.write(file, content(planId, name, version), "UTF-8");
+    return file;
+  }
+
+  private static String content(final QName planId, final String name, final int version) {
+    return "<!-- " + name + " of " + planId + " in version " + version + " -->";
+  }
+
+  /**
+   * The parts of the REST API of Camunda used by the plugin. Deployments are created with duplicate
+   * filtering and deploy changed only semantics, each deployed BPMN file is one process definition.
+   */
+  private static class CamundaStub implements HttpHandler {
+
+    private static final Pattern PART_NAME = Pattern.compile("name=\"([^\"]*)\"");
+
+    final List<Map<String, String>> deploymentRequests = new ArrayList<>();
+    final List<Deployment> deployments = new ArrayList<>();
+    final List<Deployment> deletedDeployments = new ArrayList<>();
+    final List<ProcessDefinition> definitions = new ArrayList<>();
+
+    private String basePath;
+
+    synchronized void reset(final String basePath) {
+      this.basePath = basePath;
+      this.deploymentRequests.clear();
+      this.deployments.clear();
+      this.deletedDeployments.clear();
+      this.definitions.clear();
+    }
+
+    synchronized String definitionId(final String resource, final int version) {
+      for (final ProcessDefinition definition : this.definitions) {
+        if (definition.resource.equals(resource) && definition.version == version) {
+          return definition.id;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void handle(final HttpExchange exchange) throws IOException {
+      final String method = exchange.getRequestMethod();
+      final String path = exchange.getRequestURI().getPath().substring(this.basePath.length());
+      final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+      final byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+
+      if (method.equals("POST") && path.equals("/deployment/create")) {
+        final String boundary = exchange.getRequestHeaders().getFirst("Content-Type").replaceAll(".*boundary=", "");
+        respond(exchange, 200, createDeployment(parseMultipart(body, boundary)).toJSON());
+      } else if (method.equals("GET") && path.equals("/deployment")) {
+        final JSONArray result = new JSONArray();
+        for (final Deployment deployment : this.deployments) {
+          if (deployment.name.equals(query.get("name"))) {
+            result.add(deployment.toJSON());
+          }
+        }
+        respond(exchange, 200, result);
+      } else if (method.equals("GET") && path.equals("/process-definition")) {
+        final Pattern resourceNameLike = like(query.get("resourceNameLike"));
+        final List<ProcessDefinition> matches = new ArrayList<>();
+        for (final ProcessDefinition definition : this.definitions) {
+          if (resourceNameLike.matcher(definition.resource).matches()) {
+            matches.add(definition);
+          }
+        }
+        matches.sort(Comparator.comparingInt((ProcessDefinition definition) -> definition.version).reversed());
+        final JSONArray result = new JSONArray();
+        for (final ProcessDefinition definition : matches) {
+          result.add(definition.toJSON());
+        }
+        respond(exchange, 200, result);
+      } else if (method.equals("GET") && path.startsWith("/process-definition/")) {
+        final ProcessDefinition definition = findDefinition(path.substring("/process-definition/".length()));
+        if (definition == null) {
+          respond(exchange, 404, error("No matching definition"));
+        } else {
+          respond(exchange, 200, definition.toJSON());
+        }
+      } else if (method.equals("DELETE") && path.startsWith("/deployment/")) {
+        final String deploymentId = path.substring("/deployment/".length());
+        final Deployment deployment = findDeployment(deploymentId);
+        if (deployment == null) {
+          respond(exchange, 404, error("Deployment " + deploymentId + " does not exist"));
+        } else {
+          this.deployments.remove(deployment);
+          this.deletedDeployments.add(deployment);
+          this.definitions.removeIf(definition -> definition.deploymentId.equals(deploymentId));
+          exchange.sendResponseHeaders(204, -1);
+          exchange.close();
+        }
+      } else {
+        respond(exchange, 404, error("Unknown resource " + method + " " + path));
+      }
+    }
+
+    private Deployment createDeployment(final Map<String, String> parts) {
+      this.deploymentRequests.add(parts);
+
+      final String name = parts.get("deployment-name");
+      final boolean changedOnly = Boolean.parseBoolean(parts.get("deploy-changed-only"));
+      final Deployment latest = latestDeployment(name);
+
+      final Map<String, String> resources = new LinkedHashMap<>();
+      for (final Map.Entry<String, String> part : parts.entrySet()) {
+        if (part.getKey().equals("deployment-name") || part.getKey().equals("enable-duplicate-filtering")
+            || part.getKey().equals("deploy-changed-only")) {
+          continue;
+        }
+        if (!changedOnly || !part.getValue().equals(deployedContent(name, part.getKey()))) {
+          resources.put(part.getKey(), part.getValue());
+        }
+      }
+      if (resources.isEmpty() && latest != null && Boolean.parseBoolean(parts.get("enable-duplicate-filtering"))) {
+        return latest;
+      }
+
+      final Deployment deployment = new Deployment("deployment-" + (this.deployments.size() + 1), name, resources);
+      this.deployments.add(deployment);
+      for (final String resource : resources.keySet()) {
+        if (resource.endsWith(".bpmn")) {
+          int version = 1;
+          for (final ProcessDefinition definition : this.definitions) {
+            if (definition.resource.equals(resource)) {
+              version = Math.max(version, definition.version + 1);
+            }
+          }
+          this.definitions.add(new ProcessDefinition(UUID.randomUUID().toString(), resource, deployment.id, version));
+        }
+      }
+      return deployment;
+    }
+
+    private Deployment latestDeployment(final String name) {
+      Deployment latest = null;
+      for (final Deployment deployment : this.deployments) {
+        if (deployment.name.equals(name)) {
+          latest = deployment;
+        }
+      }
+      return latest;
+    }
+
+    private String deployedContent(final String name, final String resource) {
+      String content = null;
+      for (final Deployment deployment : this.deployments) {
+        if (deployment.name.equals(name) && deployment.resources.containsKey(resource)) {
+          content = deployment.resources.get(resource);
+        }
+      }
+      return content;
+    }
+
+    private ProcessDefinition findDefinition(final String id) {
+      for (final ProcessDefinition definition : this.definitions) {
+        if (definition.id.equals(id)) {
+          return definition;
+        }
+      }
+      return null;
+    }
+
+    private Deployment findDeployment(final String id) {
+      for (final Deployment deployment : this.deployments) {
+        if (deployment.id.equals(id)) {
+          return deployment;
+        }
+      }
+      return null;
+    }
+
+    private static Map<String, String> parseQuery(final String query) throws IOException {
+      final Map<String, String> parameters = new HashMap<>();
+      if (query != null) {
+        for (final String parameter : query.split("&")) {
+          final String[] nameAndValue = parameter.split("=", 2);
+          parameters.put(URLDecoder.decode(nameAndValue[0], "UTF-8"),
+              nameAndValue.length > 1 ? URLDecoder.decode(nameAndValue[1], "UTF-8") : "");
+        }
+      }
+      return parameters;
+    }
+
+    private static Map<String, String> parseMultipart(final byte[] body, final String boundary) {
+      final Map<String, String> parts = new LinkedHashMap<>();
+      final String content = new String(body, StandardCharsets.UTF_8);
+      for (final String part : content.split(Pattern.quote("--" + boundary))) {
+        final int headersEnd = part.indexOf("\r\n\r\n");
+        if (headersEnd < 0) {
+          // preamble and epilogue
+          continue;
+        }
+        final Matcher name = PART_NAME.matcher(part.substring(0, headersEnd));
+        if (name.find()) {
+          // the part ends with the line break before the next boundary
+          parts.put(name.group(1), part.substring(headersEnd + 4, part.length() - 2));
+        }
+      }
+      return parts;
+    }
+
+    private static Pattern like(final String pattern) {
+      final StringBuilder regex = new StringBuilder();
+      for (final char c : pattern.toCharArray()) {
+        if (c == '%') {
+          regex.append(".*");
+        } else if (c == '_') {
+          regex.append('.');
+        } else {
+          regex.append(Pattern.quote(String.valueOf(c)));
+        }
+      }
+      return Pattern.compile(regex.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JSONObject error(final String message) {
+      final JSONObject error = new JSONObject();
+      error.put("type", "RestException");
+      error.put("message", message);
+      return error;
+    }
+
+    private static void respond(final HttpExchange exchange, final int status,
+                                final Object json) throws IOException {
+      final byte[] response = json.toString().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(status, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    }
+  }
+
+  private static class Deployment {
+
+    final String id;
+    final String name;
+    final Map<String, String> resources;
+
+    Deployment(final String id, final String name, final Map<String, String> resources) {
+      this.id = id;
+      this.name = name;
+      this.resources = resources;
+    }
+
+    @SuppressWarnings("unchecked")
+    JSONObject toJSON() {
+      final JSONObject json = new JSONObject();
+      json.put("id", this.id);
+      json.put("name", this.name);
+      return json;
+    }
+  }
+
+  private static class ProcessDefinition {
+
+    final String id;
+    final String resource;
+    final String deploymentId;
+    final int version;
+
+    ProcessDefinition(final String id, final String resource, final String deploymentId, final int version) {
+      this.id = id;
+      this.resource = resource;
+      this.deploymentId = deploymentId;
+      this.version = version;
+    }
+
+    @SuppressWarnings("unchecked")
+    JSONObject toJSON() {
+      final JSONObject json = new JSONObject();
+      json.put("id", this.id);
+      json.put("resource", this.resource);
+      json.put("deploymentId", this.deploymentId);
+      json.put("version", this.version);
+      return json;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package org.opentosca.planbuilder.core.bpel.fragments;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.Test;
+import org.opentosca.planbuilder.core.bpel.handlers.SyntheticTopologyGenerator;
+import org.opentosca.planbuilder.model.tosca.AbstractNodeTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+/**
+ * Compares creating BPEL fragments for every node template of a topology by loading, replacing and
+ * parsing the template each time with filling a precompiled {@link BPELFragmentTemplate}.
+ */
+public class BPELFragmentTemplateBenchmarkTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BPELFragmentTemplateBenchmarkTest.class);
+
+  private static final int TOPOLOGY_SIZE = 2000;
+
+  private static final String TEMPLATE_NAME = "BPEL4RESTLightGET_NodeInstance_InstanceDataAPI.xml";
+
+  private static final String[] PLACEHOLDERS = {"$InstanceDataURLVar", "$ResponseVarName", "$templateId", "?query"};
+
+  @Test
+  public void testFilledTemplatesEqualLegacyFragments() throws Exception {
+    final BPELFragmentTemplate template =
+        new BPELFragmentTemplate(BPELProcessFragments.class, TEMPLATE_NAME, PLACEHOLDERS);
+    final String raw = template.getContent();
+
+    final Document target = newDocumentBuilder().newDocument();
+    for (final AbstractNodeTemplate nodeTemplate : new SyntheticTopologyGenerator(10).getNodeTemplates()) {
+      final String[] values = values(nodeTemplate);
+      final Node expected = legacy(newDocumentBuilder(), raw, values);
+      final Node actual = template.fillAsNode(target, values);
+      assertThat(actual.getOwnerDocument(), sameInstance(target));
+      assertThat(serialize(actual), is(serialize(expected)));
+      assertThat(template.fill(values), is(legacyString(raw, values)));
+    }
+  }
+
+  @Test
+  public void testFragmentCreationForLargeTopology() throws Exception {
+    final List<AbstractNodeTemplate> nodeTemplates =
+        new SyntheticTopologyGenerator(TOPOLOGY_SIZE).getNodeTemplates();
+    final BPELFragmentTemplate template =
+        new BPELFragmentTemplate(BPELProcessFragments.class, TEMPLATE_NAME, PLACEHOLDERS);
+    final String raw = template.getContent();
+
+    // warm up
+    createLegacy(raw, nodeTemplates);
+    createFromTemplate(template, nodeTemplates);
+
+    long start = System.nanoTime();
+    final List<Node> legacyNodes = createLegacy(raw, nodeTemplates);
+    final long legacyDuration = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final List<Node> templateNodes = createFromTemplate(template, nodeTemplates);
+    final long templateDuration = System.nanoTime() - start;
+
+    LOG.info("Created {} fragments in {} ms by parsing and in {} ms from the precompiled template (x{})",
+        nodeTemplates.size(), legacyDuration / 1000000, templateDuration / 1000000,
+        String.format("%.2f", (double) legacyDuration / templateDuration));
+
+    assertThat(templateNodes.size(), is(legacyNodes.size()));
+    for (int i = 0; i < templateNodes.size(); i++) {
+      assertThat(serialize(templateNodes.get(i)), is(serialize(legacyNodes.get(i))));
+    }
+  }
+
+  private List<Node> createLegacy(final String raw, final List<AbstractNodeTemplate> nodeTemplates) throws Exception {
+    final Document target = newDocumentBuilder().newDocument();
+    final List<Node> nodes = new ArrayList<>();
+    for (final AbstractNodeTemplate nodeTemplate : nodeTemplates) {
+      // the way fragments were created before: one parser per fragment, parse and import
+      final Node node = legacy(newDocumentBuilder(), raw, values(nodeTemplate));
+      nodes.add(target.importNode(node, true));
+    }
+    return nodes;
+  }
+
+  private List<Node> createFromTemplate(final BPELFragmentTemplate template,
+                                        final List<AbstractNodeTemplate> nodeTemplates) throws Exception {
+    final Document target = newDocumentBuilder().newDocument();
+    final List<Node> nodes = new ArrayList<>();
+    for (final AbstractNodeTemplate nodeTemplate : nodeTemplates) {
+      nodes.add(template.fillAsNode(target, values(nodeTemplate)));
+    }
+    return nodes;
+  }
+
+  private static String[] values(final AbstractNodeTemplate nodeTemplate) {
+    return new String[] {"instanceDataAPIUrl", "nodeInstancesResponse_" + nodeTemplate.getId(),
+        nodeTemplate.getId(), "?state=STARTED"};
+  }
+
+  private static String legacyString(final String raw, final String[] values) {
+    String template = raw;
+    for (int i = 0; i < PLACEHOLDERS.length; i++) {
+      template = template.replace(PLACEHOLDERS[i], values[i]);
+    }
+    return template;
+  }
+
+  private static Node legacy(final DocumentBuilder builder, final String raw, final String[] values) throws Exception {
+    final InputSource is = new InputSource();
+    is.setCharacterStream(new StringReader(legacyString(raw, values)));
+    return builder.parse(is).getFirstChild();
+  }
+
+  private static DocumentBuilder newDocumentBuilder() throws Exception {
+    return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+  }
+
+  private static String serialize(final Node node) throws Exception {
+    final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+    transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+    final StringWriter writer = new StringWriter();
+    transformer.transform(new DOMSource(node), new StreamResult(writer));
+    return writer.toString();
+  }
+}
@@ -0,0 +1,149 @@
+package org.opentosca.planbuilder.core.bpel.handlers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.opentosca.planbuilder.model.plan.bpel.BPELPlan;
+import org.opentosca.planbuilder.model.plan.bpel.BPELScope;
+import org.opentosca.planbuilder.model.tosca.AbstractNodeTemplate;
+import org.opentosca.planbuilder.model.tosca.AbstractRelationshipTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks the scope lookups of generated build plans and measures how the generation of the BPEL
+ * skeleton, the scope lookups done by the plugins and the finalization of a build plan scale with
+ * the size of the topology.
+ */
+public class BPELPlanGenerationBenchmarkTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BPELPlanGenerationBenchmarkTest.class);
+
+  // the timing comparison takes a few seconds and only runs on request
+  private static final String BENCHMARK_PROPERTY = "org.opentosca.container.benchmark";
+
+  private static final int SMALL_TOPOLOGY = 500;
+
+  private static final int LARGE_TOPOLOGY = 2000;
+
+  private static final int RUNS = 3;
+
+  private final BPELScopeHandler scopeHandler = new BPELScopeHandler();
+
+  private final BPELFinalizer finalizer = new BPELFinalizer();
+
+  private BPELPlanHandler planHandler;
+
+  @Before
+  public void createPlanHandler() throws Exception {
+    this.planHandler = new BPELPlanHandler();
+  }
+
+  @Test
+  public void testScopesAreConnectedByTheirLinks() throws Exception {
+    final SyntheticTopologyGenerator topology = new SyntheticTopologyGenerator(20);
+    final BPELPlan plan = initialize(topology);
+
+    for (final AbstractRelationshipTemplate relation : topology.getRelationshipTemplates()) {
+      final BPELScope scope = plan.getTemplateBuildPlan(relation);
+      assertThat(this.scopeHandler.getPredecessors(scope),
+          contains(plan.getTemplateBuildPlan(relation.getTarget())));
+      assertThat(this.scopeHandler.getSuccessors(scope), contains(plan.getTemplateBuildPlan(relation.getSource())));
+    }
+
+    this.finalizer.makeSequential(plan);
+
+    // the scopes form a single chain
+    int first = 0;
+    for (final BPELScope scope : plan.getTemplateBuildPlans()) {
+      final List<BPELScope> predecessors = this.scopeHandler.getPredecessors(scope);
+      if (predecessors.isEmpty()) {
+        first++;
+      } else {
+        assertThat(predecessors, hasSize(1));
+        assertThat(this.scopeHandler.getSuccessors(predecessors.get(0)), contains(scope));
+      }
+    }
+    assertThat(first, is(1));
+
+    for (final BPELScope scope : plan.getTemplateBuildPlans()) {
+      this.scopeHandler.removeAllConnetions(scope);
+      assertThat(this.scopeHandler.getPredecessors(scope), is(empty()));
+      assertThat(this.scopeHandler.getSuccessors(scope), is(empty()));
+    }
+    assertThat(plan.getLinkSources().isEmpty(), is(true));
+    assertThat(plan.getLinkTargets().isEmpty(), is(true));
+  }
+
+  @Test
+  public void testPlanGenerationScalesWithTopologySize() throws Exception {
+    Assume.assumeTrue("Benchmarks are enabled with -D" + BENCHMARK_PROPERTY + "=true",
+        Boolean.getBoolean(BENCHMARK_PROPERTY));
+
+    // warm up
+    generate(new SyntheticTopologyGenerator(100));
+
+    final long small = fastestOf(SMALL_TOPOLOGY);
+    final long large = fastestOf(LARGE_TOPOLOGY);
+    final double ratio = (double) large / small;
+    LOG.info("Generated plans for {} and {} node templates in {} ms and {} ms (x{})", SMALL_TOPOLOGY,
+        LARGE_TOPOLOGY, small / 1000000, large / 1000000, String.format("%.2f", ratio));
+
+    // four times the templates take about four times as long, lookups scanning all scopes or links
+    // would take about 16 times as long
+    assertThat(ratio, lessThan(8.0));
+  }
+
+  private long fastestOf(final int size) throws Exception {
+    long fastest = Long.MAX_VALUE;
+    for (int run = 0; run < RUNS; run++) {
+      fastest = Math.min(fastest, generate(new SyntheticTopologyGenerator(size)));
+    }
+    return fastest;
+  }
+
+  private long generate(final SyntheticTopologyGenerator topology) throws Exception {
+    final long start = System.nanoTime();
+
+    final BPELPlan plan = initialize(topology);
+
+    for (final AbstractNodeTemplate nodeTemplate : topology.getNodeTemplates()) {
+      final BPELScope scope = plan.getTemplateBuildPlan(nodeTemplate);
+      assertThat(scope.getNodeTemplate(), is(nodeTemplate));
+      assertThat(this.planHandler.getTemplateBuildPlanById(nodeTemplate.getId(), plan), sameInstance(scope));
+      this.scopeHandler.getPredecessors(scope);
+      this.scopeHandler.getSuccessors(scope);
+    }
+    for (final AbstractRelationshipTemplate relation : topology.getRelationshipTemplates()) {
+      final BPELScope scope = plan.getTemplateBuildPlan(relation);
+      assertThat(scope.getRelationshipTemplate(), is(relation));
+      assertThat(this.planHandler.getTemplateBuildPlanById(relation.getId(), plan), sameInstance(scope));
+    }
+
+    this.finalizer.makeSequential(plan);
+
+    final long duration = System.nanoTime() - start;
+
+    final int scopes = plan.getTemplateBuildPlans().size();
+    assertThat(scopes, is(topology.getNodeTemplates().size() + topology.getRelationshipTemplates().size()));
+    assertThat(this.planHandler.getAllLinks(plan).size(), is(scopes - 1));
+    return duration;
+  }
+
+  private BPELPlan initialize(final SyntheticTopologyGenerator topology) throws Exception {
+    final BPELPlan plan = topology.createBuildPlan("benchmarkPlan");
+    this.planHandler.initializeXMLElements(plan);
+    this.planHandler.initializeBPELSkeleton(plan, "benchmark.csar");
+    return plan;
+  }
+}
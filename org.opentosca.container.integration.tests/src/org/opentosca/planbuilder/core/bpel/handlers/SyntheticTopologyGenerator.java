@@ -0,0 +1,286 @@
+package org.opentosca.planbuilder.core.bpel.handlers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.opentosca.planbuilder.model.plan.AbstractActivity;
+import org.opentosca.planbuilder.model.plan.AbstractPlan.Link;
+import org.opentosca.planbuilder.model.plan.AbstractPlan.PlanType;
+import org.opentosca.planbuilder.model.plan.ActivityType;
+import org.opentosca.planbuilder.model.plan.NodeTemplateActivity;
+import org.opentosca.planbuilder.model.plan.RelationshipTemplateActivity;
+import org.opentosca.planbuilder.model.plan.bpel.BPELPlan;
+import org.opentosca.planbuilder.model.tosca.AbstractCapability;
+import org.opentosca.planbuilder.model.tosca.AbstractDeploymentArtifact;
+import org.opentosca.planbuilder.model.tosca.AbstractInterface;
+import org.opentosca.planbuilder.model.tosca.AbstractNodeTemplate;
+import org.opentosca.planbuilder.model.tosca.AbstractNodeType;
+import org.opentosca.planbuilder.model.tosca.AbstractNodeTypeImplementation;
+import org.opentosca.planbuilder.model.tosca.AbstractPolicy;
+import org.opentosca.planbuilder.model.tosca.AbstractProperties;
+import org.opentosca.planbuilder.model.tosca.AbstractRelationshipTemplate;
+import org.opentosca.planbuilder.model.tosca.AbstractRelationshipType;
+import org.opentosca.planbuilder.model.tosca.AbstractRelationshipTypeImplementation;
+import org.opentosca.planbuilder.model.tosca.AbstractRequirement;
+import org.w3c.dom.Node;
+
+/**
+ * Generates synthetic topologies and abstract build plans of a given size. The topology consists of
+ * stacks of four node templates connected by hostedOn relations, where the application of each
+ * stack is connected to the application of the previous stack.
+ */
+public class SyntheticTopologyGenerator {
+
+  private static final String NAMESPACE = "http://opentosca.org/synthetic";
+
+  private static final int STACK_HEIGHT = 4;
+
+  private final SyntheticNodeType nodeType = new SyntheticNodeType();
+
+  private final List<AbstractNodeTemplate> nodeTemplates = new ArrayList<>();
+  private final List<AbstractRelationshipTemplate> relationshipTemplates = new ArrayList<>();
+
+  public SyntheticTopologyGenerator(final int nodeTemplateCount) {
+    SyntheticNodeTemplate previousApplication = null;
+    SyntheticNodeTemplate below = null;
+    for (int i = 0; i < nodeTemplateCount; i++) {
+      final SyntheticNodeTemplate nodeTemplate = new SyntheticNodeTemplate("node_" + i, this.nodeType);
+      this.nodeTemplates.add(nodeTemplate);
+      if (i % STACK_HEIGHT == 0) {
+        below = null;
+      }
+      if (below != null) {
+        addRelation("hostedOn_" + i, nodeTemplate, below);
+      }
+      if (i % STACK_HEIGHT == STACK_HEIGHT - 1 || i == nodeTemplateCount - 1) {
+        if (previousApplication != null) {
+          addRelation("connectsTo_" + i, nodeTemplate, previousApplication);
+        }
+        previousApplication = nodeTemplate;
+      }
+      below = nodeTemplate;
+    }
+  }
+
+  private void addRelation(final String id, final SyntheticNodeTemplate source,
+                           final SyntheticNodeTemplate target) {
+    final SyntheticRelationshipTemplate relation = new SyntheticRelationshipTemplate(id, source, target);
+    source.outgoing.add(relation);
+    target.ingoing.add(relation);
+    this.relationshipTemplates.add(relation);
+  }
+
+  public List<AbstractNodeTemplate> getNodeTemplates() {
+    return this.nodeTemplates;
+  }
+
+  public List<AbstractRelationshipTemplate> getRelationshipTemplates() {
+    return this.relationshipTemplates;
+  }
+
+  /**
+   * Creates an abstract build plan over the generated topology, where each relation is provisioned
+   * after its target and before its source, i.e., in the same way the build plan builder orders
+   * templates.
+   */
+  public BPELPlan createBuildPlan(final String id) {
+    final Collection<AbstractActivity> activities = new ArrayList<>();
+    final Collection<Link> links = new ArrayList<>();
+    final Map<AbstractNodeTemplate, AbstractActivity> nodeActivities = new HashMap<>();
+
+    for (final AbstractNodeTemplate nodeTemplate : this.nodeTemplates) {
+      final AbstractActivity activity =
+          new NodeTemplateActivity(nodeTemplate.getId() + "_provisioning_activity", ActivityType.PROVISIONING,
+              nodeTemplate);
+      activities.add(activity);
+      nodeActivities.put(nodeTemplate, activity);
+    }
+
+    for (final AbstractRelationshipTemplate relation : this.relationshipTemplates) {
+      final AbstractActivity activity =
+          new RelationshipTemplateActivity(relation.getId() + "_provisioning_activity", ActivityType.PROVISIONING,
+              relation);
+      activities.add(activity);
+      links.add(new Link(nodeActivities.get(relation.getTarget()), activity));
+      links.add(new Link(activity, nodeActivities.get(relation.getSource())));
+    }
+
+    return new BPELPlan(id, PlanType.BUILD, null, null, activities, links);
+  }
+
+  private static class SyntheticNodeType extends AbstractNodeType {
+
+    @Override
+    public AbstractNodeType getTypeRef() {
+      return null;
+    }
+
+    @Override
+    public String getName() {
+      return "SyntheticNodeType";
+    }
+
+    @Override
+    public QName getId() {
+      return new QName(NAMESPACE, getName());
+    }
+
+    @Override
+    public String getTargetNamespace() {
+      return NAMESPACE;
+    }
+
+    @Override
+    public List<AbstractInterface> getInterfaces() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<Node> getAdditionalElements() {
+      return Collections.emptyList();
+    }
+  }
+
+  private static class SyntheticNodeTemplate extends AbstractNodeTemplate {
+
+    private final String id;
+    private final AbstractNodeType type;
+    private final List<AbstractRelationshipTemplate> outgoing = new ArrayList<>();
+    private final List<AbstractRelationshipTemplate> ingoing = new ArrayList<>();
+
+    SyntheticNodeTemplate(final String id, final AbstractNodeType type) {
+      this.id = id;
+      this.type = type;
+    }
+
+    @Override
+    public List<AbstractRelationshipTemplate> getOutgoingRelations() {
+      return this.outgoing;
+    }
+
+    @Override
+    public List<AbstractRelationshipTemplate> getIngoingRelations() {
+      return this.ingoing;
+    }
+
+    @Override
+    public List<AbstractCapability> getCapabilities() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<AbstractRequirement> getRequirements() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String getName() {
+      return this.id;
+    }
+
+    @Override
+    public List<AbstractNodeTypeImplementation> getImplementations() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String getId() {
+      return this.id;
+    }
+
+    @Override
+    public AbstractNodeType getType() {
+      return this.type;
+    }
+
+    @Override
+    public AbstractProperties getProperties() {
+      return null;
+    }
+
+    @Override
+    public List<AbstractPolicy> getPolicies() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<AbstractDeploymentArtifact> getDeploymentArtifacts() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public int getMinInstances() {
+      return 1;
+    }
+  }
+
+  private static class SyntheticRelationshipTemplate extends AbstractRelationshipTemplate {
+
+    private final String id;
+    private final AbstractNodeTemplate source;
+    private final AbstractNodeTemplate target;
+
+    SyntheticRelationshipTemplate(final String id, final AbstractNodeTemplate source,
+                                  final AbstractNodeTemplate target) {
+      this.id = id;
+      this.source = source;
+      this.target = target;
+    }
+
+    @Override
+    public String getId() {
+      return this.id;
+    }
+
+    @Override
+    public QName getType() {
+      return new QName(NAMESPACE, "SyntheticRelationshipType");
+    }
+
+    @Override
+    public AbstractNodeTemplate getSource() {
+      return this.source;
+    }
+
+    @Override
+    public AbstractRequirement getSourceRequirement() {
+      return null;
+    }
+
+    @Override
+    public AbstractNodeTemplate getTarget() {
+      return this.target;
+    }
+
+    @Override
+    public AbstractCapability getTargetCapability() {
+      return null;
+    }
+
+    @Override
+    public String getName() {
+      return this.id;
+    }
+
+    @Override
+    public AbstractRelationshipType getRelationshipType() {
+      return null;
+    }
+
+    @Override
+    public List<AbstractRelationshipTypeImplementation> getImplementations() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public AbstractProperties getProperties() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package org.opentosca.planbuilder.postphase.plugin.instancedata.bpel;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.opentosca.container.core.next.xml.XMLPools;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Checks the BPEL generated for the batched instance data requests, which are used instead of the
+ * single requests if org.opentosca.planbuilder.instancedata.batch is set to true.
+ */
+public class FragmentsTest {
+
+  private static final String NS = "http://opentosca.org/test";
+
+  @Test
+  public void testPostsTheBatchToTheServiceInstance() throws Exception {
+    final Element scope = generate("NodeTemplateInstance", null, Collections.<String, Node>emptyMap());
+
+    final Element post = single(scope, "bpel4RestLight:POST");
+    assertThat(post.getAttribute("uri"), is("$bpelvar[serviceInstanceURL]/batch"));
+    assertThat(post.getAttribute("request"), is("request"));
+    assertThat(post.getAttribute("response"), is("response"));
+
+    final Element entry = single(scope, "api:NodeTemplateInstance");
+    assertThat(entry.getAttribute("id"), is("0"));
+    assertThat(entry.getAttribute("state"), is("INITIAL"));
+    assertThat(entry.getParentNode().getNodeName(), is("api:InstanceDataBatchRequest"));
+    assertThat(scope.getElementsByTagName("api:Properties").getLength(), is(0));
+    // the request skeleton, the id and the state
+    assertThat(scope.getElementsByTagName("bpel:copy").getLength(), is(3));
+  }
+
+  @Test
+  public void testSendsOnlyTheMappedProperties() throws Exception {
+    final Element properties =
+        XMLPools.parse("<Properties xmlns=\"" + NS + "\"><A>a</A><B>b</B><C>c</C></Properties>").getDocumentElement();
+    final Map<String, Node> mapping = new LinkedHashMap<>();
+    mapping.put("prop_A", properties.getElementsByTagNameNS(NS, "A").item(0));
+    mapping.put("prop_C", properties.getElementsByTagNameNS(NS, "C").item(0));
+
+    final Element scope = generate("RelationshipTemplateInstance", properties, mapping);
+
+    final Element entry = single(scope, "api:RelationshipTemplateInstance");
+    final Element sent = firstChildElement(single(entry, "api:Properties"));
+    assertThat(sent.getLocalName(), is("Properties"));
+    assertThat(sent.getNamespaceURI(), is(NS));
+    assertThat(localNames(sent), is(containsInAnyOrder("A", "C")));
+
+    final List<String> propertyVars = new ArrayList<>();
+    final NodeList copies = scope.getElementsByTagName("bpel:copy");
+    assertThat(copies.getLength(), is(3 + mapping.size()));
+    for (int index = 0; index < copies.getLength(); index++) {
+      final Element from = firstChildElement((Element) copies.item(index));
+      if (from.getAttribute("variable").startsWith("prop_")) {
+        propertyVars.add(from.getAttribute("variable"));
+      }
+    }
+    assertThat(propertyVars, is(containsInAnyOrder("prop_A", "prop_C")));
+  }
+
+  private static Element generate(final String entryName, final Node properties,
+                                  final Map<String, Node> mapping) throws Exception {
+    return (Element) new Fragments().generateInstanceDataBatchPOSTAsNode("serviceInstanceURL", "request", "response",
+                                                                         entryName, "instanceID", "state",
+                                                                         properties, mapping);
+  }
+
+  private static Element single(final Element parent, final String tagName) {
+    final NodeList elements = parent.getElementsByTagName(tagName);
+    assertThat(tagName, elements.getLength(), is(1));
+    return (Element) elements.item(0);
+  }
+
+  private static Element firstChildElement(final Element parent) {
+    for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        return (Element) child;
+      }
+    }
+    return null;
+  }
+
+  private static List<String> localNames(final Element parent) {
+    final List<String> localNames = new ArrayList<>();
+    for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        localNames.add(child.getLocalName());
+      }
+    }
+    return localNames;
+  }
+}
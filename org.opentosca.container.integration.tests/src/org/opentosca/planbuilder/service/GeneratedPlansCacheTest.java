@@ -0,0 +1,150 @@
+package org.opentosca.planbuilder.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.opentosca.planbuilder.service.GeneratedPlansCache.CachedPlans;
+import org.opentosca.planbuilder.service.GeneratedPlansCache.GeneratedPlan;
+import org.opentosca.planbuilder.service.Util.SelfServiceOptionWrapper;
+
+/**
+ * Checks that cached plans are reused and that their files are only deleted once the plans are
+ * replaced or evicted and not sent anymore.
+ */
+public class GeneratedPlansCacheTest {
+
+  @Test
+  public void testReturnsCachedPlans() throws Exception {
+    final String csarHash = newHash();
+    final List<GeneratedPlan> plans = newPlans(2);
+    GeneratedPlansCache.put(csarHash, plans);
+
+    final CachedPlans cachedPlans = GeneratedPlansCache.get(csarHash);
+    assertThat(cachedPlans, is(notNullValue()));
+    assertThat(cachedPlans.plans, is(plans));
+    cachedPlans.release();
+
+    assertThat(GeneratedPlansCache.get(newHash()), is(nullValue()));
+    assertExist(plans, true);
+  }
+
+  @Test
+  public void testDropsPlansWhoseFilesAreGone() throws Exception {
+    final String csarHash = newHash();
+    final List<GeneratedPlan> plans = newPlans(2);
+    GeneratedPlansCache.put(csarHash, plans);
+
+    Files.delete(plans.get(1).planFile.toPath());
+
+    assertThat(GeneratedPlansCache.get(csarHash), is(nullValue()));
+    assertExist(plans.subList(0, 1), false);
+  }
+
+  @Test
+  public void testDeletesReplacedPlans() throws Exception {
+    final String csarHash = newHash();
+    final List<GeneratedPlan> replacedPlans = newPlans(1);
+    final List<GeneratedPlan> plans = newPlans(1);
+    GeneratedPlansCache.put(csarHash, replacedPlans);
+
+    GeneratedPlansCache.put(csarHash, plans);
+
+    assertExist(replacedPlans, false);
+    final CachedPlans cachedPlans = GeneratedPlansCache.get(csarHash);
+    assertThat(cachedPlans.plans, is(plans));
+    cachedPlans.release();
+  }
+
+  @Test
+  public void testKeepsReplacedPlansUntilTheyAreSent() throws Exception {
+    final String csarHash = newHash();
+    final List<GeneratedPlan> replacedPlans = newPlans(1);
+    GeneratedPlansCache.put(csarHash, replacedPlans);
+    final CachedPlans sentPlans = GeneratedPlansCache.get(csarHash);
+    final CachedPlans otherSentPlans = GeneratedPlansCache.get(csarHash);
+    assertThat(otherSentPlans, is(sameInstance(sentPlans)));
+
+    GeneratedPlansCache.put(csarHash, newPlans(1));
+
+    assertExist(replacedPlans, true);
+    sentPlans.release();
+    assertExist(replacedPlans, true);
+    otherSentPlans.release();
+    assertExist(replacedPlans, false);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedPlans() throws Exception {
+    final int maxEntries = maxEntries();
+    final String evictedHash = newHash();
+    final List<GeneratedPlan> evictedPlans = newPlans(1);
+    GeneratedPlansCache.put(evictedHash, evictedPlans);
+    final String usedHash = newHash();
+    final List<GeneratedPlan> usedPlans = newPlans(1);
+    GeneratedPlansCache.put(usedHash, usedPlans);
+    final String sentHash = newHash();
+    final List<GeneratedPlan> sentPlans = newPlans(1);
+    GeneratedPlansCache.put(sentHash, sentPlans);
+    final CachedPlans sent = GeneratedPlansCache.get(sentHash);
+
+    // makes the first plans the least recently used ones
+    GeneratedPlansCache.get(usedHash).release();
+    for (int i = 0; i < maxEntries - 1; i++) {
+      GeneratedPlansCache.put(newHash(), newPlans(1));
+    }
+
+    assertThat(GeneratedPlansCache.get(evictedHash), is(nullValue()));
+    assertExist(evictedPlans, false);
+    // evicted while they are sent
+    assertThat(GeneratedPlansCache.get(sentHash), is(nullValue()));
+    assertExist(sentPlans, true);
+    sent.release();
+    assertExist(sentPlans, false);
+    final CachedPlans used = GeneratedPlansCache.get(usedHash);
+    assertThat(used.plans, is(usedPlans));
+    used.release();
+  }
+
+  private static void assertExist(final List<GeneratedPlan> plans, final boolean exist) {
+    for (final GeneratedPlan plan : plans) {
+      assertThat(plan.planFile.getPath(), plan.planFile.isFile(), is(exist));
+      assertThat(plan.option.planInputMessageFile.getPath(), plan.option.planInputMessageFile.isFile(), is(exist));
+    }
+  }
+
+  private static List<GeneratedPlan> newPlans(final int count) throws Exception {
+    final List<GeneratedPlan> plans = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final File planFile = Files.createTempDirectory("plan").resolve("plan.zip").toFile();
+      Files.write(planFile.toPath(), new byte[] {1});
+      final File inputMessageFile = Files.createTempDirectory("option").resolve("input.xml").toFile();
+      Files.write(inputMessageFile.toPath(), new byte[] {1});
+      plans.add(new GeneratedPlan("plan" + i, "http://docs.oasis-open.org/tosca/ns/2011/12/PlanTypes/BuildPlan",
+          "http://docs.oasis-open.org/wsbpel/2.0/process/executable", Collections.<String>emptyList(),
+          Collections.<String>emptyList(), planFile, new SelfServiceOptionWrapper(null, inputMessageFile)));
+    }
+    return plans;
+  }
+
+  private static String newHash() {
+    return UUID.randomUUID().toString();
+  }
+
+  private static int maxEntries() throws Exception {
+    final Field maxEntries = GeneratedPlansCache.class.getDeclaredField("MAX_ENTRIES");
+    maxEntries.setAccessible(true);
+    return maxEntries.getInt(null);
+  }
+}
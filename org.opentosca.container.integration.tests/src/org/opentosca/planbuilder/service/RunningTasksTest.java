@@ -0,0 +1,155 @@
+package org.opentosca.planbuilder.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.After;
+import org.junit.Test;
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.planbuilder.service.model.GeneratePlanForTopology;
+import org.opentosca.planbuilder.service.model.PlanGenerationState;
+import org.opentosca.planbuilder.service.resources.RootResource;
+
+/**
+ * Runs tasks which block until they are released with the executor of the plan builder service and
+ * checks the queue positions, the rejection of further requests and the expiry of finished tasks.
+ */
+public class RunningTasksTest {
+
+  private static final int THREADS = Integer.parseInt(Settings.OPENTOSCA_PLANBUILDER_SERVICE_THREADS);
+
+  private static final int QUEUE_SIZE = Integer.parseInt(Settings.OPENTOSCA_PLANBUILDER_SERVICE_QUEUE_SIZE);
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final CountDownLatch started = new CountDownLatch(THREADS);
+
+  @After
+  public void releaseTasks() throws Exception {
+    this.release.countDown();
+    shutdown();
+  }
+
+  @Test
+  public void testReportsQueuePositions() throws Exception {
+    final List<String> running = submitBlocking(THREADS);
+    assertThat(this.started.await(10, TimeUnit.SECONDS), is(true));
+    final List<String> queued = submitBlocking(2);
+
+    for (final String id : running) {
+      assertThat(RunningTasks.get(id).queuePosition, is(nullValue()));
+    }
+    assertThat(RunningTasks.get(queued.get(0)).queuePosition, is(1));
+    assertThat(RunningTasks.get(queued.get(1)).queuePosition, is(2));
+  }
+
+  @Test
+  public void testRejectsRequestsWhenTheQueueIsFull() throws Exception {
+    submitBlocking(THREADS);
+    assertThat(this.started.await(10, TimeUnit.SECONDS), is(true));
+    submitBlocking(QUEUE_SIZE);
+
+    assertThat(submit(() -> {
+    }), is(nullValue()));
+
+    final GeneratePlanForTopology request = new GeneratePlanForTopology();
+    request.CSARURL = "http://localhost/test.csar";
+    request.PLANPOSTURL = "http://localhost/plans";
+    final Response async = new RootResource().generateBuildPlanAsync(request);
+    assertThat(async.getStatus(), is(Status.SERVICE_UNAVAILABLE.getStatusCode()));
+    assertThat(async.getHeaderString("Retry-After"), is("60"));
+    final Response sync = new RootResource().generateBuildPlanSync(request);
+    assertThat(sync.getStatus(), is(Status.SERVICE_UNAVAILABLE.getStatusCode()));
+    assertThat(sync.getHeaderString("Retry-After"), is("60"));
+  }
+
+  @Test
+  public void testRemovesFinishedTasksOnceTheirTimeToLiveElapsed() throws Exception {
+    final String id = submit(() -> {
+    });
+    assertThat(RunningTasks.awaitFinished(id), is(true));
+    assertThat(RunningTasks.get(id), is(notNullValue()));
+
+    final Field ttl = RunningTasks.class.getDeclaredField("TTL_MILLIS");
+    ttl.setAccessible(true);
+    final Object task = tasks().get(id);
+    final Field finishedAt = task.getClass().getDeclaredField("finishedAt");
+    finishedAt.setAccessible(true);
+    finishedAt.setLong(task, System.currentTimeMillis() - ttl.getLong(null) - 1);
+
+    assertThat(RunningTasks.get(id), is(nullValue()));
+  }
+
+  @Test
+  public void testReportsFailedTasks() throws Exception {
+    final String id = submit(() -> {
+      throw new IllegalStateException("failed");
+    });
+    assertThat(RunningTasks.awaitFinished(id), is(false));
+  }
+
+  @Test
+  public void testCancelsQueuedTasksOnShutdown() throws Exception {
+    submitBlocking(THREADS);
+    assertThat(this.started.await(10, TimeUnit.SECONDS), is(true));
+    final String queued = submitBlocking(1).get(0);
+
+    shutdown();
+
+    assertThat(RunningTasks.awaitFinished(queued), is(false));
+  }
+
+  private List<String> submitBlocking(final int count) throws Exception {
+    final List<String> ids = new ArrayList<>();
+    for (int index = 0; index < count; index++) {
+      final String id = submit(() -> {
+        this.started.countDown();
+        try {
+          this.release.await();
+        }
+        catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      assertThat(id, is(notNullValue()));
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  private static void shutdown() throws Exception {
+    final Method shutdown = RunningTasks.class.getDeclaredMethod("shutdown");
+    shutdown.setAccessible(true);
+    shutdown.invoke(null);
+  }
+
+  private static String submit(final Runnable worker) throws Exception {
+    final Method submit =
+        RunningTasks.class.getDeclaredMethod("submit", PlanGenerationState.class, Runnable.class);
+    submit.setAccessible(true);
+    final PlanGenerationState state =
+        new PlanGenerationState(new URL("http://localhost/test.csar"), new URL("http://localhost/plans"));
+    return (String) submit.invoke(null, state, worker);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> tasks() throws Exception {
+    final Field tasks = RunningTasks.class.getDeclaredField("TASKS");
+    tasks.setAccessible(true);
+    return (Map<String, Object>) tasks.get(null);
+  }
+}
@@ -0,0 +1,459 @@
+package org.opentosca.planbuilder.core.bpel.fragments;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.io.IOUtils;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * <p>
+ * A BPEL fragment template, i.e., a XML snippet with placeholders such as <code>$ResponseVarName</code>
+ * which is shipped as resource of a plan builder bundle. The template is loaded and parsed only once,
+ * on first use, and can then be filled concurrently any number of times.
+ * </p>
+ * <p>
+ * Placeholders are replaced by plain string matching in a single pass, i.e., the values are inserted
+ * literally and are not interpreted as regular expression replacements. If every placeholder of the
+ * template occurs inside attribute values or text and the given values contain no markup, the
+ * fragment is created by copying the parsed template directly into the target document and setting
+ * the affected values, otherwise the filled string is parsed.
+ * </p>
+ *
+ * Copyright 2018 IAAS University of Stuttgart <br>
+ * <br>
+ */
+public class BPELFragmentTemplate {
+
+    private final static Logger LOG = LoggerFactory.getLogger(BPELFragmentTemplate.class);
+
+    // characters which are interpreted by a XML parser and therefore must not be inserted into the DOM
+    // directly
+    private static final String MARKUP_CHARACTERS = "<>&\"'\r\n\t";
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+
+        @Override
+        protected DocumentBuilder initialValue() {
+            // fragments were always parsed without namespace awareness, keep it this way as the
+            // plugins expect the nodes in this form
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            try {
+                factory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+            }
+            catch (final ParserConfigurationException e) {
+                LOG.debug("XML parser doesn't support disabling deferred node expansion");
+            }
+            try {
+                final DocumentBuilder builder = factory.newDocumentBuilder();
+                // errors are reported by the thrown exceptions, don't print them to stderr additionally
+                builder.setErrorHandler(new DefaultHandler() {
+
+                    @Override
+                    public void fatalError(final SAXParseException e) throws SAXException {
+                        throw e;
+                    }
+
+                    @Override
+                    public void error(final SAXParseException e) throws SAXException {
+                        throw e;
+                    }
+                });
+                return builder;
+            }
+            catch (final ParserConfigurationException e) {
+                throw new IllegalStateException("Couldn't initialize DocumentBuilder for BPEL fragments", e);
+            }
+        }
+    };
+
+    private final Class<?> resourceOwner;
+    private final String resourceName;
+    private final String content;
+    private final String[] placeholders;
+
+    private volatile CompiledTemplate compiled = null;
+
+    /**
+     * Creates a template for the given resource of the bundle the given class belongs to. The resource
+     * is loaded on first use.
+     *
+     * @param resourceOwner a class of the bundle containing the resource
+     * @param resourceName the name of the resource on the bundle class path
+     * @param placeholders the placeholders of the template, in the order their values are given when
+     *        filling it
+     */
+    public BPELFragmentTemplate(final Class<?> resourceOwner, final String resourceName,
+                                final String... placeholders) {
+        this(resourceOwner, resourceName, null, placeholders);
+    }
+
+    private BPELFragmentTemplate(final Class<?> resourceOwner, final String resourceName, final String content,
+                                 final String... placeholders) {
+        this.resourceOwner = resourceOwner;
+        this.resourceName = resourceName;
+        this.content = content;
+        this.placeholders = placeholders.clone();
+    }
+
+    /**
+     * Creates a template from the given XML string
+     *
+     * @param name the name of the template used for logging
+     * @param content the XML string containing the placeholders
+     * @param placeholders the placeholders of the template, in the order their values are given when
+     *        filling it
+     * @return a BPELFragmentTemplate
+     */
+    public static BPELFragmentTemplate fromString(final String name, final String content,
+                                                  final String... placeholders) {
+        return new BPELFragmentTemplate(null, name, content, placeholders);
+    }
+
+    /**
+     * Returns the raw content of this template, i.e., with all placeholders unfilled
+     *
+     * @return a String
+     * @throws IOException is thrown when reading the template resource fails
+     */
+    public String getContent() throws IOException {
+        return compile().content;
+    }
+
+    /**
+     * Fills the placeholders of this template with the given values
+     *
+     * @param values the values for the placeholders, in the order the placeholders were declared
+     * @return a String containing the filled template
+     * @throws IOException is thrown when reading the template resource fails
+     */
+    public String fill(final String... values) throws IOException {
+        checkValues(values);
+        return compile().text.fill(values);
+    }
+
+    /**
+     * Fills the placeholders of this template with the given values and returns the result as node of
+     * a new document
+     *
+     * @param values the values for the placeholders, in the order the placeholders were declared
+     * @return a DOM Node containing the filled template
+     * @throws IOException is thrown when reading the template resource fails
+     * @throws SAXException is thrown when parsing the filled template fails
+     */
+    public Node fillAsNode(final String... values) throws IOException, SAXException {
+        return fillAsNode(null, values);
+    }
+
+    /**
+     * Fills the placeholders of this template with the given values and returns the result as node
+     * owned by the given document. The node isn't attached to the document yet.
+     *
+     * @param target the document the returned node will belong to, if null a new document is used
+     * @param values the values for the placeholders, in the order the placeholders were declared
+     * @return a DOM Node owned by the given document containing the filled template
+     * @throws IOException is thrown when reading the template resource fails
+     * @throws SAXException is thrown when parsing the filled template fails
+     */
+    public Node fillAsNode(final Document target, final String... values) throws IOException, SAXException {
+        checkValues(values);
+        final CompiledTemplate compiledTemplate = compile();
+
+        if (compiledTemplate.prototype == null || !isInsertableIntoDom(values)) {
+            final Node node = parse(compiledTemplate.text.fill(values));
+            return target == null ? node : target.importNode(node, true);
+        }
+
+        final Document owner = target == null ? newDocument() : target;
+        final Node copy;
+        synchronized (compiledTemplate.prototype) {
+            copy = owner.importNode(compiledTemplate.prototype, true);
+        }
+        for (final ValueSlot slot : compiledTemplate.slots) {
+            slot.fill(copy, values);
+        }
+        return copy;
+    }
+
+    private void checkValues(final String[] values) {
+        if (values.length != this.placeholders.length) {
+            throw new IllegalArgumentException("Template " + this.resourceName + " expects " + this.placeholders.length
+                + " values but got " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                throw new NullPointerException("Value for placeholder " + this.placeholders[i] + " of template "
+                    + this.resourceName + " is null");
+            }
+        }
+    }
+
+    private static boolean isInsertableIntoDom(final String[] values) {
+        for (final String value : values) {
+            for (int i = 0; i < value.length(); i++) {
+                if (MARKUP_CHARACTERS.indexOf(value.charAt(i)) != -1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a XML string with the DocumentBuilder of the current thread, in the same way as the
+     * templates are parsed.
+     *
+     * @param xmlString the XML string to parse
+     * @return the first child node of the parsed document
+     * @throws SAXException is thrown when the string isn't well-formed XML
+     * @throws IOException is thrown when reading the string fails
+     */
+    static Node parse(final String xmlString) throws SAXException, IOException {
+        final InputSource is = new InputSource();
+        is.setCharacterStream(new StringReader(xmlString));
+        final Document doc = DOCUMENT_BUILDER.get().parse(is);
+        return doc.getFirstChild();
+    }
+
+    /**
+     * @return a new empty document created by the DocumentBuilder of the current thread
+     */
+    static Document newDocument() {
+        return DOCUMENT_BUILDER.get().newDocument();
+    }
+
+    private CompiledTemplate compile() throws IOException {
+        CompiledTemplate compiledTemplate = this.compiled;
+        if (compiledTemplate == null) {
+            synchronized (this) {
+                compiledTemplate = this.compiled;
+                if (compiledTemplate == null) {
+                    compiledTemplate = new CompiledTemplate(this.content != null ? this.content : loadResource());
+                    this.compiled = compiledTemplate;
+                }
+            }
+        }
+        return compiledTemplate;
+    }
+
+    private String loadResource() throws IOException {
+        final Bundle bundle = FrameworkUtil.getBundle(this.resourceOwner);
+        final URL url = bundle != null ? bundle.getResource(this.resourceName)
+                                       : this.resourceOwner.getClassLoader().getResource(this.resourceName);
+        if (url == null) {
+            throw new IOException("Couldn't find BPEL fragment " + this.resourceName);
+        }
+        try (InputStream in = url.openStream()) {
+            return IOUtils.toString(in, "UTF-8");
+        }
+    }
+
+    /**
+     * The loaded and parsed form of the template
+     */
+    private final class CompiledTemplate {
+
+        private final String content;
+        private final CompiledText text;
+        private final Node prototype;
+        private final List<ValueSlot> slots = new ArrayList<>();
+
+        CompiledTemplate(final String content) {
+            this.content = content;
+            this.text = new CompiledText(content, BPELFragmentTemplate.this.placeholders);
+
+            Node parsedPrototype = null;
+            try {
+                parsedPrototype = parse(content);
+            }
+            catch (SAXException | IOException e) {
+                // placeholders are used inside of markup, the filled string has to be parsed each time
+                LOG.debug("BPEL fragment {} isn't well-formed without values", BPELFragmentTemplate.this.resourceName);
+            }
+
+            if (parsedPrototype != null) {
+                final int occurrencesInDom =
+                    collectSlots(parsedPrototype.getOwnerDocument(), parsedPrototype, new int[0]);
+                if (occurrencesInDom != this.text.getSlotCount()) {
+                    // at least one placeholder is inside of markup, e.g., an element name
+                    parsedPrototype = null;
+                    this.slots.clear();
+                }
+            }
+            this.prototype = parsedPrototype;
+        }
+
+        /**
+         * Registers all attributes and character data containing placeholders below the prototype and
+         * returns the number of placeholder occurrences found in the given node and its descendants
+         */
+        private int collectSlots(final Node node, final Node prototype, final int[] path) {
+            int occurrences = 0;
+            final boolean inPrototype = path != null;
+
+            if (node instanceof Element) {
+                final NamedNodeMap attributes = node.getAttributes();
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    final Attr attribute = (Attr) attributes.item(i);
+                    occurrences += registerSlot(attribute.getValue(), path, attribute.getName(), inPrototype);
+                }
+            } else if (node instanceof CharacterData) {
+                occurrences += registerSlot(((CharacterData) node).getData(), path, null, inPrototype);
+            }
+
+            final NodeList children = node.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                final Node child = children.item(i);
+                final int[] childPath;
+                if (child == prototype) {
+                    childPath = new int[0];
+                } else if (inPrototype) {
+                    childPath = Arrays.copyOf(path, path.length + 1);
+                    childPath[path.length] = i;
+                } else {
+                    childPath = null;
+                }
+                occurrences += collectSlots(child, prototype, childPath);
+            }
+            return occurrences;
+        }
+
+        private int registerSlot(final String value, final int[] path, final String attributeName,
+                                 final boolean inPrototype) {
+            final CompiledText compiledValue = new CompiledText(value, BPELFragmentTemplate.this.placeholders);
+            if (inPrototype && compiledValue.getSlotCount() > 0) {
+                this.slots.add(new ValueSlot(path, attributeName, compiledValue));
+            }
+            return compiledValue.getSlotCount();
+        }
+    }
+
+    /**
+     * An attribute value or character data inside the prototype which contains placeholders
+     */
+    private static final class ValueSlot {
+
+        private final int[] path;
+        private final String attributeName;
+        private final CompiledText value;
+
+        ValueSlot(final int[] path, final String attributeName, final CompiledText value) {
+            this.path = path;
+            this.attributeName = attributeName;
+            this.value = value;
+        }
+
+        void fill(final Node root, final String[] values) {
+            Node node = root;
+            for (final int index : this.path) {
+                node = node.getChildNodes().item(index);
+            }
+            if (this.attributeName != null) {
+                ((Element) node).setAttribute(this.attributeName, this.value.fill(values));
+            } else {
+                ((CharacterData) node).setData(this.value.fill(values));
+            }
+        }
+    }
+
+    /**
+     * A string split into literal parts and placeholder occurrences
+     */
+    private static final class CompiledText {
+
+        private final String[] literals;
+        private final int[] slots;
+        private final int literalLength;
+
+        CompiledText(final String text, final String[] placeholders) {
+            // longer placeholders first, so a placeholder being the prefix of another doesn't match
+            final Integer[] byLength = new Integer[placeholders.length];
+            for (int i = 0; i < byLength.length; i++) {
+                byLength[i] = i;
+            }
+            Arrays.sort(byLength, new Comparator<Integer>() {
+
+                @Override
+                public int compare(final Integer o1, final Integer o2) {
+                    return placeholders[o2].length() - placeholders[o1].length();
+                }
+            });
+
+            final List<String> literalList = new ArrayList<>();
+            final List<Integer> slotList = new ArrayList<>();
+            int literalStart = 0;
+            int position = 0;
+            while (position < text.length()) {
+                int matched = -1;
+                for (final int placeholderIndex : byLength) {
+                    final String placeholder = placeholders[placeholderIndex];
+                    if (!placeholder.isEmpty() && text.startsWith(placeholder, position)) {
+                        matched = placeholderIndex;
+                        break;
+                    }
+                }
+                if (matched == -1) {
+                    position++;
+                } else {
+                    literalList.add(text.substring(literalStart, position));
+                    slotList.add(matched);
+                    position += placeholders[matched].length();
+                    literalStart = position;
+                }
+            }
+            literalList.add(text.substring(literalStart));
+
+            this.literals = literalList.toArray(new String[literalList.size()]);
+            this.slots = new int[slotList.size()];
+            int length = 0;
+            for (int i = 0; i < this.slots.length; i++) {
+                this.slots[i] = slotList.get(i);
+            }
+            for (final String literal : this.literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+
+        int getSlotCount() {
+            return this.slots.length;
+        }
+
+        String fill(final String[] values) {
+            if (this.slots.length == 0) {
+                return this.literals[0];
+            }
+            final StringBuilder builder = new StringBuilder(this.literalLength + 16 * this.slots.length);
+            for (int i = 0; i < this.slots.length; i++) {
+                builder.append(this.literals[i]);
+                builder.append(values[this.slots[i]]);
+            }
+            builder.append(this.literals[this.slots.length]);
+            return builder.toString();
+        }
+    }
+}
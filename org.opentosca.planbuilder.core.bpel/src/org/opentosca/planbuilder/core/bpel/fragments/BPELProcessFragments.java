@@ -2,7 +2,6 @@ package org.opentosca.planbuilder.core.bpel.fragments;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -10,11 +9,8 @@ import java.util.List;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
-import org.apache.commons.io.FileUtils;
 import org.eclipse.core.runtime.FileLocator;
 import org.opentosca.planbuilder.core.bpel.typebasedplanbuilder.BPELFreezeProcessBuilder;
 import org.opentosca.planbuilder.model.plan.bpel.BPELPlan;
@@ -28,7 +24,6 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.Text;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 /**
@@ -39,41 +34,137 @@ public class BPELProcessFragments {
 
     private final static Logger LOG = LoggerFactory.getLogger(BPELProcessFragments.class);
 
-    private final DocumentBuilderFactory docFactory;
-    private final DocumentBuilder docBuilder;
+    // the fragment templates are loaded and parsed only once per bundle, instead of once per created
+    // activity
+
+    private static final BPELFragmentTemplate ASSIGN_VAR_WITH_LITERAL =
+        template("assignVarWithLiteral.xml", "$literal", "$VarName", "$intent");
+
+    private static final BPELFragmentTemplate ASSIGN_VAR_FROM_VAR_WITH_XPATH2_QUERY =
+        template("assignVarFromVarWithXpath2Query.xml", "$assignName", "$fromVarName", "$toVarName", "$xpath2query");
+
+    private static final BPELFragmentTemplate ASSIGN_VAR_FROM_VAR_WITH_XPATH2_QUERIES =
+        template("assignVarFromVarWithXpath2Queries.xml", "$assignName", "$fromVarName", "$toVarName",
+                 "$xpath2query1", "$part1", "$xpath2query2", "$part2", "$intent", "$extension");
+
+    private static final BPELFragmentTemplate MONITORING_SITUATION =
+        template("BPELMonitoringSituation.xml", "$SituationIds", "$situationIdFromInputCopies", "$anyVar",
+                 "$requestVar", "$urlVarName");
+
+    private static final BPELFragmentTemplate POST_SERVICE_INSTANCE_WITH_REQUEST =
+        template("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI_WithBody.xml", "$InstanceDataURLVar",
+                 "$RequestVarName", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate POST_SERVICE_INSTANCE_WITH_SERVICE_TEMPLATE =
+        template("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI_WithBody.xml", "$InstanceDataURLVar",
+                 "$CSARName", "$serviceTemplateId", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate POST_SERVICE_INSTANCE =
+        template("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI.xml", "$InstanceDataURLVar",
+                 "$ResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_FROM_NODE_INSTANCE_REQUEST_TO_STRING_VAR =
+        template("BpelAssignFromNodeInstanceRequestToStringVar.xml", "$assignName", "$stringVarName",
+                 "$NodeInstanceResponseVarName");
+
+    private static final BPELFragmentTemplate COPY_FROM_PROPERTY_VAR_TO_NODE_INSTANCE_PROPERTY =
+        template("BpelCopyFromPropertyVarToNodeInstanceProperty.xml", "$PropertyVarName",
+                 "$NodeInstancePropertyRequestVarName", "$NodeInstancePropertyLocalName",
+                 "$NodeInstancePropertyNamespace");
+
+    private static final BPELFragmentTemplate ASSIGN_SELECT_FROM_RELATION_INSTANCES_REQUEST_TO_STRING_VAR =
+        template("BpelAssignSelectFromRelationInstancesRequestToStringVar.xml", "$assignName", "$stringVarName",
+                 "$NodeInstancesResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_SELECT_FROM_NODE_INSTANCES_REQUEST_TO_STRING_VAR =
+        template("BpelAssignSelectFromNodeInstancesRequestToStringVar.xml", "$assignName", "$stringVarName",
+                 "$NodeInstancesResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_STRING_VAR_WITH_XPATH2_QUERY =
+        template("assignStringVarWithXpath2Query.xml", "{AssignName}", "{xpath2query}", "{stringVarName}");
+
+    private static final BPELFragmentTemplate GET_NODE_INSTANCES =
+        template("BPEL4RESTLightGET_NodeInstances_InstanceDataAPI.xml", "$serviceInstanceURLVar", "$ResponseVarName",
+                 "$nodeTemplateId");
+
+    private static final BPELFragmentTemplate POST_PLAN_INSTANCE_LOGS =
+        template("BPEL4RESTLightPOST_PlanInstance_Logs.xml", "$urlVarName", "$requestVar", "$contentStringVar");
+
+    private static final BPELFragmentTemplate PUT_INSTANCE_STATE =
+        template("BPEL4RESTLightPUTInstanceState.xml", "$urlVarName", "$requestVar");
+
+    private static final BPELFragmentTemplate GET_RELATION_INSTANCES =
+        template("BPEL4RESTLightGET_RelationInstances_InstanceDataAPI.xml", "$serviceInstanceURLVar",
+                 "$ResponseVarName", "relationshipTemplateId");
+
+    private static final BPELFragmentTemplate GET_RELATION_INSTANCES_QUERY_ON_TARGET_INSTANCE =
+        template("BPEL4RESTLightGET_RelationInstances_QueryOnTargetInstance_InstanceDataAPI.xml",
+                 "$ServiceTemplateURLVarKeyword", "$relationshipTemplateId", "$ResponseVarName",
+                 "$nodeInstanceIdVarName");
+
+    private static final BPELFragmentTemplate DELETE =
+        template("BPEL4RESTLightDELETE.xml", "$urlVarName", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate GET_NODE_INSTANCE =
+        template("BPEL4RESTLightGET_NodeInstance_InstanceDataAPI.xml", "$InstanceDataURLVar", "$ResponseVarName",
+                 "$templateId", "?query");
+
+    private static final BPELFragmentTemplate GET_RELATION_INSTANCE =
+        template("BPEL4RESTLightGET_RelationInstance_InstanceDataAPI.xml", "$InstanceDataURLVar", "$ResponseVarName",
+                 "$templateId", "?query");
+
+    private static final BPELFragmentTemplate GET_NODE_INSTANCE_PROPERTIES =
+        template("BPEL4RESTLightGET_NodeInstance_Properties.xml", "$urlVarName", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_SERVICE_INSTANCE_CORRELATION_ID_POST_REQUEST =
+        template("BpelAssignServiceInstanceCorrelationIdPOSTRequest.xml", "$inputElementLocalName",
+                 "$StringVariableName", "$assignName");
+
+    private static final BPELFragmentTemplate ASSIGN_FROM_INPUT_TO_STRING_VAR =
+        template("BpelAssignFromInputToStringVar.xml", "$inputElementLocalName", "$StringVariableName",
+                 "$assignName");
+
+    private static final BPELFragmentTemplate GET_URL_APPLICATION_XML =
+        template("BPEL4RESTLightGET_URL_ApplicationXML.xml", "$ResponseVarName", "$urlVar");
+
+    private static final BPELFragmentTemplate IF_TRUE_THROW_FAULT =
+        template("BPELIfTrueThrowFault.xml", "$xpath1Expr", "$faultPrefix", "$faultLocalName");
+
+    private static final BPELFragmentTemplate COPY_OUTPUT_VAR_FROM_STRING_VAR =
+        template("BpelCopyOutputVarFromStringVariable.xml", "${variableName}", "${outputVarName}",
+                 "${outputVarPartName}", "${outputVarLocalName}");
+
+    private static final String[] SERVICE_INSTANCE_POST_RESPONSE_PLACEHOLDERS =
+        {"$assignName", "$ServiceInstanceResponseVarName", "$ServiceInstanceURLVarName", "$ServiceInstanceIDVarName",
+         "$serviceTemplateURLVarName", "$serviceTemplateInstancesURLVar", "$ServiceInstanceCorrelationID",
+         "$planName", "$planInstanceURL"};
+
+    private static final BPELFragmentTemplate ASSIGN_SERVICE_INSTANCE_POST_RESPONSE =
+        template("BpelAssignServiceInstancePOSTResponse.xml", SERVICE_INSTANCE_POST_RESPONSE_PLACEHOLDERS);
+
+    private static final BPELFragmentTemplate ASSIGN_SERVICE_INSTANCE_POST_RESPONSE_2 =
+        template("BpelAssignServiceInstancePOSTResponse2.xml", SERVICE_INSTANCE_POST_RESPONSE_PLACEHOLDERS);
 
     /**
      * Constructor
      *
-     * @throws ParserConfigurationException is thrown when initializing the DOM Parsers fails
+     * @throws ParserConfigurationException not thrown anymore as the DOM Parsers are shared with the
+     *         fragment templates, kept for the existing callers
      */
     public BPELProcessFragments() throws ParserConfigurationException {
-        this.docFactory = DocumentBuilderFactory.newInstance();
-        this.docFactory.setNamespaceAware(true);
-        this.docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
     }
 
-    private String loadFragmentResourceAsString(final String fileName) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getResource(fileName);
-        final File bpelfragmentfile = new File(FileLocator.toFileURL(url).getPath());
-        String template = FileUtils.readFileToString(bpelfragmentfile);
-        return template;
+    private static BPELFragmentTemplate template(final String fileName, final String... placeholders) {
+        return new BPELFragmentTemplate(BPELProcessFragments.class, fileName, placeholders);
     }
 
     public Node transformStringToNode(String xmlString) throws SAXException, IOException {
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(xmlString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return BPELFragmentTemplate.parse(xmlString);
     }
 
     public String createAssignVarWithLiteral(final String literal, final String varName,
                                              final String intent) throws IOException {
-        String template = this.loadFragmentResourceAsString("assignVarWithLiteral.xml");
-        template = template.replaceAll("\\$literal", literal);
-        template = template.replaceAll("\\$VarName", varName);
-        template = template.replaceAll("\\$intent", intent);
-        return template;
+        return ASSIGN_VAR_WITH_LITERAL.fill(literal, varName, intent);
     }
 
     public Node createAssignTransformXmltoString(final BPELPlan plan, final String xmlVar, final String stringVar,
@@ -96,8 +187,7 @@ public class BPELProcessFragments {
     
     public Node createAssignVarWithLiteralAsNode(final String literal, final String varName,
                                                  final String intent) throws IOException, SAXException {
-        final String templateString = createAssignVarWithLiteral(literal, varName, intent);
-        return this.transformStringToNode(templateString);
+        return ASSIGN_VAR_WITH_LITERAL.fillAsNode(literal, varName, intent);
     }
 
     /**
@@ -115,18 +205,14 @@ public class BPELProcessFragments {
                                                                                   final String stringVarName,
                                                                                   final String nodeInstanceResponseVarName) throws SAXException,
                                                                                                                             IOException {
-        final String templateString =
-            createAssign2FetchNodeInstanceIDFromInstanceDataAPIResponseAsString(assignName, stringVarName,
-                                                                                nodeInstanceResponseVarName);
-        return this.transformStringToNode(templateString);
+        return ASSIGN_FROM_NODE_INSTANCE_REQUEST_TO_STRING_VAR.fillAsNode(assignName, stringVarName,
+                                                                          nodeInstanceResponseVarName);
     }
 
     public Node createAssignVarToVarWithXpathQueryAsNode(final String assignName, final String fromVarName,
                                                          final String toVarName,
                                                          final String xpathQuery) throws IOException, SAXException {
-        final String templateString =
-            createAssignVarToVarWithXPathQuery(assignName, fromVarName, toVarName, xpathQuery);
-        return this.transformStringToNode(templateString);
+        return ASSIGN_VAR_FROM_VAR_WITH_XPATH2_QUERY.fillAsNode(assignName, fromVarName, toVarName, xpathQuery);
     }
 
     
@@ -134,8 +220,6 @@ public class BPELProcessFragments {
     
     public String createAssignAndPostSituationMonitor(Map<AbstractNodeTemplate, Collection<AbstractPolicy>> situationPolicies,
                                                       Map<AbstractPolicy, String> policy2IdMap , String serviceTemplateInstanceUrlVarName, String anyVarName, String requestVarName) throws IOException {
-        String template = this.loadFragmentResourceAsString("BPELMonitoringSituation.xml");
-        
         String situationIdRequestBody = "";
         String copyFromInputToRequestBody = "";
         
@@ -159,7 +243,7 @@ public class BPELProcessFragments {
                 String inputLocalName = policy2IdMap.get(policy);
 
                 situationIdRequestBody += "<situationId/>";
-                copyFromInputToRequestBody += "<bpel:copy><bpel:from part=\"payload\" variable=\"input\"><bpel:query queryLanguage=\"urn:oasis:names:tc:wsbpel:2.0:sublang:xpath1.0\"><![CDATA[//*[local-name()='"+inputLocalName+"']/text()]]></bpel:query></bpel:from><bpel:to variable=\"$anyVar\"><bpel:query queryLanguage=\"urn:oasis:names:tc:wsbpel:2.0:sublang:xpath2.0\"><![CDATA[//*[local-name()='SituationsMonitor']/*[local-name()='NodeIds2SituationIds']/*[local-name()='entry' and ./*[local-name()='key' and text()='"+nodeTemplateId+"']]/*[local-name()='value']/*[local-name()='SituationIdsList']/*[local-name()='situationId']["+String.valueOf(i+1)+"]]]></bpel:query></bpel:to></bpel:copy>";
+                copyFromInputToRequestBody += "<bpel:copy><bpel:from part=\"payload\" variable=\"input\"><bpel:query queryLanguage=\"urn:oasis:names:tc:wsbpel:2.0:sublang:xpath1.0\"><![CDATA[//*[local-name()='"+inputLocalName+"']/text()]]></bpel:query></bpel:from><bpel:to variable=\""+anyVarName+"\"><bpel:query queryLanguage=\"urn:oasis:names:tc:wsbpel:2.0:sublang:xpath2.0\"><![CDATA[//*[local-name()='SituationsMonitor']/*[local-name()='NodeIds2SituationIds']/*[local-name()='entry' and ./*[local-name()='key' and text()='"+nodeTemplateId+"']]/*[local-name()='value']/*[local-name()='SituationIdsList']/*[local-name()='situationId']["+String.valueOf(i+1)+"]]]></bpel:query></bpel:to></bpel:copy>";
             }                
             situationIdRequestBody += "</SituationIdsList></value></entry>";
         }
@@ -173,14 +257,8 @@ public class BPELProcessFragments {
 //            copyFromInputToRequestBody += "<bpel:copy><bpel:from part=\"payload\" variable=\"input\"><bpel:query queryLanguage=\"urn:oasis:names:tc:wsbpel:2.0:sublang:xpath1.0\"><![CDATA[//*[local-name()='"+inputLocalName+"']/text()]]></bpel:query></bpel:from><bpel:to variable=\"$anyVar\"><bpel:query queryLanguage=\"urn:oasis:names:tc:wsbpel:2.0:sublang:xpath2.0\"><![CDATA[//*[local-name()='SituationsMonitor']/*[local-name()='Situations']/*[local-name()='SituationId']["+String.valueOf(i+1)+"]]]></bpel:query></bpel:to></bpel:copy>";
 //        }
 
-        template = template.replace("$SituationIds", situationIdRequestBody);
-        template = template.replace("$situationIdFromInputCopies", copyFromInputToRequestBody);
-        template = template.replace("$anyVar", anyVarName);
-        template = template.replace("$requestVar", requestVarName);
-        template = template.replace("$urlVarName", serviceTemplateInstanceUrlVarName);
-        
-        
-        return template;
+        return MONITORING_SITUATION.fill(situationIdRequestBody, copyFromInputToRequestBody, anyVarName,
+                                         requestVarName, serviceTemplateInstanceUrlVarName);
     }
     
     public Node createAssignAndPostSituationMonitorAsNode(Map<AbstractNodeTemplate, Collection<AbstractPolicy>> situationPolicies,
@@ -193,62 +271,29 @@ public class BPELProcessFragments {
                                                      final String toVarName,
                                                      final String xpathQuery) throws IOException {
         // <!-- $xpath2query, $fromVarName, $toVarName -->
-        String template = this.loadFragmentResourceAsString("assignVarFromVarWithXpath2Query.xml");
-        template = template.replaceAll("\\$assignName", assignName);
-        template = template.replaceAll("\\$fromVarName", fromVarName);
-        template = template.replaceAll("\\$toVarName", toVarName);
-        template = template.replace("$xpath2query", xpathQuery);
-        return template;
+        return ASSIGN_VAR_FROM_VAR_WITH_XPATH2_QUERY.fill(assignName, fromVarName, toVarName, xpathQuery);
     }
 
     public Node createHTTPPOST(final String urlVarName, final String requestVarName,
                                final String responseVarName) throws IOException, SAXException {
-        String template =
-            this.loadFragmentResourceAsString("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI_WithBody.xml");
-        template = template.replaceAll("\\$InstanceDataURLVar", urlVarName);
-        template = template.replaceAll("\\$RequestVarName", requestVarName);
-        template = template.replaceAll("\\$ResponseVarName", responseVarName);
-        return this.transformStringToNode(template);
+        return POST_SERVICE_INSTANCE_WITH_REQUEST.fillAsNode(urlVarName, requestVarName, responseVarName);
     }
 
     public Node createHTTPPOST(final String urlVarName, final String responseVarName) throws IOException, SAXException {
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI.xml");
-        template = template.replaceAll("\\$InstanceDataURLVar", urlVarName);
-        template = template.replaceAll("\\$ResponseVarName", responseVarName);
-        return this.transformStringToNode(template);
+        return POST_SERVICE_INSTANCE.fillAsNode(urlVarName, responseVarName);
     }
 
     public String createAssignVarToVarWithXpathQueries(final String assignName, final String fromVarName,
                                                        final String part1, final String toVarName, final String part2,
                                                        final String xpathQuery1, final String xpathQuery2,
                                                        final String intent, final QName extension) throws IOException {
-        String template = this.loadFragmentResourceAsString("assignVarFromVarWithXpath2Queries.xml");
-        template = template.replaceAll("\\$assignName", assignName);
-        template = template.replaceAll("\\$fromVarName", fromVarName);
-        template = template.replaceAll("\\$toVarName", toVarName);
-        template = template.replace("$xpath2query1", xpathQuery1);
-        if (part1 != null) {
-            template = template.replaceAll("\\$part1", "part=\"" + part1 + "\"");
-        } else {
-            template = template.replaceAll("\\$part1", "");
-        }
-        template = template.replace("$xpath2query2", xpathQuery2);
-
-        if (part2 != null) {
-            template = template.replaceAll("\\$part2", "part=\"" + part2 + "\"");
-        } else {
-            template = template.replaceAll("\\$part2", "");
-        }
-        template = template.replaceAll("\\$intent", intent);
-
-        if (extension != null) {
-            template =
-                template.replaceAll("\\$extension",
-                                    "xmlns:" + extension.getPrefix() + "=\"" + extension.getNamespaceURI() + "\"");
-        } else {
-            template = template.replaceAll("\\$extension", "");
-        }
-        return template;
+        final String part1Attribute = part1 != null ? "part=\"" + part1 + "\"" : "";
+        final String part2Attribute = part2 != null ? "part=\"" + part2 + "\"" : "";
+        final String extensionAttribute =
+            extension != null ? "xmlns:" + extension.getPrefix() + "=\"" + extension.getNamespaceURI() + "\"" : "";
+        return ASSIGN_VAR_FROM_VAR_WITH_XPATH2_QUERIES.fill(assignName, fromVarName, toVarName, xpathQuery1,
+                                                            part1Attribute, xpathQuery2, part2Attribute, intent,
+                                                            extensionAttribute);
     }
 
     public Node createAssignVarToVarWithXpathQueriesAsNode(final String assignName, final String fromVarName,
@@ -276,11 +321,8 @@ public class BPELProcessFragments {
                                                                                       final String stringVarName,
                                                                                       final String nodeInstanceResponseVarName) throws IOException {
         // <!-- $assignName, $stringVarName, $NodeInstanceResponseVarName -->
-        String template = this.loadFragmentResourceAsString("BpelAssignFromNodeInstanceRequestToStringVar.xml");
-        template = template.replace("$assignName", assignName);
-        template = template.replace("$stringVarName", stringVarName);
-        template = template.replace("$NodeInstanceResponseVarName", nodeInstanceResponseVarName);
-        return template;
+        return ASSIGN_FROM_NODE_INSTANCE_REQUEST_TO_STRING_VAR.fill(assignName, stringVarName,
+                                                                    nodeInstanceResponseVarName);
     }
 
     /**
@@ -319,69 +361,55 @@ public class BPELProcessFragments {
     public String createAssignFromInstancePropertyToBPELVariableAsString(final String assignName,
                                                                              final String nodeInstancePropertyResponseVarName,
                                                                              final Map<Element, String> propElement2BpelVarNameMap) throws IOException {
-        final String template = this.loadFragmentResourceAsString("BpelCopyFromPropertyVarToNodeInstanceProperty.xml");
-
-        String assignString =
-            "<bpel:assign name=\"" + assignName + "\" xmlns:bpel=\"" + BPELPlan.bpelNamespace + "\" >";
+        final StringBuilder assignString = new StringBuilder();
+        assignString.append("<bpel:assign name=\"" + assignName + "\" xmlns:bpel=\"" + BPELPlan.bpelNamespace + "\" >");
 
         // <!-- $PropertyVarName, $NodeInstancePropertyRequestVarName,
         // $NodeInstancePropertyLocalName, $NodeInstancePropertyNamespace -->
         for (final Element propElement : propElement2BpelVarNameMap.keySet()) {
-            String copyString = template.replace("$PropertyVarName", propElement2BpelVarNameMap.get(propElement));
-            copyString = copyString.replace("$NodeInstancePropertyRequestVarName", nodeInstancePropertyResponseVarName);
-            copyString = copyString.replace("$NodeInstancePropertyLocalName", propElement.getLocalName());
-            copyString = copyString.replace("$NodeInstancePropertyNamespace", propElement.getNamespaceURI());
-            assignString += copyString;
+            final String copyString =
+                COPY_FROM_PROPERTY_VAR_TO_NODE_INSTANCE_PROPERTY.fill(propElement2BpelVarNameMap.get(propElement),
+                                                                      nodeInstancePropertyResponseVarName,
+                                                                      propElement.getLocalName(),
+                                                                      propElement.getNamespaceURI());
+            assignString.append(copyString);
         }
 
-        assignString += "</bpel:assign>";
+        assignString.append("</bpel:assign>");
 
         BPELProcessFragments.LOG.debug("Generated following assign string:");
-        BPELProcessFragments.LOG.debug(assignString);
+        BPELProcessFragments.LOG.debug("{}", assignString);
 
-        return assignString;
+        return assignString.toString();
     }
 
     public String createAssignSelectFirstRelationInstanceFromResponse(final String referencesResponseVarName, final String resultVarName) throws IOException {
-        String bpelAssignString =
-            this.loadFragmentResourceAsString("BpelAssignSelectFromRelationInstancesRequestToStringVar.xml");
-
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$assignName", "assignSelectFirstReference" + System.currentTimeMillis());
-        bpelAssignString = bpelAssignString.replaceAll("\\$stringVarName", resultVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$NodeInstancesResponseVarName", referencesResponseVarName);
-        return bpelAssignString;
+        final String assignName = "assignSelectFirstReference" + System.currentTimeMillis();
+        return ASSIGN_SELECT_FROM_RELATION_INSTANCES_REQUEST_TO_STRING_VAR.fill(assignName, resultVarName, referencesResponseVarName);
     }
     
     public Node createAssignSelectFirstRelationInstanceFromResponseAsNode(final String referencesResponseVarName, final String resultVarName) throws SAXException, IOException {
-        final String templateString = this.createAssignSelectFirstRelationInstanceFromResponse(referencesResponseVarName, resultVarName);
-        return this.transformStringToNode(templateString);
+        final String assignName = "assignSelectFirstReference" + System.currentTimeMillis();
+        return ASSIGN_SELECT_FROM_RELATION_INSTANCES_REQUEST_TO_STRING_VAR.fillAsNode(assignName, resultVarName, referencesResponseVarName);
     }
     
     public String createAssignSelectFirstNodeInstanceAndAssignToStringVar(final String referencesResponseVarName,
                                                                        final String stringVarName) throws IOException {
         // BpelAssignSelectFromNodeInstancesRequestToStringVar.xml
         // <!-- $assignName, $stringVarName, $NodeInstancesResponseVarName -->
-        String bpelAssignString =
-            this.loadFragmentResourceAsString("BpelAssignSelectFromNodeInstancesRequestToStringVar.xml");
-
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$assignName", "assignSelectFirstReference" + System.currentTimeMillis());
-        bpelAssignString = bpelAssignString.replaceAll("\\$stringVarName", stringVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$NodeInstancesResponseVarName", referencesResponseVarName);
-        return bpelAssignString;
+        final String assignName = "assignSelectFirstReference" + System.currentTimeMillis();
+        return ASSIGN_SELECT_FROM_NODE_INSTANCES_REQUEST_TO_STRING_VAR.fill(assignName, stringVarName, referencesResponseVarName);
     }
 
     public Node createAssignSelectFirstNodeInstanceAndAssignToStringVarAsNode(final String referencesResponseVarName,
                                                                            final String stringVarName) throws IOException,
                                                                                                        SAXException {
-        final String templateString =
-            createAssignSelectFirstNodeInstanceAndAssignToStringVar(referencesResponseVarName, stringVarName);
-        return this.transformStringToNode(templateString);
+        final String assignName = "assignSelectFirstReference" + System.currentTimeMillis();
+        return ASSIGN_SELECT_FROM_NODE_INSTANCES_REQUEST_TO_STRING_VAR.fillAsNode(assignName, stringVarName, referencesResponseVarName);
     }
 
     public Node createIfTrueThrowsError(final String xpath, final QName faultName) {
-        final Document doc = this.docBuilder.newDocument();
+        final Document doc = BPELFragmentTemplate.newDocument();
 
         final Element ifElement = doc.createElementNS(BPELPlan.bpelNamespace, "if");
 
@@ -421,9 +449,7 @@ public class BPELProcessFragments {
     public Node createAssignXpathQueryToStringVarFragmentAsNode(final String assignName, final String xpath2Query,
                                                                 final String stringVarName) throws IOException,
                                                                                             SAXException {
-        final String templateString =
-            createAssignXpathQueryToStringVarFragmentAsString(assignName, xpath2Query, stringVarName);
-        return this.transformStringToNode(templateString);
+        return ASSIGN_STRING_VAR_WITH_XPATH2_QUERY.fillAsNode(assignName, xpath2Query, stringVarName);
     }
 
     /**
@@ -439,31 +465,21 @@ public class BPELProcessFragments {
     public String createAssignXpathQueryToStringVarFragmentAsString(final String assignName, final String xpath2Query,
                                                                     final String stringVarName) throws IOException {
         // <!-- {AssignName},{xpath2query}, {stringVarName} -->
-        String template = this.loadFragmentResourceAsString("assignStringVarWithXpath2Query.xml");
-        template = template.replace("{AssignName}", assignName);
-        template = template.replace("{xpath2query}", xpath2Query);
-        template = template.replace("{stringVarName}", stringVarName);
-        return template;
+        return ASSIGN_STRING_VAR_WITH_XPATH2_QUERY.fill(assignName, xpath2Query, stringVarName);
     }
 
     public Node createBPEL4RESTLightNodeInstancesGETAsNode(final String nodeTemplateId,
                                                            final String serviceInstanceIdVarName,
                                                            final String responseVarName) throws IOException,
                                                                                          SAXException {
-        final String templateString =
-            createBPEL4RESTLightNodeInstancesGETAsString(nodeTemplateId, serviceInstanceIdVarName, responseVarName);
-        return this.transformStringToNode(templateString);
+        return GET_NODE_INSTANCES.fillAsNode(serviceInstanceIdVarName, responseVarName, nodeTemplateId);
     }
 
     public String createBPEL4RESTLightNodeInstancesGETAsString(final String nodeTemplateId,
                                                                final String serviceInstanceIdVarName,
                                                                final String responseVarName) throws IOException {
         // <!-- $serviceInstanceURLVar, $nodeTemplateId, $ResponseVarName -->
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightGET_NodeInstances_InstanceDataAPI.xml");
-        template = template.replace("$serviceInstanceURLVar", serviceInstanceIdVarName);
-        template = template.replace("$ResponseVarName", responseVarName);
-        template = template.replace("$nodeTemplateId", nodeTemplateId);
-        return template;
+        return GET_NODE_INSTANCES.fill(serviceInstanceIdVarName, responseVarName, nodeTemplateId);
     }
 
     public String createBPEL4RESTLightPlanInstanceLOGsPOST(final String urlVarName,
@@ -471,56 +487,39 @@ public class BPELProcessFragments {
                                                            final String unassignedLogReqMessage) throws IOException {
         // BPEL4RESTLightPOST_PlanInstance_Logs.xml
         // <!-- $urlVarName, $requestVar, $correlationId -->
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightPOST_PlanInstance_Logs.xml");
-        template = template.replaceAll("\\$urlVarName", urlVarName);
-        template = template.replaceAll("\\$requestVar", unassignedLogReqMessage);
-        template = template.replaceAll("\\$contentStringVar", stringVarNameWithLogContent);
-        return template;
+        return POST_PLAN_INSTANCE_LOGS.fill(urlVarName, unassignedLogReqMessage, stringVarNameWithLogContent);
     }
 
     public Node createBPEL4RESTLightPlanInstanceLOGsPOSTAsNode(final String urlVarName,
                                                                final String stringVarNameWithLogContent,
                                                                final String unassignedLogReqMessage) throws IOException,
                                                                                                      SAXException {
-        final String templateString =
-            createBPEL4RESTLightPlanInstanceLOGsPOST(urlVarName, stringVarNameWithLogContent, unassignedLogReqMessage);
-        return this.transformStringToNode(templateString);
+        return POST_PLAN_INSTANCE_LOGS.fillAsNode(urlVarName, unassignedLogReqMessage, stringVarNameWithLogContent);
     }
 
     public String createBPEL4RESTLightPUTState(final String instanceURLVarName,
                                                final String requestVarName) throws IOException {
         // <!-- $urlVarName, $requestVar -->
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightPUTInstanceState.xml");
-        template = template.replace("$urlVarName", instanceURLVarName);
-        template = template.replace("$requestVar", requestVarName);
-        return template;
+        return PUT_INSTANCE_STATE.fill(instanceURLVarName, requestVarName);
     }
 
     public Node createBPEL4RESTLightPutStateAsNode(final String instanceURLVarName,
                                                    final String requestVarName) throws IOException, SAXException {
-        final String templateString = createBPEL4RESTLightPUTState(instanceURLVarName, requestVarName);
-        return this.transformStringToNode(templateString);
+        return PUT_INSTANCE_STATE.fillAsNode(instanceURLVarName, requestVarName);
     }
 
     public Node createBPEL4RESTLightRelationInstancesGETAsNode(final String relationshipTemplateId,
                                                                final String serviceInstanceIdVarName,
                                                                final String responseVarName) throws IOException,
                                                                                              SAXException {
-        final String templateString =
-            createBPEL4RESTLightRelationInstancesGETAsString(relationshipTemplateId, serviceInstanceIdVarName,
-                                                             responseVarName);
-        return this.transformStringToNode(templateString);
+        return GET_RELATION_INSTANCES.fillAsNode(serviceInstanceIdVarName, responseVarName, relationshipTemplateId);
     }
 
     public String createBPEL4RESTLightRelationInstancesGETAsString(final String relationshipTemplateId,
                                                                    final String serviceInstanceIdVarName,
                                                                    final String responseVarName) throws IOException {
         // <!-- $serviceInstanceURLVar, $nodeTemplateId, $ResponseVarName -->
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightGET_RelationInstances_InstanceDataAPI.xml");
-        template = template.replace("$serviceInstanceURLVar", serviceInstanceIdVarName);
-        template = template.replace("$ResponseVarName", responseVarName);
-        template = template.replace("relationshipTemplateId", relationshipTemplateId);
-        return template;
+        return GET_RELATION_INSTANCES.fill(serviceInstanceIdVarName, responseVarName, relationshipTemplateId);
     }
 
     public Node createBPEL4RESTLightRelationInstancesTargetNodeInstanceQueryGETAsNode(final String serviceInstanceIdVarName,
@@ -528,12 +527,9 @@ public class BPELProcessFragments {
                                                                                       final String responseVarName,
                                                                                       final String nodeInstanceIdVarName) throws IOException,
                                                                                                                           SAXException {
-        final String templateString =
-            createBPEL4RESTLightRelationInstancesTargetNodeInstanceQueryGETAsString(serviceInstanceIdVarName,
-                                                                                    relationshipTemplateId,
-                                                                                    responseVarName,
-                                                                                    nodeInstanceIdVarName);
-        return this.transformStringToNode(templateString);
+        return GET_RELATION_INSTANCES_QUERY_ON_TARGET_INSTANCE.fillAsNode(serviceInstanceIdVarName,
+                                                                          relationshipTemplateId, responseVarName,
+                                                                          nodeInstanceIdVarName);
     }
 
     public String createBPEL4RESTLightRelationInstancesTargetNodeInstanceQueryGETAsString(final String serviceTemplateUrlVarName,
@@ -543,18 +539,11 @@ public class BPELProcessFragments {
         // BPEL4RESTLightGET_RelationInstances_QueryOnTargetInstance_InstanceDataAPI.xml
         // <!-- $serviceInstanceURLVar, $relationshipTemplateId, $ResponseVarName,
         // $nodeInstanceIdVarName -->
-        String template =
-            this.loadFragmentResourceAsString("BPEL4RESTLightGET_RelationInstances_QueryOnTargetInstance_InstanceDataAPI.xml");
-
         // <!-- $ServiceTemplateURLVarKeyword, $relationshipTemplateId,
         // $nodeInstanceIdVarName,
         // $ResponseVarName-->
-
-        template = template.replace("$ServiceTemplateURLVarKeyword", serviceTemplateUrlVarName);
-        template = template.replace("$relationshipTemplateId", relationshipTemplateId);
-        template = template.replace("$ResponseVarName", responseVarName);
-        template = template.replace("$nodeInstanceIdVarName", nodeInstanceIdVarName);
-        return template;
+        return GET_RELATION_INSTANCES_QUERY_ON_TARGET_INSTANCE.fill(serviceTemplateUrlVarName, relationshipTemplateId,
+                                                                    responseVarName, nodeInstanceIdVarName);
     }
 
     /**
@@ -568,8 +557,7 @@ public class BPELProcessFragments {
      */
     public Node createRESTDeleteOnURLBPELVarAsNode(final String bpelVarName,
                                                    final String responseVarName) throws IOException, SAXException {
-        final String templateString = createRESTDeleteOnURLBPELVarAsString(bpelVarName, responseVarName);
-        return this.transformStringToNode(templateString);
+        return DELETE.fillAsNode(bpelVarName, responseVarName);
     }
 
     /**
@@ -582,10 +570,7 @@ public class BPELProcessFragments {
      */
     public String createRESTDeleteOnURLBPELVarAsString(final String bpelVarName,
                                                        final String responseVarName) throws IOException {
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightDELETE.xml");
-        template = template.replace("$urlVarName", bpelVarName);
-        template = template.replace("$ResponseVarName", responseVarName);
-        return template;
+        return DELETE.fill(bpelVarName, responseVarName);
     }
 
     /**
@@ -607,10 +592,8 @@ public class BPELProcessFragments {
     public Node createRESTExtensionGETForNodeInstanceDataAsNode(final String serviceTemplateUrlVar,
                                                                 final String responseVarName, final String templateId,
                                                                 final String query) throws SAXException, IOException {
-        final String templateString =
-            createRESTExtensionGETForNodeInstanceDataAsString(serviceTemplateUrlVar, responseVarName, templateId,
-                                                              query);
-        return this.transformStringToNode(templateString);
+        return GET_NODE_INSTANCE.fillAsNode(serviceTemplateUrlVar, responseVarName, templateId,
+                                            query != null ? query : "");
     }
 
     /**
@@ -636,46 +619,23 @@ public class BPELProcessFragments {
         // $serviceInstanceUrlVarName, $templateType -->
 
         // <!-- $InstanceDataURLVar, $ResponseVarName, $nodeType -->
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightGET_NodeInstance_InstanceDataAPI.xml");
-        template = template.replaceAll("\\$InstanceDataURLVar", serviceTemplateUrlVar);
-        template = template.replaceAll("\\$ResponseVarName", responseVarName);
-        template = template.replaceAll("\\$templateId", templateId);
-
-        if (query != null) {
-            template = template.replace("?query", query);
-        } else {
-            template = template.replace("?query", "");
-        }
-
-        return template;
+        return GET_NODE_INSTANCE.fill(serviceTemplateUrlVar, responseVarName, templateId, query != null ? query : "");
     }
     
     public Node createRESTExtensionGETForRelationInstanceDataAsNode(final String serviceTemplateUrlVar,
                                                                     final String responseVarName,
                                                                     final String templateId,
                                                                     final String query) throws SAXException, IOException {
-        final String templateString =
-            createRESTExtensionGETForRelationInstanceDataAsString(serviceTemplateUrlVar, responseVarName, templateId,
-                                                              query);
-        return this.transformStringToNode(templateString);
+        return GET_RELATION_INSTANCE.fillAsNode(serviceTemplateUrlVar, responseVarName, templateId,
+                                                query != null ? query : "");
     }
     
     public String createRESTExtensionGETForRelationInstanceDataAsString(final String serviceTemplateUrlVar,
                                                                     final String responseVarName,
                                                                     final String templateId,
                                                                     final String query) throws IOException {
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightGET_RelationInstance_InstanceDataAPI.xml");
-        template = template.replaceAll("\\$InstanceDataURLVar", serviceTemplateUrlVar);
-        template = template.replaceAll("\\$ResponseVarName", responseVarName);
-        template = template.replaceAll("\\$templateId", templateId);
-
-        if (query != null) {
-            template = template.replace("?query", query);
-        } else {
-            template = template.replace("?query", "");
-        }
-
-        return template;
+        return GET_RELATION_INSTANCE.fill(serviceTemplateUrlVar, responseVarName, templateId,
+                                          query != null ? query : "");
     }
 
     /**
@@ -690,9 +650,7 @@ public class BPELProcessFragments {
     public Node createRESTExtensionGETForInstancePropertiesAsNode(final String nodeInstanceIDUrl,
                                                                       final String responseVarName) throws IOException,
                                                                                                     SAXException {
-        final String templateString =
-            createRESTExtensionGETForInstancePropertiesAsString(nodeInstanceIDUrl, responseVarName);
-        return this.transformStringToNode(templateString);
+        return GET_NODE_INSTANCE_PROPERTIES.fillAsNode(nodeInstanceIDUrl, responseVarName);
     }
 
     /**
@@ -706,11 +664,7 @@ public class BPELProcessFragments {
     public String createRESTExtensionGETForInstancePropertiesAsString(final String nodeInstanceIDUrl,
                                                                           final String responseVarName) throws IOException {
         // <!-- $urlVarName, $ResponseVarName -->
-        String template = this.loadFragmentResourceAsString("BPEL4RESTLightGET_NodeInstance_Properties.xml");
-        template = template.replace("$urlVarName", nodeInstanceIDUrl);
-        template = template.replace("$ResponseVarName", responseVarName);
-
-        return template;
+        return GET_NODE_INSTANCE_PROPERTIES.fill(nodeInstanceIDUrl, responseVarName);
     }
 
     /**
@@ -729,23 +683,20 @@ public class BPELProcessFragments {
 
     public String generateServiceInstanceRequestMessageAssign(final String inputMessageElementLocalName,
                                                               final String anyElementariableName) throws IOException {
-        String bpelAssignString =
-            this.loadFragmentResourceAsString("BpelAssignServiceInstanceCorrelationIdPOSTRequest.xml");
         // <!-- $inputElementLocalName, $StringVariableName, $assignName -->
-        bpelAssignString = bpelAssignString.replaceAll("\\$inputElementLocalName", inputMessageElementLocalName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$StringVariableName", anyElementariableName);
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$assignName",
-                                        "assignServiceInstanceCreateRequest" + System.currentTimeMillis());
-        return bpelAssignString;
+        return ASSIGN_SERVICE_INSTANCE_CORRELATION_ID_POST_REQUEST.fill(inputMessageElementLocalName,
+                                                                        anyElementariableName,
+                                                                        "assignServiceInstanceCreateRequest"
+                                                                            + System.currentTimeMillis());
     }
 
     public Node generateServiceInstanceRequestMessageAssignAsNode(final String inputMessageElementLocalName,
                                                                   final String anyElementariableName) throws IOException,
                                                                                                       SAXException {
-        final String templateString =
-            generateServiceInstanceRequestMessageAssign(inputMessageElementLocalName, anyElementariableName);
-        return this.transformStringToNode(templateString);
+        return ASSIGN_SERVICE_INSTANCE_CORRELATION_ID_POST_REQUEST.fillAsNode(inputMessageElementLocalName,
+                                                                              anyElementariableName,
+                                                                              "assignServiceInstanceCreateRequest"
+                                                                                  + System.currentTimeMillis());
     }
 
     /**
@@ -759,13 +710,9 @@ public class BPELProcessFragments {
      */
     public String generateAssignFromInputMessageToStringVariable(final String inputMessageElementLocalName,
                                                                  final String stringVariableName) throws IOException {
-        String bpelAssignString = this.loadFragmentResourceAsString("BpelAssignFromInputToStringVar.xml");
         // <!-- $inputElementLocalName, $StringVariableName, $assignName -->
-        bpelAssignString = bpelAssignString.replace("$inputElementLocalName", inputMessageElementLocalName);
-        bpelAssignString = bpelAssignString.replace("$StringVariableName", stringVariableName);
-        bpelAssignString =
-            bpelAssignString.replace("$assignName", "assignFromInputToString" + System.currentTimeMillis());
-        return bpelAssignString;
+        return ASSIGN_FROM_INPUT_TO_STRING_VAR.fill(inputMessageElementLocalName, stringVariableName,
+                                                    "assignFromInputToString" + System.currentTimeMillis());
     }
 
     /**
@@ -781,24 +728,19 @@ public class BPELProcessFragments {
     public Node generateAssignFromInputMessageToStringVariableAsNode(final String inputMessageElementLocalName,
                                                                      final String stringVariableName) throws IOException,
                                                                                                       SAXException {
-        final String templateString =
-            generateAssignFromInputMessageToStringVariable(inputMessageElementLocalName, stringVariableName);
-        return this.transformStringToNode(templateString);
+        return ASSIGN_FROM_INPUT_TO_STRING_VAR.fillAsNode(inputMessageElementLocalName, stringVariableName,
+                                                          "assignFromInputToString" + System.currentTimeMillis());
     }
 
     public String generateBPEL4RESTLightGETonURL(final String urlVarName,
                                                  final String responseVarName) throws IOException {
-        String bpelAssignString = this.loadFragmentResourceAsString("BPEL4RESTLightGET_URL_ApplicationXML.xml");
         // <!-- $ResponseVarName, $urlVar -->
-        bpelAssignString = bpelAssignString.replace("$ResponseVarName", responseVarName);
-        bpelAssignString = bpelAssignString.replace("$urlVar", urlVarName);
-        return bpelAssignString;
+        return GET_URL_APPLICATION_XML.fill(responseVarName, urlVarName);
     }
 
     public Node generateBPEL4RESTLightGETonURLAsNode(final String urlVarName,
                                                      final String reponseVarName) throws IOException, SAXException {
-        final String templateString = generateBPEL4RESTLightGETonURL(urlVarName, reponseVarName);
-        return this.transformStringToNode(templateString);
+        return GET_URL_APPLICATION_XML.fillAsNode(reponseVarName, urlVarName);
     }
 
     /**
@@ -819,15 +761,8 @@ public class BPELProcessFragments {
         // tags in xml snippet: $InstanceDataURLVar, $CSARName,
         // $serviceTemplateId, $ResponseVarName
 
-        String bpel4RestString =
-            this.loadFragmentResourceAsString("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI_WithBody.xml");
-
-        bpel4RestString = bpel4RestString.replace("$InstanceDataURLVar", instanceDataAPIUrlVariableName);
-        bpel4RestString = bpel4RestString.replace("$CSARName", csarId);
-        bpel4RestString = bpel4RestString.replace("$serviceTemplateId", serviceTemplateId.toString());
-        bpel4RestString = bpel4RestString.replace("$ResponseVarName", responseVariableName);
-
-        return bpel4RestString;
+        return POST_SERVICE_INSTANCE_WITH_SERVICE_TEMPLATE.fill(instanceDataAPIUrlVariableName, csarId,
+                                                                serviceTemplateId.toString(), responseVariableName);
     }
 
     public File getOpenTOSCAAPISchemaFile() throws IOException {
@@ -865,14 +800,8 @@ public class BPELProcessFragments {
                                                             final String responseVariableName) throws IOException {
         // tags in xml snippet: $InstanceDataURLVar, $CSARName,
         // $serviceTemplateId, $ResponseVarName
-        String bpel4RestString =
-            this.loadFragmentResourceAsString("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI_WithBody.xml");
-
-        bpel4RestString = bpel4RestString.replace("$InstanceDataURLVar", instanceDataAPIUrlVariableName);
-        bpel4RestString = bpel4RestString.replace("$RequestVarName", requestVariableName);
-        bpel4RestString = bpel4RestString.replace("$ResponseVarName", responseVariableName);
-
-        return bpel4RestString;
+        return POST_SERVICE_INSTANCE_WITH_REQUEST.fill(instanceDataAPIUrlVariableName, requestVariableName,
+                                                       responseVariableName);
     }
 
     /**
@@ -892,10 +821,9 @@ public class BPELProcessFragments {
                                                                 final String csarId, final QName serviceTemplateId,
                                                                 final String responseVariableName) throws IOException,
                                                                                                    SAXException {
-        final String templateString =
-            this.generateBPEL4RESTLightServiceInstancePOST(instanceDataAPIUrlVariableName, csarId, serviceTemplateId,
-                                                           responseVariableName);
-        return this.transformStringToNode(templateString);
+        return POST_SERVICE_INSTANCE_WITH_SERVICE_TEMPLATE.fillAsNode(instanceDataAPIUrlVariableName, csarId,
+                                                                      serviceTemplateId.toString(),
+                                                                      responseVariableName);
     }
 
     /**
@@ -916,10 +844,8 @@ public class BPELProcessFragments {
                                                                 final String requestVariableName,
                                                                 final String responseVariableName) throws IOException,
                                                                                                    SAXException {
-        final String templateString =
-            this.generateBPEL4RESTLightServiceInstancePOST(instanceDataAPIUrlVariableName, requestVariableName,
-                                                           responseVariableName);
-        return this.transformStringToNode(templateString);
+        return POST_SERVICE_INSTANCE_WITH_REQUEST.fillAsNode(instanceDataAPIUrlVariableName, requestVariableName,
+                                                             responseVariableName);
     }
 
     /**
@@ -934,8 +860,7 @@ public class BPELProcessFragments {
      */
     public Node generateBPELIfTrueThrowFaultAsNode(final String xpath1Expr, final QName faultQName) throws IOException,
                                                                                                     SAXException {
-        final String templateString = generateBPELIfTrueThrowFaultAsString(xpath1Expr, faultQName);
-        return this.transformStringToNode(templateString);
+        return IF_TRUE_THROW_FAULT.fillAsNode(xpath1Expr, faultQName.getLocalPart(), faultQName.getLocalPart());
     }
 
     /**
@@ -950,14 +875,7 @@ public class BPELProcessFragments {
     public String generateBPELIfTrueThrowFaultAsString(final String xpath1Expr,
                                                        final QName faultQName) throws IOException {
         // <!-- $xpath1Expr, $faultPrefix, $faultNamespace, $faultLocalName-->
-        String bpelIfString = this.loadFragmentResourceAsString("BPELIfTrueThrowFault.xml");
-
-        bpelIfString = bpelIfString.replace("$xpath1Expr", xpath1Expr);
-
-        bpelIfString = bpelIfString.replace("$faultPrefix", faultQName.getLocalPart());
-        bpelIfString = bpelIfString.replace("$faultLocalName", faultQName.getLocalPart());
-
-        return bpelIfString;
+        return IF_TRUE_THROW_FAULT.fill(xpath1Expr, faultQName.getLocalPart(), faultQName.getLocalPart());
     }
 
     /**
@@ -978,10 +896,8 @@ public class BPELProcessFragments {
                                                                 final String outputVarPartName,
                                                                 final String outputVarLocalName) throws IOException,
                                                                                                  SAXException {
-        final String templateString =
-            generateCopyFromStringVarToOutputVariableAsString(variableName, outputVarName, outputVarPartName,
-                                                              outputVarLocalName);
-        return this.transformStringToNode(templateString);
+        return COPY_OUTPUT_VAR_FROM_STRING_VAR.fillAsNode(variableName, outputVarName, outputVarPartName,
+                                                          outputVarLocalName);
     }
 
     /**
@@ -1004,12 +920,8 @@ public class BPELProcessFragments {
         // BpelAssignOutputVarFromStringVariable.xml
         // <!-- ${assignName}, ${variableName}, ${outputVarName},
         // ${outputVarPartName}, ${outputVarPrefix}, ${outputVarLocalName} -->
-        String bpelAssignString = this.loadFragmentResourceAsString("BpelCopyOutputVarFromStringVariable.xml");
-        bpelAssignString = bpelAssignString.replace("${variableName}", variableName);
-        bpelAssignString = bpelAssignString.replace("${outputVarName}", outputVarName);
-        bpelAssignString = bpelAssignString.replace("${outputVarPartName}", outputVarPartName);
-        bpelAssignString = bpelAssignString.replace("${outputVarLocalName}", outputVarLocalName);
-        return bpelAssignString;
+        return COPY_OUTPUT_VAR_FROM_STRING_VAR.fill(variableName, outputVarName, outputVarPartName,
+                                                    outputVarLocalName);
     }
 
     /**
@@ -1064,25 +976,12 @@ public class BPELProcessFragments {
                                                                              final String serviceInstanceCorrelationIdVarName,
                                                                              final String planName,
                                                                              final String buildPlanUrlVarName) throws IOException {
-        String bpelAssignString = this.loadFragmentResourceAsString("BpelAssignServiceInstancePOSTResponse.xml");
         // <!-- $assignName $ServiceInstanceResponseVarName
         // $ServiceInstanceURLVarName-->
-
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$assignName", "assignServiceInstance" + System.currentTimeMillis());
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$ServiceInstanceResponseVarName", serviceInstanceResponseVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$ServiceInstanceURLVarName", serviceInstanceURLVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$ServiceInstanceIDVarName", serviceInstanceIdVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$serviceTemplateURLVarName", serviceTemplateURLVarName);
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$serviceTemplateInstancesURLVar", serviceTemplateInstancesURLVar);
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$ServiceInstanceCorrelationID", serviceInstanceCorrelationIdVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$planName", planName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$planInstanceURL", buildPlanUrlVarName);
-
-        return bpelAssignString;
+        return ASSIGN_SERVICE_INSTANCE_POST_RESPONSE.fill("assignServiceInstance" + System.currentTimeMillis(),
+                     serviceInstanceResponseVarName, serviceInstanceURLVarName, serviceInstanceIdVarName,
+                     serviceTemplateURLVarName, serviceTemplateInstancesURLVar,
+                     serviceInstanceCorrelationIdVarName, planName, buildPlanUrlVarName);
     }
 
     public Node generateServiceInstanceDataVarsAssignForManagementPlansAsNode(final String serviceInstanceResponseVarName,
@@ -1113,25 +1012,12 @@ public class BPELProcessFragments {
                                                                                   final String serviceInstanceCorrelationIdVarName,
                                                                                   final String planName,
                                                                                   final String buildPlanUrlVarName) throws IOException {
-        String bpelAssignString = this.loadFragmentResourceAsString("BpelAssignServiceInstancePOSTResponse2.xml");
         // <!-- $assignName $ServiceInstanceResponseVarName
         // $ServiceInstanceURLVarName-->
-
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$assignName", "assignServiceInstance" + System.currentTimeMillis());
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$ServiceInstanceResponseVarName", serviceInstanceResponseVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$ServiceInstanceURLVarName", serviceInstanceURLVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$ServiceInstanceIDVarName", serviceInstanceIdVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$serviceTemplateURLVarName", serviceTemplateURLVarName);
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$serviceTemplateInstancesURLVar", serviceTemplateInstancesURLVar);
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$ServiceInstanceCorrelationID", serviceInstanceCorrelationIdVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$planName", planName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$planInstanceURL", buildPlanUrlVarName);
-
-        return bpelAssignString;
+        return ASSIGN_SERVICE_INSTANCE_POST_RESPONSE_2.fill("assignServiceInstance" + System.currentTimeMillis(),
+                     serviceInstanceResponseVarName, serviceInstanceURLVarName, serviceInstanceIdVarName,
+                     serviceTemplateURLVarName, serviceTemplateInstancesURLVar,
+                     serviceInstanceCorrelationIdVarName, planName, buildPlanUrlVarName);
     }
 
 }
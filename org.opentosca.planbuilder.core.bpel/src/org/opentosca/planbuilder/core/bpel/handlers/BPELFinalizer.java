@@ -61,9 +61,6 @@ public class BPELFinalizer {
     }
 
     private List<BPELScope> calcTopologicalOrdering(final List<BPELScope> templateBuildPlans) {
-        // will contain the order at the end
-        final List<BPELScope> topologicalOrder = new ArrayList<>();
-
         // init marks
         final Map<BPELScope, TopologicalSortMarking> markings = new HashMap<>();
 
@@ -71,12 +68,17 @@ public class BPELFinalizer {
             markings.put(template, new TopologicalSortMarking());
         }
 
-        while (hasUnmarkedNode(markings)) {
-            final BPELScope templateBuildPlan = getUnmarkedNode(markings);
-            visitTopologicalOrdering(templateBuildPlan, markings, topologicalOrder);
+        // will contain the reversed order at the end
+        final List<BPELScope> reversedTopologicalOrder = new ArrayList<>(templateBuildPlans.size());
+
+        for (final BPELScope template : templateBuildPlans) {
+            if (!markings.get(template).permMark) {
+                visitTopologicalOrdering(template, markings, reversedTopologicalOrder);
+            }
         }
 
-        return topologicalOrder;
+        Collections.reverse(reversedTopologicalOrder);
+        return reversedTopologicalOrder;
     }
 
     /**
@@ -278,24 +280,6 @@ public class BPELFinalizer {
         return doc.getFirstChild();
     }
 
-    private BPELScope getUnmarkedNode(final Map<BPELScope, TopologicalSortMarking> markings) {
-        for (final BPELScope plan : markings.keySet()) {
-            if (markings.get(plan).permMark == false & markings.get(plan).tempMark == false) {
-                return plan;
-            }
-        }
-        return null;
-    }
-
-    private boolean hasUnmarkedNode(final Map<BPELScope, TopologicalSortMarking> markings) {
-        for (final TopologicalSortMarking marking : markings.values()) {
-            if (marking.permMark == false & marking.tempMark == false) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Transforms the Scopes inside the Flow Element of the given buildPlan, so that the overall
      * provisioning is executed sequentially <b>Info:</b> This method assumes that the given BuildPlan
@@ -346,20 +330,24 @@ public class BPELFinalizer {
 
     private void visitTopologicalOrdering(final BPELScope templateBuildPlan,
                                           final Map<BPELScope, TopologicalSortMarking> markings,
-                                          final List<BPELScope> topologicalOrder) {
+                                          final List<BPELScope> reversedTopologicalOrder) {
 
-        if (markings.get(templateBuildPlan).tempMark) {
+        final TopologicalSortMarking marking = markings.get(templateBuildPlan);
+        if (marking.tempMark) {
             BPELFinalizer.LOG.error("Topological order detected cycle!");
             return;
         }
-        if (!markings.get(templateBuildPlan).permMark && !markings.get(templateBuildPlan).tempMark) {
-            markings.get(templateBuildPlan).tempMark = true;
+        if (!marking.permMark) {
+            marking.tempMark = true;
+            // the successors are looked up in the link index of the plan
             for (final BPELScope successor : this.scopeHandler.getSuccessors(templateBuildPlan)) {
-                visitTopologicalOrdering(successor, markings, topologicalOrder);
+                if (markings.containsKey(successor)) {
+                    visitTopologicalOrdering(successor, markings, reversedTopologicalOrder);
+                }
             }
-            markings.get(templateBuildPlan).permMark = true;
-            markings.get(templateBuildPlan).tempMark = false;
-            topologicalOrder.add(0, templateBuildPlan);
+            marking.permMark = true;
+            marking.tempMark = false;
+            reversedTopologicalOrder.add(templateBuildPlan);
         }
     }
 
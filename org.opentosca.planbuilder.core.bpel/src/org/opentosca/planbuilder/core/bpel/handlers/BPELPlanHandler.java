@@ -337,6 +337,7 @@ public class BPELPlanHandler {
 
         linkElement.setAttribute("name", linkName);
         linksElement.appendChild(linkElement);
+        buildPlan.getBpelMainFlowLinks().put(linkName, linkElement);
         BPELPlanHandler.LOG.debug("Adding link was successful");
         return true;
     }
@@ -820,18 +821,7 @@ public class BPELPlanHandler {
      * @return a List of Strings containing all Links of the given BuildPlan
      */
     public List<String> getAllLinks(final BPELPlan buildPlan) {
-        final Element flowLinks = buildPlan.getBpelMainFlowLinksElement();
-        final List<String> linkNames = new ArrayList<>();
-        final NodeList children = flowLinks.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            if (children.item(i).getNodeName().equals("link")) {
-                linkNames.add(children.item(i).getAttributes().getNamedItem("name").getNodeValue());
-            }
-            if (children.item(i).getLocalName().equals("link")) {
-                linkNames.add(children.item(i).getAttributes().getNamedItem("name").getNodeValue());
-            }
-        }
-        return linkNames;
+        return new ArrayList<>(buildPlan.getBpelMainFlowLinks().keySet());
     }
 
     /**
@@ -877,17 +867,7 @@ public class BPELPlanHandler {
      * @return a TemplateBuildPlan if it handles a Template with the given id, else null
      */
     public BPELScope getTemplateBuildPlanById(final String id, final BPELPlan buildPlan) {
-        for (final BPELScope template : buildPlan.getTemplateBuildPlans()) {
-            // FIXME it looks a bit hacky.. it looks even more hacky if you look
-            // at getRelationshipTemplatePlans(..), the ifs
-            if (template.getNodeTemplate() != null && template.getNodeTemplate().getId().equals(id)) {
-                return template;
-            }
-            if (template.getRelationshipTemplate() != null && template.getRelationshipTemplate().getId().equals(id)) {
-                return template;
-            }
-        }
-        return null;
+        return buildPlan.getTemplateBuildPlanById(id);
     }
 
     /**
@@ -967,7 +947,7 @@ public class BPELPlanHandler {
      * @return true if the BuildPlan has a link with the given name, else false
      */
     private boolean hasLink(final String linkName, final BPELPlan buildPlan) {
-        return ModelUtils.hasChildElementWithAttribute(buildPlan.getBpelMainFlowLinksElement(), "name", linkName);
+        return buildPlan.getBpelMainFlowLinks().containsKey(linkName);
     }
 
     /**
@@ -1238,21 +1218,10 @@ public class BPELPlanHandler {
      * @param buildPlan the BuildPlan to remove the link from
      */
     public void removeLink(final String link, final BPELPlan buildPlan) {
-        final NodeList children = buildPlan.getBpelMainFlowLinksElement().getChildNodes();
-        Node toRemove = null;
-        for (int i = 0; i < children.getLength(); i++) {
-            if (children.item(i).getAttributes().getNamedItem("name").getNodeValue().equals(link)) {
-                toRemove = children.item(i);
-            }
-            if (children.item(i).getAttributes().getNamedItem("name").getTextContent().equals(link)) {
-                toRemove = children.item(i);
-            }
-
-        }
+        final Element toRemove = buildPlan.getBpelMainFlowLinks().remove(link);
         if (toRemove != null) {
             buildPlan.getBpelMainFlowLinksElement().removeChild(toRemove);
         }
-
     }
 
     /**
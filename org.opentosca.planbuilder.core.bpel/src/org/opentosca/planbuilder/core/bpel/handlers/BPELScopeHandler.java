@@ -2,6 +2,7 @@ package org.opentosca.planbuilder.core.bpel.handlers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.namespace.QName;
 
@@ -137,6 +138,7 @@ public class BPELScopeHandler {
             templateBuildPlan.getBpelDocument().createElementNS(BPELPlan.bpelNamespace, "source");
         sourceElement.setAttribute("linkName", linkName);
         sourcesElement.appendChild(sourceElement);
+        templateBuildPlan.getBuildPlan().getLinkSources().put(linkName, templateBuildPlan);
         BPELScopeHandler.LOG.debug("Adding link as source was successful");
         return true;
     }
@@ -160,6 +162,7 @@ public class BPELScopeHandler {
             templateBuildPlan.getBpelDocument().createElementNS(BPELPlan.bpelNamespace, "target");
         targetElement.setAttribute("linkName", linkName);
         targetsElement.appendChild(targetElement);
+        templateBuildPlan.getBuildPlan().getLinkTargets().put(linkName, templateBuildPlan);
         BPELScopeHandler.LOG.debug("Adding link as target was successful");
         return true;
     }
@@ -326,14 +329,11 @@ public class BPELScopeHandler {
      */
     public List<BPELScope> getPredecessors(final BPELScope templatePlan) {
         final List<BPELScope> preds = new ArrayList<>();
-        final List<String> linkNamesInTargets = this.getLinksInTarget(templatePlan);
-
-        for (final String linkAsTarget : linkNamesInTargets) {
-            for (final BPELScope template : templatePlan.getBuildPlan().getTemplateBuildPlans()) {
-                final List<String> linkNamesInSources = this.getLinksInSources(template);
-                if (linkNamesInSources.contains(linkAsTarget)) {
-                    preds.add(template);
-                }
+        final Map<String, BPELScope> linkSources = templatePlan.getBuildPlan().getLinkSources();
+        for (final String linkAsTarget : this.getLinksInTarget(templatePlan)) {
+            final BPELScope pred = linkSources.get(linkAsTarget);
+            if (pred != null) {
+                preds.add(pred);
             }
         }
         return preds;
@@ -347,18 +347,13 @@ public class BPELScopeHandler {
      */
     public List<BPELScope> getSuccessors(final BPELScope templatePlan) {
         final List<BPELScope> successors = new ArrayList<>();
-
-        final List<String> linkNamesInSources = this.getLinksInSources(templatePlan);
-
-        for (final String linkAsSource : linkNamesInSources) {
-            for (final BPELScope template : templatePlan.getBuildPlan().getTemplateBuildPlans()) {
-                final List<String> linkNamesInTargets = this.getLinksInTarget(template);
-                if (linkNamesInTargets.contains(linkAsSource)) {
-                    successors.add(template);
-                }
+        final Map<String, BPELScope> linkTargets = templatePlan.getBuildPlan().getLinkTargets();
+        for (final String linkAsSource : this.getLinksInSources(templatePlan)) {
+            final BPELScope successor = linkTargets.get(linkAsSource);
+            if (successor != null) {
+                successors.add(successor);
             }
         }
-
         return successors;
     }
 
@@ -558,6 +553,7 @@ public class BPELScopeHandler {
         final Element sources = template.getBpelSourcesElement();
 
         if (sources != null) {
+            template.getBuildPlan().getLinkSources().keySet().removeAll(this.getLinksInSources(template));
             BPELScopeHandler.removeAllChildNodes(sources);
         }
     }
@@ -570,6 +566,7 @@ public class BPELScopeHandler {
     public void removeTargets(final BPELScope template) {
         final Element targets = template.getBpelTargetsElement();
         if (targets != null) {
+            template.getBuildPlan().getLinkTargets().keySet().removeAll(this.getLinksInTarget(template));
             BPELScopeHandler.removeAllChildNodes(targets);
         }
     }
@@ -3,6 +3,7 @@ package org.opentosca.planbuilder.integration.layer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.xml.namespace.QName;
 
@@ -78,12 +79,29 @@ public abstract class AbstractImporter {
     public List<AbstractPlan> buildPlans(final AbstractDefinitions defs, final String csarName) {
 
         final List<AbstractPlan> plans = new ArrayList<>();
+        this.buildPlans(defs, csarName, plans::addAll);
+        return plans;
+    }
+
+    /**
+     * Generates Plans for ServiceTemplates inside the given Definitions document and passes the Plans of
+     * each plan builder to the given consumer as soon as the builder is finished, so they can be
+     * processed while the remaining Plans are generated
+     *
+     * @param defs an AbstractDefinitions
+     * @param csarName the FileName of the CSAR the given Definitions is contained in
+     * @param planConsumer a Consumer which is called with the Plans of each plan builder
+     */
+    public void buildPlans(final AbstractDefinitions defs, final String csarName,
+                           final Consumer<List<AbstractPlan>> planConsumer) {
 
         AbstractSimplePlanBuilder buildPlanBuilder = new BPELBuildProcessBuilder();
         final BPELSituationAwareBuildProcessBuilder sitAwareBuilder = new BPELSituationAwareBuildProcessBuilder();
 
-        if (!sitAwareBuilder.buildPlans(csarName, defs).isEmpty()) {
-            buildPlanBuilder = sitAwareBuilder;
+        // the situation aware build plans are used if there are any, thus don't generate them twice
+        final List<AbstractPlan> sitAwareBuildPlans = sitAwareBuilder.buildPlans(csarName, defs);
+        if (!sitAwareBuildPlans.isEmpty()) {
+            buildPlanBuilder = null;
         }
 
 
@@ -110,15 +128,14 @@ public abstract class AbstractImporter {
         final AbstractSimplePlanBuilder testPlanBuilder = new BPELTestManagementProcessBuilder();
 
 
-        plans.addAll(scalingPlanBuilder.buildPlans(csarName, defs));
-        plans.addAll(buildPlanBuilder.buildPlans(csarName, defs));
-        plans.addAll(terminationPlanBuilder.buildPlans(csarName, defs));
-        plans.addAll(freezePlanBuilder.buildPlans(csarName, defs));
-        plans.addAll(defreezePlanBuilder.buildPlans(csarName, defs));
-        plans.addAll(backupPlanBuilder.buildPlans(csarName, defs));
-        plans.addAll(testPlanBuilder.buildPlans(csarName, defs));
-
-        return plans;
+        planConsumer.accept(scalingPlanBuilder.buildPlans(csarName, defs));
+        planConsumer.accept(buildPlanBuilder != null ? buildPlanBuilder.buildPlans(csarName, defs)
+                                                     : sitAwareBuildPlans);
+        planConsumer.accept(terminationPlanBuilder.buildPlans(csarName, defs));
+        planConsumer.accept(freezePlanBuilder.buildPlans(csarName, defs));
+        planConsumer.accept(defreezePlanBuilder.buildPlans(csarName, defs));
+        planConsumer.accept(backupPlanBuilder.buildPlans(csarName, defs));
+        planConsumer.accept(testPlanBuilder.buildPlans(csarName, defs));
     }
 
     private boolean hasPolicies(final AbstractDefinitions defs) {
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -111,6 +112,18 @@ public class BPELPlan extends AbstractPlan {
     // variable for TemplateBuildPlans, makes it easier or handlers and
     // planbuilder to hold it here extra
     private List<BPELScope> templateBuildPlans = new ArrayList<>();
+    // indexes over templateBuildPlans, lookups are done inside loops over all templates
+    private final Map<AbstractNodeTemplate, BPELScope> nodeTemplate2Scope = new HashMap<>();
+    private final Map<AbstractRelationshipTemplate, BPELScope> relationshipTemplate2Scope = new HashMap<>();
+    private final Map<String, BPELScope> templateId2Scope = new HashMap<>();
+    // the number of templateBuildPlans the indexes were built from
+    private int indexedTemplateBuildPlans = 0;
+
+    // index of the link elements declared inside the main flow links element
+    private final Map<String, Element> linkName2Element = new LinkedHashMap<>();
+    // indexes from link name to the templateBuildPlan using the link as source or target
+    private final Map<String, BPELScope> linkName2SourceScope = new HashMap<>();
+    private final Map<String, BPELScope> linkName2TargetScope = new HashMap<>();
     // imported files of the whole buildplan, to keep track for export
     private Set<File> importedFiles;
 
@@ -226,23 +239,34 @@ public class BPELPlan extends AbstractPlan {
         return this.templateBuildPlans;
     }
 
-    public BPELScope getTemplateBuildPlan(AbstractNodeTemplate nodeTemplate) {
-        for (BPELScope scope : this.getTemplateBuildPlans()) {
-            if (scope.getNodeTemplate() != null && scope.getNodeTemplate().equals(nodeTemplate)) {
-                return scope;
-            }
-        }
-        return null;
+    /**
+     * Returns the TemplateBuildPlan handling the given NodeTemplate
+     *
+     * @param nodeTemplate an AbstractNodeTemplate
+     * @return a TemplateBuildPlan or null if the NodeTemplate isn't handled by this BuildPlan
+     */
+    public BPELScope getTemplateBuildPlan(final AbstractNodeTemplate nodeTemplate) {
+        return getTemplateBuildPlanIndex(this.nodeTemplate2Scope).get(nodeTemplate);
     }
 
-    public BPELScope getTemplateBuildPlan(AbstractRelationshipTemplate relationshipTemplate) {
-        for (BPELScope scope : this.getTemplateBuildPlans()) {
-            if (scope.getRelationshipTemplate() != null
-                && scope.getRelationshipTemplate().equals(relationshipTemplate)) {
-                return scope;
-            }
-        }
-        return null;
+    /**
+     * Returns the TemplateBuildPlan handling the given RelationshipTemplate
+     *
+     * @param relationshipTemplate an AbstractRelationshipTemplate
+     * @return a TemplateBuildPlan or null if the RelationshipTemplate isn't handled by this BuildPlan
+     */
+    public BPELScope getTemplateBuildPlan(final AbstractRelationshipTemplate relationshipTemplate) {
+        return getTemplateBuildPlanIndex(this.relationshipTemplate2Scope).get(relationshipTemplate);
+    }
+
+    /**
+     * Returns the TemplateBuildPlan handling the Node- or RelationshipTemplate with the given id
+     *
+     * @param templateId the id of a template inside the TopologyTemplate
+     * @return a TemplateBuildPlan or null if no template with the given id is handled by this BuildPlan
+     */
+    public BPELScope getTemplateBuildPlanById(final String templateId) {
+        return getTemplateBuildPlanIndex(this.templateId2Scope).get(templateId);
     }
 
     /**
@@ -252,7 +276,51 @@ public class BPELPlan extends AbstractPlan {
      * @return true iff adding was successful
      */
     public boolean addTemplateBuildPlan(final BPELScope template) {
-        return this.templateBuildPlans.add(template);
+        final boolean added = this.templateBuildPlans.add(template);
+        if (added && this.indexedTemplateBuildPlans == this.templateBuildPlans.size() - 1) {
+            indexTemplateBuildPlan(template);
+            this.indexedTemplateBuildPlans++;
+        }
+        return added;
+    }
+
+    /**
+     * Returns the given index, rebuilt first if the TemplateBuildPlans list was modified without
+     * going through this class
+     */
+    private <K> Map<K, BPELScope> getTemplateBuildPlanIndex(final Map<K, BPELScope> index) {
+        if (this.indexedTemplateBuildPlans != this.templateBuildPlans.size()) {
+            reindexTemplateBuildPlans();
+        }
+        return index;
+    }
+
+    private void reindexTemplateBuildPlans() {
+        this.nodeTemplate2Scope.clear();
+        this.relationshipTemplate2Scope.clear();
+        this.templateId2Scope.clear();
+        for (final BPELScope template : this.templateBuildPlans) {
+            indexTemplateBuildPlan(template);
+        }
+        this.indexedTemplateBuildPlans = this.templateBuildPlans.size();
+    }
+
+    private void indexTemplateBuildPlan(final BPELScope template) {
+        // the first scope for a template wins, the same as a linear search would return
+        if (template.getNodeTemplate() != null) {
+            putIfAbsent(this.nodeTemplate2Scope, template.getNodeTemplate(), template);
+            putIfAbsent(this.templateId2Scope, template.getNodeTemplate().getId(), template);
+        }
+        if (template.getRelationshipTemplate() != null) {
+            putIfAbsent(this.relationshipTemplate2Scope, template.getRelationshipTemplate(), template);
+            putIfAbsent(this.templateId2Scope, template.getRelationshipTemplate().getId(), template);
+        }
+    }
+
+    private static <K> void putIfAbsent(final Map<K, BPELScope> index, final K key, final BPELScope template) {
+        if (!index.containsKey(key)) {
+            index.put(key, template);
+        }
     }
 
     /**
@@ -262,6 +330,7 @@ public class BPELPlan extends AbstractPlan {
      */
     public void setTemplateBuildPlans(final List<BPELScope> templateBuildPlans) {
         this.templateBuildPlans = templateBuildPlans;
+        reindexTemplateBuildPlans();
     }
 
     /**
@@ -280,6 +349,37 @@ public class BPELPlan extends AbstractPlan {
      */
     public void setBpelMainFlowLinksElement(final Element bpelMainFlowLinksElement) {
         this.bpelMainFlowLinksElement = bpelMainFlowLinksElement;
+        this.linkName2Element.clear();
+    }
+
+    /**
+     * Returns the link elements of the main BPEL Flow, indexed by their name. The returned map must
+     * be kept in sync with the links element, e.g. by using the BPELPlanHandler
+     *
+     * @return a Map from link name to DOM Element, in declaration order
+     */
+    public Map<String, Element> getBpelMainFlowLinks() {
+        return this.linkName2Element;
+    }
+
+    /**
+     * Returns the TemplateBuildPlans using links as source, indexed by the link name. The returned
+     * map must be kept in sync with the sources elements, e.g. by using the BPELScopeHandler
+     *
+     * @return a Map from link name to the TemplateBuildPlan the link starts at
+     */
+    public Map<String, BPELScope> getLinkSources() {
+        return this.linkName2SourceScope;
+    }
+
+    /**
+     * Returns the TemplateBuildPlans using links as target, indexed by the link name. The returned
+     * map must be kept in sync with the targets elements, e.g. by using the BPELScopeHandler
+     *
+     * @return a Map from link name to the TemplateBuildPlan the link ends at
+     */
+    public Map<String, BPELScope> getLinkTargets() {
+        return this.linkName2TargetScope;
     }
 
     /**
@@ -3,10 +3,8 @@
  */
 package org.opentosca.planbuilder.postphase.plugin.instancedata.bpel;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
-import java.net.URL;
 import java.util.Map;
 
 import javax.xml.namespace.QName;
@@ -14,10 +12,9 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
-import org.apache.commons.io.FileUtils;
-import org.eclipse.core.runtime.FileLocator;
-import org.osgi.framework.FrameworkUtil;
+import org.opentosca.planbuilder.core.bpel.fragments.BPELFragmentTemplate;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -34,6 +31,76 @@ import org.xml.sax.SAXException;
  */
 public class Fragments {
 
+    // the fragment templates are loaded and parsed once, on first use
+
+    private static final BPELFragmentTemplate DELETE =
+        template("BPEL4RESTLightDELETE.xml", "$urlVarName", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate PUT_INSTANCE_STATE =
+        template("BPEL4RESTLightPUT_Instance_State_InstanceDataAPI.xml", "$instanceURLVar", "$RequestVarName");
+
+    private static final BPELFragmentTemplate GET_INSTANCE_STATE =
+        template("BPEL4RESTLightGET_Instance_State_InstanceDataAPI.xml", "$instanceURLVar", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_FROM_NODE_INSTANCE_POST_RESPONSE_TO_STRING_VAR =
+        template("BPELAssignFromNodeInstancePOSTResponseToStringVar.xml", "$stringVarName",
+                 "$NodeInstanceResponseVarName", "$nodeInstanceIDVar");
+
+    private static final BPELFragmentTemplate ASSIGN_FROM_RELATION_INSTANCE_POST_RESPONSE_TO_STRING_VAR =
+        template("BPELAssignFromRelationInstancePOSTResponseToStringVar.xml", "$stringVarName",
+                 "$RelationInstanceResponseVarName", "$relationInstanceIDVar");
+
+    private static final BPELFragmentTemplate POST_NODE_INSTANCE =
+        template("BPEL4RESTLightPOST_NodeInstance_InstanceDataAPI.xml", "$serviceInstanceURLVar",
+                 "$serviceInstanceIDVar", "$nodeTemplateId", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate POST_RELATION_INSTANCE =
+        template("BPEL4RESTLightPOST_RelationInstance_InstanceDataAPI.xml", "$serviceInstanceURLVar",
+                 "$relationshipTemplateId", "$RequestVarName", "$ResponseVarName", "$sourceInstanceIdVarName",
+                 "$targetInstanceIdVarName", "$serviceInstanceIdVarName");
+
+    private static final BPELFragmentTemplate POST_SERVICE_INSTANCE =
+        template("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI.xml", "$InstanceDataURLVar", "$CSARName",
+                 "$serviceTemplateId", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_SERVICE_INSTANCE_POST_RESPONSE =
+        template("BpelAssignServiceInstancePOSTResponse.xml", "$assignName", "$ServiceInstanceResponseVarName",
+                 "$ServiceInstanceURLVarName");
+
+    private static final BPELFragmentTemplate GET_INSTANCE_PROPERTIES =
+        template("BPEL4RESTLightGET_Instance_Properties.xml", "$urlVarName", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_FROM_NODE_INSTANCE_REQUEST_TO_STRING_VAR =
+        template("BpelAssignFromNodeInstanceRequestToStringVar.xml", "$stringVarName", "$NodeInstanceResponseVarName");
+
+    private static final BPELFragmentTemplate GET_NODE_INSTANCE =
+        template("BPEL4RESTLightGET_NodeInstance_InstanceDataAPI.xml", "$InstanceDataURLVar", "$ResponseVarName",
+                 "$nodeType");
+
+    private static final BPELFragmentTemplate ASSIGN_FROM_SERVICE_INSTANCE_REQUEST_TO_STRING_VAR =
+        template("BpelAssignFromServiceInstanceRequestToStringVar.xml", "$stringVarName",
+                 "$ServiceInstanceResponseVarName", "$nodeInstanceIndex");
+
+    private static final BPELFragmentTemplate GET =
+        template("BPEL4RESTLightGET.xml", "$urlVarName", "$ResponseVarName");
+
+    private static final BPELFragmentTemplate ASSIGN_FROM_INPUT_TO_STRING_VAR =
+        template("BpelAssignFromInputToStringVar.xml", "$inputElementLocalName", "$StringVariableName", "$assignName");
+
+    private static final BPELFragmentTemplate COPY_FROM_PROPERTY_VAR_TO_NODE_INSTANCE_PROPERTY =
+        template("BpelCopyFromPropertyVarToNodeInstanceProperty.xml", "$PropertyVarName",
+                 "$NodeInstancePropertyRequestVarName", "$NodeInstancePropertyLocalName",
+                 "$NodeInstancePropertyNamespace");
+
+    private static final BPELFragmentTemplate PUT_INSTANCE =
+        template("BPEL4RESTLightPUT_Instance_InstanceDataAPI.xml", "$RequestVarName", "$instanceURLVar");
+
+    private static final BPELFragmentTemplate POST_INSTANCE_DATA_BATCH =
+        template("BPEL4RESTLightPOST_InstanceDataBatch.xml", "$assignName", "$RequestVarName", "$entryName",
+                 "$instanceIDVarName", "$stateVarName", "$serviceInstanceURLVar", "$ResponseVarName");
+
+    private static final String OPENTOSCA_API_NAMESPACE = "http://opentosca.org/api";
+
     private final DocumentBuilderFactory docFactory;
     private final DocumentBuilder docBuilder;
 
@@ -49,6 +116,10 @@ public class Fragments {
         this.docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
     }
 
+    private static BPELFragmentTemplate template(final String fileName, final String... placeholders) {
+        return new BPELFragmentTemplate(Fragments.class, fileName, placeholders);
+    }
+
     /**
      * Creates a BPEL4RESTLight DELETE Activity with the given BPELVar as Url to request on.
      *
@@ -59,17 +130,8 @@ public class Fragments {
      */
     public String createRESTDeleteOnURLBPELVarAsString(final String bpelVarName,
                                                        final String responseVarName) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightDELETE.xml");
         // <!-- $urlVarName, $ResponseVarName -->
-
-        final File bpelFragmentFile = new File(FileLocator.toFileURL(url).getPath());
-
-        String template = FileUtils.readFileToString(bpelFragmentFile);
-        template = template.replace("$urlVarName", bpelVarName);
-        template = template.replace("$ResponseVarName", responseVarName);
-
-        return template;
+        return DELETE.fill(bpelVarName, responseVarName);
     }
 
     /**
@@ -83,11 +145,7 @@ public class Fragments {
      */
     public Node createRESTDeleteOnURLBPELVarAsNode(final String bpelVarName,
                                                    final String responseVarName) throws IOException, SAXException {
-        final String templateString = createRESTDeleteOnURLBPELVarAsString(bpelVarName, responseVarName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return DELETE.fillAsNode(bpelVarName, responseVarName);
     }
 
     /**
@@ -103,42 +161,19 @@ public class Fragments {
                                                          final String RequestVarName) throws IOException {
         // BPEL4RESTLightPUT_NodeInstance_State_InstanceDataAPI.xml
         // <!-- $RequestVarName,$nodeInstanceURLVar -->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightPUT_Instance_State_InstanceDataAPI.xml");
-        final File bpel4RestFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpel4restString = FileUtils.readFileToString(bpel4RestFile);
-
-        bpel4restString = bpel4restString.replace("$instanceURLVar", instanceURLVar);
-        bpel4restString = bpel4restString.replace("$RequestVarName", RequestVarName);
-
-        return bpel4restString;
+        return PUT_INSTANCE_STATE.fill(instanceURLVar, RequestVarName);
     }
     
     public String generateBPEL4RESTLightGETInstanceState(final String instanceURLVar,
                                                           final String ResponseVarName) throws IOException {
         // BPEL4RESTLightPUT_NodeInstance_State_InstanceDataAPI.xml
         // <!-- $RequestVarName,$nodeInstanceURLVar -->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightGET_Instance_State_InstanceDataAPI.xml");
-        final File bpel4RestFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpel4restString = FileUtils.readFileToString(bpel4RestFile);
-
-        bpel4restString = bpel4restString.replace("$instanceURLVar", instanceURLVar);
-        bpel4restString = bpel4restString.replace("$ResponseVarName", ResponseVarName);
-
-        return bpel4restString;
+        return GET_INSTANCE_STATE.fill(instanceURLVar, ResponseVarName);
     }
     
     public Node generateBPEL4RESTLightGETInstanceStateAsNode(final String instanceURLVar,
                                                          final String ResponseVarName) throws SAXException, IOException {
-        return this.toDom(this.generateBPEL4RESTLightGETInstanceState(instanceURLVar, ResponseVarName));
-    }
-    
-    private Node toDom(String templateString) throws SAXException, IOException {
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return GET_INSTANCE_STATE.fillAsNode(instanceURLVar, ResponseVarName);
     }
 
     /**
@@ -155,17 +190,9 @@ public class Fragments {
                                                                         final String nodeInstancePOSTResponseVarName) throws IOException {
         // BPELAssignFromNodeInstancePOSTResponseToStringVar.xml
         // <!-- $stringVarName, $NodeInstanceResponseVarName -->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPELAssignFromNodeInstancePOSTResponseToStringVar.xml");
-        final File bpel4RestFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpel4RestFile);
-
-        bpelAssignString = bpelAssignString.replaceAll("\\$stringVarName", nodeInstanceURLVarName);
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$NodeInstanceResponseVarName", nodeInstancePOSTResponseVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$nodeInstanceIDVar", nodeInstanceIDVarName);
-
-        return bpelAssignString;
+        return ASSIGN_FROM_NODE_INSTANCE_POST_RESPONSE_TO_STRING_VAR.fill(nodeInstanceURLVarName,
+                                                                          nodeInstancePOSTResponseVarName,
+                                                                          nodeInstanceIDVarName);
     }
 
     /**
@@ -183,17 +210,9 @@ public class Fragments {
                                                                             final String relationInstancePOSTResponseVarName) throws IOException {
         // BPELAssignFromNodeInstancePOSTResponseToStringVar.xml
         // <!-- $stringVarName, $RelationInstanceResponseVarName, relationInstanceIDVar-->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPELAssignFromRelationInstancePOSTResponseToStringVar.xml");
-        final File bpel4RestFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpel4RestFile);
-
-        bpelAssignString = bpelAssignString.replaceAll("\\$stringVarName", stringVarName);
-        bpelAssignString =
-            bpelAssignString.replaceAll("\\$RelationInstanceResponseVarName", relationInstancePOSTResponseVarName);
-        bpelAssignString = bpelAssignString.replaceAll("\\$relationInstanceIDVar", relationInstanceIDVar);
-
-        return bpelAssignString;
+        return ASSIGN_FROM_RELATION_INSTANCE_POST_RESPONSE_TO_STRING_VAR.fill(stringVarName,
+                                                                              relationInstancePOSTResponseVarName,
+                                                                              relationInstanceIDVar);
     }
 
     /**
@@ -211,17 +230,8 @@ public class Fragments {
                                                          final String nodeTemplateId,
                                                          final String responseVariableName) throws IOException {
         // <!-- $serviceInstanceURLVar, $nodeTemplateId, $ResponseVarName -->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightPOST_NodeInstance_InstanceDataAPI.xml");
-        final File bpel4RestFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpel4RestString = FileUtils.readFileToString(bpel4RestFile);
-
-        bpel4RestString = bpel4RestString.replaceAll("\\$serviceInstanceURLVar", serviceInstanceURLVar);
-        bpel4RestString = bpel4RestString.replaceAll("\\$serviceInstanceIDVar", serviceInstanceIDVarName);
-        bpel4RestString = bpel4RestString.replaceAll("\\$nodeTemplateId", nodeTemplateId);
-        bpel4RestString = bpel4RestString.replaceAll("\\$ResponseVarName", responseVariableName);
-
-        return bpel4RestString;
+        return POST_NODE_INSTANCE.fill(serviceInstanceURLVar, serviceInstanceIDVarName, nodeTemplateId,
+                                       responseVariableName);
     }
 
     /**
@@ -246,20 +256,9 @@ public class Fragments {
                                                              final String targetInstanceIdVarName,
                                                              final String serviceInstanceIdVarName) throws IOException {
         // <!-- $serviceInstanceURLVar, $nodeTemplateId, $ResponseVarName -->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightPOST_RelationInstance_InstanceDataAPI.xml");
-        final File bpel4RestFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpel4RestString = FileUtils.readFileToString(bpel4RestFile);
-
-        bpel4RestString = bpel4RestString.replaceAll("\\$serviceInstanceURLVar", serviceInstanceURLVar);
-        bpel4RestString = bpel4RestString.replaceAll("\\$relationshipTemplateId", relationshipTemplateId);
-        bpel4RestString = bpel4RestString.replaceAll("\\$RequestVarName", requestVariableName);
-        bpel4RestString = bpel4RestString.replaceAll("\\$ResponseVarName", responseVariableName);
-        bpel4RestString = bpel4RestString.replaceAll("\\$sourceInstanceIdVarName", sourceInstanceIdVarName);
-        bpel4RestString = bpel4RestString.replaceAll("\\$targetInstanceIdVarName", targetInstanceIdVarName);
-        bpel4RestString = bpel4RestString.replaceAll("\\$serviceInstanceIdVarName", serviceInstanceIdVarName);
-
-        return bpel4RestString;
+        return POST_RELATION_INSTANCE.fill(serviceInstanceURLVar, relationshipTemplateId, requestVariableName,
+                                           responseVariableName, sourceInstanceIdVarName, targetInstanceIdVarName,
+                                           serviceInstanceIdVarName);
     }
 
     public String generateBPEL4RESTLightServiceInstancePOST(final String instanceDataAPIUrlVariableName,
@@ -267,127 +266,67 @@ public class Fragments {
                                                             final String responseVariableName) throws IOException {
         // tags in xml snippet: $InstanceDataURLVar, $CSARName,
         // $serviceTemplateId, $ResponseVarName
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightPOST_ServiceInstance_InstanceDataAPI.xml");
-        final File bpel4RestFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpel4RestString = FileUtils.readFileToString(bpel4RestFile);
-
-        bpel4RestString = bpel4RestString.replace("$InstanceDataURLVar", instanceDataAPIUrlVariableName);
-        bpel4RestString = bpel4RestString.replace("$CSARName", csarId);
-        bpel4RestString = bpel4RestString.replace("$serviceTemplateId", serviceTemplateId.toString());
-        bpel4RestString = bpel4RestString.replace("$ResponseVarName", responseVariableName);
-
-        return bpel4RestString;
+        return POST_SERVICE_INSTANCE.fill(instanceDataAPIUrlVariableName, csarId, serviceTemplateId.toString(),
+                                          responseVariableName);
     }
 
     public Node generateBPEL4RESTLightServiceInstancePOSTAsNode(final String instanceDataAPIUrlVariableName,
                                                                 final String csarId, final QName serviceTemplateId,
                                                                 final String responseVariableName) throws IOException,
                                                                                                    SAXException {
-        final String templateString =
-            generateBPEL4RESTLightServiceInstancePOST(instanceDataAPIUrlVariableName, csarId, serviceTemplateId,
-                                                      responseVariableName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return POST_SERVICE_INSTANCE.fillAsNode(instanceDataAPIUrlVariableName, csarId, serviceTemplateId.toString(),
+                                                responseVariableName);
     }
 
     public String generateServiceInstanceURLVarAssign(final String serviceInstanceResponseVarName,
                                                       final String serviceInstanceURLVarName) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BpelAssignServiceInstancePOSTResponse.xml");
-        final File bpelAssigntFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpelAssigntFile);
         // <!-- $assignName $ServiceInstanceResponseVarName
         // $ServiceInstanceURLVarName-->
-
-        bpelAssignString =
-            bpelAssignString.replace("$assignName", "assignServiceInstance" + System.currentTimeMillis());
-        bpelAssignString = bpelAssignString.replace("$ServiceInstanceResponseVarName", serviceInstanceResponseVarName);
-        bpelAssignString = bpelAssignString.replace("$ServiceInstanceURLVarName", serviceInstanceURLVarName);
-        return bpelAssignString;
+        return ASSIGN_SERVICE_INSTANCE_POST_RESPONSE.fill("assignServiceInstance" + System.currentTimeMillis(),
+                                                          serviceInstanceResponseVarName, serviceInstanceURLVarName);
     }
 
     public Node generateServiceInstanceURLVarAssignAsNode(final String serviceInstanceResponseVarName,
                                                           final String serviceInstanceURLVarName) throws IOException,
                                                                                                   SAXException {
-        final String templateString =
-            generateServiceInstanceURLVarAssign(serviceInstanceResponseVarName, serviceInstanceURLVarName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return ASSIGN_SERVICE_INSTANCE_POST_RESPONSE.fillAsNode("assignServiceInstance" + System.currentTimeMillis(),
+                                                                serviceInstanceResponseVarName,
+                                                                serviceInstanceURLVarName);
     }
 
     public Node generateNodeInstancesQueryGETasNode(final String instanceDataUrlVarName, final String responseVarName,
                                                     final QName nodeType) throws IOException, SAXException {
-        final String templateString =
-            generateNodeInstancePropertiesGET(instanceDataUrlVarName, responseVarName, nodeType);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return GET_NODE_INSTANCE.fillAsNode(instanceDataUrlVarName, responseVarName, nodeType.toString());
     }
 
     public String generateInstancePropertiesGET(final String instanceUrlVarName,
                                                 final String bpel4RestLightResponseVarName) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightGET_Instance_Properties.xml");
-        final File bpel4restLightGETFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpel4restLightGETString = FileUtils.readFileToString(bpel4restLightGETFile);
         // <!-- $urlVarName, $ResponseVarName -->
-        bpel4restLightGETString = bpel4restLightGETString.replace("$urlVarName", instanceUrlVarName);
-        bpel4restLightGETString = bpel4restLightGETString.replace("$ResponseVarName", bpel4RestLightResponseVarName);
-        return bpel4restLightGETString;
+        return GET_INSTANCE_PROPERTIES.fill(instanceUrlVarName, bpel4RestLightResponseVarName);
     }
 
     public Node generateInstancePropertiesGETAsNode(final String instanceUrlVarName,
                                                     final String bpel4RestLightResponseVarName) throws SAXException,
                                                                                                 IOException {
-        final String templateString = generateInstancePropertiesGET(instanceUrlVarName, bpel4RestLightResponseVarName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return GET_INSTANCE_PROPERTIES.fillAsNode(instanceUrlVarName, bpel4RestLightResponseVarName);
     }
 
     public String generateAssignFromNodeInstanceResonseToStringVar(final String stringVarName,
                                                                    final String nodeInstanceResponseVarName) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BpelAssignFromNodeInstanceRequestToStringVar.xml");
-        final File bpelAssignFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpelAssignFile);
         // <!-- $stringVarName, $NodeInstanceResponseVarName -->
-        bpelAssignString = bpelAssignString.replace("$stringVarName", stringVarName);
-        bpelAssignString = bpelAssignString.replace("$NodeInstanceResponseVarName", nodeInstanceResponseVarName);
-        return bpelAssignString;
+        return ASSIGN_FROM_NODE_INSTANCE_REQUEST_TO_STRING_VAR.fill(stringVarName, nodeInstanceResponseVarName);
     }
 
     public Node generateAssignFromNodeInstanceResponseToStringVarAsNode(final String stringVarName,
                                                                         final String nodeInstanceResponseVarName) throws IOException,
                                                                                                                   SAXException {
-        final String templateString =
-            generateAssignFromNodeInstanceResonseToStringVar(stringVarName, nodeInstanceResponseVarName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return ASSIGN_FROM_NODE_INSTANCE_REQUEST_TO_STRING_VAR.fillAsNode(stringVarName, nodeInstanceResponseVarName);
     }
 
     public String generateNodeInstancePropertiesGET(final String instanceDataUrlVarName, final String responseVarName,
                                                     final QName nodeType) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightGET_NodeInstance_InstanceDataAPI.xml");
-        final File bpelAssignFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpelAssignFile);
-
         // $InstanceDataURLVar, $ResponseVarName, $nodeType
-
-        bpelAssignString = bpelAssignString.replace("$InstanceDataURLVar", instanceDataUrlVarName);
-        bpelAssignString = bpelAssignString.replace("$ResponseVarName", responseVarName);
-        bpelAssignString = bpelAssignString.replace("$nodeType", nodeType.toString());
-        return bpelAssignString;
+        return GET_NODE_INSTANCE.fill(instanceDataUrlVarName, responseVarName, nodeType.toString());
     }
 
     public String generateServiceInstanceRequestToStringVarAssign(final String stringVarName,
@@ -395,94 +334,54 @@ public class Fragments {
                                                                   final int nodeInstanceIndex) throws IOException {
         // <!-- $stringVarName, $ServiceInstanceResponseVarName,
         // $nodeInstanceIndex -->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BpelAssignFromServiceInstanceRequestToStringVar.xml");
-        final File bpelAssignFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpelAssignFile);
-
-        bpelAssignString = bpelAssignString.replace("$stringVarName", stringVarName);
-        bpelAssignString = bpelAssignString.replace("$ServiceInstanceResponseVarName", serviceInstanceResponseVarName);
-        bpelAssignString = bpelAssignString.replace("$nodeInstanceIndex", String.valueOf(nodeInstanceIndex));
-
-        return bpelAssignString;
+        return ASSIGN_FROM_SERVICE_INSTANCE_REQUEST_TO_STRING_VAR.fill(stringVarName, serviceInstanceResponseVarName,
+                                                                       String.valueOf(nodeInstanceIndex));
     }
 
     public Node generateServiceInstanceRequestToStringVarAssignAsNode(final String stringVarName,
                                                                       final String serviceInstanceResponseVarName,
                                                                       final int nodeInstanceIndex) throws IOException,
                                                                                                    SAXException {
-        final String templateString =
-            generateServiceInstanceRequestToStringVarAssign(stringVarName, serviceInstanceResponseVarName,
-                                                            nodeInstanceIndex);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return ASSIGN_FROM_SERVICE_INSTANCE_REQUEST_TO_STRING_VAR.fillAsNode(stringVarName,
+                                                                             serviceInstanceResponseVarName,
+                                                                             String.valueOf(nodeInstanceIndex));
     }
 
     public String generateBPEL4RESTLightGET(final String urlVarName, final String responseVarName) throws IOException {
         // BPEL4RESTLightGET_ServiceInstance_InstanceDataAPI.xml
         // <!-- $serviceInstanceUrlVarName, $ResponseVarName -->
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightGET.xml");
-        final File bpelServiceInstanceGETFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelServiceInstanceGETString = FileUtils.readFileToString(bpelServiceInstanceGETFile);
-
-        bpelServiceInstanceGETString = bpelServiceInstanceGETString.replace("$urlVarName", urlVarName);
-        bpelServiceInstanceGETString = bpelServiceInstanceGETString.replace("$ResponseVarName", responseVarName);
-        return bpelServiceInstanceGETString;
+        return GET.fill(urlVarName, responseVarName);
     }
 
     public Node generateBPEL4RESTLightGETAsNode(final String serviceInstanceUrlVarName,
                                                 final String responseVarName) throws IOException, SAXException {
-        final String templateString = generateBPEL4RESTLightGET(serviceInstanceUrlVarName, responseVarName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return GET.fillAsNode(serviceInstanceUrlVarName, responseVarName);
     }
 
     public String generateAssignFromInputMessageToStringVariable(final String inputMessageElementLocalName,
                                                                  final String stringVariableName) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BpelAssignFromInputToStringVar.xml");
-        final File bpelAssignFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpelAssignFile);
         // <!-- $inputElementLocalName, $StringVariableName, $assignName -->
-        bpelAssignString = bpelAssignString.replace("$inputElementLocalName", inputMessageElementLocalName);
-        bpelAssignString = bpelAssignString.replace("$StringVariableName", stringVariableName);
-        bpelAssignString =
-            bpelAssignString.replace("$assignName", "assignFromInputToString" + System.currentTimeMillis());
-        return bpelAssignString;
+        return ASSIGN_FROM_INPUT_TO_STRING_VAR.fill(inputMessageElementLocalName, stringVariableName,
+                                                    "assignFromInputToString" + System.currentTimeMillis());
     }
 
     public Node generateAssignFromInputMessageToStringVariableAsNode(final String inputMessageElementLocalName,
                                                                      final String stringVariableName) throws IOException,
                                                                                                       SAXException {
-        final String templateString =
-            generateAssignFromInputMessageToStringVariable(inputMessageElementLocalName, stringVariableName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return ASSIGN_FROM_INPUT_TO_STRING_VAR.fillAsNode(inputMessageElementLocalName, stringVariableName,
+                                                          "assignFromInputToString" + System.currentTimeMillis());
     }
 
     public String generateCopyFromStringVarToAnyTypeVar(final String propertyVarName,
                                                         final String nodeInstancePropertyRequestVarName,
                                                         final String nodeInstancePropertyLocalName,
                                                         final String nodeInstancePropertyNamespace) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BpelCopyFromPropertyVarToNodeInstanceProperty.xml");
-        final File bpelAssignFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpelAssignString = FileUtils.readFileToString(bpelAssignFile);
         // <!-- $PropertyVarName, $NodeInstancePropertyRequestVarName,
         // $NodeInstancePropertyLocalName, $NodeInstancePropertyNamespace -->
-        bpelAssignString = bpelAssignString.replace("$PropertyVarName", propertyVarName);
-        bpelAssignString =
-            bpelAssignString.replace("$NodeInstancePropertyRequestVarName", nodeInstancePropertyRequestVarName);
-        bpelAssignString = bpelAssignString.replace("$NodeInstancePropertyLocalName", nodeInstancePropertyLocalName);
-        bpelAssignString = bpelAssignString.replace("$NodeInstancePropertyNamespace", nodeInstancePropertyNamespace);
-        return bpelAssignString;
+        return COPY_FROM_PROPERTY_VAR_TO_NODE_INSTANCE_PROPERTY.fill(propertyVarName,
+                                                                     nodeInstancePropertyRequestVarName,
+                                                                     nodeInstancePropertyLocalName,
+                                                                     nodeInstancePropertyNamespace);
     }
 
     public Node generateCopyFromStringVarToAnyTypeVarAsNode(final String propertyVarName,
@@ -490,13 +389,10 @@ public class Fragments {
                                                             final String nodeInstancePropertyLocalName,
                                                             final String nodeInstancePropertyNamespace) throws IOException,
                                                                                                         SAXException {
-        final String templateString =
-            generateCopyFromStringVarToAnyTypeVar(propertyVarName, nodeInstancePropertyRequestVarName,
-                                                  nodeInstancePropertyLocalName, nodeInstancePropertyNamespace);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return COPY_FROM_PROPERTY_VAR_TO_NODE_INSTANCE_PROPERTY.fillAsNode(propertyVarName,
+                                                                           nodeInstancePropertyRequestVarName,
+                                                                           nodeInstancePropertyLocalName,
+                                                                           nodeInstancePropertyNamespace);
     }
 
     public Node generateAssignFromPropertyVarToDomMapping(final String nodeInstancePropertyRequestVarName,
@@ -513,12 +409,12 @@ public class Fragments {
         final Node assignNode = doc.getFirstChild();
         for (final String propertyVarName : propertyVarToDomMapping.keySet()) {
             final Node propertyNode = propertyVarToDomMapping.get(propertyVarName);
-            Node copyNode =
-                generateCopyFromStringVarToAnyTypeVarAsNode(propertyVarName, nodeInstancePropertyRequestVarName,
-                                                            propertyNode.getLocalName(),
-                                                            propertyNode.getNamespaceURI());
-
-            copyNode = doc.importNode(copyNode, true);
+            // create the copies directly inside the document of the assign
+            final Node copyNode =
+                COPY_FROM_PROPERTY_VAR_TO_NODE_INSTANCE_PROPERTY.fillAsNode(doc, propertyVarName,
+                                                                            nodeInstancePropertyRequestVarName,
+                                                                            propertyNode.getLocalName(),
+                                                                            propertyNode.getNamespaceURI());
             assignNode.appendChild(copyNode);
         }
 
@@ -527,25 +423,80 @@ public class Fragments {
 
     public String generateInstancesBPEL4RESTLightPUT(final String requestVarName,
                                                      final String instanceURLVarName) throws IOException {
-        final URL url = FrameworkUtil.getBundle(this.getClass()).getBundleContext().getBundle()
-                                     .getResource("BPEL4RESTLightPUT_Instance_InstanceDataAPI.xml");
-        final File bpel4RESTLightPUTFile = new File(FileLocator.toFileURL(url).getPath());
-        String bpel4RESTLightPut = FileUtils.readFileToString(bpel4RESTLightPUTFile);
-
         // <!-- $RequestVarName,$nodeInstanceURLVar -->
-        bpel4RESTLightPut = bpel4RESTLightPut.replace("$RequestVarName", requestVarName);
-        bpel4RESTLightPut = bpel4RESTLightPut.replace("$instanceURLVar", instanceURLVarName);
-        return bpel4RESTLightPut;
+        return PUT_INSTANCE.fill(requestVarName, instanceURLVarName);
     }
 
     public Node generateInstancesBPEL4RESTLightPUTAsNode(final String requestVarName,
                                                          final String instanceURLVarName) throws IOException,
                                                                                           SAXException {
-        final String templateString = generateInstancesBPEL4RESTLightPUT(requestVarName, instanceURLVarName);
-        final InputSource is = new InputSource();
-        is.setCharacterStream(new StringReader(templateString));
-        final Document doc = this.docBuilder.parse(is);
-        return doc.getFirstChild();
+        return PUT_INSTANCE.fillAsNode(requestVarName, instanceURLVarName);
+    }
+
+    /**
+     * Creates a BPEL scope which sends the state and the properties of one node or relationship
+     * template instance with a single POST to the instance data batch resource of the service
+     * instance, instead of a PUT on the state and a GET and PUT on the properties of the instance.
+     *
+     * @param serviceInstanceURLVarName the variable containing the URL of the service instance
+     * @param requestVarName the variable to build the batch request in
+     * @param responseVarName the variable to hold the response
+     * @param entryName the local name of the batch entry, i.e. NodeTemplateInstance or
+     *        RelationshipTemplateInstance
+     * @param instanceIDVarName the variable containing the id of the instance to update
+     * @param stateVarName the variable containing the state to set
+     * @param propertiesElement the properties of the template, used as skeleton of the properties to
+     *        send, may be null if the template has no properties
+     * @param propertyVarToDomMapping a mapping from property variable names to the property elements
+     *        of the skeleton to fill them into. Only these properties are sent, the container merges
+     *        them into the current properties of the instance.
+     * @return a DOM Node containing the BPEL scope
+     * @throws IOException is thrown when reading internal files fails
+     * @throws SAXException is thrown when parsing internal files fails
+     */
+    public Node generateInstanceDataBatchPOSTAsNode(final String serviceInstanceURLVarName,
+                                                    final String requestVarName, final String responseVarName,
+                                                    final String entryName, final String instanceIDVarName,
+                                                    final String stateVarName, final Node propertiesElement,
+                                                    final Map<String, Node> propertyVarToDomMapping) throws IOException,
+                                                                                                     SAXException {
+        final Node scopeNode =
+            POST_INSTANCE_DATA_BATCH.fillAsNode("assignInstanceDataBatch" + System.currentTimeMillis(),
+                                                requestVarName, entryName, instanceIDVarName, stateVarName,
+                                                serviceInstanceURLVarName, responseVarName);
+        final Document doc = scopeNode.getOwnerDocument();
+
+        // the skeleton of the request, the id and the state are copied into it at runtime
+        final Element request = doc.createElement("api:InstanceDataBatchRequest");
+        request.setAttribute("xmlns:api", OPENTOSCA_API_NAMESPACE);
+        final Element entry = doc.createElement("api:" + entryName);
+        entry.setAttribute("id", "0");
+        entry.setAttribute("state", "INITIAL");
+        request.appendChild(entry);
+        if (propertiesElement != null) {
+            final Element properties = doc.createElement("api:Properties");
+            final Node propertiesSkeleton = doc.importNode(propertiesElement, false);
+            for (Node property = propertiesElement.getFirstChild(); property != null;
+                 property = property.getNextSibling()) {
+                if (property.getNodeType() == Node.ELEMENT_NODE && propertyVarToDomMapping.containsValue(property)) {
+                    propertiesSkeleton.appendChild(doc.importNode(property, true));
+                }
+            }
+            properties.appendChild(propertiesSkeleton);
+            entry.appendChild(properties);
+        }
+        ((Element) scopeNode).getElementsByTagName("bpel:literal").item(0).appendChild(request);
+
+        final Node assignNode = ((Element) scopeNode).getElementsByTagName("bpel:assign").item(0);
+        for (final Map.Entry<String, Node> property : propertyVarToDomMapping.entrySet()) {
+            final Node copyNode =
+                COPY_FROM_PROPERTY_VAR_TO_NODE_INSTANCE_PROPERTY.fillAsNode(doc, property.getKey(), requestVarName,
+                                                                            property.getValue().getLocalName(),
+                                                                            property.getValue().getNamespaceURI());
+            assignNode.appendChild(copyNode);
+        }
+
+        return scopeNode;
     }
 
 }
@@ -15,6 +15,7 @@ import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
+import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.tosca.convention.Interfaces;
 import org.opentosca.container.core.tosca.convention.Types;
 import org.opentosca.planbuilder.core.bpel.context.BPELPlanContext;
@@ -59,6 +60,10 @@ public class Handler {
     private BPELInvokerPlugin invoker;
 
     private final XPathFactory xPathfactory = XPathFactory.newInstance();
+
+    // send the final state and the properties of an instance with one request to the batch resource
+    private final boolean batchInstanceData =
+        Boolean.parseBoolean(Settings.OPENTOSCA_PLANBUILDER_INSTANCEDATA_BATCH);
     
     private final static Logger LOG = LoggerFactory.getLogger(Handler.class);
 
@@ -85,6 +90,16 @@ public class Handler {
         return restCallResponseVarName;
     }
 
+    private String createBatchRequestVar(final BPELPlanContext context) {
+        final String batchRequestVarName = "instanceDataBatchRequest" + context.getIdForNames();
+        final QName batchRequestDeclId =
+            context.importQName(new QName("http://www.w3.org/2001/XMLSchema", "anyType", "xsd"));
+        if (!context.addGlobalVariable(batchRequestVarName, BPELPlan.VariableType.TYPE, batchRequestDeclId)) {
+            return null;
+        }
+        return batchRequestVarName;
+    }
+
     private String createStateVar(final BPELPlanContext context, final String templateId) {
         // create state variable inside scope
         final String stateVarName = ModelUtils.makeValidNCName(templateId) + "_state_" + context.getIdForNames();
@@ -722,7 +737,12 @@ public class Handler {
         // lifecycle (or cloud prov operations) will be in an uninstalled state
         String lastSetState = "INITIAL";
 
-        this.appendStateUpdateToPrePhase(context, nodeInstanceURLVarName, stateVarName, lastSetState);
+        if (this.batchInstanceData) {
+            // the instance was just created in this state, the variable is sent with the batch later
+            this.appendStateAssignAsChild(context, stateVarName, lastSetState, context.getPrePhaseElement());
+        } else {
+            this.appendStateUpdateToPrePhase(context, nodeInstanceURLVarName, stateVarName, lastSetState);
+        }
 
         /*
          * Prov Phase code
@@ -853,7 +873,8 @@ public class Handler {
          * Post Phase code
          */
 
-        if (lastSetState.equals("INITIAL") || lastSetState.equals("CONFIGURED")) {
+        final boolean setFinalState = lastSetState.equals("INITIAL") || lastSetState.equals("CONFIGURED");
+        if (setFinalState) {
             try {
                 // set state
                 String nextState = InstanceStates.getNextStableOperationState(lastSetState);
@@ -866,15 +887,16 @@ public class Handler {
                 Node assignNode = frag.createAssignXpathQueryToStringVarFragmentAsNode("assignFinalNodeState"
                     + System.currentTimeMillis(), "string('" + nextState + "')", stateVarName);
                 assignNode = context.importNode(assignNode);
-
-                // create PUT activity
-                final String bpelString =
-                    this.fragments.generateBPEL4RESTLightPUTInstanceState(nodeInstanceURLVarName, stateVarName);
-                Node extActiv = ModelUtils.string2dom(bpelString);
-                extActiv = context.importNode(extActiv);
-
                 context.getPostPhaseElement().appendChild(assignNode);
-                context.getPostPhaseElement().appendChild(extActiv);
+
+                if (!this.batchInstanceData) {
+                    // create PUT activity
+                    final String bpelString =
+                        this.fragments.generateBPEL4RESTLightPUTInstanceState(nodeInstanceURLVarName, stateVarName);
+                    Node extActiv = ModelUtils.string2dom(bpelString);
+                    extActiv = context.importNode(extActiv);
+                    context.getPostPhaseElement().appendChild(extActiv);
+                }
             }
             catch (final IOException e2) {
                 e2.printStackTrace();
@@ -887,8 +909,16 @@ public class Handler {
             }
         }
 
-        // needs property update only if the node has properties
-        if (hasProps) {
+        if (this.batchInstanceData && (setFinalState || hasProps)) {
+            // send the state and the properties with one request
+            final Map<String, Node> propertyVarNameToDOMMapping =
+                hasProps ? buildMappingsFromVarNameToDomElement(context, nodeTemplate) : new HashMap<>();
+            appendInstanceDataBatch(context, "NodeTemplateInstance", nodeInstanceIDVarName, stateVarName,
+                                    restCallResponseVarName,
+                                    hasProps ? nodeTemplate.getProperties().getDOMElement() : null,
+                                    propertyVarNameToDOMMapping, context.getPostPhaseElement());
+        } else if (hasProps) {
+            // needs property update only if the node has properties
             final Element postPhaseElement = context.getPostPhaseElement();
             // make a GET on the nodeInstance properties
             appendUpdateProperties(context, nodeTemplate, nodeInstanceURLVarName, restCallResponseVarName,
@@ -970,15 +1000,8 @@ public class Handler {
     
     private void appendStateUpdateAsChild(BPELPlanContext context, String nodeRelationInstanceURLVarName,
                                           String stateVarName, String stateToSet, Element parentElement) {
+        this.appendStateAssignAsChild(context, stateVarName, stateToSet, parentElement);
         try {
-            // update state variable to uninstalled
-            final BPELProcessFragments frag = new BPELProcessFragments();
-            Node assignNode =
-                frag.createAssignXpathQueryToStringVarFragmentAsNode("assignSetNodeState" + System.currentTimeMillis(),
-                                                                     "string('" + stateToSet + "')", stateVarName);
-            assignNode = context.importNode(assignNode);
-            parentElement.appendChild(assignNode);
-
             // send state to api
             final String bpelString =
                 this.fragments.generateBPEL4RESTLightPUTInstanceState(nodeRelationInstanceURLVarName, stateVarName);
@@ -997,6 +1020,74 @@ public class Handler {
         }
     }
 
+    private void appendStateAssignAsChild(final BPELPlanContext context, final String stateVarName,
+                                          final String stateToSet, final Element parentElement) {
+        try {
+            // update state variable
+            final BPELProcessFragments frag = new BPELProcessFragments();
+            Node assignNode =
+                frag.createAssignXpathQueryToStringVarFragmentAsNode("assignSetNodeState" + System.currentTimeMillis(),
+                                                                     "string('" + stateToSet + "')", stateVarName);
+            assignNode = context.importNode(assignNode);
+            parentElement.appendChild(assignNode);
+        }
+        catch (final IOException e2) {
+            e2.printStackTrace();
+        }
+        catch (final SAXException e) {
+            e.printStackTrace();
+        }
+        catch (final ParserConfigurationException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Appends a single POST to the instance data batch resource of the service instance which sets
+     * the state and the properties of the node or relationship instance of the given context.
+     *
+     * @param context the context of the node or relationship template
+     * @param entryName the local name of the batch entry, i.e. NodeTemplateInstance or
+     *        RelationshipTemplateInstance
+     * @param instanceIDVarName the variable containing the id of the instance
+     * @param stateVarName the variable containing the state to set
+     * @param restCallResponseVarName the variable to hold the response
+     * @param propertiesElement the properties of the template, may be null
+     * @param propertyVarNameToDOMMapping a mapping from property variable names to the property
+     *        elements of propertiesElement
+     * @param appendAsChildElement the element to append the request to
+     * @return true iff the request was appended
+     */
+    private boolean appendInstanceDataBatch(final BPELPlanContext context, final String entryName,
+                                            final String instanceIDVarName, final String stateVarName,
+                                            final String restCallResponseVarName, final Element propertiesElement,
+                                            final Map<String, Node> propertyVarNameToDOMMapping,
+                                            final Node appendAsChildElement) {
+        final String batchRequestVarName = createBatchRequestVar(context);
+        if (batchRequestVarName == null) {
+            return false;
+        }
+
+        try {
+            Node batchNode =
+                this.fragments.generateInstanceDataBatchPOSTAsNode(context.getServiceInstanceURLVarName(),
+                                                                   batchRequestVarName, restCallResponseVarName,
+                                                                   entryName, instanceIDVarName, stateVarName,
+                                                                   propertiesElement, propertyVarNameToDOMMapping);
+            batchNode = context.importNode(batchNode);
+            appendAsChildElement.appendChild(batchNode);
+        }
+        catch (final IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        catch (final SAXException e) {
+            e.printStackTrace();
+            return false;
+        }
+        return true;
+    }
+
     private void appendProgressionUpdateLogMessage(final BPELPlanContext context, final String templateId) {
 
         final int topologySize = context.getNodeTemplates().size() + context.getRelationshipTemplates().size();
@@ -1531,15 +1622,16 @@ public class Handler {
                                                                                        + System.currentTimeMillis(),
                                                                                    "string('CREATED')", stateVarName);
             assignNode = context.importNode(assignNode);
-
-            // create PUT activity
-            final String bpelString =
-                this.fragments.generateBPEL4RESTLightPUTInstanceState(relationInstanceURLVarName, stateVarName);
-            Node extActiv = ModelUtils.string2dom(bpelString);
-            extActiv = context.importNode(extActiv);
-
             injectionPostElement.appendChild(assignNode);
-            injectionPostElement.appendChild(extActiv);
+
+            if (!this.batchInstanceData) {
+                // create PUT activity
+                final String bpelString =
+                    this.fragments.generateBPEL4RESTLightPUTInstanceState(relationInstanceURLVarName, stateVarName);
+                Node extActiv = ModelUtils.string2dom(bpelString);
+                extActiv = context.importNode(extActiv);
+                injectionPostElement.appendChild(extActiv);
+            }
         }
         catch (final IOException e2) {
             e2.printStackTrace();
@@ -1551,8 +1643,19 @@ public class Handler {
             e.printStackTrace();
         }
 
-        // needs property update only if the relation has properties
-        if (checkProperties(relationshipTemplate.getProperties())) {
+        if (this.batchInstanceData) {
+            // send the state and the properties with one request
+            final boolean hasProps = checkProperties(relationshipTemplate.getProperties());
+            final Map<String, Node> propertyVarNameToDOMMapping =
+                hasProps ? buildMappingsFromVarNameToDomElement(context, relationshipTemplate) : new HashMap<>();
+            if (!appendInstanceDataBatch(context, "RelationshipTemplateInstance", relationInstanceIDVarName,
+                                         stateVarName, restCallResponseVarName,
+                                         hasProps ? relationshipTemplate.getProperties().getDOMElement() : null,
+                                         propertyVarNameToDOMMapping, injectionPostElement)) {
+                return false;
+            }
+        } else if (checkProperties(relationshipTemplate.getProperties())) {
+            // needs property update only if the relation has properties
             // make a GET on the nodeInstance properties
 
             try {
@@ -1755,7 +1858,9 @@ public class Handler {
             if (child.getNodeType() == Node.ELEMENT_NODE) {
                 final String propertyName = child.getLocalName();
                 final String propVarName = context.getVariableNameOfProperty(relationshipTemplate, propertyName);
-                mapping.put(propVarName, child);
+                if (propVarName != null) {
+                    mapping.put(propVarName, child);
+                }
             }
 
         }
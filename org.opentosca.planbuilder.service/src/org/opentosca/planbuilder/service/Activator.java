@@ -43,6 +43,8 @@ public class Activator implements BundleActivator {
      */
     @Override
     public void stop(final BundleContext bundleContext) throws Exception {
+        RunningTasks.shutdown();
+        TaskWorkerRunnable.shutdown();
         Activator.context = null;
     }
 
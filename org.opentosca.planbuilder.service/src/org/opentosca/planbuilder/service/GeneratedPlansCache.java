@@ -0,0 +1,158 @@
+package org.opentosca.planbuilder.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.opentosca.container.core.common.Settings;
+import org.opentosca.planbuilder.service.Util.SelfServiceOptionWrapper;
+
+/**
+ * <p>
+ * Keeps the plans generated for the most recently used CSARs, keyed by the hash of the CSAR file, so
+ * further generation requests for the same CSAR can send the plans generated before instead of
+ * importing the CSAR and generating them again.
+ * </p>
+ * <p>
+ * Plans returned by {@link #get(String)} are in use until they are released. The files of plans
+ * which are replaced or evicted are only deleted once they are not used anymore, so they can be sent
+ * while the cache changes.
+ * </p>
+ */
+public class GeneratedPlansCache {
+
+    private static final int MAX_ENTRIES = Integer.parseInt(Settings.OPENTOSCA_PLANBUILDER_SERVICE_PLAN_CACHE_SIZE);
+
+    private static final Map<String, CachedPlans> CACHE = new LinkedHashMap<String, CachedPlans>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CachedPlans> eldest) {
+            if (size() > MAX_ENTRIES) {
+                eldest.getValue().remove();
+                return true;
+            }
+            return false;
+        }
+    };
+
+
+    /**
+     * @param csarHash the hash of a CSAR file
+     * @return the plans generated for the CSAR or null if there are none or their files are gone. The
+     *         plans must be released with {@link CachedPlans#release()} once they were sent.
+     */
+    public static synchronized CachedPlans get(final String csarHash) {
+        final CachedPlans cachedPlans = GeneratedPlansCache.CACHE.get(csarHash);
+        if (cachedPlans == null) {
+            return null;
+        }
+        for (final GeneratedPlan plan : cachedPlans.plans) {
+            if (!plan.planFile.isFile() || !plan.option.planInputMessageFile.isFile()) {
+                GeneratedPlansCache.CACHE.remove(csarHash).remove();
+                return null;
+            }
+        }
+        cachedPlans.users++;
+        return cachedPlans;
+    }
+
+    /**
+     * Stores the plans generated for a CSAR.
+     *
+     * @param csarHash the hash of the CSAR file
+     * @param plans the plans generated for the CSAR
+     */
+    public static synchronized void put(final String csarHash, final List<GeneratedPlan> plans) {
+        if (MAX_ENTRIES > 0) {
+            final CachedPlans replacedPlans = GeneratedPlansCache.CACHE.put(csarHash, new CachedPlans(plans));
+            if (replacedPlans != null) {
+                replacedPlans.remove();
+            }
+        } else {
+            deleteFiles(plans);
+        }
+    }
+
+    /**
+     * Deletes the temporary directories the plans and their self service options were exported to
+     */
+    private static void deleteFiles(final List<GeneratedPlan> plans) {
+        for (final GeneratedPlan plan : plans) {
+            FileUtils.deleteQuietly(plan.planFile.getParentFile());
+            FileUtils.deleteQuietly(plan.option.planInputMessageFile.getParentFile());
+        }
+    }
+
+
+    /**
+     * The plans generated for a CSAR together with the number of requests sending them
+     */
+    public static class CachedPlans {
+
+        public final List<GeneratedPlan> plans;
+
+        // guarded by the cache
+        private int users = 0;
+        private boolean removed = false;
+
+
+        private CachedPlans(final List<GeneratedPlan> plans) {
+            this.plans = Collections.unmodifiableList(new ArrayList<>(plans));
+        }
+
+        /**
+         * Marks the plans as not used by the caller anymore. Their files are deleted if they were
+         * removed from the cache and are not used by other requests.
+         */
+        public void release() {
+            synchronized (GeneratedPlansCache.class) {
+                this.users--;
+                if (this.removed && this.users == 0) {
+                    deleteFiles(this.plans);
+                }
+            }
+        }
+
+        // called by the cache when the plans are replaced or evicted
+        private void remove() {
+            this.removed = true;
+            if (this.users == 0) {
+                deleteFiles(this.plans);
+            }
+        }
+    }
+
+    /**
+     * A generated plan exported to a file with all data needed to send it
+     */
+    public static class GeneratedPlan {
+
+        public final String name;
+        public final String planType;
+        public final String planLanguage;
+        public final List<String> inputParameters;
+        public final List<String> outputParameters;
+        public final File planFile;
+        public final SelfServiceOptionWrapper option;
+
+
+        public GeneratedPlan(final String name, final String planType, final String planLanguage,
+                             final List<String> inputParameters, final List<String> outputParameters,
+                             final File planFile, final SelfServiceOptionWrapper option) {
+            this.name = name;
+            this.planType = planType;
+            this.planLanguage = planLanguage;
+            this.inputParameters = inputParameters;
+            this.outputParameters = outputParameters;
+            this.planFile = planFile;
+            this.option = option;
+        }
+    }
+}
@@ -3,10 +3,20 @@
  */
 package org.opentosca.planbuilder.service;
 
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.opentosca.container.core.common.Settings;
 import org.opentosca.planbuilder.service.model.PlanGenerationState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Copyright 2015 IAAS University of Stuttgart <br>
@@ -16,19 +26,234 @@ import org.opentosca.planbuilder.service.model.PlanGenerationState;
  * Simple implementation for storing the tasks generated by the PlanBuilder service
  * </p>
  *
+ * <p>
+ * Asynchronous tasks are run by a fixed number of threads. Tasks which can't be run at once wait in a
+ * bounded queue, if the queue is full further tasks are rejected. Finished tasks are removed once
+ * their time to live elapsed. The threads are stopped with the bundle, see {@link #shutdown()}, and
+ * created again when further tasks are submitted.
+ * </p>
+ *
  * @author Kalman Kepes - kepeskn@studi.informatik.uni-stuttgart.de
  *
  */
 public class RunningTasks {
 
-    public static Map<String, PlanGenerationState> tasks = new HashMap<>();
+    final private static Logger LOG = LoggerFactory.getLogger(RunningTasks.class);
+
+    private static final long TTL_MILLIS = Long.parseLong(Settings.OPENTOSCA_PLANBUILDER_SERVICE_TASK_TTL) * 1000;
+
+    private static final long SWEEP_INTERVAL_MILLIS = Math.max(1000, TTL_MILLIS / 10);
+
+    private static final Map<String, Task> TASKS = new ConcurrentHashMap<>();
+
+    private static ThreadPoolExecutor executor;
+
+    private static volatile long lastSweep = System.currentTimeMillis();
+
+
+
+    /**
+     * Stores a new task.
+     *
+     * @param state the state of the task
+     * @return the id of the task
+     */
+    public static String add(final PlanGenerationState state) {
+        sweepIfDue();
+        final Task task = new Task(state);
+        String newId = String.valueOf(System.currentTimeMillis());
+        while (RunningTasks.TASKS.putIfAbsent(newId, task) != null) {
+            newId = String.valueOf(Long.parseLong(newId) + 1);
+        }
+        return newId;
+    }
+
+    /**
+     * Stores a new task and queues it for running it asynchronously.
+     *
+     * @param state the state of the task
+     * @return the id of the task or null if the queue is full and the task was rejected
+     */
+    public static String submit(final PlanGenerationState state) {
+        return RunningTasks.submit(state, new TaskWorkerRunnable(state));
+    }
+
+    static String submit(final PlanGenerationState state, final Runnable worker) {
+        final String newId = RunningTasks.add(state);
+        final ThreadPoolExecutor executor = RunningTasks.getExecutor();
+        try {
+            executor.execute(new QueuedTask(newId, state, worker));
+        }
+        catch (final RejectedExecutionException e) {
+            LOG.warn("Rejected plan generation for CSAR {}, {} tasks are queued already", state.getCsarUrl(),
+                     executor.getQueue().size());
+            RunningTasks.TASKS.remove(newId);
+            return null;
+        }
+        return newId;
+    }
+
+    /**
+     * Waits until a task finished.
+     *
+     * @param id the id of the task
+     * @return false if the task failed unexpectedly or was cancelled, true otherwise
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    public static boolean awaitFinished(final String id) throws InterruptedException {
+        final Task task = RunningTasks.TASKS.get(id);
+        if (task == null) {
+            return true;
+        }
+        task.finished.await();
+        return !task.failed;
+    }
+
+    private static synchronized ThreadPoolExecutor getExecutor() {
+        if (RunningTasks.executor == null) {
+            final int threads = Integer.parseInt(Settings.OPENTOSCA_PLANBUILDER_SERVICE_THREADS);
+            final AtomicInteger count = new AtomicInteger();
+            RunningTasks.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(Integer.parseInt(Settings.OPENTOSCA_PLANBUILDER_SERVICE_QUEUE_SIZE)),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "plan-generation-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+        return RunningTasks.executor;
+    }
+
+    /**
+     * Stops the threads generating plans. Running tasks are interrupted, queued ones are dropped and
+     * marked as finished.
+     */
+    static synchronized void shutdown() {
+        if (RunningTasks.executor != null) {
+            for (final Runnable queued : RunningTasks.executor.shutdownNow()) {
+                final QueuedTask task = (QueuedTask) queued;
+                task.state.currentMessage = "Plan generation was cancelled";
+                RunningTasks.finished(task.id, true);
+            }
+            RunningTasks.executor = null;
+        }
+    }
+
+    /**
+     * Marks a task as finished, i.e., its time to live starts.
+     *
+     * @param id the id of the task
+     */
+    public static void finished(final String id) {
+        RunningTasks.finished(id, false);
+    }
+
+    private static void finished(final String id, final boolean failed) {
+        final Task task = RunningTasks.TASKS.get(id);
+        if (task != null) {
+            task.failed = failed;
+            task.finishedAt = System.currentTimeMillis();
+            task.finished.countDown();
+        }
+    }
+
+    /**
+     * @param id the id of the task
+     * @return the state of the task with its current position in the queue or null if the task is
+     *         unknown or expired
+     */
+    public static PlanGenerationState get(final String id) {
+        sweepIfDue();
+        final Task task = RunningTasks.TASKS.get(id);
+        if (task == null || task.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        task.state.queuePosition = getQueuePosition(id);
+        task.state.updateProgress();
+        return task.state;
+    }
+
+    /**
+     * @param id the id of the task
+     * @return the position (starting at 1) of the task in the queue or null if it's not queued
+     */
+    private static synchronized Integer getQueuePosition(final String id) {
+        if (RunningTasks.executor == null) {
+            return null;
+        }
+        int position = 1;
+        for (final Runnable queued : RunningTasks.executor.getQueue()) {
+            if (((QueuedTask) queued).id.equals(id)) {
+                return position;
+            }
+            position++;
+        }
+        return null;
+    }
+
+    private static void sweepIfDue() {
+        final long now = System.currentTimeMillis();
+        if (now - RunningTasks.lastSweep < SWEEP_INTERVAL_MILLIS) {
+            return;
+        }
+        RunningTasks.lastSweep = now;
+        final Iterator<Task> iterator = RunningTasks.TASKS.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+
+    private static class Task {
+
+        private final PlanGenerationState state;
+
+        // time the task finished, -1 while it's queued or running
+        private volatile long finishedAt = -1;
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private volatile boolean failed = false;
+
+
+        private Task(final PlanGenerationState state) {
+            this.state = state;
+        }
+
+        private boolean isExpired(final long now) {
+            return this.finishedAt >= 0 && now - this.finishedAt > TTL_MILLIS;
+        }
+    }
+
+    private static class QueuedTask implements Runnable {
+
+        private final String id;
+        private final PlanGenerationState state;
+        private final Runnable worker;
+
+
+        private QueuedTask(final String id, final PlanGenerationState state, final Runnable worker) {
+            this.id = id;
+            this.state = state;
+            this.worker = worker;
+        }
 
-    public static String generateId() {
-        final String newId = String.valueOf(System.currentTimeMillis());
-        if (RunningTasks.tasks.containsKey(newId)) {
-            return RunningTasks.generateId();
-        } else {
-            return newId;
+        @Override
+        public void run() {
+            boolean failed = true;
+            try {
+                this.worker.run();
+                failed = false;
+            }
+            catch (final RuntimeException e) {
+                LOG.error("Plan generation for CSAR {} failed", this.state.getCsarUrl(), e);
+                this.state.currentMessage = "Plan generation failed unexpectedly: " + e.getMessage();
+            }
+            finally {
+                RunningTasks.finished(this.id, failed);
+            }
         }
     }
 }
@@ -5,34 +5,53 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import javax.xml.namespace.QName;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.http.Header;
 import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
-import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.entity.EntityBuilder;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
-import org.apache.http.message.BasicHeader;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.util.EntityUtils;
 import org.json.simple.JSONObject;
+import org.opentosca.container.core.common.Settings;
 import org.opentosca.container.core.model.csar.id.CSARID;
-import org.opentosca.container.core.service.IHTTPService;
 import org.opentosca.planbuilder.model.plan.AbstractPlan;
 import org.opentosca.planbuilder.model.plan.bpel.BPELPlan;
+import org.opentosca.planbuilder.service.GeneratedPlansCache.CachedPlans;
+import org.opentosca.planbuilder.service.GeneratedPlansCache.GeneratedPlan;
 import org.opentosca.planbuilder.service.Util.SelfServiceOptionWrapper;
 import org.opentosca.planbuilder.service.model.PlanGenerationState;
 import org.opentosca.planbuilder.service.model.PlanGenerationState.PlanGenerationStates;
@@ -43,6 +62,13 @@ import org.slf4j.LoggerFactory;
  * Copyright 2015 IAAS University of Stuttgart <br>
  * <br>
  *
+ * <p>
+ * Downloads a CSAR, generates its plans and sends them to the given URL. The CSAR is hashed while it
+ * is downloaded, if plans were generated for the same CSAR before, these plans are sent instead of
+ * generating them again. Otherwise the plans of each plan builder are exported and sent concurrently
+ * as soon as the builder is finished.
+ * </p>
+ *
  * @author Kalman Kepes - kepeskn@studi.informatik.uni-stuttgart.de
  *
  */
@@ -52,6 +78,19 @@ public class TaskWorkerRunnable implements Runnable {
 
     final private static Logger LOG = LoggerFactory.getLogger(TaskWorkerRunnable.class);
 
+    /**
+     * Shared by all tasks, so connections to the CSAR repositories and plan receivers are reused
+     */
+    private final static CloseableHttpClient HTTP_CLIENT =
+        HttpClients.custom().setMaxConnTotal(50).setMaxConnPerRoute(10).setRedirectStrategy(new LaxRedirectStrategy())
+                   .build();
+
+    /**
+     * Exports and sends the generated plans of all tasks. The threads are daemons and the pool is shut
+     * down with the bundle, see {@link #shutdown()}, and created again when it's used afterwards.
+     */
+    private static ExecutorService uploadExecutor;
+
 
     public TaskWorkerRunnable(final PlanGenerationState state) {
         this.state = state;
@@ -61,6 +100,30 @@ public class TaskWorkerRunnable implements Runnable {
         return this.state;
     }
 
+    private static synchronized ExecutorService getUploadExecutor() {
+        if (uploadExecutor == null) {
+            final int threads = Integer.parseInt(Settings.OPENTOSCA_PLANBUILDER_SERVICE_UPLOAD_THREADS);
+            final AtomicInteger count = new AtomicInteger();
+            uploadExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "plan-upload-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return uploadExecutor;
+    }
+
+    /**
+     * Stops the threads uploading plans. Uploads still running are interrupted and pending ones are
+     * dropped.
+     */
+    static synchronized void shutdown() {
+        if (uploadExecutor != null) {
+            uploadExecutor.shutdownNow();
+            uploadExecutor = null;
+        }
+    }
+
     public static String read(final InputStream input) throws IOException {
         try (BufferedReader buffer = new BufferedReader(new InputStreamReader(input))) {
             return buffer.lines().collect(Collectors.joining("\n"));
@@ -68,36 +131,179 @@ public class TaskWorkerRunnable implements Runnable {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void run() {
 
         LOG.debug("Starting to download CSAR");
         this.state.currentState = PlanGenerationState.PlanGenerationStates.CSARDOWNLOADING;
-        // download csar
-        final IHTTPService openToscaHttpService = ServiceRegistry.getHTTPService();
 
-        if (openToscaHttpService == null) {
+        final DownloadedCSAR csar;
+        try {
+            LOG.debug("Downloading CSAR " + this.state.getCsarUrl());
+            csar = downloadCSAR();
+        }
+        catch (final IOException e) {
             this.state.currentState = PlanGenerationStates.CSARDOWNLOADFAILED;
-            this.state.currentMessage = "Couldn't aquire internal HTTP Service to download CSAR";
-            LOG.error("Couldn't aquire internal HTTP Service to download CSAR");
+            this.state.currentMessage = "Couldn't download CSAR";
+            LOG.error("Couldn't download CSAR", e);
             return;
         }
-        CSARID csarId = null;
-        InputStream csarInputStream = null;
+
+        this.state.currentState = PlanGenerationStates.CSARDOWNLOADED;
+        this.state.currentMessage = "Downloaded CSAR";
+        LOG.debug("CSAR download finished");
+
         try {
-            LOG.debug("Downloading CSAR " + this.state.getCsarUrl());
+            final CachedPlans cachedPlans = GeneratedPlansCache.get(csar.hash);
+            if (cachedPlans != null) {
+                try {
+                    sendCachedPlans(cachedPlans.plans);
+                }
+                finally {
+                    cachedPlans.release();
+                }
+            } else {
+                generateAndSendPlans(csar);
+            }
+        }
+        finally {
+            try {
+                Files.deleteIfExists(csar.file);
+                Files.deleteIfExists(csar.file.getParent());
+            }
+            catch (final IOException e) {
+                LOG.warn("Couldn't delete downloaded CSAR " + csar.file, e);
+            }
+        }
+    }
 
-            final Map<String, String> headers = new HashMap<>();
+    private void sendCachedPlans(final List<GeneratedPlan> cachedPlans) {
+        this.state.currentState = PlanGenerationStates.PLANSGENERATED;
+        this.state.currentMessage = "Reusing plans generated before for the same CSAR";
+        LOG.debug("Reusing {} plans generated before for the same CSAR", cachedPlans.size());
 
-            headers.put("Accept", "application/zip");
+        final List<Future<GeneratedPlan>> uploads = new ArrayList<>();
+        for (final GeneratedPlan cachedPlan : cachedPlans) {
+            uploads.add(getUploadExecutor().submit(() -> sendPlan(cachedPlan)));
+        }
 
-            final HttpResponse csarResponse = openToscaHttpService.Get(this.state.getCsarUrl().toString(), headers);
+        if (awaitUploads(uploads) != null) {
+            this.state.currentState = PlanGenerationStates.FINISHED;
+            this.state.currentMessage = "Plans where successfully sent.";
+        }
+    }
 
-            csarInputStream = csarResponse.getEntity().getContent();
+    private void generateAndSendPlans(final DownloadedCSAR csar) {
+        LOG.debug("Storing CSAR");
+        final CSARID csarId = Util.storeCSAR(csar.file);
 
+        if (csarId != null) {
+            this.state.currentState = PlanGenerationStates.PLANGENERATING;
+            this.state.currentMessage = "Generating Plan";
+            LOG.debug("Starting to generate Plan");
+        } else {
+            this.state.currentState = PlanGenerationStates.CSARDOWNLOADFAILED;
+            this.state.currentMessage = "Couldn't store CSAR";
+            LOG.error("Couldn't store CSAR");
+            return;
+        }
+
+        // the plans of each builder are sent while the remaining plans are generated
+        final List<Future<GeneratedPlan>> uploads = Collections.synchronizedList(new ArrayList<>());
+        try {
+            Util.startPlanBuilder(csarId, plans -> {
+                for (final AbstractPlan plan : plans) {
+                    uploads.add(getUploadExecutor().submit(() -> exportAndSendPlan((BPELPlan) plan)));
+                }
+            });
+
+            if (uploads.isEmpty()) {
+                this.state.currentState = PlanGenerationStates.PLANGENERATIONFAILED;
+                this.state.currentMessage = "No plans could be generated";
+                LOG.error("No plans could be generated");
+                return;
+            }
+
+            this.state.currentState = PlanGenerationStates.PLANSGENERATED;
+            this.state.currentMessage = "Stored and generated Plans";
+            LOG.debug("Stored and generated Plans, plans to upload: " + uploads.size());
+
+            final List<GeneratedPlan> generatedPlans = awaitUploads(uploads);
+            if (generatedPlans != null) {
+                GeneratedPlansCache.put(csar.hash, generatedPlans);
+                this.state.currentState = PlanGenerationStates.FINISHED;
+                this.state.currentMessage = "Plans where successfully sent.";
+            }
+        }
+        finally {
+            // the plans must not be exported after the CSAR is deleted
+            for (final Future<GeneratedPlan> upload : uploads) {
+                upload.cancel(true);
+            }
+            Util.deleteCSAR(csarId);
+        }
+    }
+
+    /**
+     * Waits until the given plans are sent. If sending a plan failed, the state is set accordingly and
+     * the remaining uploads are cancelled.
+     *
+     * @param uploads the plans which are sent
+     * @return the sent plans or null if sending a plan failed
+     */
+    private List<GeneratedPlan> awaitUploads(final List<Future<GeneratedPlan>> uploads) {
+        this.state.currentState = PlanGenerationStates.PLANSENDING;
+        this.state.currentMessage = "Sending Plans";
+        LOG.debug("Sending Plans");
+
+        final List<GeneratedPlan> sentPlans = new ArrayList<>();
+        try {
+            for (final Future<GeneratedPlan> upload : uploads) {
+                sentPlans.add(upload.get());
+            }
+        }
+        catch (final ExecutionException e) {
+            if (e.getCause() instanceof PlanSendingException) {
+                this.state.currentState = ((PlanSendingException) e.getCause()).failedState;
+                this.state.currentMessage = e.getCause().getMessage();
+            } else {
+                this.state.currentState = PlanGenerationStates.PLANSENDINGFAILED;
+                this.state.currentMessage = "Couldn't send plan.";
+            }
+            LOG.error("[{}] {}", this.state.currentState, this.state.currentMessage, e.getCause());
+            for (final Future<GeneratedPlan> upload : uploads) {
+                upload.cancel(true);
+            }
+            return null;
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.state.currentState = PlanGenerationStates.PLANSENDINGFAILED;
+            this.state.currentMessage = "Sending the plans was interrupted.";
+            return null;
+        }
+
+        this.state.currentState = PlanGenerationStates.PLANSSENT;
+        this.state.currentMessage = "Sent plans.";
+        LOG.debug("Sent plans.");
+        return sentPlans;
+    }
+
+    /**
+     * Downloads the CSAR into a temporary file and computes its hash while it is streamed to disk
+     */
+    private DownloadedCSAR downloadCSAR() throws IOException {
+        final HttpGet get = new HttpGet(this.state.getCsarUrl().toString());
+        get.addHeader("Accept", "application/zip");
+
+        try (CloseableHttpResponse csarResponse = HTTP_CLIENT.execute(get)) {
+
+            if (csarResponse.getStatusLine().getStatusCode() >= 300 || csarResponse.getEntity() == null) {
+                EntityUtils.consume(csarResponse.getEntity());
+                throw new IOException("Server send status " + csarResponse.getStatusLine().getStatusCode());
+            }
 
             String fileName = null;
-            for (final org.apache.http.Header header : csarResponse.getAllHeaders()) {
+            for (final Header header : csarResponse.getAllHeaders()) {
                 if (header.getName().contains("Content-Disposition")) {
                     for (final HeaderElement elem : header.getElements()) {
                         if (elem.getName().equals("attachment")) {
@@ -121,247 +327,205 @@ public class TaskWorkerRunnable implements Runnable {
                 fileName = fileName.substring(fileName.lastIndexOf("/") + 1);
             }
 
-            this.state.currentState = PlanGenerationStates.CSARDOWNLOADED;
-            this.state.currentMessage = "Downloaded CSAR";
-            LOG.debug("CSAR download finished");
+            // only the name, a file name sent by the server must not point to another directory
+            fileName = Paths.get(fileName).getFileName().toString();
+            fileName = fileName.replace(".csar", "") + ".planbuilder" + System.currentTimeMillis() + ".csar";
 
-            if (fileName == null) {
-                LOG.debug("CSAR Filename couldn't be determined");
-                this.state.currentState = PlanGenerationStates.CSARDOWNLOADFAILED;
-                this.state.currentMessage = "CSAR Filename couldn't be determined";
-                return;
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            }
+            catch (final NoSuchAlgorithmException e) {
+                // every Java platform has to support SHA-256
+                throw new IllegalStateException(e);
             }
 
-            fileName = fileName.replace(".csar", "") + ".planbuilder" + System.currentTimeMillis() + ".csar";
-            // generate plan (assumption: the send csar contains only one
-            // topologytemplate => only one buildPlan will be generated
-            LOG.debug("Storing CSAR");
-            csarId = Util.storeCSAR(fileName, csarInputStream);
-        }
-        catch (final ClientProtocolException e) {
-            this.state.currentState = PlanGenerationStates.CSARDOWNLOADFAILED;
-            this.state.currentMessage = "Couldn't download CSAR";
-            LOG.error("Couldn't download CSAR");
-            return;
-        }
-        catch (final IOException e) {
-            this.state.currentState = PlanGenerationStates.CSARDOWNLOADFAILED;
-            this.state.currentMessage = "Couldn't download CSAR";
-            LOG.error("Couldn't download CSAR");
-            return;
-        }
+            final Path csarFile = Files.createTempDirectory("planbuilder").resolve(fileName);
+            try (InputStream csarInputStream = new DigestInputStream(csarResponse.getEntity().getContent(), digest)) {
+                Files.copy(csarInputStream, csarFile);
+            }
 
-        if (csarInputStream == null) {
-            this.state.currentState = PlanGenerationStates.CSARDOWNLOADFAILED;
-            this.state.currentMessage = "Couldn't download CSAR";
-            LOG.error("Couldn't download CSAR");
-            return;
+            final StringBuilder hash = new StringBuilder();
+            for (final byte b : digest.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+            return new DownloadedCSAR(csarFile, hash.toString());
         }
+    }
 
-        if (csarId != null) {
-            this.state.currentState = PlanGenerationStates.PLANGENERATING;
-            this.state.currentMessage = "Generating Plan";
-            LOG.debug("Starting to generate Plan");
-        } else {
-            this.state.currentState = PlanGenerationStates.CSARDOWNLOADFAILED;
-            this.state.currentMessage = "Couldn't store CSAR";
-            LOG.error("Couldn't store CSAR");
-            Util.deleteCSAR(csarId);
-            return;
+    /**
+     * Exports the plan and the self service option for it to temporary files and sends them
+     */
+    private GeneratedPlan exportAndSendPlan(final BPELPlan buildPlan) throws PlanSendingException {
+        final File planTmpFile = Util.writePlan2TmpFolder(buildPlan);
+        if (planTmpFile == null) {
+            throw new PlanSendingException(PlanGenerationStates.PLANSENDINGFAILED, "Couldn't export plan.");
         }
 
-        final List<AbstractPlan> buildPlans = Util.startPlanBuilder(csarId);
-
-        if (buildPlans.size() <= 0) {
-            this.state.currentState = PlanGenerationStates.PLANGENERATIONFAILED;
-            this.state.currentMessage = "No plans could be generated";
-            Util.deleteCSAR(csarId);
-            LOG.error("No plans could be generated");
-            return;
+        final SelfServiceOptionWrapper option;
+        try {
+            option = Util.generateSelfServiceOption(buildPlan);
         }
-
-        this.state.currentState = PlanGenerationStates.PLANSGENERATED;
-        this.state.currentMessage = "Stored and generated Plans";
-        LOG.debug("Stored and generated Plans");
-
-        final Map<BPELPlan, File> plansToUpload = new HashMap<>();
-
-        for (final AbstractPlan buildPlan : buildPlans) {
-            final File planTmpFile = Util.writePlan2TmpFolder((BPELPlan) buildPlan);
-            plansToUpload.put((BPELPlan) buildPlan, planTmpFile);
+        catch (final IOException e) {
+            throw new PlanSendingException(PlanGenerationStates.OPTIONSENDINGFAILED,
+                "Couldn't generate option to send to winery");
         }
 
-        LOG.debug("Plans to upload: " + buildPlans.size());
-
-        for (final AbstractPlan buildPlan : plansToUpload.keySet()) {
+        final GeneratedPlan generatedPlan =
+            new GeneratedPlan(QName.valueOf(buildPlan.getId()).getLocalPart(), buildPlan.getType().getString(),
+                BPELPlan.bpelNamespace, buildPlan.getWsdl().getInputMessageLocalNames(),
+                buildPlan.getWsdl().getOuputMessageLocalNames(), planTmpFile, option);
 
-            // write to tmp dir, only generating one plan
-            final File planTmpFile = plansToUpload.get(buildPlan);
-
-            final List<String> inputParameters = ((BPELPlan) buildPlan).getWsdl().getInputMessageLocalNames();
-            final List<String> outputParameters = ((BPELPlan) buildPlan).getWsdl().getOuputMessageLocalNames();
+        return sendPlan(generatedPlan);
+    }
 
-            final JSONObject obj = new JSONObject();
+    /**
+     * Creates the plan at the plan post URL, uploads the plan file and sends the self service option
+     */
+    @SuppressWarnings("unchecked")
+    private GeneratedPlan sendPlan(final GeneratedPlan plan) throws PlanSendingException {
+
+        final JSONObject obj = new JSONObject();
+
+        obj.put("name", plan.name);
+        obj.put("planType", plan.planType);
+        obj.put("planLanguage", plan.planLanguage);
+
+        final HashMap<String, List<ParameterTupel>> inputParams = new HashMap<>();
+        inputParams.put("inputParameter", createParameters(plan.inputParameters));
+        obj.put("inputParameters", inputParams);
+
+        final HashMap<String, List<ParameterTupel>> outputParams = new HashMap<>();
+        outputParams.put("outputParameter", createParameters(plan.outputParameters));
+        obj.put("outputParameters", outputParams);
+
+        final HttpPost createPlan = new HttpPost(getState().getPostUrl().toString());
+        createPlan.setEntity(EntityBuilder.create().setText(obj.toJSONString())
+                                          .setContentType(ContentType.APPLICATION_JSON).build());
+        createPlan.addHeader("Accept", "application/json");
+
+        String planLocation;
+        try (CloseableHttpResponse createPlanResponse = HTTP_CLIENT.execute(createPlan)) {
+            EntityUtils.consume(createPlanResponse.getEntity());
+            final Header planLocationHeader = createPlanResponse.getFirstHeader("Location");
+            if (createPlanResponse.getStatusLine().getStatusCode() >= 300 || planLocationHeader == null) {
+                throw new PlanSendingException(PlanGenerationStates.PLANSENDINGFAILED,
+                    "Couldn't send plan. Server send status " + createPlanResponse.getStatusLine().getStatusCode());
+            }
+            planLocation = planLocationHeader.getValue();
+        }
+        catch (final IOException e) {
+            throw new PlanSendingException(PlanGenerationStates.PLANSENDINGFAILED, "Couldn't send plan.");
+        }
 
-            obj.put("name", QName.valueOf(buildPlan.getId()).getLocalPart());
-            obj.put("planType", buildPlan.getType().getString());
-            obj.put("planLanguage", BPELPlan.bpelNamespace);
+        // Remove trailing slash
+        if (planLocation.endsWith("/")) {
+            planLocation = planLocation.substring(0, planLocation.length() - 1);
+        }
 
-            final HashMap<String, List<ParameterTupel>> inputParams = new HashMap<>();
-            inputParams.put("inputParameter", createParameters(inputParameters));
-            obj.put("inputParameters", inputParams);
+        // send file
+        final HttpPut uploadPlan = new HttpPut(planLocation + "/file");
+        uploadPlan.setEntity(MultipartEntityBuilder.create().addPart("file", new FileBody(plan.planFile)).build());
+        final int uploadStatus = execute(uploadPlan, PlanGenerationStates.PLANSENDINGFAILED, "Couldn't send plan.");
+        if (uploadStatus >= 300) {
+            // we assume ,if the status code ranges from 300 to 5xx , that
+            // an error occured
+            throw new PlanSendingException(PlanGenerationStates.PLANSENDINGFAILED,
+                "Couldn't send plan. Server send status " + uploadStatus);
+        }
 
-            final HashMap<String, List<ParameterTupel>> outputParams = new HashMap<>();
-            outputParams.put("outputParameter", createParameters(outputParameters));
-            obj.put("outputParameters", outputParams);
+        final URL optionsUrl;
+        try {
+            optionsUrl = new URL(this.state.getCsarUrl(), "selfserviceportal/options/");
+        }
+        catch (final MalformedURLException e) {
+            throw new PlanSendingException(PlanGenerationStates.OPTIONSENDINGFAILED,
+                "Couldn't send option to winery.");
+        }
+        LOG.debug("Sending the following option to {}: {}", optionsUrl, plan.option);
 
-            final HttpEntity ent =
-                EntityBuilder.create().setText(obj.toJSONString()).setContentType(ContentType.APPLICATION_JSON).build();
+        final MultipartEntityBuilder multipartBuilder = MultipartEntityBuilder.create();
+        try {
+            multipartBuilder.addPart("name", new StringBody(plan.option.option.getName(), ContentType.TEXT_PLAIN));
+            multipartBuilder.addPart("description",
+                                     new StringBody(plan.option.option.getDescription(), ContentType.TEXT_PLAIN));
+            multipartBuilder.addPart("planServiceName",
+                                     new StringBody(plan.option.option.getPlanServiceName(), ContentType.TEXT_PLAIN));
+            multipartBuilder.addPart("planInputMessage", new StringBody(
+                FileUtils.readFileToString(plan.option.planInputMessageFile), ContentType.TEXT_PLAIN));
+        }
+        catch (final IOException e) {
+            throw new PlanSendingException(PlanGenerationStates.OPTIONSENDINGFAILED,
+                "Couldn't generate option to send to winery");
+        }
 
-            HttpResponse createPlanResponse = null;
-            try {
-                createPlanResponse = openToscaHttpService.Post(getState().getPostUrl().toString(), ent,
-                                                               new BasicHeader("Accept", "application/json"),
-                                                               new BasicHeader("Content-Type", "application/json"));
-            }
-            catch (final Exception e) {
-                this.state.currentState = PlanGenerationStates.PLANSENDINGFAILED;
-                this.state.currentMessage =
-                    "Couldn't send plan. Server send status " + createPlanResponse.getStatusLine().getStatusCode();
-                LOG.error("[{}] {}", this.state.currentState, this.state.currentMessage);
-                Util.deleteCSAR(csarId);
-                return;
+        // TODO here we should send a default image, instead of the
+        // message..
+        multipartBuilder.addPart("file", new FileBody(plan.option.planInputMessageFile));
+
+        final HttpPost sendOption = new HttpPost(optionsUrl.toString());
+        sendOption.setEntity(multipartBuilder.build());
+        try (CloseableHttpResponse optionsResponse = HTTP_CLIENT.execute(sendOption)) {
+            EntityUtils.consume(optionsResponse.getEntity());
+            if (optionsResponse.getStatusLine().getStatusCode() >= 300) {
+                throw new PlanSendingException(PlanGenerationStates.OPTIONSENDINGFAILED,
+                    "Couldn't send option to winery. Response: \n  StatusCode: "
+                        + optionsResponse.getStatusLine().getStatusCode() + " \n Reason Phrase: \n"
+                        + optionsResponse.getStatusLine().getReasonPhrase());
             }
+        }
+        catch (final IOException e) {
+            throw new PlanSendingException(PlanGenerationStates.OPTIONSENDINGFAILED,
+                "Couldn't send option to winery.");
+        }
 
-            final org.apache.http.Header planLocationHeader = createPlanResponse.getHeaders("Location")[0];
-
-            String planLocation = planLocationHeader.getValue();
-            // Remove trailing slash
-            if (planLocation.endsWith("/")) {
-                planLocation = planLocation.substring(0, planLocation.length() - 1);
-            }
+        LOG.debug("Sent plan {} and its option.", plan.name);
+        return plan;
+    }
 
-            try {
+    /**
+     * Executes the request with the shared client and releases the connection
+     *
+     * @return the status code of the response
+     */
+    private int execute(final HttpUriRequest request, final PlanGenerationStates failedState,
+                        final String failedMessage) throws PlanSendingException {
+        try (CloseableHttpResponse response = HTTP_CLIENT.execute(request)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        }
+        catch (final IOException e) {
+            throw new PlanSendingException(failedState, failedMessage);
+        }
+    }
 
-                this.state.currentState = PlanGenerationStates.PLANSENDING;
-                this.state.currentMessage = "Sending Plan";
-                LOG.debug("Sending Plan");
-
-                // send file
-                final FileBody bin = new FileBody(planTmpFile);
-                final ContentBody cb = bin;
-                final MultipartEntityBuilder mpEntity = MultipartEntityBuilder.create();
-                mpEntity.addPart("file", cb);
-
-                final HttpResponse uploadResponse = openToscaHttpService.Put(planLocation + "/file", mpEntity.build());
-                if (uploadResponse.getStatusLine().getStatusCode() >= 300) {
-                    // we assume ,if the status code ranges from 300 to 5xx , that
-                    // an error occured
-                    this.state.currentState = PlanGenerationStates.PLANSENDINGFAILED;
-                    this.state.currentMessage =
-                        "Couldn't send plan. Server send status " + uploadResponse.getStatusLine().getStatusCode();
-                    Util.deleteCSAR(csarId);
-                    LOG.error("Couldn't send plan. Server send status "
-                        + uploadResponse.getStatusLine().getStatusCode());
-                    return;
-                }
+    private List<ParameterTupel> createParameters(final List<String> parameters) {
+        return parameters.stream().map(p -> new ParameterTupel(p, "xsd:string", "NO")).collect(Collectors.toList());
+    }
 
+    private static class DownloadedCSAR {
 
-                try {
-                    LOG.debug("Starting to send Options");
-                    this.state.currentState = PlanGenerationStates.OPTIONSENDING;
-                    this.state.currentMessage = "Sending SelfService Option";
+        private final Path file;
+        private final String hash;
 
-                    final URL optionsUrl = new URL(this.state.getCsarUrl(), "selfserviceportal/options/");
-                    LOG.debug("Sending options to " + optionsUrl.toString());
 
-                    final SelfServiceOptionWrapper option = Util.generateSelfServiceOption((BPELPlan) buildPlan);
+        private DownloadedCSAR(final Path file, final String hash) {
+            this.file = file;
+            this.hash = hash;
+        }
+    }
 
-                    LOG.debug("Sending the following option: " + option.toString());
+    private static class PlanSendingException extends Exception {
 
-                    // send plan back
-                    final MultipartEntityBuilder multipartBuilder = MultipartEntityBuilder.create();
+        private static final long serialVersionUID = 1L;
 
-                    try {
-                        multipartBuilder.addPart("name",
-                                                 new StringBody(option.option.getName(), ContentType.TEXT_PLAIN));
-                        multipartBuilder.addPart("description", new StringBody(option.option.getDescription(),
-                            ContentType.TEXT_PLAIN));
-                        multipartBuilder.addPart("planServiceName", new StringBody(option.option.getPlanServiceName(),
-                            ContentType.TEXT_PLAIN));
-                        multipartBuilder.addPart("planInputMessage", new StringBody(
-                            FileUtils.readFileToString(option.planInputMessageFile), ContentType.TEXT_PLAIN));
-                    }
-                    catch (final UnsupportedEncodingException e1) {
-                        this.state.currentState = PlanGenerationStates.OPTIONSENDINGFAILED;
-                        this.state.currentMessage = "Couldn't generate option to send to winery";
-                        Util.deleteCSAR(csarId);
-                        LOG.error("Couldn't generate option request to " + optionsUrl.toString());
-                        return;
-                    }
+        private final PlanGenerationStates failedState;
 
-                    // TODO here we should send a default image, instead of the
-                    // message..
-                    final FileBody fileBody = new FileBody(option.planInputMessageFile);
-                    final ContentBody contentBody = fileBody;
-                    multipartBuilder.addPart("file", contentBody);
-
-                    final HttpResponse optionsResponse =
-                        openToscaHttpService.Post(optionsUrl.toString(), multipartBuilder.build());
-
-                    if (optionsResponse.getStatusLine().getStatusCode() >= 300) {
-                        // we assume ,if the status code ranges from 300 to 5xx , that
-                        // an error occured
-                        this.state.currentState = PlanGenerationStates.OPTIONSENDINGFAILED;
-                        this.state.currentMessage = "Couldn't send option to winery. Response: \n  StatusCode: "
-                            + optionsResponse.getStatusLine().getStatusCode() + " \n Reason Phrase: \n"
-                            + optionsResponse.getStatusLine().getReasonPhrase();
-                        Util.deleteCSAR(csarId);
-                        return;
-                    } else {
-                        this.state.currentState = PlanGenerationStates.OPTIONSENT;
-                        this.state.currentMessage = "Sent option. Everythings okay.";
-                    }
-                }
-                catch (final MalformedURLException e) {
-                    this.state.currentState = PlanGenerationStates.OPTIONSENDINGFAILED;
-                    this.state.currentMessage = "Couldn't send option to winery.";
-                    Util.deleteCSAR(csarId);
-                    return;
-                }
-                catch (final IOException e) {
-                    this.state.currentState = PlanGenerationStates.OPTIONSENDINGFAILED;
-                    this.state.currentMessage = "Couldn't send option to winery.";
-                    Util.deleteCSAR(csarId);
-                    return;
-                }
 
-                this.state.currentState = PlanGenerationStates.PLANSSENT;
-                this.state.currentMessage = "Sent plan.";
-                LOG.debug("Sent plan.");
-            }
-            catch (final ClientProtocolException e) {
-                this.state.currentState = PlanGenerationStates.PLANSENDINGFAILED;
-                this.state.currentMessage = "Couldn't send plan.";
-                Util.deleteCSAR(csarId);
-                LOG.error("Couldn't send plan.");
-                return;
-            }
-            catch (final IOException e) {
-                this.state.currentState = PlanGenerationStates.PLANSENDINGFAILED;
-                this.state.currentMessage = "Couldn't send plan.";
-                Util.deleteCSAR(csarId);
-                LOG.error("Couldn't send plan.");
-                return;
-            }
+        private PlanSendingException(final PlanGenerationStates failedState, final String message) {
+            super(message);
+            this.failedState = failedState;
         }
-        this.state.currentState = PlanGenerationStates.FINISHED;
-        this.state.currentMessage = "Plans where successfully sent.";
-        Util.deleteCSAR(csarId);
-    }
-
-    private List<ParameterTupel> createParameters(final List<String> parameters) {
-        return parameters.stream().map(p -> new ParameterTupel(p, "xsd:string", "NO")).collect(Collectors.toList());
     }
 
     private static class ParameterTupel {
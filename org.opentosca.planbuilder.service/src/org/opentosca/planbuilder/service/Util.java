@@ -8,8 +8,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.namespace.QName;
@@ -89,12 +93,24 @@ public class Util {
      * @return a List of BuildPlans containing the generated BuildPlans
      */
     public static List<AbstractPlan> startPlanBuilder(final CSARID csarId) {
-        final Importer planBuilderImporter = new Importer();
         final List<AbstractPlan> plans = new ArrayList<>();
+        Util.startPlanBuilder(csarId, plans::addAll);
+        return plans;
+    }
+
+    /**
+     * Generates for the given CSAR (denoted by it's id) BuildPlans and passes the plans of each plan
+     * builder to the given consumer as soon as the builder is finished
+     *
+     * @param csarId the Id of the CSAR to generate plans for
+     * @param planConsumer a Consumer which is called with the generated plans of each plan builder
+     */
+    public static void startPlanBuilder(final CSARID csarId, final Consumer<List<AbstractPlan>> planConsumer) {
+        final Importer planBuilderImporter = new Importer();
         try {
             final AbstractDefinitions defs =
                 planBuilderImporter.createContext(ServiceRegistry.getCoreFileService().getCSAR(csarId));
-            plans.addAll(planBuilderImporter.buildPlans(defs, csarId.getFileName()));
+            planBuilderImporter.buildPlans(defs, csarId.getFileName(), planConsumer);
         }
         catch (final SystemException e) {
             // TODO Auto-generated catch block
@@ -104,8 +120,6 @@ public class Util {
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
-
-        return plans;
     }
 
     public static void deleteCSAR(final CSARID csarId) {
@@ -171,13 +185,32 @@ public class Util {
 
     }
 
+    /**
+     * Stores the given CSAR file
+     *
+     * @param csarFile the csar file to store
+     * @return the CSARID of the stored CSAR
+     */
+    public static CSARID storeCSAR(final Path csarFile) {
+        try {
+            return ServiceRegistry.getCoreFileService().storeCSAR(csarFile);
+        }
+        catch (final UserException e) {
+            e.printStackTrace();
+            return null;
+        }
+        catch (final SystemException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public static SelfServiceOptionWrapper generateSelfServiceOption(final BPELPlan buildPlan) throws IOException {
-        final String id = String.valueOf(System.currentTimeMillis());
+        // plans are exported concurrently, thus the id and the directory have to be unique
+        final String id = UUID.randomUUID().toString();
         final ApplicationOption option = new ApplicationOption();
 
-        final File tmpDir = new File(System.getProperty("java.io.tmpdir") + System.getProperty("file.separator")
-            + Long.toString(System.currentTimeMillis()));
-        tmpDir.mkdir();
+        final File tmpDir = Files.createTempDirectory("planbuilder-option").toFile();
 
         final File planInputMessageFile = new File(tmpDir, "plan.input.default." + id + ".xml");
 
@@ -200,14 +233,11 @@ public class Util {
      */
     public static File writePlan2TmpFolder(final BPELPlan buildPlan) {
         final Exporter planBuilderExporter = new Exporter();
-        final File tmpDir = new File(System.getProperty("java.io.tmpdir") + System.getProperty("file.separator")
-            + Long.toString(System.currentTimeMillis()));
-        tmpDir.mkdir();
-
-        final File uploadFile = new File(tmpDir.getAbsoluteFile() + System.getProperty("file.separator")
-            + buildPlan.getBpelProcessElement().getAttribute("name") + ".zip");
 
+        final File uploadFile;
         try {
+            final File tmpDir = Files.createTempDirectory("planbuilder-plan").toFile();
+            uploadFile = new File(tmpDir, buildPlan.getBpelProcessElement().getAttribute("name") + ".zip");
             planBuilderExporter.exportToPlanFile(uploadFile.toURI(), buildPlan);
         }
         catch (final IOException e) {
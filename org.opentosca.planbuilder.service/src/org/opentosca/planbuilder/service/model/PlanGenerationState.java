@@ -24,7 +24,7 @@ public class PlanGenerationState {
 
 
     @XmlElement
-    public String currentMessage = "Task is initializing";
+    public volatile String currentMessage = "Task is initializing";
 
     @XmlElement
     private final URL csarUrl;
@@ -37,7 +37,16 @@ public class PlanGenerationState {
     private final File planTmpFile = null;
 
     @XmlElement
-    public PlanGenerationStates currentState = PlanGenerationStates.INITIALIZED;
+    public volatile PlanGenerationStates currentState = PlanGenerationStates.INITIALIZED;
+
+    // position (starting at 1) of the task in the queue of the generation executor, null if it's not
+    // queued
+    @XmlElement
+    public Integer queuePosition = null;
+
+    // estimated progress of the task in percent
+    @XmlElement
+    public int progress = 0;
 
 
     public PlanGenerationState() {
@@ -58,4 +67,46 @@ public class PlanGenerationState {
         return this.planPostUrl;
     }
 
+    /**
+     * Estimates the progress of the task from its current state. Failed tasks keep the progress of the
+     * step they failed in.
+     */
+    public void updateProgress() {
+        switch (this.currentState) {
+            case INITIALIZED:
+                this.progress = 0;
+                break;
+            case CSARDOWNLOADING:
+                this.progress = 10;
+                break;
+            case CSARDOWNLOADED:
+                this.progress = 25;
+                break;
+            case PLANGENERATING:
+                this.progress = 30;
+                break;
+            case PLANSGENERATED:
+                this.progress = 60;
+                break;
+            case PLANSENDING:
+                this.progress = 70;
+                break;
+            case OPTIONSENDING:
+                this.progress = 80;
+                break;
+            case OPTIONSENT:
+                this.progress = 85;
+                break;
+            case PLANSSENT:
+                this.progress = 90;
+                break;
+            case FINISHED:
+                this.progress = 100;
+                break;
+            default:
+                // failed
+                break;
+        }
+    }
+
 }
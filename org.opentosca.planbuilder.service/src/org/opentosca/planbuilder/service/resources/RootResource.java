@@ -16,7 +16,6 @@ import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
 import org.opentosca.planbuilder.service.RunningTasks;
-import org.opentosca.planbuilder.service.TaskWorkerRunnable;
 import org.opentosca.planbuilder.service.Util;
 import org.opentosca.planbuilder.service.model.GeneratePlanForTopology;
 import org.opentosca.planbuilder.service.model.PlanGenerationState;
@@ -48,8 +47,9 @@ public class RootResource {
 
     @Path("async/{taskId}")
     public TaskResource getTask(@PathParam("taskId") final String taskId) {
-        if (RunningTasks.tasks.containsKey(taskId)) {
-            return new TaskResource(RunningTasks.tasks.get(taskId));
+        final PlanGenerationState state = RunningTasks.get(taskId);
+        if (state != null) {
+            return new TaskResource(state);
         } else {
             return null;
         }
@@ -75,10 +75,11 @@ public class RootResource {
 
         final PlanGenerationState newTaskState = new PlanGenerationState(csarURL, planPostURL);
 
-        final String newId = RunningTasks.generateId();
-        RunningTasks.tasks.put(newId, newTaskState);
-
-        new Thread(new TaskWorkerRunnable(newTaskState)).start();
+        final String newId = RunningTasks.submit(newTaskState);
+        if (newId == null) {
+            // too many queued tasks, the client shall try again later
+            return Response.status(Status.SERVICE_UNAVAILABLE).header("Retry-After", "60").build();
+        }
 
         return Response.created(URI.create(this.uriInfo.getAbsolutePath() + "/" + newId)).build();
     }
@@ -92,6 +93,9 @@ public class RootResource {
      * - Generate BuildPlans for the given CSAR <br>
      * - Send the the first generated BuildPlan to the given PLANPOSTURL using a HTTP POST
      * </p>
+     * <p>
+     * The generation is queued like the asynchronous ones, the request waits until it finished.
+     * </p>
      *
      * @param generatePlanForTopology a wrapper class for the parameters CSARURL and PLANPOSTURL
      * @return a HTTP Response appropriate to the situation (e.g. error, success,..)
@@ -115,24 +119,33 @@ public class RootResource {
 
         final PlanGenerationState newTaskState = new PlanGenerationState(csarURL, planPostURL);
 
-        final String newId = RunningTasks.generateId();
-        RunningTasks.tasks.put(newId, newTaskState);
-
-        final TaskWorkerRunnable worker = new TaskWorkerRunnable(newTaskState);
+        final String newId = RunningTasks.submit(newTaskState);
+        if (newId == null) {
+            // too many queued tasks, the client shall try again later
+            return Response.status(Status.SERVICE_UNAVAILABLE).header("Retry-After", "60").build();
+        }
 
-        worker.run();
+        try {
+            if (!RunningTasks.awaitFinished(newId)) {
+                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(newTaskState).build();
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Response.status(Status.SERVICE_UNAVAILABLE).entity(newTaskState).build();
+        }
 
         // if the worker run is finished, we're either in a failed state or
         // everything worked
-        switch (worker.getState().currentState) {
+        switch (newTaskState.currentState) {
             case CSARDOWNLOADFAILED:
-                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(worker.getState()).build();
+                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(newTaskState).build();
             case PLANGENERATIONFAILED:
-                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(worker.getState()).build();
+                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(newTaskState).build();
             case PLANSENDINGFAILED:
-                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(worker.getState()).build();
+                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(newTaskState).build();
             default:
-                return Response.ok().entity(worker.getState()).build();
+                return Response.ok().entity(newTaskState).build();
         }
     }
 }